@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.examples.java;
+
+import io.netty.buffer.ByteBuf;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.RxEventLoopProvider;
+import io.reactivex.netty.channel.SingleEpollLoopProvider;
+import io.reactivex.netty.channel.SingleNioLoopProvider;
+import io.reactivex.netty.protocol.http.client.HttpClient;
+import io.reactivex.netty.protocol.http.client.HttpClientRequest;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import io.reactivex.netty.protocol.http.server.HttpServer;
+import io.reactivex.netty.protocol.http.server.HttpServerRequest;
+import io.reactivex.netty.protocol.http.server.HttpServerResponse;
+import io.reactivex.netty.protocol.http.server.RequestHandler;
+import rx.Observable;
+import rx.functions.Func1;
+
+/**
+ * Compares the NIO and (when available) epoll transports by sending HTTP requests over loopback, a few connections
+ * at a time, and printing the requests per second for each.
+ */
+public final class TransportLoopbackBenchmark {
+
+    private static final int WARMUP_REQUESTS = 20000;
+    private static final int REQUESTS = 100000;
+    private static final int CONCURRENCY = 16;
+
+    public static void main(String[] args) throws Exception {
+        run("nio", new SingleNioLoopProvider());
+        if (SingleEpollLoopProvider.isAvailable()) {
+            run("epoll", new SingleEpollLoopProvider());
+        } else {
+            System.out.println("Epoll transport is not available, skipping.");
+        }
+    }
+
+    private static void run(String name, RxEventLoopProvider provider) throws Exception {
+        RxEventLoopProvider previous = RxNetty.useEventLoopProvider(provider);
+        HttpServer<ByteBuf, ByteBuf> server = RxNetty.createHttpServer(0, new RequestHandler<ByteBuf, ByteBuf>() {
+            @Override
+            public Observable<Void> handle(HttpServerRequest<ByteBuf> request, HttpServerResponse<ByteBuf> response) {
+                return response.writeStringAndFlush("Hello!");
+            }
+        }).start();
+        HttpClient<ByteBuf, ByteBuf> client = RxNetty.<ByteBuf, ByteBuf>newHttpClientBuilder("localhost",
+                                                                                            server.getServerPort())
+                                                     .withMaxConnections(CONCURRENCY)
+                                                     .withMaxPendingAcquires(CONCURRENCY).build();
+        try {
+            sendRequests(client, WARMUP_REQUESTS);
+            long startTime = System.nanoTime();
+            sendRequests(client, REQUESTS);
+            long durationNanos = System.nanoTime() - startTime;
+            System.out.println(name + ": " + (long) (REQUESTS / (durationNanos / 1e9)) + " requests/second.");
+        } finally {
+            client.shutdown();
+            server.shutdown();
+            RxNetty.useEventLoopProvider(previous);
+        }
+    }
+
+    private static void sendRequests(final HttpClient<ByteBuf, ByteBuf> client, int count) {
+        Observable<Observable<Integer>> requests =
+                Observable.range(0, count).map(new Func1<Integer, Observable<Integer>>() {
+                    @Override
+                    public Observable<Integer> call(Integer requestIndex) {
+                        return client.submit(HttpClientRequest.createGet("/"))
+                                     .flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<ByteBuf>>() {
+                                         @Override
+                                         public Observable<ByteBuf> call(HttpClientResponse<ByteBuf> response) {
+                                             return response.getContent();
+                                         }
+                                     }).count();
+                    }
+                });
+        Observable.merge(requests, CONCURRENCY).toBlockingObservable().last();
+    }
+}
@@ -17,11 +17,13 @@ package io.reactivex.netty;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.socket.DatagramPacket;
-import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.handler.logging.LogLevel;
+import io.reactivex.netty.channel.AbstractRxEventLoopProvider;
 import io.reactivex.netty.channel.ConnectionHandler;
 import io.reactivex.netty.channel.RxEventLoopProvider;
+import io.reactivex.netty.channel.SingleEpollLoopProvider;
 import io.reactivex.netty.channel.SingleNioLoopProvider;
+import io.reactivex.netty.client.CachingHostResolver;
 import io.reactivex.netty.client.ClientBuilder;
 import io.reactivex.netty.client.RxClient;
 import io.reactivex.netty.pipeline.PipelineConfigurator;
@@ -44,7 +46,10 @@ import static io.reactivex.netty.client.MaxConnectionsBasedStrategy.DEFAULT_MAX_
 
 public final class RxNetty {
 
-    private static volatile RxEventLoopProvider rxEventLoopProvider = new SingleNioLoopProvider();
+    private static volatile RxEventLoopProvider rxEventLoopProvider = SingleEpollLoopProvider.isAvailable()
+                                                                      ? new SingleEpollLoopProvider()
+                                                                      : new SingleNioLoopProvider();
+    private static volatile CachingHostResolver hostResolver = new CachingHostResolver();
 
     private RxNetty() {
     }
@@ -54,7 +59,7 @@ public final class RxNetty {
     }
 
     public static <I, O> UdpClientBuilder<I, O> newUdpClientBuilder(String host, int port) {
-        return new UdpClientBuilder<I, O>(host, port).channel(NioDatagramChannel.class)
+        return new UdpClientBuilder<I, O>(host, port).channel(AbstractRxEventLoopProvider.datagramChannelClassOf(getRxEventLoopProvider()))
                                                      .enableWireLogging(LogLevel.DEBUG)
                                                      .eventloop(getRxEventLoopProvider().globalClientEventLoop());
     }
@@ -135,6 +140,8 @@ public final class RxNetty {
 
     /**
      * An implementation of {@link RxEventLoopProvider} to be used by all clients and servers created after this call.
+     * By default, {@link SingleEpollLoopProvider} is used if the epoll transport is available and
+     * {@link SingleNioLoopProvider} otherwise.
      *
      * @param provider New provider to use.
      *
@@ -149,4 +156,22 @@ public final class RxNetty {
     public static RxEventLoopProvider getRxEventLoopProvider() {
         return rxEventLoopProvider;
     }
+
+    /**
+     * A {@link CachingHostResolver} to be used by all clients created after this call, to resolve the host names they
+     * connect to.
+     *
+     * @param resolver New resolver to use.
+     *
+     * @return Existing resolver.
+     */
+    public static CachingHostResolver useHostResolver(CachingHostResolver resolver) {
+        CachingHostResolver oldResolver = hostResolver;
+        hostResolver = resolver;
+        return oldResolver;
+    }
+
+    public static CachingHostResolver getHostResolver() {
+        return hostResolver;
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * A base class for {@link RxEventLoopProvider} implementations that also specify the channel classes that the builders
+ * use by default along with the global event loops. This is required when the event loops are not of the NIO transport
+ * (eg: epoll), since a channel can only be registered with an event loop of the same transport. <br/>
+ * The channel classes default to the NIO transport. The builders use the NIO channel classes for providers that
+ * implement {@link RxEventLoopProvider} directly. <br/>
+ * Connection based servers accept connections on {@link #globalServerAcceptorEventLoop()}, which defaults to
+ * {@link #globalServerEventLoop()}.
+ */
+public abstract class AbstractRxEventLoopProvider implements RxEventLoopProvider {
+
+    /**
+     * The {@link EventLoopGroup} to be used by all connection based {@link io.reactivex.netty.server.RxServer}
+     * instances to accept new connections, if the event loops are not explicitly provided using
+     * {@link io.reactivex.netty.server.ServerBuilder#eventLoops(EventLoopGroup, EventLoopGroup)}. The accepted
+     * connections are served by {@link #globalServerEventLoop()}. <br/>
+     * A separate group makes sure that accepting new connections is not delayed by slow processing on existing
+     * connections.
+     *
+     * @return The {@link EventLoopGroup} to be used for accepting connections by all servers.
+     */
+    public EventLoopGroup globalServerAcceptorEventLoop() {
+        return globalServerEventLoop();
+    }
+
+    /**
+     * The {@link Channel} class to be used by TCP and HTTP clients that use {@link #globalClientEventLoop()}.
+     *
+     * @return The socket channel class compatible with the global event loops.
+     */
+    public Class<? extends Channel> socketChannelClass() {
+        return NioSocketChannel.class;
+    }
+
+    /**
+     * The {@link ServerChannel} class to be used by TCP and HTTP servers that use {@link #globalServerEventLoop()}.
+     *
+     * @return The server socket channel class compatible with the global event loops.
+     */
+    public Class<? extends ServerChannel> serverSocketChannelClass() {
+        return NioServerSocketChannel.class;
+    }
+
+    /**
+     * The {@link Channel} class to be used by UDP clients and servers that use the global event loops.
+     *
+     * @return The datagram channel class compatible with the global event loops.
+     */
+    public Class<? extends Channel> datagramChannelClass() {
+        return NioDatagramChannel.class;
+    }
+
+    /**
+     * Returns {@link #socketChannelClass()} of the passed provider, if it is an {@link AbstractRxEventLoopProvider},
+     * else the NIO socket channel class.
+     *
+     * @param provider Provider of the global event loops.
+     *
+     * @return The socket channel class compatible with the global event loops of the passed provider.
+     */
+    public static Class<? extends Channel> socketChannelClassOf(RxEventLoopProvider provider) {
+        return provider instanceof AbstractRxEventLoopProvider
+               ? ((AbstractRxEventLoopProvider) provider).socketChannelClass()
+               : NioSocketChannel.class;
+    }
+
+    /**
+     * Returns {@link #serverSocketChannelClass()} of the passed provider, if it is an
+     * {@link AbstractRxEventLoopProvider}, else the NIO server socket channel class.
+     *
+     * @param provider Provider of the global event loops.
+     *
+     * @return The server socket channel class compatible with the global event loops of the passed provider.
+     */
+    public static Class<? extends ServerChannel> serverSocketChannelClassOf(RxEventLoopProvider provider) {
+        return provider instanceof AbstractRxEventLoopProvider
+               ? ((AbstractRxEventLoopProvider) provider).serverSocketChannelClass()
+               : NioServerSocketChannel.class;
+    }
+
+    /**
+     * Returns {@link #datagramChannelClass()} of the passed provider, if it is an {@link AbstractRxEventLoopProvider},
+     * else the NIO datagram channel class.
+     *
+     * @param provider Provider of the global event loops.
+     *
+     * @return The datagram channel class compatible with the global event loops of the passed provider.
+     */
+    public static Class<? extends Channel> datagramChannelClassOf(RxEventLoopProvider provider) {
+        return provider instanceof AbstractRxEventLoopProvider
+               ? ((AbstractRxEventLoopProvider) provider).datagramChannelClass()
+               : NioDatagramChannel.class;
+    }
+}
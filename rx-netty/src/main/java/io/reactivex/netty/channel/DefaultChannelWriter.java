@@ -20,12 +20,10 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
-import io.reactivex.netty.protocol.http.MultipleFutureListener;
 import io.reactivex.netty.serialization.ByteTransformer;
 import io.reactivex.netty.serialization.ContentTransformer;
 import io.reactivex.netty.serialization.StringTransformer;
 import rx.Observable;
-import rx.functions.Func1;
 
 /**
  * @author Nitesh Kant
@@ -33,14 +31,16 @@ import rx.functions.Func1;
 public class DefaultChannelWriter<O> implements ChannelWriter<O> {
 
     private final ChannelHandlerContext ctx;
-    private final MultipleFutureListener unflushedWritesListener;
+    private final WriteCompletionTracker writeCompletionTracker;
+    /*Nullable*/ private final FlushConsolidator flushConsolidator;
 
     public DefaultChannelWriter(ChannelHandlerContext context) {
         if (null == context) {
             throw new NullPointerException("Channel context can not be null.");
         }
         ctx = context;
-        unflushedWritesListener = new MultipleFutureListener(ctx);
+        writeCompletionTracker = new WriteCompletionTracker(ctx.channel());
+        flushConsolidator = ctx.channel().attr(FlushConsolidator.FLUSH_CONSOLIDATOR_ATTR).get();
     }
 
     @Override
@@ -68,41 +68,72 @@ public class DefaultChannelWriter<O> implements ChannelWriter<O> {
 
     @Override
     public void writeBytes(byte[] msg) {
-        write(msg, new ByteTransformer());
+        write(msg, ByteTransformer.DEFAULT_INSTANCE);
     }
 
     @Override
     public void writeString(String msg) {
-        write(msg, new StringTransformer());
+        write(msg, StringTransformer.DEFAULT_INSTANCE);
     }
 
     @Override
     public Observable<Void> writeBytesAndFlush(byte[] msg) {
-        write(msg, new ByteTransformer());
+        write(msg, ByteTransformer.DEFAULT_INSTANCE);
         return flush();
     }
 
     @Override
     public Observable<Void> writeStringAndFlush(String msg) {
-        write(msg, new StringTransformer());
+        write(msg, StringTransformer.DEFAULT_INSTANCE);
         return flush();
     }
 
+    /**
+     * Flushes all the pending writes. If a {@link FlushConsolidator} is set on the channel, the flush is merged with
+     * the other flushes on the channel and the returned {@link Observable} completes when the writes are flushed by
+     * the consolidated flush.
+     */
     @Override
     public Observable<Void> flush() {
-        ctx.flush();
-        return unflushedWritesListener.listenForNextCompletion().take(1).flatMap(
-                new Func1<ChannelFuture, Observable<Void>>() {
-                    @Override
-                    public Observable<Void> call(ChannelFuture future) {
-                        return Observable.empty();
-                    }
-                });
+        flushAndForget();
+        return writeCompletionTracker.onFlush();
     }
 
+    /**
+     * Writes and flushes the passed message without tracking the completion of the write, which avoids the overhead of
+     * the {@link Observable} returned by {@link #writeAndFlush(Object)} for callers that never subscribe to it. <br/>
+     * A write failure is propagated as an exception in the channel pipeline.
+     *
+     * @param msg Message to write.
+     */
+    public void writeAndForget(O msg) {
+        writeOnChannel(msg, false);
+        flushAndForget();
+    }
+
+    /**
+     * Same as {@link #writeAndForget(Object)} but for content that is transformed to a {@link ByteBuf} using the passed
+     * transformer.
+     *
+     * @param msg Message to write.
+     * @param transformer Transformer to convert the message to bytes.
+     */
+    public <R> void writeAndForget(R msg, ContentTransformer<R> transformer) {
+        ByteBuf contentBytes = transformer.transform(msg, getAllocator());
+        writeOnChannel(contentBytes, false);
+        flushAndForget();
+    }
+
+    /**
+     * Fails the {@link Observable}s returned by the pending flushes with a
+     * {@link java.util.concurrent.CancellationException}. The writes themselves are failed by the channel when it is
+     * closed.
+     *
+     * @param mayInterruptIfRunning Unused, as the writes are not cancelled.
+     */
     @Override
     public void cancelPendingWrites(boolean mayInterruptIfRunning) {
-        unflushedWritesListener.cancelPendingFutures(mayInterruptIfRunning);
+        writeCompletionTracker.cancelPending();
     }
 
     @Override
@@ -115,11 +146,53 @@ public class DefaultChannelWriter<O> implements ChannelWriter<O> {
     }
 
     protected ChannelFuture writeOnChannel(Object msg) {
-        ChannelFuture writeFuture = getChannel().write(msg); // Calling write on context will be wrong as the context will be of a component not necessarily, the tail of the pipeline.
-        unflushedWritesListener.listen(writeFuture);
+        return writeOnChannel(msg, true);
+    }
+
+    /**
+     * Writes the passed message on the channel.
+     *
+     * @param msg Message to write.
+     * @param trackCompletion If {@code false}, the message is written with a void promise and is not considered by
+     *                        the {@link Observable} returned by the next {@link #flush()}. Write failures are then only
+     *                        propagated as exceptions in the pipeline.
+     *
+     * @return Future for the write, which is a void promise if the completion is not tracked.
+     */
+    protected ChannelFuture writeOnChannel(Object msg, boolean trackCompletion) {
+        if (null != flushConsolidator) {
+            flushConsolidator.onWrite(msg); // Before the write as the message may be released once written.
+        }
+        // Calling write on context will be wrong as the context will be of a component not necessarily, the tail of the pipeline.
+        if (!trackCompletion) {
+            return getChannel().write(msg, getChannel().voidPromise());
+        }
+        ChannelFuture writeFuture = getChannel().write(msg);
+        writeCompletionTracker.track(writeFuture);
         return writeFuture;
     }
 
+    /**
+     * Flushes all the pending writes without tracking their completion.
+     */
+    protected void flushAndForget() {
+        if (null != flushConsolidator) {
+            flushConsolidator.flush();
+        } else {
+            ctx.flush();
+        }
+    }
+
+    /**
+     * Immediately flushes the writes whose flush is held back by the {@link FlushConsolidator} of the channel, if any.
+     * This must be called before closing the channel, as a channel fails its unflushed writes on close.
+     */
+    protected void flushConsolidatedWrites() {
+        if (null != flushConsolidator) {
+            flushConsolidator.flushNow();
+        }
+    }
+
     protected Channel getChannel() {
         return ctx.channel();
     }
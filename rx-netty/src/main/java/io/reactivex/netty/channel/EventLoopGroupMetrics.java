@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of the event loops in an {@link EventLoopGroup}. <br/>
+ * For every event loop, this provides:
+ * <ul>
+ <li>Pending tasks: The number of tasks waiting to be executed by the event loop.</li>
+ <li>Lag: How late a task scheduled on the event loop runs, as measured by a probe task that is scheduled on the
+ event loop every probe interval. A growing lag means that the event loop is busy (eg: because of blocking calls on
+ the event loop) and all the I/O on the loop is delayed.</li>
+ </ul>
+ * Probing stops when the event loop is shutdown.
+ */
+public class EventLoopGroupMetrics {
+
+    private final List<EventLoopMetrics> loopMetrics;
+
+    /**
+     * Creates the metrics for the passed group and starts probing the event loops of the group for lag.
+     *
+     * @param eventLoopGroup Group whose event loops are to be measured.
+     * @param probeIntervalMillis Interval at which the lag of each event loop is probed.
+     */
+    public EventLoopGroupMetrics(EventLoopGroup eventLoopGroup, long probeIntervalMillis) {
+        List<EventLoopMetrics> metrics = new ArrayList<EventLoopMetrics>();
+        for (EventExecutor eventLoop : eventLoopGroup) {
+            EventLoopMetrics loop = new EventLoopMetrics(eventLoop, TimeUnit.MILLISECONDS.toNanos(probeIntervalMillis));
+            loop.scheduleProbe();
+            metrics.add(loop);
+        }
+        loopMetrics = Collections.unmodifiableList(metrics);
+    }
+
+    /**
+     * Metrics of all the event loops in the group.
+     *
+     * @return Metrics per event loop.
+     */
+    public List<EventLoopMetrics> getLoopMetrics() {
+        return loopMetrics;
+    }
+
+    /**
+     * Total pending tasks across all the event loops in the group.
+     *
+     * @return Total pending tasks.
+     */
+    public int getPendingTasks() {
+        int pendingTasks = 0;
+        for (EventLoopMetrics loop : loopMetrics) {
+            pendingTasks += loop.getPendingTasks();
+        }
+        return pendingTasks;
+    }
+
+    /**
+     * Maximum of the last observed lag of all the event loops in the group.
+     *
+     * @return Maximum lag in milliseconds.
+     */
+    public long getMaxLagMillis() {
+        long maxLag = 0;
+        for (EventLoopMetrics loop : loopMetrics) {
+            maxLag = Math.max(maxLag, loop.getLagMillis());
+        }
+        return maxLag;
+    }
+
+    public static class EventLoopMetrics implements Runnable {
+
+        private final EventExecutor eventLoop;
+        private final long probeIntervalNanos;
+        private long expectedProbeNanos; // Only accessed from the event loop after scheduling the first probe.
+        private volatile long lagNanos;
+        private volatile long maxLagNanos;
+
+        private EventLoopMetrics(EventExecutor eventLoop, long probeIntervalNanos) {
+            this.eventLoop = eventLoop;
+            this.probeIntervalNanos = probeIntervalNanos;
+        }
+
+        public EventExecutor getEventLoop() {
+            return eventLoop;
+        }
+
+        /**
+         * Number of tasks waiting to be executed by the event loop.
+         *
+         * @return Number of pending tasks, {@code -1} if the event loop does not provide this number.
+         */
+        public int getPendingTasks() {
+            if (eventLoop instanceof SingleThreadEventExecutor) {
+                return ((SingleThreadEventExecutor) eventLoop).pendingTasks();
+            }
+            return -1;
+        }
+
+        /**
+         * Lag observed by the last probe on the event loop.
+         *
+         * @return Lag in milliseconds.
+         */
+        public long getLagMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(lagNanos);
+        }
+
+        /**
+         * Maximum lag observed by any probe on the event loop.
+         *
+         * @return Maximum lag in milliseconds.
+         */
+        public long getMaxLagMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxLagNanos);
+        }
+
+        @Override
+        public void run() {
+            long lag = Math.max(0, System.nanoTime() - expectedProbeNanos);
+            lagNanos = lag;
+            if (lag > maxLagNanos) {
+                maxLagNanos = lag;
+            }
+            scheduleProbe();
+        }
+
+        private void scheduleProbe() {
+            if (eventLoop.isShuttingDown()) {
+                return;
+            }
+            expectedProbeNanos = System.nanoTime() + probeIntervalNanos;
+            try {
+                eventLoop.schedule(this, probeIntervalNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // Event loop is shutdown, stop probing.
+            }
+        }
+    }
+}
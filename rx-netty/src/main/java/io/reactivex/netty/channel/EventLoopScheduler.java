@@ -0,0 +1,199 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.ScheduledFuture;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.subscriptions.CompositeSubscription;
+import rx.subscriptions.Subscriptions;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link Scheduler} that executes all actions on a netty {@link EventLoop}. <br/>
+ * Processing of a connection observed on the scheduler of the connection's event loop (see
+ * {@link ObservableConnection#getEventLoopScheduler()}) runs on the I/O thread of the connection, so the writes issued
+ * by it are not handed off to the event loop from another thread. <br/>
+ * Like the event loop, this scheduler must only be used for non-blocking work, as any blocking blocks the I/O of all
+ * the channels registered with the event loop. <br/>
+ * Actions are always queued on the event loop, even when scheduled from the event loop itself, so a worker executes
+ * actions in the order they are scheduled without running an action in the middle of another.
+ */
+public class EventLoopScheduler extends Scheduler {
+
+    private static final AttributeKey<EventLoopScheduler> SCHEDULER_ATTR =
+            AttributeKey.valueOf("rxnetty_event_loop_scheduler");
+
+    private final EventLoop eventLoop;
+
+    public EventLoopScheduler(EventLoop eventLoop) {
+        if (null == eventLoop) {
+            throw new NullPointerException("Event loop can not be null.");
+        }
+        this.eventLoop = eventLoop;
+    }
+
+    /**
+     * Returns the scheduler for the event loop of the passed channel, creating it on first use. All callers get the
+     * same scheduler instance for a channel.
+     *
+     * @param channel Channel for which the scheduler is required.
+     *
+     * @return Scheduler for the event loop of the channel.
+     */
+    public static EventLoopScheduler forChannel(Channel channel) {
+        Attribute<EventLoopScheduler> attr = channel.attr(SCHEDULER_ATTR);
+        EventLoopScheduler scheduler = attr.get();
+        if (null == scheduler) {
+            EventLoopScheduler newScheduler = new EventLoopScheduler(channel.eventLoop());
+            scheduler = attr.setIfAbsent(newScheduler);
+            if (null == scheduler) {
+                scheduler = newScheduler;
+            }
+        }
+        return scheduler;
+    }
+
+    public EventLoop getEventLoop() {
+        return eventLoop;
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new EventLoopWorker();
+    }
+
+    @Override
+    public int parallelism() {
+        return 1;
+    }
+
+    private class EventLoopWorker extends Worker {
+
+        /**
+         * Delayed actions scheduled and not yet run or cancelled, so that unsubscribing the worker removes them from the
+         * event loop. Immediate actions are not tracked, as they are queued only briefly and check {@link #unsubscribed}
+         * before running, which saves the cost of tracking for every action.
+         */
+        private final CompositeSubscription outstanding = new CompositeSubscription();
+        private volatile boolean unsubscribed;
+
+        @Override
+        public Subscription schedule(Action0 action) {
+            if (unsubscribed) {
+                return Subscriptions.empty();
+            }
+            ScheduledAction scheduledAction = new ScheduledAction(action, false);
+            try {
+                eventLoop.execute(scheduledAction);
+            } catch (RejectedExecutionException e) {
+                return Subscriptions.empty(); // Event loop is shutdown, there is nothing left to run the action.
+            }
+            return scheduledAction;
+        }
+
+        @Override
+        public Subscription schedule(Action0 action, long delayTime, TimeUnit unit) {
+            if (delayTime <= 0) {
+                return schedule(action);
+            }
+            if (unsubscribed) {
+                return Subscriptions.empty();
+            }
+            ScheduledAction scheduledAction = new ScheduledAction(action, true);
+            outstanding.add(scheduledAction);
+            try {
+                scheduledAction.setFuture(eventLoop.schedule(scheduledAction, delayTime, unit));
+            } catch (RejectedExecutionException e) {
+                outstanding.remove(scheduledAction);
+                return Subscriptions.empty();
+            }
+            return scheduledAction;
+        }
+
+        @Override
+        public void unsubscribe() {
+            unsubscribed = true; // Queued actions check this before running.
+            outstanding.unsubscribe();
+        }
+
+        @Override
+        public boolean isUnsubscribed() {
+            return unsubscribed;
+        }
+
+        private class ScheduledAction implements Runnable, Subscription {
+
+            private final Action0 action;
+            private final boolean delayed; // Only delayed actions are tracked in outstanding.
+            private volatile boolean cancelled;
+            private volatile ScheduledFuture<?> future;
+
+            private ScheduledAction(Action0 action, boolean delayed) {
+                this.action = action;
+                this.delayed = delayed;
+            }
+
+            @Override
+            public void run() {
+                try {
+                    if (!cancelled && !unsubscribed) {
+                        action.call();
+                    }
+                } finally {
+                    if (delayed) {
+                        outstanding.remove(this);
+                    }
+                }
+            }
+
+            @Override
+            public void unsubscribe() {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                if (!delayed) {
+                    return;
+                }
+                outstanding.remove(this);
+                ScheduledFuture<?> scheduledFuture = future;
+                if (null != scheduledFuture) {
+                    scheduledFuture.cancel(false); // Removes the delayed task from the event loop.
+                }
+            }
+
+            private void setFuture(ScheduledFuture<?> scheduledFuture) {
+                future = scheduledFuture;
+                if (cancelled) { // Cancelled before the future was available.
+                    scheduledFuture.cancel(false);
+                }
+            }
+
+            @Override
+            public boolean isUnsubscribed() {
+                return cancelled || unsubscribed;
+            }
+        }
+    }
+}
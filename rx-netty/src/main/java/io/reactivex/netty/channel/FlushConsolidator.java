@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consolidates the flushes requested on a {@link Channel} via {@link DefaultChannelWriter#flush()}, so that all the
+ * writes flushed within one run of the channel's event loop are written by a single flush, ie: a single gathering
+ * write on the socket instead of one write per message. <br/>
+ * A flush is issued immediately once {@code maxConsolidatedFlushes} flushes or {@code maxConsolidatedBytes} written
+ * bytes are pending, so that large streams are not held back. <br/>
+ * Flush consolidation is opt-in and is enabled for a channel by setting an instance of this class as the attribute
+ * {@link #FLUSH_CONSOLIDATOR_ATTR} on the channel, before any {@link DefaultChannelWriter} is created for the channel.
+ * {@link io.reactivex.netty.pipeline.PipelineConfigurators#flushConsolidationConfigurator(int, long)} does this for
+ * every new channel.
+ */
+public class FlushConsolidator {
+
+    public static final AttributeKey<FlushConsolidator> FLUSH_CONSOLIDATOR_ATTR =
+            AttributeKey.valueOf("rxnetty_flush_consolidator");
+
+    private final Channel channel;
+    private final int maxConsolidatedFlushes;
+    private final long maxConsolidatedBytes;
+    private final AtomicInteger pendingFlushes = new AtomicInteger();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Runnable flushTask;
+
+    /**
+     * Creates a new consolidator for the passed channel.
+     *
+     * @param channel Channel for which the flushes are consolidated.
+     * @param maxConsolidatedFlushes Maximum number of flushes merged into one.
+     * @param maxConsolidatedBytes Maximum number of written bytes that can wait for a consolidated flush.
+     */
+    public FlushConsolidator(Channel channel, int maxConsolidatedFlushes, long maxConsolidatedBytes) {
+        if (null == channel) {
+            throw new NullPointerException("Channel can not be null.");
+        }
+        if (maxConsolidatedFlushes <= 0 || maxConsolidatedBytes <= 0) {
+            throw new IllegalArgumentException("Maximum consolidated flushes and bytes must be positive.");
+        }
+        this.channel = channel;
+        this.maxConsolidatedFlushes = maxConsolidatedFlushes;
+        this.maxConsolidatedBytes = maxConsolidatedBytes;
+        flushTask = new Runnable() {
+            @Override
+            public void run() {
+                flushNow();
+            }
+        };
+    }
+
+    /**
+     * Records a write on the channel, which is used to flush eagerly when too many bytes are pending.
+     *
+     * @param msg Message written.
+     */
+    public void onWrite(Object msg) {
+        if (msg instanceof ByteBuf) {
+            pendingBytes.addAndGet(((ByteBuf) msg).readableBytes());
+        } else if (msg instanceof ByteBufHolder) {
+            pendingBytes.addAndGet(((ByteBufHolder) msg).content().readableBytes());
+        }
+    }
+
+    /**
+     * Requests a flush of the channel. The flush happens either immediately, if the thresholds are reached, or after
+     * the tasks currently pending on the event loop of the channel. <br/>
+     * A flush requested outside the event loop always schedules its own flush task, as the write preceding it is
+     * itself queued as a task on the event loop and may be queued behind a flush task scheduled earlier.
+     */
+    public void flush() {
+        if (pendingFlushes.incrementAndGet() >= maxConsolidatedFlushes || pendingBytes.get() >= maxConsolidatedBytes) {
+            flushNow();
+        } else if (!channel.eventLoop().inEventLoop()) {
+            channel.eventLoop().execute(flushTask); // A flush task with nothing left to flush is cheap.
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            channel.eventLoop().execute(flushTask);
+        }
+    }
+
+    /**
+     * Flushes the channel immediately, along with all the writes whose flush is held back by this consolidator. <br/>
+     * This must be called before closing the channel, as a channel fails its unflushed writes on close.
+     */
+    public void flushNow() {
+        /*
+         * Reset before flushing, so that a flush requested concurrently either is covered by this flush or schedules
+         * another one. A scheduled flush that runs after this, flushes nothing, which is cheap.
+         */
+        flushScheduled.set(false);
+        pendingFlushes.set(0);
+        pendingBytes.set(0);
+        channel.flush();
+    }
+}
@@ -15,14 +15,21 @@
  */
 package io.reactivex.netty.channel;
 
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.reactivex.netty.pipeline.BoundedInputBuffer;
 import io.reactivex.netty.pipeline.ReadTimeoutPipelineConfigurator;
 import rx.Observable;
 import rx.Subscriber;
+import rx.functions.Action0;
 import rx.subjects.PublishSubject;
+import rx.subscriptions.Subscriptions;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -37,15 +44,37 @@ public class ObservableConnection<I, O> extends DefaultChannelWriter<O> {
             Observable.error(new IllegalStateException("Connection is already closed."));
     private PublishSubject<I> inputSubject;
     protected final AtomicBoolean closeIssued = new AtomicBoolean();
+    private final Queue<WriteAllSubscriber> writeAllSubscribers = new ConcurrentLinkedQueue<WriteAllSubscriber>();
+    private final AtomicBoolean writabilityListenerAdded = new AtomicBoolean();
+    /*Nullable*/ private final BoundedInputBuffer inputBuffer;
 
     public ObservableConnection(final ChannelHandlerContext ctx) {
         super(ctx);
+        inputBuffer = ctx.channel().attr(BoundedInputBuffer.BOUNDED_INPUT_BUFFER_ATTR).get();
         inputSubject = PublishSubject.create();
         ctx.fireUserEventTriggered(new NewRxConnectionEvent(inputSubject));
     }
 
+    /**
+     * Returns the messages read from this connection. If a {@link BoundedInputBuffer} is set on the channel, the
+     * messages are only delivered as they are requested by the subscribers.
+     *
+     * @return The input of this connection.
+     */
     public Observable<I> getInput() {
-        return inputSubject;
+        return null == inputBuffer ? inputSubject : inputBuffer.demandDriven(inputSubject);
+    }
+
+    /**
+     * Returns a {@link rx.Scheduler} that executes actions on the event loop of this connection. Observing the input
+     * or the results of downstream processing on this scheduler keeps the processing (and the resulting writes) on
+     * the I/O thread of this connection, without any handoff to another thread. <br/>
+     * Only non-blocking work must be executed on this scheduler.
+     *
+     * @return Scheduler for the event loop of this connection.
+     */
+    public EventLoopScheduler getEventLoopScheduler() {
+        return EventLoopScheduler.forChannel(getChannelHandlerContext().channel());
     }
 
     public boolean isCloseIssued() {
@@ -69,13 +98,84 @@ public class ObservableConnection<I, O> extends DefaultChannelWriter<O> {
         }
     }
 
+    /**
+     * Writes and flushes all the items emitted by the passed {@link Observable}. <br/>
+     * The items are requested from the source one at a time and no more items are requested while the underlying
+     * channel is not writable (ie: the amount of data queued for writing is beyond the high water mark of the
+     * channel). Requesting resumes when the channel is writable again (ie: the queued data goes below the low water
+     * mark), so that a fast source does not queue unbounded data for a slow peer. No thread is blocked while the
+     * source is paused. <br/>
+     * A source that does not support backpressure, ie: ignores {@link Subscriber#request(long)}, is written as it
+     * emits. <br/>
+     * The water marks are configured via {@code withWriteBufferWaterMarks()} on the client and server builders.
+     *
+     * @param source Items to write.
+     *
+     * @return Observable which completes when all the items are written or errors if the source errors, any write
+     * fails or the connection is closed before all the items are written.
+     */
+    public Observable<Void> writeAll(final Observable<O> source) {
+        return Observable.create(new Observable.OnSubscribe<Void>() {
+            @Override
+            public void call(final Subscriber<? super Void> subscriber) {
+                final WriteAllSubscriber writer = new WriteAllSubscriber(subscriber);
+                subscriber.add(writer);
+                writer.add(Subscriptions.create(new Action0() {
+                    @Override
+                    public void call() {
+                        writeAllSubscribers.remove(writer);
+                    }
+                }));
+                addWritabilityListener(writer);
+                writer.requestNext(); // Before subscribing, so that the source never sees an unbounded request.
+                source.subscribe(writer);
+            }
+        });
+    }
+
+    /**
+     * Notifies the {@link #writeAll(Observable)} writers that the underlying channel may have become writable or is
+     * closed.
+     */
+    private void channelWritabilityChanged() {
+        for (WriteAllSubscriber writer : writeAllSubscribers) {
+            writer.onWritabilityChanged();
+        }
+    }
+
+    private void addWritabilityListener(WriteAllSubscriber writer) {
+        writeAllSubscribers.add(writer);
+        if (writabilityListenerAdded.compareAndSet(false, true)) {
+            Channel channel = getChannel();
+            channel.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+                    ObservableConnection.this.channelWritabilityChanged();
+                    super.channelWritabilityChanged(ctx);
+                }
+            });
+            channel.closeFuture().addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture future) throws Exception {
+                    channelWritabilityChanged();
+                }
+            });
+        }
+    }
+
+    private boolean isWriteAllowed() {
+        return !closeIssued.get() && getChannel().isActive();
+    }
+
     protected void cleanupConnection() {
         cancelPendingWrites(true);
+        channelWritabilityChanged();
         inputSubject.onCompleted();
         ReadTimeoutPipelineConfigurator.removeTimeoutHandler(getChannelHandlerContext().pipeline());
     }
 
     protected Observable<Void> _closeChannel() {
+        flushConsolidatedWrites(); // Else, the writes waiting for a consolidated flush are failed by the close.
         final ChannelFuture closeFuture = getChannelHandlerContext().close();
         return Observable.create(new Observable.OnSubscribe<Void>() {
             @Override
@@ -97,4 +197,80 @@ public class ObservableConnection<I, O> extends DefaultChannelWriter<O> {
     protected void updateInputSubject(PublishSubject<I> newSubject) {
         inputSubject = newSubject;
     }
+
+    /**
+     * Writes the items of a {@link #writeAll(Observable)} source, requesting the next item only while the channel is
+     * writable.
+     */
+    private final class WriteAllSubscriber extends Subscriber<O> {
+
+        private final Subscriber<? super Void> subscriber;
+        private final AtomicBoolean paused = new AtomicBoolean();
+        private final AtomicBoolean terminated = new AtomicBoolean();
+
+        private WriteAllSubscriber(Subscriber<? super Void> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onCompleted() {
+            if (terminate()) {
+                flush().subscribe(subscriber);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (terminate()) {
+                flushAndForget();
+                subscriber.onError(e);
+            }
+        }
+
+        @Override
+        public void onNext(O msg) {
+            if (terminated.get()) {
+                return;
+            }
+            if (!isWriteAllowed()) {
+                onConnectionClosed();
+                return;
+            }
+            write(msg);
+            flushAndForget();
+            requestNext();
+        }
+
+        private void requestNext() {
+            if (getChannel().isWritable()) {
+                request(1);
+                return;
+            }
+            paused.set(true);
+            onWritabilityChanged(); // The channel may have become writable or closed before the pause was visible.
+        }
+
+        private void onWritabilityChanged() {
+            if (!isWriteAllowed()) {
+                onConnectionClosed();
+            } else if (getChannel().isWritable() && paused.compareAndSet(true, false)) {
+                request(1);
+            }
+        }
+
+        private void onConnectionClosed() {
+            if (terminate()) {
+                unsubscribe();
+                subscriber.onError(new IllegalStateException("Connection closed before all items were written."));
+            }
+        }
+
+        private boolean terminate() {
+            if (terminated.compareAndSet(false, true)) {
+                writeAllSubscribers.remove(this);
+                return true;
+            }
+            return false;
+        }
+    }
 }
@@ -23,7 +23,10 @@ import io.reactivex.netty.server.ServerBuilder;
 
 /**
  * A provider for netty's {@link EventLoopGroup} to be used for RxNetty's clients and servers when they are not
- * provided explicitly.
+ * provided explicitly. <br/>
+ * The builders use NIO channels with these event loops and servers accept connections on
+ * {@link #globalServerEventLoop()}, unless the provider extends {@link AbstractRxEventLoopProvider}, which specifies
+ * the channel classes and a separate acceptor event loop.
  *
  * @author Nitesh Kant
  */
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.channel.EventLoopGroup;
+
+/**
+ * An implementation of {@link RxEventLoopProvider} with separate NIO {@link EventLoopGroup}s for accepting server
+ * connections, serving the accepted connections and for clients, each with its own number of threads. <br/>
+ * Unlike {@link SingleNioLoopProvider}, slow processing on existing connections does not delay accepting new
+ * connections, and server and client I/O do not compete for the same threads. <br/>
+ * The pending tasks and lag of every event loop are available via {@link #getServerAcceptorMetrics()},
+ * {@link #getServerWorkerMetrics()} and {@link #getClientMetrics()}.
+ */
+public class SeparateNioLoopsProvider extends AbstractRxEventLoopProvider {
+
+    public static final long DEFAULT_PROBE_INTERVAL_MILLIS = 1000;
+
+    private final SharedNioEventLoopGroup acceptorGroup;
+    private final SharedNioEventLoopGroup serverWorkerGroup;
+    private final SharedNioEventLoopGroup clientGroup;
+    private final EventLoopGroupMetrics acceptorMetrics;
+    private final EventLoopGroupMetrics serverWorkerMetrics;
+    private final EventLoopGroupMetrics clientMetrics;
+
+    public SeparateNioLoopsProvider(int acceptorThreads, int serverWorkerThreads, int clientThreads) {
+        this(acceptorThreads, serverWorkerThreads, clientThreads, DEFAULT_PROBE_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Creates a new provider.
+     *
+     * @param acceptorThreads Number of threads accepting server connections.
+     * @param serverWorkerThreads Number of threads serving the accepted server connections, {@code 0} for netty's
+     *                            default.
+     * @param clientThreads Number of threads serving client connections, {@code 0} for netty's default.
+     * @param probeIntervalMillis Interval at which the lag of every event loop is probed.
+     */
+    public SeparateNioLoopsProvider(int acceptorThreads, int serverWorkerThreads, int clientThreads,
+                                    long probeIntervalMillis) {
+        if (acceptorThreads < 1) {
+            throw new IllegalArgumentException("Acceptor threads must be at least 1.");
+        }
+        if (serverWorkerThreads < 0 || clientThreads < 0) {
+            throw new IllegalArgumentException("Thread count can not be negative.");
+        }
+        acceptorGroup = new SharedNioEventLoopGroup(acceptorThreads, "rx-acceptor");
+        serverWorkerGroup = new SharedNioEventLoopGroup(serverWorkerThreads, "rx-server-selector");
+        clientGroup = new SharedNioEventLoopGroup(clientThreads, "rx-client-selector");
+        acceptorMetrics = new EventLoopGroupMetrics(acceptorGroup, probeIntervalMillis);
+        serverWorkerMetrics = new EventLoopGroupMetrics(serverWorkerGroup, probeIntervalMillis);
+        clientMetrics = new EventLoopGroupMetrics(clientGroup, probeIntervalMillis);
+    }
+
+    @Override
+    public EventLoopGroup globalClientEventLoop() {
+        clientGroup.retain();
+        return clientGroup;
+    }
+
+    @Override
+    public EventLoopGroup globalServerEventLoop() {
+        serverWorkerGroup.retain();
+        return serverWorkerGroup;
+    }
+
+    @Override
+    public EventLoopGroup globalServerAcceptorEventLoop() {
+        acceptorGroup.retain();
+        return acceptorGroup;
+    }
+
+    public EventLoopGroupMetrics getServerAcceptorMetrics() {
+        return acceptorMetrics;
+    }
+
+    public EventLoopGroupMetrics getServerWorkerMetrics() {
+        return serverWorkerMetrics;
+    }
+
+    public EventLoopGroupMetrics getClientMetrics() {
+        return clientMetrics;
+    }
+}
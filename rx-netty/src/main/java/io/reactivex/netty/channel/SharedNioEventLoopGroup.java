@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.Future;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A reference counted {@link NioEventLoopGroup} that is shutdown only when all the clients and servers using it have
+ * shutdown. Every user of the group must {@link #retain()} it before use.
+ */
+class SharedNioEventLoopGroup extends NioEventLoopGroup {
+
+    private final AtomicInteger refCount = new AtomicInteger();
+
+    SharedNioEventLoopGroup(int threadCount, String threadPoolName) {
+        super(threadCount, new RxDefaultThreadFactory(threadPoolName));
+    }
+
+    @Override
+    public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        if (0 == release()) {
+            return super.shutdownGracefully(quietPeriod, timeout, unit);
+        } else {
+            return terminationFuture();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void shutdown() {
+        if (0 == release()) {
+            super.shutdown();
+        }
+    }
+
+    public int retain() {
+        return refCount.incrementAndGet();
+    }
+
+    public int release() {
+        return refCount.decrementAndGet();
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.util.concurrent.AbstractEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An implementation of {@link RxEventLoopProvider} that uses netty's native epoll transport (available on linux) and
+ * returns the same {@link EventLoopGroup} instance for both client and server, like {@link SingleNioLoopProvider}.
+ * <br/>
+ * The epoll transport is not a compile time dependency of RxNetty, it is used only when
+ * {@code netty-transport-native-epoll} (and a netty version that provides it) is available at runtime, which can be
+ * checked via {@link #isAvailable()}. {@link io.reactivex.netty.RxNetty} uses this provider by default when it is
+ * available and falls back to {@link SingleNioLoopProvider} otherwise.
+ */
+public class SingleEpollLoopProvider extends AbstractRxEventLoopProvider {
+
+    private static final String EPOLL_PACKAGE = "io.netty.channel.epoll.";
+
+    private final SharedEventLoopGroup eventLoop;
+
+    /**
+     * Creates a new provider.
+     *
+     * @throws IllegalStateException If the epoll transport is not available.
+     */
+    public SingleEpollLoopProvider() {
+        if (!isAvailable()) {
+            throw new IllegalStateException("Epoll transport is not available.", EpollClasses.unavailabilityCause);
+        }
+        EventLoopGroup epollGroup;
+        try {
+            epollGroup = (EventLoopGroup) EpollClasses.eventLoopGroupClass
+                    .getConstructor(int.class, ThreadFactory.class)
+                    .newInstance(0, new RxDefaultThreadFactory("rx-epoll"));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create the epoll event loop group.", e);
+        }
+        eventLoop = new SharedEventLoopGroup(epollGroup);
+    }
+
+    /**
+     * Returns whether the epoll transport can be used in this JVM.
+     *
+     * @return {@code true} if the epoll transport is available.
+     */
+    public static boolean isAvailable() {
+        return null == EpollClasses.unavailabilityCause;
+    }
+
+    /**
+     * Returns whether the passed class is the server socket channel class of the epoll transport.
+     *
+     * @param channelClass Channel class to check.
+     *
+     * @return {@code true} if the passed class is the epoll server socket channel.
+     */
+    public static boolean isEpollServerSocketChannel(Class<?> channelClass) {
+        return isAvailable() && EpollClasses.serverSocketChannelClass == channelClass;
+    }
+
+    /**
+     * The {@code SO_REUSEPORT} option of the epoll transport, which allows multiple server sockets to bind the same
+     * port.
+     *
+     * @return The option, or {@code null} if the epoll transport (or this option) is not available.
+     */
+    public static ChannelOption<Boolean> reusePortOption() {
+        return EpollClasses.reusePortOption;
+    }
+
+    @Override
+    public EventLoopGroup globalClientEventLoop() {
+        eventLoop.retain();
+        return eventLoop;
+    }
+
+    @Override
+    public EventLoopGroup globalServerEventLoop() {
+        eventLoop.retain();
+        return eventLoop;
+    }
+
+    @Override
+    public Class<? extends Channel> socketChannelClass() {
+        return EpollClasses.socketChannelClass;
+    }
+
+    @Override
+    public Class<? extends ServerChannel> serverSocketChannelClass() {
+        return EpollClasses.serverSocketChannelClass;
+    }
+
+    @Override
+    public Class<? extends Channel> datagramChannelClass() {
+        return EpollClasses.datagramChannelClass;
+    }
+
+    /**
+     * Loads the epoll transport classes once, so that a missing transport costs a single failed lookup.
+     */
+    private static final class EpollClasses {
+
+        private static Class<?> eventLoopGroupClass;
+        private static Class<? extends Channel> socketChannelClass;
+        private static Class<? extends ServerChannel> serverSocketChannelClass;
+        private static Class<? extends Channel> datagramChannelClass;
+        private static ChannelOption<Boolean> reusePortOption;
+        private static Throwable unavailabilityCause;
+
+        static {
+            try {
+                if (!System.getProperty("os.name", "").toLowerCase().startsWith("linux")) {
+                    throw new UnsupportedOperationException("Epoll transport is only supported on linux.");
+                }
+                ClassLoader classLoader = SingleEpollLoopProvider.class.getClassLoader();
+                Class<?> epoll = Class.forName(EPOLL_PACKAGE + "Epoll", true, classLoader);
+                Method isAvailable = epoll.getMethod("isAvailable");
+                if (!(Boolean) isAvailable.invoke(null)) {
+                    Throwable cause = (Throwable) epoll.getMethod("unavailabilityCause").invoke(null);
+                    throw new UnsupportedOperationException("Epoll native library is not available.", cause);
+                }
+                eventLoopGroupClass = Class.forName(EPOLL_PACKAGE + "EpollEventLoopGroup", true, classLoader);
+                socketChannelClass = Class.forName(EPOLL_PACKAGE + "EpollSocketChannel", true, classLoader)
+                                          .asSubclass(Channel.class);
+                serverSocketChannelClass = Class.forName(EPOLL_PACKAGE + "EpollServerSocketChannel", true, classLoader)
+                                                .asSubclass(ServerChannel.class);
+                datagramChannelClass = Class.forName(EPOLL_PACKAGE + "EpollDatagramChannel", true, classLoader)
+                                            .asSubclass(Channel.class);
+            } catch (Throwable t) { // Includes linkage errors from loading the native library.
+                unavailabilityCause = t;
+            }
+            if (null == unavailabilityCause) {
+                try {
+                    Class<?> optionClass = Class.forName(EPOLL_PACKAGE + "EpollChannelOption", true,
+                                                         SingleEpollLoopProvider.class.getClassLoader());
+                    @SuppressWarnings("unchecked")
+                    ChannelOption<Boolean> option = (ChannelOption<Boolean>) optionClass.getField("SO_REUSEPORT")
+                                                                                        .get(null);
+                    reusePortOption = option;
+                } catch (Exception e) {
+                    // Older versions of the epoll transport do not support SO_REUSEPORT.
+                }
+            }
+        }
+    }
+
+    /**
+     * A reference counted view of an {@link EventLoopGroup} that is shutdown only when all the clients and servers
+     * using it have shutdown. This wraps the group, unlike {@link SharedNioEventLoopGroup}, as the epoll group class
+     * is not available at compile time.
+     */
+    private static class SharedEventLoopGroup extends AbstractEventExecutorGroup implements EventLoopGroup {
+
+        private final EventLoopGroup delegate;
+        private final AtomicInteger refCount = new AtomicInteger();
+
+        private SharedEventLoopGroup(EventLoopGroup delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public EventLoop next() {
+            return delegate.next();
+        }
+
+        @Override
+        public Iterator<EventExecutor> iterator() {
+            return delegate.iterator();
+        }
+
+        @Override
+        public ChannelFuture register(Channel channel) {
+            return delegate.register(channel);
+        }
+
+        @Override
+        public ChannelFuture register(Channel channel, ChannelPromise promise) {
+            return delegate.register(channel, promise);
+        }
+
+        @Override
+        public boolean isShuttingDown() {
+            return delegate.isShuttingDown();
+        }
+
+        @Override
+        public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+            if (0 == release()) {
+                return delegate.shutdownGracefully(quietPeriod, timeout, unit);
+            } else {
+                return terminationFuture();
+            }
+        }
+
+        @Override
+        public Future<?> terminationFuture() {
+            return delegate.terminationFuture();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void shutdown() {
+            if (0 == release()) {
+                delegate.shutdown();
+            }
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+
+        public int retain() {
+            return refCount.incrementAndGet();
+        }
+
+        public int release() {
+            return refCount.decrementAndGet();
+        }
+    }
+}
@@ -16,11 +16,6 @@
 package io.reactivex.netty.channel;
 
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.util.concurrent.Future;
-
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An implementation of {@link RxEventLoopProvider} that returns the same {@link EventLoopGroup} instance for both
@@ -28,9 +23,9 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  * @author Nitesh Kant
  */
-public class SingleNioLoopProvider implements RxEventLoopProvider {
+public class SingleNioLoopProvider extends AbstractRxEventLoopProvider {
 
-    private final SharedNioEventLoopGroup eventLoop = new SharedNioEventLoopGroup();
+    private final SharedNioEventLoopGroup eventLoop = new SharedNioEventLoopGroup(0, "rx-selector");
 
     @Override
     public EventLoopGroup globalClientEventLoop() {
@@ -43,38 +38,4 @@ public class SingleNioLoopProvider implements RxEventLoopProvider {
         eventLoop.retain();
         return eventLoop;
     }
-
-    private static class SharedNioEventLoopGroup extends NioEventLoopGroup {
-
-        private final AtomicInteger refCount = new AtomicInteger();
-
-        public SharedNioEventLoopGroup() {
-            super(0, new RxDefaultThreadFactory("rx-selector"));
-        }
-
-        @Override
-        public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
-            if (0 == release()) {
-                return super.shutdownGracefully(quietPeriod, timeout, unit);
-            } else {
-                return terminationFuture();
-            }
-        }
-
-        @Override
-        @SuppressWarnings("deprecation")
-        public void shutdown() {
-            if (0 == release()) {
-                super.shutdown();
-            }
-        }
-
-        public int retain() {
-            return refCount.incrementAndGet();
-        }
-
-        public int release() {
-            return refCount.decrementAndGet();
-        }
-    }
 }
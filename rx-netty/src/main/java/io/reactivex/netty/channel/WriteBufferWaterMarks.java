@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.channel.ChannelOption;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converts write buffer water marks to netty's channel options, for the client and server builders.
+ */
+public final class WriteBufferWaterMarks {
+
+    public static final int DEFAULT_LOW_WATER_MARK = 32 * 1024; // Same as netty.
+
+    private WriteBufferWaterMarks() {
+    }
+
+    /**
+     * Returns the channel options for the passed water marks, in the order in which they must be applied. Netty rejects
+     * a low water mark above the current high water mark (and vice-versa), so the order must be valid against netty's
+     * defaults.
+     *
+     * @param lowWaterMark Low water mark in bytes.
+     * @param highWaterMark High water mark in bytes.
+     *
+     * @return Channel options to be applied in the iteration order of the returned map.
+     */
+    public static Map<ChannelOption<Integer>, Integer> toChannelOptions(int lowWaterMark, int highWaterMark) {
+        if (lowWaterMark > highWaterMark) {
+            throw new IllegalArgumentException("Low water mark can not be greater than the high water mark.");
+        }
+        Map<ChannelOption<Integer>, Integer> options = new LinkedHashMap<ChannelOption<Integer>, Integer>(2);
+        if (highWaterMark < DEFAULT_LOW_WATER_MARK) {
+            options.put(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, lowWaterMark);
+            options.put(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, highWaterMark);
+        } else {
+            options.put(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, highWaterMark);
+            options.put(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, lowWaterMark);
+        }
+        return options;
+    }
+}
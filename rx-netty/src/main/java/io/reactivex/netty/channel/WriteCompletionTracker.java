@@ -0,0 +1,234 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelPromise;
+import rx.Observable;
+import rx.Subscriber;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the completion of the writes done by a {@link DefaultChannelWriter}, so that a flush can be notified when all
+ * the writes issued before it are complete. <br/>
+ * All the writes between two flushes form a batch, which is tracked by a counter and a single promise, instead of a
+ * queue entry per write and a subject per writer. Flushed batches complete in the order they are flushed, so a flush
+ * covers all the writes issued before it, even the ones flushed by an earlier flush. For the same reason, a failed write
+ * also fails the flushes issued while it was pending, but not the flushes issued after it failed, so that one failed
+ * write does not fail all the later flushes of the connection. <br/>
+ * All the tracking state is confined to the event loop of the channel: calls made from other threads are executed on
+ * the event loop, after the writes issued before them by the same thread. As a flush issued from another thread may
+ * only reach the event loop after a write it covers failed, flushes are numbered when they are issued, to tell whether
+ * the write was pending when the flush was issued.
+ */
+class WriteCompletionTracker {
+
+    private final Channel channel;
+    private final AtomicLong flushesIssued = new AtomicLong();
+    /* Only accessed on the event loop. */
+    private final Queue<Batch> flushedBatches = new ArrayDeque<Batch>(); // Pending completion, oldest first.
+    private Batch current; // Writes since the last flush, null if none.
+    private Throwable lastFailure; // Of any write, with the number of flushes issued when it failed.
+    private long lastFailureAtFlushes;
+
+    WriteCompletionTracker(Channel channel) {
+        this.channel = channel;
+    }
+
+    void track(final ChannelFuture writeFuture) {
+        if (channel.eventLoop().inEventLoop()) {
+            addWrite(writeFuture);
+        } else {
+            executeOnEventLoop(new Runnable() {
+                @Override
+                public void run() {
+                    addWrite(writeFuture);
+                }
+            });
+        }
+    }
+
+    /**
+     * Marks all the writes tracked till now as flushed.
+     *
+     * @return Observable which completes when all the writes tracked till now complete or errors with the cause of the
+     * first failed write.
+     */
+    Observable<Void> onFlush() {
+        final ChannelPromise flushPromise = channel.newPromise();
+        final long flushNumber = flushesIssued.incrementAndGet();
+        if (channel.eventLoop().inEventLoop()) {
+            addFlush(flushPromise, flushNumber);
+        } else if (!executeOnEventLoop(new Runnable() {
+            @Override
+            public void run() {
+                addFlush(flushPromise, flushNumber);
+            }
+        })) {
+            flushPromise.tryFailure(new RejectedExecutionException("Event loop of the channel is shutdown."));
+        }
+        return Observable.create(new Observable.OnSubscribe<Void>() {
+            @Override
+            public void call(final Subscriber<? super Void> subscriber) {
+                flushPromise.addListener(new ChannelFutureListener() {
+                    @Override
+                    public void operationComplete(ChannelFuture future) throws Exception {
+                        if (future.isSuccess()) {
+                            subscriber.onCompleted();
+                        } else {
+                            subscriber.onError(future.cause());
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Fails all the pending flushes with a {@link CancellationException}. The writes themselves are not cancelled and
+     * are failed by the channel when it is closed. <br/>
+     * The flushes issued after this call do not wait for the writes tracked before it.
+     */
+    void cancelPending() {
+        if (channel.eventLoop().inEventLoop()) {
+            cancel();
+        } else {
+            executeOnEventLoop(new Runnable() {
+                @Override
+                public void run() {
+                    cancel();
+                }
+            });
+        }
+    }
+
+    private void addWrite(ChannelFuture writeFuture) {
+        if (null == current) {
+            current = new Batch();
+        }
+        current.pendingWrites++;
+        writeFuture.addListener(current);
+    }
+
+    private void addFlush(ChannelPromise flushPromise, long flushNumber) {
+        // A write that failed after this flush was issued, was tracked before this flush, so this flush covers it.
+        Throwable failedWhilePending = flushNumber <= lastFailureAtFlushes ? lastFailure : null;
+        if (null == current) {
+            if (flushedBatches.isEmpty()) {
+                if (null == failedWhilePending) {
+                    flushPromise.trySuccess(); // Nothing to wait for.
+                } else {
+                    flushPromise.tryFailure(failedWhilePending);
+                }
+                return;
+            }
+            current = new Batch(); // No writes of its own, but completes after the previous flushes.
+        }
+        if (null != failedWhilePending) {
+            current.onFailure(failedWhilePending);
+        }
+        current.flushPromise = flushPromise;
+        flushedBatches.add(current);
+        current = null;
+        completeDoneBatches();
+    }
+
+    private void cancel() {
+        CancellationException cause = new CancellationException("Pending writes cancelled.");
+        Batch batch;
+        while (null != (batch = flushedBatches.poll())) {
+            batch.flushPromise.tryFailure(cause);
+        }
+        current = null;
+    }
+
+    /**
+     * Fails the batch of the failed write and all the batches flushed after it, as the write was pending when their
+     * flushes were issued. The flushes already issued fail right away, without waiting for their other writes. The
+     * flushes issued but not yet on the event loop are failed when they get there.
+     */
+    private void onWriteFailed(Batch batch, Throwable cause) {
+        lastFailure = cause;
+        lastFailureAtFlushes = flushesIssued.get();
+        batch.onFailure(cause);
+        boolean flushedAfter = false;
+        for (Batch flushed : flushedBatches) {
+            if (flushedAfter) {
+                flushed.onFailure(cause);
+            } else {
+                flushedAfter = flushed == batch;
+            }
+        }
+    }
+
+    private void completeDoneBatches() {
+        Batch head;
+        while (null != (head = flushedBatches.peek()) && 0 == head.pendingWrites) {
+            flushedBatches.poll();
+            if (null == head.failure) {
+                head.flushPromise.trySuccess();
+            } else {
+                head.flushPromise.tryFailure(head.failure);
+            }
+        }
+    }
+
+    private boolean executeOnEventLoop(Runnable task) {
+        try {
+            channel.eventLoop().execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false; // Event loop shutdown, the writes are failed by the channel.
+        }
+    }
+
+    /**
+     * Writes issued between two flushes. Only accessed on the event loop.
+     */
+    private final class Batch implements ChannelFutureListener {
+
+        private int pendingWrites;
+        private ChannelPromise flushPromise; // Set once flushed.
+        private Throwable failure;
+
+        private void onFailure(Throwable cause) {
+            if (null == failure) {
+                failure = cause;
+                if (null != flushPromise) {
+                    flushPromise.tryFailure(cause);
+                }
+            }
+        }
+
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+            pendingWrites--;
+            if (!future.isSuccess()) {
+                onWriteFailed(this, future.cause());
+            }
+            if (null != flushPromise) {
+                completeDoneBatches();
+            }
+        }
+    }
+}
@@ -20,16 +20,22 @@ import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
 import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.AbstractRxEventLoopProvider;
 import io.reactivex.netty.channel.RxDefaultThreadFactory;
+import io.reactivex.netty.channel.RxEventLoopProvider;
+import io.reactivex.netty.channel.WriteBufferWaterMarks;
 import io.reactivex.netty.pipeline.PipelineConfigurator;
 import io.reactivex.netty.pipeline.PipelineConfigurators;
 
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Nitesh Kant
@@ -40,6 +46,10 @@ public abstract class AbstractClientBuilder<I, O, B extends AbstractClientBuilde
     private static final ScheduledExecutorService SHARED_IDLE_CLEANUP_SCHEDULER =
             Executors.newScheduledThreadPool(1, new RxDefaultThreadFactory("global-client-idle-conn-cleanup-scheduler"));
 
+    private static final Timer SHARED_IDLE_EVICTION_TIMER = // The worker thread is only started on first use.
+            new HashedWheelTimer(new RxDefaultThreadFactory("global-client-idle-conn-eviction-timer"), 100,
+                                 TimeUnit.MILLISECONDS, 512);
+
     protected final RxClientImpl.ServerInfo serverInfo;
     protected final Bootstrap bootstrap;
     protected PipelineConfigurator<O, I> pipelineConfigurator;
@@ -50,7 +60,19 @@ public abstract class AbstractClientBuilder<I, O, B extends AbstractClientBuilde
     protected PoolLimitDeterminationStrategy limitDeterminationStrategy;
     protected ClientChannelAbstractFactory<O, I> clientChannelFactory;
     protected long idleConnectionsTimeoutMillis = PoolConfig.DEFAULT_CONFIG.getMaxIdleTimeMillis();
+    protected int maxPendingAcquires = PoolConfig.DEFAULT_CONFIG.getMaxPendingAcquires();
+    protected long pendingAcquireTimeoutMillis = PoolConfig.DEFAULT_CONFIG.getPendingAcquireTimeoutMillis();
+    protected PoolConfig.IdleSelectionPolicy idleSelectionPolicy = PoolConfig.DEFAULT_CONFIG.getIdleSelectionPolicy();
     protected ScheduledExecutorService poolIdleCleanupScheduler = SHARED_IDLE_CLEANUP_SCHEDULER;
+    protected Timer poolIdleEvictionTimer;
+    protected int minIdleConnections = PoolConfig.DEFAULT_CONFIG.getMinIdleConnections();
+    protected int warmUpConnections;
+    protected int maxConcurrentConnects = PoolConfig.DEFAULT_CONFIG.getMaxConcurrentConnects();
+    protected long connectBackoffBaseMillis = PoolConfig.DEFAULT_CONFIG.getConnectBackoffBaseMillis();
+    protected long connectBackoffMaxMillis = PoolConfig.DEFAULT_CONFIG.getConnectBackoffMaxMillis();
+    protected long maxConnectionLifetimeMillis = PoolConfig.DEFAULT_CONFIG.getMaxLifetimeMillis();
+    protected long maxConnectionLifetimeJitterMillis = PoolConfig.DEFAULT_CONFIG.getMaxLifetimeJitterMillis();
+    protected int maxConnectionReuseCount = PoolConfig.DEFAULT_CONFIG.getMaxReuseCount();
     protected PoolStatsProvider statsProvider = new PoolStatsImpl();
     protected LogLevel wireLogginLevel;
 
@@ -122,6 +144,167 @@ public abstract class AbstractClientBuilder<I, O, B extends AbstractClientBuilde
         return returnBuilder();
     }
 
+    /**
+     * Makes acquires on an exhausted pool wait (in FIFO order) for a connection to be released, instead of failing
+     * immediately with a {@link PoolExhaustedException}. At most {@code maxPendingAcquires} acquires wait at any time,
+     * any more acquires fail immediately.
+     *
+     * @param maxPendingAcquires Maximum number of acquires that can wait for a connection.
+     *
+     * @return This builder.
+     */
+    public B withMaxPendingAcquires(int maxPendingAcquires) {
+        this.maxPendingAcquires = maxPendingAcquires;
+        return returnBuilder();
+    }
+
+    /**
+     * Maximum time an acquire waits for a connection, if it is waiting as configured by
+     * {@link #withMaxPendingAcquires(int)}. The timeouts are scheduled on the pool idle cleanup scheduler, so with
+     * {@link #withNoIdleConnectionCleanup()} a waiter is only timed out when the pool next tries to hand over a
+     * connection.
+     *
+     * @param pendingAcquireTimeoutMillis Timeout in milliseconds.
+     *
+     * @return This builder.
+     */
+    public B withPendingAcquireTimeoutMillis(long pendingAcquireTimeoutMillis) {
+        this.pendingAcquireTimeoutMillis = pendingAcquireTimeoutMillis;
+        return returnBuilder();
+    }
+
+    /**
+     * Sets the order in which idle connections are picked for reuse. {@link PoolConfig.IdleSelectionPolicy#Lifo} keeps
+     * reusing the most recently used connections, so that the pool shrinks (via the idle timeout) after a traffic spike.
+     *
+     * @param idleSelectionPolicy Selection policy for idle connections.
+     *
+     * @return This builder.
+     */
+    public B withIdleConnectionsSelectionPolicy(PoolConfig.IdleSelectionPolicy idleSelectionPolicy) {
+        this.idleSelectionPolicy = idleSelectionPolicy;
+        return returnBuilder();
+    }
+
+    /**
+     * Sets the minimum number of idle connections in the pool. These connections are opened in the background when
+     * the client is created and again whenever idle connections are evicted from the pool.
+     *
+     * @param minIdleConnections Minimum number of idle connections.
+     *
+     * @return This builder.
+     */
+    public B withMinIdleConnections(int minIdleConnections) {
+        this.minIdleConnections = minIdleConnections;
+        return returnBuilder();
+    }
+
+    /**
+     * Opens the passed number of connections in the background when the client is created, so that the first requests
+     * do not pay the cost of connecting. Unlike {@link #withMinIdleConnections(int)}, these connections are not
+     * replaced when evicted. Use {@link RxClientImpl#warmUpObservable()} to wait for these connections.
+     *
+     * @param connections Number of connections to open.
+     *
+     * @return This builder.
+     */
+    public B warmUp(int connections) {
+        warmUpConnections = connections;
+        return returnBuilder();
+    }
+
+    /**
+     * Limits the number of connect attempts in progress at any time. Acquires that need a new connection when this
+     * limit is reached, wait for a connect attempt to finish (or for a connection to be released to the pool). This
+     * protects the server (and the client's ephemeral ports) from a connect storm when all pending requests reconnect
+     * at the same time, eg: after a server restart.
+     *
+     * @param maxConcurrentConnects Maximum number of concurrent connect attempts.
+     *
+     * @return This builder.
+     */
+    public B withMaxConcurrentConnects(int maxConcurrentConnects) {
+        this.maxConcurrentConnects = maxConcurrentConnects;
+        return returnBuilder();
+    }
+
+    /**
+     * Sets the timeout for establishing a connection, after which the connect fails with a
+     * {@link io.netty.channel.ConnectTimeoutException}
+     *
+     * @param connectTimeoutMillis Connect timeout in milliseconds.
+     *
+     * @return This builder.
+     */
+    public B withConnectTimeoutMillis(int connectTimeoutMillis) {
+        return channelOption(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis);
+    }
+
+    /**
+     * Stops new connect attempts for a while after a connect fails, instead of every acquire retrying the connect. The
+     * backoff starts at {@code baseMillis} and doubles for every consecutive failure, up to {@code maxMillis}. Acquires
+     * that need a new connection during the backoff fail with a {@link java.net.ConnectException} (or wait, if
+     * configured via {@link #withMaxPendingAcquires(int)}). Idle connections are still used.
+     *
+     * @param baseMillis Backoff after the first connect failure.
+     * @param maxMillis Maximum backoff.
+     *
+     * @return This builder.
+     */
+    public B withConnectBackoff(long baseMillis, long maxMillis) {
+        connectBackoffBaseMillis = baseMillis;
+        connectBackoffMaxMillis = maxMillis;
+        return returnBuilder();
+    }
+
+    /**
+     * Closes pooled connections that are older than the passed lifetime, when they are released to the pool, so that
+     * long lived connections do not pin the load to the servers that existed when the connections were opened. <br/>
+     * A random duration, up to {@code jitterMillis}, is subtracted from the lifetime of every connection so that
+     * connections opened together are not closed together.
+     *
+     * @param maxLifetimeMillis Maximum lifetime of a connection.
+     * @param jitterMillis Maximum random reduction in the lifetime of a connection.
+     *
+     * @return This builder.
+     */
+    public B withMaxConnectionLifetime(long maxLifetimeMillis, long jitterMillis) {
+        maxConnectionLifetimeMillis = maxLifetimeMillis;
+        maxConnectionLifetimeJitterMillis = jitterMillis;
+        return returnBuilder();
+    }
+
+    /**
+     * Closes pooled connections that are reused the passed number of times, when they are next released to the pool.
+     *
+     * @param maxReuseCount Maximum number of times a connection is reused.
+     *
+     * @return This builder.
+     */
+    public B withMaxConnectionReuseCount(int maxReuseCount) {
+        maxConnectionReuseCount = maxReuseCount;
+        return returnBuilder();
+    }
+
+    /**
+     * Sets the write buffer water marks of the client connections. A channel is not writable once more than {@code highWaterMark}
+     * bytes are queued for writing and is writable again once the queued bytes go below {@code lowWaterMark}. <br/>
+     * {@link io.reactivex.netty.channel.ObservableConnection#writeAll(rx.Observable)} pauses the source while the
+     * channel is not writable.
+     *
+     * @param lowWaterMark Low water mark in bytes.
+     * @param highWaterMark High water mark in bytes.
+     *
+     * @return This builder.
+     */
+    public B withWriteBufferWaterMarks(int lowWaterMark, int highWaterMark) {
+        for (Map.Entry<ChannelOption<Integer>, Integer> option
+                : WriteBufferWaterMarks.toChannelOptions(lowWaterMark, highWaterMark).entrySet()) {
+            channelOption(option.getKey(), option.getValue());
+        }
+        return returnBuilder();
+    }
+
     public B withConnectionPoolLimitStrategy(PoolLimitDeterminationStrategy limitDeterminationStrategy) {
         this.limitDeterminationStrategy = limitDeterminationStrategy;
         return returnBuilder();
@@ -134,6 +317,31 @@ public abstract class AbstractClientBuilder<I, O, B extends AbstractClientBuilde
 
     public B withNoIdleConnectionCleanup() {
         poolIdleCleanupScheduler = null;
+        poolIdleEvictionTimer = null;
+        return returnBuilder();
+    }
+
+    /**
+     * Evicts idle connections using a shared hashed wheel timer instead of periodically scanning all idle connections
+     * on the pool idle cleanup scheduler. Every connection returned to the pool is scheduled once, for its own idle
+     * timeout (including any keep-alive timeout sent by the server), and the schedule is cancelled when the connection
+     * is reused.
+     *
+     * @return This builder.
+     */
+    public B withIdleConnectionsTimerEviction() {
+        return withPoolIdleEvictionTimer(SHARED_IDLE_EVICTION_TIMER);
+    }
+
+    /**
+     * Same as {@link #withIdleConnectionsTimerEviction()} but uses the passed timer.
+     *
+     * @param poolIdleEvictionTimer Timer to use for evicting idle connections.
+     *
+     * @return This builder.
+     */
+    public B withPoolIdleEvictionTimer(Timer poolIdleEvictionTimer) {
+        this.poolIdleEvictionTimer = poolIdleEvictionTimer;
         return returnBuilder();
     }
 
@@ -178,16 +386,22 @@ public abstract class AbstractClientBuilder<I, O, B extends AbstractClientBuilde
     }
 
     public C build() {
+        if (null != connectionPool && isPoolConfigured()) {
+            // Fail fast, else these options are silently ignored.
+            throw new IllegalStateException("Connection pool options can not be set along with a connection pool.");
+        }
+        RxEventLoopProvider eventLoopProvider = RxNetty.getRxEventLoopProvider();
         if (null == socketChannel) {
-            socketChannel = NioSocketChannel.class;
+            socketChannel = AbstractRxEventLoopProvider.socketChannelClassOf(eventLoopProvider);
             if (null == eventLoopGroup) {
-                eventLoopGroup = RxNetty.getRxEventLoopProvider().globalClientEventLoop();
+                eventLoopGroup = eventLoopProvider.globalClientEventLoop();
             }
         }
 
         if (null == eventLoopGroup) {
-            if (NioSocketChannel.class == socketChannel) {
-                eventLoopGroup = RxNetty.getRxEventLoopProvider().globalClientEventLoop();
+            if (AbstractRxEventLoopProvider.socketChannelClassOf(eventLoopProvider) == socketChannel
+                || AbstractRxEventLoopProvider.datagramChannelClassOf(eventLoopProvider) == socketChannel) {
+                eventLoopGroup = eventLoopProvider.globalClientEventLoop();
             } else {
                 // Fail fast for defaults we do not support.
                 throw new IllegalStateException("Specified a channel class but not the event loop group.");
@@ -196,9 +410,23 @@ public abstract class AbstractClientBuilder<I, O, B extends AbstractClientBuilde
 
         bootstrap.channel(socketChannel).group(eventLoopGroup);
         if (shouldCreateConnectionPool()) {
-            PoolConfig poolConfig = new PoolConfig(idleConnectionsTimeoutMillis);
-            connectionPool = new ConnectionPoolImpl<O, I>(poolConfig, limitDeterminationStrategy,
-                                                          poolIdleCleanupScheduler, statsProvider);
+            PoolConfig poolConfig = new PoolConfig.Builder().maxIdleTimeMillis(idleConnectionsTimeoutMillis)
+                                                            .maxPendingAcquires(maxPendingAcquires)
+                                                            .pendingAcquireTimeoutMillis(pendingAcquireTimeoutMillis)
+                                                            .idleSelectionPolicy(idleSelectionPolicy)
+                                                            .minIdleConnections(minIdleConnections)
+                                                            .maxConcurrentConnects(maxConcurrentConnects)
+                                                            .connectBackoff(connectBackoffBaseMillis,
+                                                                            connectBackoffMaxMillis)
+                                                            .maxLifetime(maxConnectionLifetimeMillis,
+                                                                         maxConnectionLifetimeJitterMillis)
+                                                            .maxReuseCount(maxConnectionReuseCount)
+                                                            .build();
+            ConnectionPoolImpl<O, I> pool = new ConnectionPoolImpl<O, I>(poolConfig, limitDeterminationStrategy,
+                                                                         poolIdleCleanupScheduler, statsProvider,
+                                                                         poolIdleEvictionTimer);
+            pool.setInitialWarmUpConnections(warmUpConnections); // Opened when the client sets up the pool.
+            connectionPool = pool;
         }
 
         if (null != wireLogginLevel) {
@@ -209,8 +437,26 @@ public abstract class AbstractClientBuilder<I, O, B extends AbstractClientBuilde
     }
 
     protected boolean shouldCreateConnectionPool() {
-        return null == connectionPool && null != limitDeterminationStrategy
-               || idleConnectionsTimeoutMillis != PoolConfig.DEFAULT_CONFIG.getMaxIdleTimeMillis();
+        return null == connectionPool && (null != limitDeterminationStrategy || isPoolConfigured());
+    }
+
+    /**
+     * Returns {@code true} if any option of the connection pool created by this builder is set. These options can not
+     * be set along with a pool passed via {@link #connectionPool(ConnectionPool)}.
+     *
+     * @return {@code true} if any option of the connection pool is set.
+     */
+    protected boolean isPoolConfigured() {
+        return idleConnectionsTimeoutMillis != PoolConfig.DEFAULT_CONFIG.getMaxIdleTimeMillis()
+               || maxPendingAcquires != PoolConfig.DEFAULT_CONFIG.getMaxPendingAcquires()
+               || pendingAcquireTimeoutMillis != PoolConfig.DEFAULT_CONFIG.getPendingAcquireTimeoutMillis()
+               || null != poolIdleEvictionTimer
+               || idleSelectionPolicy != PoolConfig.DEFAULT_CONFIG.getIdleSelectionPolicy()
+               || minIdleConnections > 0 || warmUpConnections > 0
+               || maxConcurrentConnects != PoolConfig.DEFAULT_CONFIG.getMaxConcurrentConnects()
+               || connectBackoffBaseMillis != PoolConfig.DEFAULT_CONFIG.getConnectBackoffBaseMillis()
+               || maxConnectionLifetimeMillis != PoolConfig.DEFAULT_CONFIG.getMaxLifetimeMillis()
+               || maxConnectionReuseCount != PoolConfig.DEFAULT_CONFIG.getMaxReuseCount();
     }
 
     protected abstract C createClient();
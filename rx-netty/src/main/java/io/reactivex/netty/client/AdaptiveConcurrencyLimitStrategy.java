@@ -0,0 +1,261 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link PoolLimitDeterminationStrategy} that adapts the maximum number of connections from the latencies and
+ * errors observed by the pool, instead of a hand tuned static limit as in {@link MaxConnectionsBasedStrategy}. <br/>
+ *
+ * The limit follows a gradient (TCP Vegas style) approach: <br/>
+ * <ul>
+ * <li>The minimum response latency seen in a window of samples is taken as the latency of an unloaded server.</li>
+ * <li>On every response latency sample, the limit is scaled by {@code min RTT * tolerance / smoothed RTT} (bounded to
+ * [0.5, 1]) and a headroom of {@code sqrt(limit)} is added. So, as long as the latency does not increase, the limit grows
+ * additively and as soon as the requests start queuing (on the server or the network), it shrinks proportionally.</li>
+ * <li>A connect failure multiplicatively decreases the limit.</li>
+ * <li>The limit does not grow when less than half of it is used, so that an idle client does not inflate the limit.</li>
+ * </ul>
+ *
+ * When the limit drops below the number of existing connections, {@link #getAvailablePermits()} turns negative and
+ * {@link ConnectionPoolImpl} closes connections on release till the pool is back under the limit. <br/>
+ *
+ * The response latency is the time a connection is held by the user, so this strategy is only meaningful for
+ * request-response protocols (eg: HTTP) where a connection is released after the response. <br/>
+ *
+ * This strategy can be combined with other strategies using {@link CompositePoolLimitDeterminationStrategy}, eg: to
+ * also have a hard upper limit via {@link MaxConnectionsBasedStrategy}.
+ */
+public class AdaptiveConcurrencyLimitStrategy implements LatencyAwarePoolLimitDeterminationStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimitStrategy.class);
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = MaxConnectionsBasedStrategy.DEFAULT_MAX_CONNECTIONS;
+
+    private static final double RTT_SMOOTHING = 0.1; // Weight of a new sample in the smoothed RTT.
+    private static final double LIMIT_SMOOTHING = 0.2; // Weight of a newly computed limit in the limit.
+    private static final double RTT_TOLERANCE = 1.5; // Latency up to this multiple of the min RTT is not queuing.
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int MIN_RTT_WINDOW_SAMPLES = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger limitEnforcer = new AtomicInteger();
+    private final AtomicInteger inUseConnections = new AtomicInteger();
+    /**
+     * Guards the estimates below. Latency samples are statistical, so a sample is dropped instead of waiting for the
+     * lock, if the lock is held.
+     */
+    private final ReentrantLock estimatesLock = new ReentrantLock();
+
+    private volatile int limit;
+    private double exactLimit;
+    private volatile long minRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private volatile double smoothedRttNanos;
+    private volatile double smoothedConnectLatencyNanos;
+
+    public AdaptiveConcurrencyLimitStrategy() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT);
+    }
+
+    public AdaptiveConcurrencyLimitStrategy(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits. Required: 1 <= min (" + minLimit + ") <= initial ("
+                                               + initialLimit + ") <= max (" + maxLimit + ')');
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        exactLimit = initialLimit;
+        limit = initialLimit;
+    }
+
+    @Override
+    public boolean acquireCreationPermit() {
+        for (;;) { // Same as MaxConnectionsBasedStrategy, does not change the enforcer unless there are enough permits.
+            final int currentValue = limitEnforcer.get();
+            final int newValue = currentValue + 1;
+            if (newValue <= limit) {
+                if (limitEnforcer.compareAndSet(currentValue, newValue)) {
+                    return true;
+                }
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns the available permits, which is negative if the limit has dropped below the number of connections.
+     *
+     * @return The available permits.
+     */
+    @Override
+    public int getAvailablePermits() {
+        return limit - limitEnforcer.get();
+    }
+
+    /**
+     * Current maximum number of connections.
+     *
+     * @return Current maximum number of connections.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * The minimum response latency in the last completed window of samples, which is considered the latency of an
+     * unloaded server.
+     *
+     * @return The minimum response latency in microseconds, {@code -1} if there are no samples yet.
+     */
+    public long getMinRttMicros() {
+        long minRtt = minRttNanos;
+        return Long.MAX_VALUE == minRtt ? -1 : TimeUnit.NANOSECONDS.toMicros(minRtt);
+    }
+
+    /**
+     * Exponentially weighted moving average of the response latency.
+     *
+     * @return The smoothed response latency in microseconds.
+     */
+    public long getSmoothedRttMicros() {
+        return TimeUnit.NANOSECONDS.toMicros((long) smoothedRttNanos);
+    }
+
+    /**
+     * Exponentially weighted moving average of the connect latency.
+     *
+     * @return The smoothed connect latency in microseconds.
+     */
+    public long getSmoothedConnectLatencyMicros() {
+        return TimeUnit.NANOSECONDS.toMicros((long) smoothedConnectLatencyNanos);
+    }
+
+    @Override
+    public void onConnectLatencySample(long latencyNanos) {
+        if (!estimatesLock.tryLock()) {
+            return;
+        }
+        try {
+            smoothedConnectLatencyNanos = 0 == smoothedConnectLatencyNanos
+                                          ? latencyNanos
+                                          : ewma(smoothedConnectLatencyNanos, latencyNanos);
+        } finally {
+            estimatesLock.unlock();
+        }
+    }
+
+    @Override
+    public void onResponseLatencySample(long latencyNanos) {
+        if (latencyNanos <= 0 || !estimatesLock.tryLock()) {
+            return;
+        }
+        try {
+            smoothedRttNanos = 0 == smoothedRttNanos ? latencyNanos : ewma(smoothedRttNanos, latencyNanos);
+
+            windowMinRttNanos = Math.min(windowMinRttNanos, latencyNanos);
+            if (Long.MAX_VALUE == minRttNanos || latencyNanos < minRttNanos) {
+                minRttNanos = latencyNanos;
+            }
+            if (++windowSamples >= MIN_RTT_WINDOW_SAMPLES) {
+                // Forget the old minimum so that a permanent change in the server latency is eventually accepted.
+                minRttNanos = windowMinRttNanos;
+                windowMinRttNanos = Long.MAX_VALUE;
+                windowSamples = 0;
+            }
+
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * minRttNanos / smoothedRttNanos));
+            double newLimit = exactLimit * gradient + Math.sqrt(exactLimit);
+            if (newLimit > exactLimit && inUseConnections.get() < limit / 2) {
+                return; // Not using the limit, so no evidence that a higher limit is fine.
+            }
+            updateLimit(exactLimit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING);
+        } finally {
+            estimatesLock.unlock();
+        }
+    }
+
+    @Override
+    public void releaseCreationPermit() {
+        limitEnforcer.decrementAndGet(); // Unused permit, says nothing about the server, so no back off.
+    }
+
+    @Override
+    public void onCompleted() {
+        // No op.
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        logger.error("Connection pool emitted an error for state change events.", e);
+    }
+
+    @Override
+    public void onNext(PoolInsightProvider.PoolStateChangeEvent stateChangeEvent) {
+        switch (stateChangeEvent) {
+            case ConnectFailed:
+                limitEnforcer.decrementAndGet();
+                backOff();
+                break;
+            case OnConnectionEviction:
+                limitEnforcer.decrementAndGet();
+                break;
+            case onAcquireSucceeded:
+                inUseConnections.incrementAndGet();
+                break;
+            case onReleaseAttempted:
+                inUseConnections.decrementAndGet();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void backOff() {
+        estimatesLock.lock(); // Errors are not statistical samples, so never dropped.
+        try {
+            updateLimit(exactLimit * BACKOFF_RATIO);
+        } finally {
+            estimatesLock.unlock();
+        }
+    }
+
+    private void updateLimit(double newLimit) {
+        exactLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        int oldLimit = limit;
+        limit = (int) exactLimit;
+        if (oldLimit != limit && logger.isDebugEnabled()) {
+            logger.debug("Connection limit changed from " + oldLimit + " to " + limit + ". Min RTT (micros): "
+                         + getMinRttMicros() + ", smoothed RTT (micros): " + getSmoothedRttMicros());
+        }
+    }
+
+    private static double ewma(double current, long sample) {
+        return current * (1 - RTT_SMOOTHING) + sample * RTT_SMOOTHING;
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import com.netflix.numerus.LongAdder;
+import io.netty.util.NetUtil;
+import io.reactivex.netty.channel.RxDefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.schedulers.Schedulers;
+import rx.subjects.AsyncSubject;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.Security;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves host names for client connects without blocking the event loops. <br/>
+ *
+ * <h2>Caching</h2>
+ * Resolved addresses are cached for a TTL and failed lookups are cached for a (usually shorter) negative TTL. By
+ * default, these are the JVM's {@code networkaddress.cache.ttl} and {@code networkaddress.cache.negative.ttl} security
+ * properties (30 and 10 seconds if not set), so that the JVM's DNS caching policy is respected. When a host has
+ * multiple addresses, a cached lookup returns them in a round robin fashion. <br/>
+ *
+ * <h2>Lookups</h2>
+ * Lookups are done by a {@link NameResolver} on a separate executor. Concurrent lookups of the same host are
+ * coalesced into one. A cached entry accessed in the last 20% of its TTL is refreshed in the background, so the hosts
+ * in use are not expired during traffic. A failed refresh does not replace the addresses that are still valid. <br/>
+ *
+ * IP address literals are never looked up nor cached.
+ */
+public class CachingHostResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingHostResolver.class);
+
+    public static final long DEFAULT_TTL_MILLIS = securityPropertyMillis("networkaddress.cache.ttl", 30);
+    public static final long DEFAULT_NEGATIVE_TTL_MILLIS = securityPropertyMillis("networkaddress.cache.negative.ttl",
+                                                                                  10);
+    private static final double REFRESH_AFTER_TTL_FRACTION = 0.8;
+
+    private final NameResolver nameResolver;
+    private final Executor lookupExecutor;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final Scheduler clock;
+    private final ConcurrentHashMap<String, CacheEntry> cache = new ConcurrentHashMap<String, CacheEntry>();
+    private final ConcurrentHashMap<String, AsyncSubject<CacheEntry>> lookupsInProgress =
+            new ConcurrentHashMap<String, AsyncSubject<CacheEntry>>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    public CachingHostResolver() {
+        this(new JdkNameResolver(), newDefaultLookupExecutor(), DEFAULT_TTL_MILLIS, DEFAULT_NEGATIVE_TTL_MILLIS);
+    }
+
+    public CachingHostResolver(NameResolver nameResolver, Executor lookupExecutor, long ttlMillis,
+                               long negativeTtlMillis) {
+        this(nameResolver, lookupExecutor, ttlMillis, negativeTtlMillis, Schedulers.immediate());
+    }
+
+    /**
+     * Creates a resolver that reads the current time for the TTLs from {@link Scheduler#now()} of the passed clock,
+     * which lets the tests advance the time (see {@link rx.schedulers.TestScheduler}). The scheduler is not used to
+     * run any action.
+     */
+    public CachingHostResolver(NameResolver nameResolver, Executor lookupExecutor, long ttlMillis,
+                               long negativeTtlMillis, Scheduler clock) {
+        if (null == nameResolver) {
+            throw new NullPointerException("Name resolver can not be null.");
+        }
+        if (null == lookupExecutor) {
+            throw new NullPointerException("Lookup executor can not be null.");
+        }
+        if (null == clock) {
+            throw new NullPointerException("Clock can not be null.");
+        }
+        this.nameResolver = nameResolver;
+        this.lookupExecutor = lookupExecutor;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the address of the passed host, only if it is available without a lookup.
+     *
+     * @param host Host name or IP address literal.
+     *
+     * @return The address or {@code null} if a lookup is required (or the host is cached as unknown).
+     */
+    public InetAddress resolveIfCached(String host) {
+        byte[] ipAddress = NetUtil.createByteArrayFromIpAddressString(host);
+        if (null != ipAddress) {
+            return fromLiteral(host, ipAddress);
+        }
+
+        CacheEntry entry = cache.get(host);
+        if (null == entry || null == entry.addresses) {
+            return null;
+        }
+        long nowMillis = clock.now();
+        if (nowMillis >= entry.expiresAtMillis) {
+            return null;
+        }
+        hits.increment();
+        refreshIfRequired(host, entry, nowMillis);
+        return entry.nextAddress();
+    }
+
+    /**
+     * Resolves the passed host, from the cache if possible.
+     *
+     * @param host Host name or IP address literal.
+     *
+     * @return An {@link Observable} emitting the address of the host, or an {@link UnknownHostException} if it could
+     * not be resolved. The lookup (if any) is done eagerly, irrespective of any subscription.
+     */
+    public Observable<InetAddress> resolve(final String host) {
+        InetAddress cached = resolveIfCached(host);
+        if (null != cached) {
+            return Observable.just(cached);
+        }
+
+        CacheEntry entry = cache.get(host);
+        if (null != entry && clock.now() < entry.expiresAtMillis && null != entry.failure) {
+            negativeHits.increment();
+            return Observable.error(entry.failure);
+        }
+
+        misses.increment();
+        final AsyncSubject<CacheEntry> lookup = lookup(host);
+        return Observable.create(new Observable.OnSubscribe<InetAddress>() {
+            @Override
+            public void call(final Subscriber<? super InetAddress> subscriber) {
+                lookup.subscribe(new Subscriber<CacheEntry>(subscriber) {
+                    @Override
+                    public void onCompleted() {
+                        // Completion is sent with the entry.
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        subscriber.onError(e);
+                    }
+
+                    @Override
+                    public void onNext(CacheEntry entry) {
+                        if (null != entry.failure) {
+                            subscriber.onError(entry.failure);
+                        } else {
+                            subscriber.onNext(entry.nextAddress());
+                            subscriber.onCompleted();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Number of resolutions served from the cache.
+     */
+    public long getHitCount() {
+        return hits.longValue();
+    }
+
+    /**
+     * Number of resolutions that failed from the negative cache, ie: without a lookup.
+     */
+    public long getNegativeHitCount() {
+        return negativeHits.longValue();
+    }
+
+    /**
+     * Number of resolutions that required a lookup.
+     */
+    public long getMissCount() {
+        return misses.longValue();
+    }
+
+    /**
+     * Number of lookups done in the background, to refresh cached entries before they expire.
+     */
+    public long getRefreshCount() {
+        return refreshes.longValue();
+    }
+
+    private void refreshIfRequired(String host, CacheEntry entry, long nowMillis) {
+        if (nowMillis >= entry.refreshAtMillis && !lookupsInProgress.containsKey(host)) {
+            refreshes.increment();
+            lookup(host);
+        }
+    }
+
+    private AsyncSubject<CacheEntry> lookup(final String host) {
+        final AsyncSubject<CacheEntry> newLookup = AsyncSubject.create();
+        AsyncSubject<CacheEntry> existing = lookupsInProgress.putIfAbsent(host, newLookup);
+        if (null != existing) {
+            return existing; // Coalesce with the lookup in progress.
+        }
+
+        try {
+            lookupExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    CacheEntry entry = doLookup(host);
+                    lookupsInProgress.remove(host);
+                    newLookup.onNext(entry);
+                    newLookup.onCompleted();
+                }
+            });
+        } catch (Throwable throwable) { // Executor rejected the lookup.
+            lookupsInProgress.remove(host);
+            newLookup.onError(throwable);
+        }
+        return newLookup;
+    }
+
+    private CacheEntry doLookup(String host) {
+        CacheEntry entry;
+        try {
+            InetAddress[] addresses = nameResolver.resolve(host);
+            if (null == addresses || 0 == addresses.length) {
+                throw new UnknownHostException(host + ": No addresses returned by the name resolver.");
+            }
+            long nowMillis = clock.now();
+            entry = new CacheEntry(addresses, null, expiryMillis(nowMillis, ttlMillis),
+                                   expiryMillis(nowMillis, (long) (ttlMillis * REFRESH_AFTER_TTL_FRACTION)));
+        } catch (UnknownHostException e) {
+            long nowMillis = clock.now();
+            CacheEntry existing = cache.get(host);
+            if (null != existing && null != existing.addresses && nowMillis < existing.expiresAtMillis) {
+                logger.info("Failed to refresh the addresses of host: " + host + ", using the existing addresses.", e);
+                return existing;
+            }
+            long expiry = expiryMillis(nowMillis, negativeTtlMillis);
+            entry = new CacheEntry(null, e, expiry, expiry);
+        } catch (Throwable throwable) {
+            UnknownHostException failure = new UnknownHostException(host + ": " + throwable.getMessage());
+            failure.initCause(throwable);
+            return new CacheEntry(null, failure, 0, 0); // Not a DNS answer, so not cached.
+        }
+        cache.put(host, entry);
+        return entry;
+    }
+
+    private static long expiryMillis(long nowMillis, long ttlMillis) {
+        return ttlMillis >= Long.MAX_VALUE - nowMillis ? Long.MAX_VALUE : nowMillis + ttlMillis;
+    }
+
+    private static InetAddress fromLiteral(String host, byte[] ipAddress) {
+        try {
+            return InetAddress.getByAddress(host, ipAddress);
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Invalid IP address: " + host, e); // Not possible, the length is valid.
+        }
+    }
+
+    private static long securityPropertyMillis(String name, long defaultSeconds) {
+        String value = null;
+        try {
+            value = Security.getProperty(name);
+        } catch (SecurityException e) {
+            logger.debug("Not allowed to read security property: " + name + ", using the default.", e);
+        }
+        if (null != value) {
+            try {
+                long seconds = Long.parseLong(value.trim());
+                return seconds < 0 ? Long.MAX_VALUE : TimeUnit.SECONDS.toMillis(seconds); // Negative means forever.
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value of security property: " + name + ", using the default.", e);
+            }
+        }
+        return TimeUnit.SECONDS.toMillis(defaultSeconds);
+    }
+
+    private static Executor newDefaultLookupExecutor() {
+        // Threads are only created while there are lookups, the cache keeps the lookups rare.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(4, 4, 60, TimeUnit.SECONDS,
+                                                             new LinkedBlockingQueue<Runnable>(),
+                                                             new RxDefaultThreadFactory("rx-host-resolver"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class CacheEntry {
+
+        /*Nullable*/ private final InetAddress[] addresses;
+        /*Nullable*/ private final UnknownHostException failure;
+        private final long expiresAtMillis;
+        private final long refreshAtMillis;
+        private final AtomicInteger nextAddressIndex = new AtomicInteger();
+
+        private CacheEntry(InetAddress[] addresses, UnknownHostException failure, long expiresAtMillis,
+                           long refreshAtMillis) {
+            this.addresses = addresses;
+            this.failure = failure;
+            this.expiresAtMillis = expiresAtMillis;
+            this.refreshAtMillis = refreshAtMillis;
+        }
+
+        private InetAddress nextAddress() {
+            if (1 == addresses.length) {
+                return addresses[0];
+            }
+            return addresses[(nextAddressIndex.getAndIncrement() & Integer.MAX_VALUE) % addresses.length];
+        }
+    }
+
+    private static final class JdkNameResolver implements NameResolver {
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            return InetAddress.getAllByName(host);
+        }
+    }
+}
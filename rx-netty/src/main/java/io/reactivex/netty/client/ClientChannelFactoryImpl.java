@@ -18,14 +18,23 @@ package io.reactivex.netty.client;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.AttributeKey;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.ConnectionHandler;
 import io.reactivex.netty.channel.ObservableConnection;
 import io.reactivex.netty.channel.ObservableConnectionFactory;
 import io.reactivex.netty.pipeline.PipelineConfigurator;
 import io.reactivex.netty.pipeline.PipelineConfiguratorComposite;
 import io.reactivex.netty.pipeline.RxRequiredConfigurator;
+import rx.Observable;
 import rx.Subscriber;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
 /**
  * A factory to create netty channels for clients.
  *
@@ -36,32 +45,46 @@ import rx.Subscriber;
  */
 public class ClientChannelFactoryImpl<I, O> implements ClientChannelFactory<I,O> {
 
+    /**
+     * Per connect state of a channel, the {@link ClientConnectionHandler} for the connect that created the channel.
+     */
+    @SuppressWarnings("rawtypes")
+    static final AttributeKey<ClientConnectionHandler> CONNECTION_HANDLER_ATTR =
+            AttributeKey.valueOf("rxnetty_client_connection_handler");
+
     protected final Bootstrap clientBootstrap;
     protected final ObservableConnectionFactory<I, O> connectionFactory;
     protected final RxClient.ServerInfo serverInfo;
+    protected final CachingHostResolver hostResolver;
+    private final ConnectionHandler<I, O> connectionHandlerFromChannel;
+    private volatile ConnectTemplate<I, O> connectTemplate;
 
     public ClientChannelFactoryImpl(Bootstrap clientBootstrap, ObservableConnectionFactory<I, O> connectionFactory,
                                     RxClient.ServerInfo serverInfo) {
+        this(clientBootstrap, connectionFactory, serverInfo, RxNetty.getHostResolver());
+    }
+
+    public ClientChannelFactoryImpl(Bootstrap clientBootstrap, ObservableConnectionFactory<I, O> connectionFactory,
+                                    RxClient.ServerInfo serverInfo, CachingHostResolver hostResolver) {
         this.clientBootstrap = clientBootstrap;
         this.connectionFactory = connectionFactory;
         this.serverInfo = serverInfo;
+        this.hostResolver = hostResolver;
+        connectionHandlerFromChannel = new ChannelAttributeConnectionHandler<I, O>();
     }
 
     @Override
     public ChannelFuture connect(final ClientConnectionHandler<I, O> connectionHandler,
                                  PipelineConfigurator<I, O> pipelineConfigurator) {
 
-        final PipelineConfigurator<I, O> configurator = getPipelineConfiguratorForAChannel(connectionHandler,
-                                                                                           pipelineConfigurator);
-        // make the connection
-        clientBootstrap.handler(new ChannelInitializer<Channel>() {
-            @Override
-            public void initChannel(Channel ch) throws Exception {
-                configurator.configureNewPipeline(ch.pipeline());
-            }
-        });
+        final ChannelFuture registerFuture = getConnectTemplate(pipelineConfigurator).bootstrap.register();
+        /*
+         * The pipeline may already be initialized (if register() is called from the event loop) but the channel can
+         * not be active before connect, so the connection handler is always available when the connection is handled.
+         */
+        registerFuture.channel().attr(CONNECTION_HANDLER_ATTR).set(connectionHandler);
 
-        final ChannelFuture connectFuture = _connect().addListener(connectionHandler);
+        final ChannelFuture connectFuture = _connect(registerFuture).addListener(connectionHandler);
 
         connectionHandler.connectionAttempted(connectFuture);
 
@@ -73,13 +96,97 @@ public class ClientChannelFactoryImpl<I, O> implements ClientChannelFactory<I,O>
         return new ClientConnectionHandler<I, O>(subscriber);
     }
 
-    protected ChannelFuture _connect() {
-        return clientBootstrap.connect(serverInfo.getHost(), serverInfo.getPort());
+    /**
+     * Connects the passed registered (or being registered) channel to the server with an already resolved address, so
+     * that the event loop never blocks on a DNS lookup. If the address of the host is not cached by the
+     * {@link CachingHostResolver}, the channel is connected once the lookup completes.
+     */
+    protected ChannelFuture _connect(final ChannelFuture registerFuture) {
+        final Channel channel = registerFuture.channel();
+        final ChannelPromise connectPromise = channel.newPromise();
+        connectPromise.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                if (future.isCancelled()) {
+                    channel.close(); // Cancelled while registering or resolving.
+                }
+            }
+        });
+        InetAddress cached = hostResolver.resolveIfCached(serverInfo.getHost());
+        if (null != cached) {
+            connectWhenRegistered(registerFuture, new InetSocketAddress(cached, serverInfo.getPort()), connectPromise);
+            return connectPromise;
+        }
+
+        hostResolver.resolve(serverInfo.getHost()).subscribe(new Subscriber<InetAddress>() {
+            @Override
+            public void onCompleted() {
+                // No op.
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                if (connectPromise.tryFailure(e)) {
+                    channel.close();
+                }
+            }
+
+            @Override
+            public void onNext(InetAddress address) {
+                connectWhenRegistered(registerFuture, new InetSocketAddress(address, serverInfo.getPort()),
+                                      connectPromise);
+            }
+        });
+        return connectPromise;
+    }
+
+    private static void connectWhenRegistered(ChannelFuture registerFuture, final InetSocketAddress address,
+                                              final ChannelPromise connectPromise) {
+        final Channel channel = registerFuture.channel();
+        registerFuture.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                if (!future.isSuccess()) {
+                    connectPromise.tryFailure(future.cause());
+                } else if (!connectPromise.isDone()) {
+                    channel.connect(address, connectPromise);
+                }
+            }
+        });
     }
 
+    /**
+     * Returns the template used to create channels with the passed configurator. This is created once per
+     * configurator (a client always uses the same one) and is then reused for every connect. The template never
+     * changes after creation, so concurrent connects do not need any coordination.
+     */
+    private ConnectTemplate<I, O> getConnectTemplate(PipelineConfigurator<I, O> pipelineConfigurator) {
+        ConnectTemplate<I, O> current = connectTemplate;
+        if (null != current && current.userConfigurator == pipelineConfigurator) {
+            return current;
+        }
+        // Benign race, concurrent first connects may each create a template, all of them are equivalent.
+        current = new ConnectTemplate<I, O>(clientBootstrap, pipelineConfigurator,
+                                            getPipelineConfiguratorForClient(connectionHandlerFromChannel,
+                                                                             pipelineConfigurator));
+        connectTemplate = current;
+        return current;
+    }
 
-    protected PipelineConfigurator<I, O> getPipelineConfiguratorForAChannel(ClientConnectionHandler<I, O> connHandler,
-                                                                            PipelineConfigurator<I, O> pipelineConfigurator) {
+    /**
+     * Returns the complete pipeline configurator for the channels created by this factory. The returned configurator
+     * is created once and then shared by all channels, so it must create new instances of any non-sharable handler for
+     * every pipeline. <br/>
+     * The passed connection handler is shared by all channels and delegates to the {@link ClientConnectionHandler}
+     * for the connect that created the channel.
+     *
+     * @param connHandler Connection handler to be used by the pipeline.
+     * @param pipelineConfigurator Pipeline configurator provided by the user, can be {@code null}.
+     *
+     * @return The complete pipeline configurator.
+     */
+    protected PipelineConfigurator<I, O> getPipelineConfiguratorForClient(ConnectionHandler<I, O> connHandler,
+                                                                          PipelineConfigurator<I, O> pipelineConfigurator) {
         RxRequiredConfigurator<I, O> requiredConfigurator = new RxRequiredConfigurator<I, O>(connHandler, connectionFactory);
         PipelineConfiguratorComposite<I, O> toReturn;
         if (null != pipelineConfigurator) {
@@ -89,4 +196,43 @@ public class ClientChannelFactoryImpl<I, O> implements ClientChannelFactory<I,O>
         }
         return toReturn;
     }
+
+    /**
+     * An immutable clone of the client bootstrap with a precomputed channel initializer.
+     */
+    private static final class ConnectTemplate<I, O> {
+
+        private final PipelineConfigurator<I, O> userConfigurator;
+        private final Bootstrap bootstrap;
+
+        private ConnectTemplate(Bootstrap clientBootstrap, PipelineConfigurator<I, O> userConfigurator,
+                                final PipelineConfigurator<I, O> completeConfigurator) {
+            this.userConfigurator = userConfigurator;
+            bootstrap = clientBootstrap.clone().handler(new ChannelInitializer<Channel>() {
+                @Override
+                public void initChannel(Channel ch) throws Exception {
+                    completeConfigurator.configureNewPipeline(ch.pipeline());
+                }
+            });
+        }
+    }
+
+    /**
+     * A {@link ConnectionHandler} shared by all the channels of this factory, that delegates to the
+     * {@link ClientConnectionHandler} stored in the channel attribute {@link #CONNECTION_HANDLER_ATTR}
+     */
+    private static final class ChannelAttributeConnectionHandler<I, O> implements ConnectionHandler<I, O> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Observable<Void> handle(ObservableConnection<I, O> newConnection) {
+            // Removed so that the channel does not retain the connect subscriber for its lifetime.
+            ClientConnectionHandler<I, O> connectionHandler =
+                    newConnection.getChannelHandlerContext().channel().attr(CONNECTION_HANDLER_ATTR).getAndRemove();
+            if (null == connectionHandler) {
+                return Observable.error(new IllegalStateException("No connection handler found for the channel."));
+            }
+            return connectionHandler.handle(newConnection);
+        }
+    }
 }
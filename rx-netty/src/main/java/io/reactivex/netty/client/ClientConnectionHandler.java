@@ -25,6 +25,8 @@ import rx.Subscriber;
 import rx.functions.Action0;
 import rx.subscriptions.Subscriptions;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * An implementation of {@link ConnectionHandler} that provides notifications to an {@link Observer} of
  * {@link ObservableConnection} pertaining to connection establishment.
@@ -37,6 +39,8 @@ import rx.subscriptions.Subscriptions;
 public class ClientConnectionHandler<I, O> implements ConnectionHandler<I, O>, ChannelFutureListener {
 
     private final Subscriber<? super ObservableConnection<I, O>> connectionSub;
+    /*Nullable*/ private volatile LatencyHistogram connectLatencyHistogram;
+    private volatile long connectStartTimeNanos;
 
     public ClientConnectionHandler(Subscriber<? super ObservableConnection<I, O>> connectionSub) {
         this.connectionSub = connectionSub;
@@ -60,10 +64,25 @@ public class ClientConnectionHandler<I, O> implements ConnectionHandler<I, O>, C
     }
 
     protected void onNewConnection(ObservableConnection<I, O> newConnection) {
+        LatencyHistogram histogram = connectLatencyHistogram;
+        if (null != histogram && 0 != connectStartTimeNanos) {
+            histogram.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - connectStartTimeNanos));
+        }
         connectionSub.onNext(newConnection);
         connectionSub.onCompleted(); // The observer is no longer looking for any more connections.
     }
 
+    /**
+     * Records the connect latency of the connection handled by this handler in the passed histogram. This must be
+     * called before the connect attempt.
+     *
+     * @param connectLatencyHistogram Histogram to record the connect latency.
+     */
+    void recordConnectLatencyIn(LatencyHistogram connectLatencyHistogram) {
+        this.connectLatencyHistogram = connectLatencyHistogram;
+        connectStartTimeNanos = System.nanoTime();
+    }
+
     void connectionAttempted(final ChannelFuture connectFuture) {
         connectionSub.add(Subscriptions.create(new Action0() {
             @Override
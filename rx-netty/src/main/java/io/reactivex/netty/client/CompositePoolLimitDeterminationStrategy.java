@@ -15,12 +15,20 @@
  */
 package io.reactivex.netty.client;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
+ * A {@link PoolLimitDeterminationStrategy} that allows a new connection only if all the contained strategies allow it.
+ * Latency samples are forwarded to the contained strategies that are
+ * {@link LatencyAwarePoolLimitDeterminationStrategy}.
+ *
  * @author Nitesh Kant
  */
-public class CompositePoolLimitDeterminationStrategy implements PoolLimitDeterminationStrategy {
+public class CompositePoolLimitDeterminationStrategy implements LatencyAwarePoolLimitDeterminationStrategy {
 
     private final PoolLimitDeterminationStrategy[] strategies;
+    private final LatencyAwarePoolLimitDeterminationStrategy[] latencyAwareStrategies;
 
     public CompositePoolLimitDeterminationStrategy(PoolLimitDeterminationStrategy... strategies) {
         if (null == strategies || strategies.length == 0) {
@@ -32,6 +40,23 @@ public class CompositePoolLimitDeterminationStrategy implements PoolLimitDetermi
             }
         }
         this.strategies = strategies;
+        List<LatencyAwarePoolLimitDeterminationStrategy> latencyAware =
+                new ArrayList<LatencyAwarePoolLimitDeterminationStrategy>();
+        for (PoolLimitDeterminationStrategy strategy : strategies) {
+            if (strategy instanceof LatencyAwarePoolLimitDeterminationStrategy) {
+                latencyAware.add((LatencyAwarePoolLimitDeterminationStrategy) strategy);
+            }
+        }
+        latencyAwareStrategies = latencyAware.toArray(new LatencyAwarePoolLimitDeterminationStrategy[latencyAware.size()]);
+    }
+
+    /**
+     * Returns {@code true} if any of the contained strategies want latency samples.
+     *
+     * @return {@code true} if any of the contained strategies is a {@link LatencyAwarePoolLimitDeterminationStrategy}
+     */
+    public boolean isLatencyAware() {
+        return latencyAwareStrategies.length > 0;
     }
 
     @Override
@@ -41,7 +66,7 @@ public class CompositePoolLimitDeterminationStrategy implements PoolLimitDetermi
             if (!strategy.acquireCreationPermit()) {
                 if (i > 0) {
                     for (int j = i - 1; j >= 0; j--) {
-                        strategies[j].onNext(PoolInsightProvider.PoolStateChangeEvent.ConnectFailed); // release all permits acquired before this failure.
+                        releaseCreationPermit(strategies[j]); // release all permits acquired before this failure.
                     }
                 }
                 return false;
@@ -65,6 +90,42 @@ public class CompositePoolLimitDeterminationStrategy implements PoolLimitDetermi
         return minPermits; // If will atleast be one strategy (invariant in constructor) and hence this should be the value provided by that strategy.
     }
 
+    @Override
+    public void onConnectLatencySample(long latencyNanos) {
+        for (LatencyAwarePoolLimitDeterminationStrategy strategy : latencyAwareStrategies) {
+            strategy.onConnectLatencySample(latencyNanos);
+        }
+    }
+
+    @Override
+    public void onResponseLatencySample(long latencyNanos) {
+        for (LatencyAwarePoolLimitDeterminationStrategy strategy : latencyAwareStrategies) {
+            strategy.onResponseLatencySample(latencyNanos);
+        }
+    }
+
+    @Override
+    public void releaseCreationPermit() {
+        for (PoolLimitDeterminationStrategy strategy : strategies) {
+            releaseCreationPermit(strategy);
+        }
+    }
+
+    /**
+     * Returns a permit that is not used for a connect attempt, to the passed strategy. A strategy that is not a
+     * {@link LatencyAwarePoolLimitDeterminationStrategy} only knows
+     * {@link PoolInsightProvider.PoolStateChangeEvent#ConnectFailed} as a return of a permit.
+     *
+     * @param strategy Strategy from which the permit was acquired.
+     */
+    static void releaseCreationPermit(PoolLimitDeterminationStrategy strategy) {
+        if (strategy instanceof LatencyAwarePoolLimitDeterminationStrategy) {
+            ((LatencyAwarePoolLimitDeterminationStrategy) strategy).releaseCreationPermit();
+        } else {
+            strategy.onNext(PoolInsightProvider.PoolStateChangeEvent.ConnectFailed);
+        }
+    }
+
     @Override
     public void onCompleted() {
         for (PoolLimitDeterminationStrategy strategy : strategies) {
@@ -19,11 +19,12 @@ import java.util.Collections;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
- * A composite of {@link PoolStats} that provides a sum for all metrics of the contained {@link PoolStats}
+ * A composite of {@link PoolStats} that provides a sum for all metrics of the contained {@link PoolStats}. The queued
+ * connect count is the sum for the contained {@link QueuedConnectStats}.
  *
  * @author Nitesh Kant
  */
-public class CompositePoolStats implements PoolStats {
+public class CompositePoolStats implements QueuedConnectStats {
 
     private final ConcurrentLinkedQueue<PoolStats> stats = new ConcurrentLinkedQueue<PoolStats>();
 
@@ -42,6 +43,17 @@ public class CompositePoolStats implements PoolStats {
         this.stats.add(stats);
     }
 
+    /**
+     * Removes a stats instance from this composite.
+     *
+     * @param stats Stats to remove.
+     *
+     * @return {@code true} if the stats was present in this composite.
+     */
+    public boolean removeStats(PoolStats stats) {
+        return this.stats.remove(stats);
+    }
+
     @Override
     public long getInUseCount() {
         long toReturn = 0;
@@ -86,4 +98,15 @@ public class CompositePoolStats implements PoolStats {
         }
         return toReturn;
     }
+
+    @Override
+    public long getQueuedConnectCount() {
+        long toReturn = 0;
+        for (PoolStats stat : stats) {
+            if (stat instanceof QueuedConnectStats) {
+                toReturn += ((QueuedConnectStats) stat).getQueuedConnectCount();
+            }
+        }
+        return toReturn;
+    }
 }
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A lock-free, unbounded {@link java.util.Queue} that returns the most recently added element first, ie: a stack. <br/>
+ * This is a Treiber stack where removing an element from the middle (via {@link #remove(Object)} or
+ * {@link Iterator#remove()}) only marks the node as deleted. Deleted nodes are skipped (and dropped) by
+ * {@link #poll()} and are purged in bulk once enough of them pile up. During a purge, the elements being moved are
+ * briefly not visible to other threads. <br/>
+ * {@link #size()} is <em>NOT</em> a constant time operation and iterators are weakly consistent.
+ *
+ * @param <E> Type of the elements.
+ */
+class ConcurrentLifoQueue<E> extends AbstractQueue<E> {
+
+    private static final int PURGE_THRESHOLD = 64;
+
+    private final AtomicReference<Node<E>> top = new AtomicReference<Node<E>>();
+    private final AtomicInteger deletedNodes = new AtomicInteger();
+    private final AtomicBoolean purging = new AtomicBoolean();
+
+    @Override
+    public boolean offer(E e) {
+        if (null == e) {
+            throw new NullPointerException("Null elements are not allowed.");
+        }
+        Node<E> newTop = new Node<E>(e);
+        for (;;) {
+            Node<E> currentTop = top.get();
+            newTop.next = currentTop;
+            if (top.compareAndSet(currentTop, newTop)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public E poll() {
+        for (;;) {
+            Node<E> currentTop = top.get();
+            if (null == currentTop) {
+                return null;
+            }
+            if (top.compareAndSet(currentTop, currentTop.next)) {
+                E item = currentTop.clear();
+                if (null != item) {
+                    return item;
+                }
+                deletedNodes.decrementAndGet(); // Popped a deleted node.
+            }
+        }
+    }
+
+    @Override
+    public E peek() {
+        for (Node<E> node = top.get(); null != node; node = node.next) {
+            E item = node.item;
+            if (null != item) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (null == o) {
+            return false;
+        }
+        for (Node<E> node = top.get(); null != node; node = node.next) {
+            E item = node.item;
+            if (null != item && o.equals(item) && node.delete(item)) {
+                onNodeDeleted();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return null == peek();
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Node<E> node = top.get(); null != node; node = node.next) {
+            if (null != node.item) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    private void onNodeDeleted() {
+        if (deletedNodes.incrementAndGet() >= PURGE_THRESHOLD) {
+            purge();
+        }
+    }
+
+    /**
+     * Detaches the whole stack, moves the live elements to new nodes (in the same order) and pushes them back
+     * as a whole. Elements added while purging stay below the purged ones.
+     */
+    private void purge() {
+        if (!purging.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Node<E> detached = top.getAndSet(null);
+            List<E> live = new ArrayList<E>();
+            int deleted = 0;
+            for (Node<E> node = detached; null != node; node = node.next) {
+                E item = node.clear();
+                if (null != item) {
+                    live.add(item);
+                } else {
+                    deleted++;
+                }
+            }
+            deletedNodes.addAndGet(-deleted);
+
+            if (live.isEmpty()) {
+                return;
+            }
+
+            Node<E> head = new Node<E>(live.get(0));
+            Node<E> tail = head;
+            for (int i = 1; i < live.size(); i++) {
+                Node<E> node = new Node<E>(live.get(i));
+                tail.next = node;
+                tail = node;
+            }
+
+            for (;;) {
+                Node<E> currentTop = top.get();
+                tail.next = currentTop;
+                if (top.compareAndSet(currentTop, head)) {
+                    return;
+                }
+            }
+        } finally {
+            purging.set(false);
+        }
+    }
+
+    private static final class Node<E> {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Object> ITEM_UPDATER =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "item");
+
+        private volatile E item;
+        private Node<E> next; // Published by the CAS on top.
+
+        private Node(E item) {
+            this.item = item;
+        }
+
+        /**
+         * Atomically takes the item out of this node.
+         *
+         * @return The item or {@code null} if it was already taken.
+         */
+        private E clear() {
+            for (;;) {
+                E current = item;
+                if (null == current) {
+                    return null;
+                }
+                if (ITEM_UPDATER.compareAndSet(this, current, null)) {
+                    return current;
+                }
+            }
+        }
+
+        private boolean delete(E expected) {
+            return ITEM_UPDATER.compareAndSet(this, expected, null);
+        }
+    }
+
+    private class Itr implements Iterator<E> {
+
+        private Node<E> nextNode;
+        private E nextItem;
+        private Node<E> lastReturnedNode;
+        private E lastReturnedItem;
+
+        private Itr() {
+            advance(top.get());
+        }
+
+        private void advance(Node<E> from) {
+            for (Node<E> node = from; null != node; node = node.next) {
+                E item = node.item;
+                if (null != item) {
+                    nextNode = node;
+                    nextItem = item;
+                    return;
+                }
+            }
+            nextNode = null;
+            nextItem = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return null != nextNode;
+        }
+
+        @Override
+        public E next() {
+            if (null == nextNode) {
+                throw new NoSuchElementException();
+            }
+            lastReturnedNode = nextNode;
+            lastReturnedItem = nextItem;
+            advance(nextNode.next);
+            return lastReturnedItem;
+        }
+
+        @Override
+        public void remove() {
+            if (null == lastReturnedNode) {
+                throw new IllegalStateException("next() not called before remove()");
+            }
+            if (lastReturnedNode.delete(lastReturnedItem)) {
+                onNodeDeleted();
+            }
+            lastReturnedNode = null;
+            lastReturnedItem = null;
+        }
+    }
+}
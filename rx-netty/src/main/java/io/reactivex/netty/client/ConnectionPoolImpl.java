@@ -17,6 +17,9 @@ package io.reactivex.netty.client;
 
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
 import io.reactivex.netty.channel.ObservableConnection;
 import io.reactivex.netty.pipeline.PipelineConfigurator;
 import org.slf4j.Logger;
@@ -24,32 +27,55 @@ import org.slf4j.LoggerFactory;
 import rx.Observable;
 import rx.Subscriber;
 import rx.functions.Action1;
+import rx.functions.Action0;
 import rx.observers.Subscribers;
-import rx.subjects.PublishSubject;
+import rx.subjects.ReplaySubject;
+import rx.subscriptions.Subscriptions;
 
+import java.net.ConnectException;
 import java.util.Iterator;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Nitesh Kant
  */
-class ConnectionPoolImpl<I, O> implements ConnectionPool<I, O> {
+class ConnectionPoolImpl<I, O> implements ConnectionPool<I, O>, LatencyInsightProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolImpl.class);
 
     private static final PoolExhaustedException POOL_EXHAUSTED_EXCEPTION = new PoolExhaustedException("Rx Connection Pool exhausted.");
+    private static final PoolExhaustedException PENDING_ACQUIRE_TIMEOUT_EXCEPTION =
+            new PoolExhaustedException("Timed out waiting for a connection from the exhausted Rx Connection Pool.");
 
     private final PoolStatsProvider statsProvider;
-    private final ConcurrentLinkedQueue<PooledConnection<I, O>> idleConnections;
+    private final PoolLatencyStats latencyStats = new PoolLatencyStats();
+    private final IdleConnectionsHolder<I, O> idleConnections;
+    private final ConcurrentLinkedQueue<PendingAcquire> pendingAcquires;
+    private final AtomicInteger pendingAcquiresCount = new AtomicInteger();
+    private final AtomicInteger pendingAcquiresDrainWip = new AtomicInteger();
+    private final AtomicInteger backgroundConnectsInProgress = new AtomicInteger();
+    private final AtomicInteger deferredRefills = new AtomicInteger();
+    private volatile int initialWarmUpConnections;
+    private final ConcurrentLinkedQueue<QueuedConnect> queuedConnects;
+    private final AtomicInteger queuedConnectsDrainWip = new AtomicInteger();
+    private final AtomicInteger connectsInProgress = new AtomicInteger();
+    private final AtomicInteger consecutiveConnectFailures = new AtomicInteger();
+    private volatile long connectBackoffEndNanos;
+    /*Nullable*/ private volatile Throwable lastConnectFailure;
+    /*Nullable*/ private volatile PipelineConfigurator<I, O> backgroundConnectConfigurator;
     private ClientChannelFactory<I, O> channelFactory;
     private final PoolLimitDeterminationStrategy limitDeterminationStrategy;
-    private final PublishSubject<PoolStateChangeEvent> stateChangeObservable;
+    /*Nullable*/ private final LatencyAwarePoolLimitDeterminationStrategy latencyAwareStrategy;
+    private final PoolStateChangeTap stateChangeTap;
     private final PoolConfig poolConfig;
     private final ScheduledExecutorService cleanupScheduler;
+    /*Nullable*/ private final Timer idleEvictionTimer;
     private final AtomicBoolean isShutdown = new AtomicBoolean();
     /*Nullable*/ private final ScheduledFuture<?> idleConnCleanupScheduleFuture;
 
@@ -59,15 +85,21 @@ class ConnectionPoolImpl<I, O> implements ConnectionPool<I, O> {
      * @param poolConfig The pool configuration.
      * @param strategy Pool limit determination strategy. This can be {@code null}
      * @param cleanupScheduler Pool idle cleanup scheduler. This can be {@code null} which means there will be
+     *                         no idle cleanup and pending acquires will only be timed out when they are next looked at.
+     * @param idleEvictionTimer Timer to evict every idle connection exactly when it expires, instead of periodically
+     *                          scanning all idle connections on the {@code cleanupScheduler}. This can be {@code null}
+     *                          which means the idle connections are scanned (if there is a {@code cleanupScheduler}).
      */
     ConnectionPoolImpl(PoolConfig poolConfig, PoolLimitDeterminationStrategy strategy,
-                       ScheduledExecutorService cleanupScheduler, PoolStatsProvider poolStatsProvider) {
+                       ScheduledExecutorService cleanupScheduler, PoolStatsProvider poolStatsProvider,
+                       Timer idleEvictionTimer) {
         this.poolConfig = poolConfig;
         this.cleanupScheduler = cleanupScheduler;
+        this.idleEvictionTimer = idleEvictionTimer;
 
         long scheduleDurationMillis = Math.max(30, this.poolConfig.getMaxIdleTimeMillis()); // Ignore too agressive durations as they create a lot of thread spin.
 
-        if (null != cleanupScheduler) {
+        if (null != cleanupScheduler && null == idleEvictionTimer) {
             idleConnCleanupScheduleFuture = this.cleanupScheduler.scheduleWithFixedDelay(
                     new IdleConnectionsCleanupTask(), scheduleDurationMillis, scheduleDurationMillis, TimeUnit.MILLISECONDS);
         } else {
@@ -75,14 +107,34 @@ class ConnectionPoolImpl<I, O> implements ConnectionPool<I, O> {
         }
 
         limitDeterminationStrategy = null == strategy ? new MaxConnectionsBasedStrategy() : strategy;
-        stateChangeObservable = PublishSubject.create();
+        if (limitDeterminationStrategy instanceof CompositePoolLimitDeterminationStrategy
+            && !((CompositePoolLimitDeterminationStrategy) limitDeterminationStrategy).isLatencyAware()) {
+            latencyAwareStrategy = null; // Saves timing every connection for nothing.
+        } else if (limitDeterminationStrategy instanceof LatencyAwarePoolLimitDeterminationStrategy) {
+            latencyAwareStrategy = (LatencyAwarePoolLimitDeterminationStrategy) limitDeterminationStrategy;
+        } else {
+            latencyAwareStrategy = null;
+        }
         statsProvider = poolStatsProvider;
-        stateChangeObservable.subscribe(statsProvider);
-        stateChangeObservable.subscribe(limitDeterminationStrategy);
-        idleConnections = new ConcurrentLinkedQueue<PooledConnection<I, O>>();
+        stateChangeTap = new PoolStateChangeTap();
+        idleConnections = new IdleConnectionsHolder<I, O>(poolConfig.getIdleSelectionPolicy());
+        pendingAcquires = new ConcurrentLinkedQueue<PendingAcquire>();
+        queuedConnects = new ConcurrentLinkedQueue<QueuedConnect>();
         channelFactory = new NoOpClientChannelFactory<I, O>();
     }
 
+    /**
+     * Creates a new connection pool instance.
+     *
+     * @param poolConfig The pool configuration.
+     * @param strategy Pool limit determination strategy. This can be {@code null}
+     * @param cleanupScheduler Pool idle cleanup scheduler. This can be {@code null} which means there will be
+     */
+    ConnectionPoolImpl(PoolConfig poolConfig, PoolLimitDeterminationStrategy strategy,
+                       ScheduledExecutorService cleanupScheduler, PoolStatsProvider poolStatsProvider) {
+        this(poolConfig, strategy, cleanupScheduler, poolStatsProvider, null);
+    }
+
     /**
      * Creates a new connection pool instance.
      *
@@ -99,6 +151,88 @@ class ConnectionPoolImpl<I, O> implements ConnectionPool<I, O> {
         this.channelFactory = channelFactory;
     }
 
+    /**
+     * Sets the number of connections opened by {@link #setBackgroundConnectConfigurator(PipelineConfigurator)}, in
+     * addition to the configured minimum idle connections. Unlike the minimum idle connections, these are not
+     * replaced when evicted.
+     *
+     * @param connections Number of connections to open.
+     */
+    void setInitialWarmUpConnections(int connections) {
+        initialWarmUpConnections = connections;
+    }
+
+    /**
+     * Sets the pipeline configurator used for the connections that the pool opens by itself (ie: not as a result of
+     * {@link #acquire(PipelineConfigurator)}) and opens the configured minimum idle & warm up connections.
+     *
+     * @param pipelineConfigurator Pipeline configurator, same as the one passed to {@link #acquire(PipelineConfigurator)}
+     *
+     * @return An {@link Observable} which completes when the minimum idle & warm up connections are opened.
+     */
+    Observable<Void> setBackgroundConnectConfigurator(PipelineConfigurator<I, O> pipelineConfigurator) {
+        backgroundConnectConfigurator = pipelineConfigurator;
+        return warmUp(Math.max(poolConfig.getMinIdleConnections(), initialWarmUpConnections));
+    }
+
+    /**
+     * Opens new connections in the background and adds them to the pool as idle connections, so that there are at
+     * least the passed number of idle connections. No more connections than allowed by the
+     * {@link PoolLimitDeterminationStrategy} are opened. <br/>
+     * The connections are opened eagerly, irrespective of a subscription to the returned {@link Observable}.
+     *
+     * @param idleConnections Number of idle connections required.
+     *
+     * @return An {@link Observable} which completes when all the connections are opened, or emits the first connect
+     * error.
+     */
+    Observable<Void> warmUp(int idleConnections) {
+        final PipelineConfigurator<I, O> configurator = backgroundConnectConfigurator;
+        if (null == configurator || isShutdown.get()) {
+            return Observable.empty();
+        }
+
+        // Reserve the connects atomically, else concurrent refills (eg: on evictions from different event loops) all
+        // see the same deficit and open more connections than required.
+        int toOpen;
+        for (;;) {
+            int inProgress = backgroundConnectsInProgress.get();
+            toOpen = (int) (idleConnections - getStats().getIdleCount() - inProgress);
+            if (toOpen <= 0) {
+                return Observable.empty();
+            }
+            if (backgroundConnectsInProgress.compareAndSet(inProgress, inProgress + toOpen)) {
+                break;
+            }
+        }
+
+        final ReplaySubject<Void> warmUpSubject = ReplaySubject.create();
+        final AtomicInteger remaining = new AtomicInteger(toOpen);
+        final AtomicBoolean errorSent = new AtomicBoolean();
+        for (int i = 0; i < toOpen; i++) {
+            boolean opening = openIdleConnection(configurator, new Action1<Throwable>() {
+                @Override
+                public void call(Throwable throwable) {
+                    if (null != throwable) {
+                        if (errorSent.compareAndSet(false, true)) {
+                            warmUpSubject.onError(throwable);
+                        }
+                    } else if (0 == remaining.decrementAndGet() && !errorSent.get()) {
+                        warmUpSubject.onCompleted();
+                    }
+                }
+            });
+            if (!opening) { // Pool limit reached, nothing more to open.
+                backgroundConnectsInProgress.addAndGet(i - toOpen); // Release the unused reservations.
+                if (0 == remaining.addAndGet(i - toOpen) && !errorSent.get()) {
+                    warmUpSubject.onCompleted();
+                }
+                break;
+            }
+        }
+        return warmUpSubject;
+    }
+
     @Override
     public Observable<ObservableConnection<I, O>> acquire(final PipelineConfigurator<I, O> pipelineConfigurator) {
 
@@ -108,39 +242,27 @@ class ConnectionPoolImpl<I, O> implements ConnectionPool<I, O> {
 
         return Observable.create(new Observable.OnSubscribe<ObservableConnection<I, O>>() {
             @Override
-            public void call(final Subscriber<? super ObservableConnection<I, O>> subscriber) {
+            public void call(final Subscriber<? super ObservableConnection<I, O>> originalSubscriber) {
+                final Subscriber<? super ObservableConnection<I, O>> subscriber =
+                        newAcquireLatencyRecorder(originalSubscriber);
                 try {
-                    stateChangeObservable.onNext(PoolStateChangeEvent.onAcquireAttempted);
+                    onStateChange(PoolStateChangeEvent.onAcquireAttempted);
                     PooledConnection<I, O> idleConnection = getAnIdleConnection(true);
 
-
                     if (null != idleConnection) { // Found a usable connection
-                        final ClientConnectionHandler<I, O> connHandler = channelFactory.newConnectionHandler(subscriber);
-                        idleConnection.beforeReuse();
-                        stateChangeObservable.onNext(PoolStateChangeEvent.OnConnectionReuse);
-                        stateChangeObservable.onNext(PoolStateChangeEvent.onAcquireSucceeded);
-                        connHandler.onNewConnection(idleConnection);
-                    } else if (limitDeterminationStrategy.acquireCreationPermit()) { // Check if it is allowed to create another connection.
-                        /**
-                         * Here we want to make sure that if the connection attempt failed, we should inform the strategy.
-                         * Failure to do so, will leak the permits from the strategy. So, any code in this block MUST
-                         * ALWAYS use this new subscriber instead of the original subscriber to send any callbacks.
-                         */
-                        Subscriber<ObservableConnection<I, O>> newConnectionSubscriber = newConnectionSubscriber(subscriber);
-                        final ClientConnectionHandler<I, O> connHandler =
-                                channelFactory.newConnectionHandler(newConnectionSubscriber);
-                        try {
-                            channelFactory.connect(connHandler, pipelineConfigurator); // Manages the callbacks to the subscriber
-                        } catch (Throwable throwable) {
-                            newConnectionSubscriber.onError(throwable);
-                        }
-                    } else { // Pool Exhausted
-                        stateChangeObservable.onNext(PoolStateChangeEvent.onAcquireFailed);
-                        subscriber.onError(POOL_EXHAUSTED_EXCEPTION);
+                        reuseConnection(idleConnection, subscriber);
+                    } else if (!isConnectBackedOff()
+                               && limitDeterminationStrategy.acquireCreationPermit()) { // Check if it is allowed to create another connection.
+                        createNewConnection(pipelineConfigurator, subscriber);
+                    } else if (!addPendingAcquire(pipelineConfigurator, subscriber)) { // Pool Exhausted & no room to wait.
+                        onStateChange(PoolStateChangeEvent.onAcquireFailed);
+                        subscriber.onError(isConnectBackedOff() ? newConnectBackedOffException() : POOL_EXHAUSTED_EXCEPTION);
                     }
                 } catch (Throwable throwable) {
-                    stateChangeObservable.onNext(PoolStateChangeEvent.onAcquireFailed);
+                    onStateChange(PoolStateChangeEvent.onAcquireFailed);
                     subscriber.onError(throwable);
+                } finally {
+                    refillDeferred(); // After this acquire took its permit, if it needed one.
                 }
             }
         });
@@ -156,18 +278,33 @@ class ConnectionPoolImpl<I, O> implements ConnectionPool<I, O> {
             return Observable.error(new IllegalArgumentException("Returned a null connection to the pool."));
         }
         try {
-            stateChangeObservable.onNext(PoolStateChangeEvent.onReleaseAttempted);
-            if (isShutdown.get() || !connection.isUsable()) {
+            onStateChange(PoolStateChangeEvent.onReleaseAttempted);
+            if (null != latencyAwareStrategy) {
+                long acquireTimeNanos = connection.getAcquireTimeNanos();
+                if (0 != acquireTimeNanos) {
+                    connection.setAcquireTimeNanos(0);
+                    latencyAwareStrategy.onResponseLatencySample(System.nanoTime() - acquireTimeNanos);
+                }
+            }
+            if (isShutdown.get() || !connection.isUsable()
+                || limitDeterminationStrategy.getAvailablePermits() < 0) { // Limit reduced, shrink the pool.
                 discardConnection(connection);
-                stateChangeObservable.onNext(PoolStateChangeEvent.onReleaseSucceeded);
+                onStateChange(PoolStateChangeEvent.onReleaseSucceeded);
                 return Observable.empty();
             } else {
                 idleConnections.add(connection);
-                stateChangeObservable.onNext(PoolStateChangeEvent.onReleaseSucceeded);
+                if (null != idleEvictionTimer) {
+                    connection.setIdleEvictionTimeout(
+                            idleEvictionTimer.newTimeout(new IdleConnectionEvictionTask(connection),
+                                                         connection.getMaxIdleTimeMillis(), TimeUnit.MILLISECONDS));
+                }
+                onStateChange(PoolStateChangeEvent.onReleaseSucceeded);
+                drainPendingAcquires(); // Hands over the connection to the oldest waiter, if any.
+                drainQueuedConnects(); // Or to a queued connect, which then does not need to connect.
                 return Observable.empty();
             }
         } catch (Throwable throwable) {
-            stateChangeObservable.onNext(PoolStateChangeEvent.onReleaseFailed);
+            onStateChange(PoolStateChangeEvent.onReleaseFailed);
             return Observable.error(throwable);
         }
     }
@@ -192,7 +329,7 @@ class ConnectionPoolImpl<I, O> implements ConnectionPool<I, O> {
 
     @Override
     public Observable<PoolStateChangeEvent> poolStateChangeObservable() {
-        return stateChangeObservable;
+        return stateChangeTap.asObservable();
     }
 
     @Override
@@ -200,6 +337,11 @@ class ConnectionPoolImpl<I, O> implements ConnectionPool<I, O> {
         return statsProvider.getStats();
     }
 
+    @Override
+    public PoolLatencyStats.Snapshot getLatencySnapshot(boolean reset) {
+        return reset ? latencyStats.snapshotAndReset() : latencyStats.snapshot();
+    }
+
     @Override
     public void shutdown() {
         if (!isShutdown.compareAndSet(false, true)) {
@@ -209,24 +351,38 @@ class ConnectionPoolImpl<I, O> implements ConnectionPool<I, O> {
         if (null != idleConnCleanupScheduleFuture) {
             idleConnCleanupScheduleFuture.cancel(true);
         }
+        drainPendingAcquires(); // Fails all waiters as the pool is shutdown.
+        drainQueuedConnects();
         PooledConnection<I, O> idleConnection = getAnIdleConnection(true);
         while (null != idleConnection) {
             discardConnection(idleConnection);
             idleConnection = getAnIdleConnection(true);
         }
-        stateChangeObservable.onCompleted();
+        statsProvider.onCompleted();
+        limitDeterminationStrategy.onCompleted();
+        stateChangeTap.onCompleted();
     }
 
     @Override
     public ObservableConnection<I, O> newConnection(ChannelHandlerContext ctx) {
-        return new PooledConnection<I, O>(ctx, this, poolConfig.getMaxIdleTimeMillis());
+        long maxLifetimeMillis = poolConfig.getMaxLifetimeMillis();
+        if (poolConfig.isMaxLifetimeSet() && poolConfig.getMaxLifetimeJitterMillis() > 0) {
+            maxLifetimeMillis -= (long) (Math.random() * poolConfig.getMaxLifetimeJitterMillis());
+        }
+        return new PooledConnection<I, O>(ctx, this, poolConfig.getMaxIdleTimeMillis(), maxLifetimeMillis,
+                                          poolConfig.getMaxReuseCount());
     }
 
+    /**
+     * Polls an idle connection, discarding the unusable ones on the way. The minimum idle connections refill for the
+     * discarded connections is deferred till {@link #refillDeferred()}, as the caller is about to acquire a creation
+     * permit if no connection is found and an immediate refill takes the permit released by the discard.
+     */
     private PooledConnection<I, O> getAnIdleConnection(boolean claimConnectionIfFound) {
         PooledConnection<I, O> idleConnection;
         while ((idleConnection = idleConnections.poll()) != null) {
             if (!idleConnection.isUsable()) {
-                discardConnection(idleConnection);
+                discardConnection(idleConnection, false);
             } else if (claimConnectionIfFound) {
                 if (idleConnection.claim()) {
                     break;
@@ -238,26 +394,474 @@ class ConnectionPoolImpl<I, O> implements ConnectionPool<I, O> {
         return idleConnection;
     }
 
+    /**
+     * Notifies the state change to the stats and limit strategy directly (these are on the path of every acquire and
+     * release) and then to the external subscribers of {@link #poolStateChangeObservable()}, if any.
+     */
+    private void onStateChange(PoolStateChangeEvent event) {
+        statsProvider.onNext(event);
+        limitDeterminationStrategy.onNext(event);
+        stateChangeTap.onNext(event);
+    }
+
+    /**
+     * Evicts the passed connection from the pool. All paths evicting a connection (release, idle poll, idle timeout,
+     * cleanup, discard & shutdown) come here, so that a connection evicted concurrently by two of them is counted
+     * once, else the eviction releases two permits from the {@link PoolLimitDeterminationStrategy}.
+     */
     private Observable<Void> discardConnection(PooledConnection<I, O> idleConnection) {
-        stateChangeObservable.onNext(PoolStateChangeEvent.OnConnectionEviction);
-        return idleConnection.closeUnderlyingChannel();
+        return discardConnection(idleConnection, true);
     }
 
-    private Subscriber<ObservableConnection<I, O>> newConnectionSubscriber(
+    /**
+     * Same as {@link #discardConnection(PooledConnection)} but records the minimum idle connections refill to be done
+     * by the next {@link #refillDeferred()}, unless {@code refillNow} is {@code true}.
+     */
+    private Observable<Void> discardConnection(PooledConnection<I, O> idleConnection, boolean refillNow) {
+        idleConnection.cancelIdleEvictionTimeout();
+        if (!idleConnection.markDiscarded()) {
+            return Observable.empty(); // Already evicted.
+        }
+        latencyStats.getConnectionLifetime().record(microsSince(idleConnection.getCreateTimeNanos()));
+        onStateChange(PoolStateChangeEvent.OnConnectionEviction);
+        Observable<Void> toReturn = idleConnection.closeUnderlyingChannel();
+        drainPendingAcquires(); // Eviction releases a permit which a waiter can use.
+        if (refillNow) {
+            refillMinIdleConnections();
+        } else if (poolConfig.getMinIdleConnections() > 0) {
+            deferredRefills.incrementAndGet();
+        }
+        return toReturn;
+    }
+
+    private void refillDeferred() {
+        if (0 != deferredRefills.get() && 0 != deferredRefills.getAndSet(0)) {
+            refillMinIdleConnections();
+        }
+    }
+
+    private void refillMinIdleConnections() {
+        if (poolConfig.getMinIdleConnections() > 0) {
+            warmUp(poolConfig.getMinIdleConnections()).subscribe(Subscribers.create(new Action1<Void>() {
+                @Override
+                public void call(Void aVoid) {
+                    // No op, there are no items.
+                }
+            }, new Action1<Throwable>() {
+                @Override
+                public void call(Throwable throwable) {
+                    logger.warn("Failed to open a connection to refill the minimum idle connections. Will retry on the next eviction.",
+                                throwable);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Opens a new connection and releases it to the pool, if there is a permit to create a new connection. The caller
+     * must have counted the connect in {@link #backgroundConnectsInProgress}, which is decremented once the connection
+     * is in the pool or the connect fails.
+     *
+     * @param configurator Pipeline configurator for the new connection.
+     * @param onDone Invoked with {@code null} when the connection is added to the pool or with the connect error.
+     *
+     * @return {@code false} if there was no permit to create a new connection.
+     */
+    private boolean openIdleConnection(PipelineConfigurator<I, O> configurator, final Action1<Throwable> onDone) {
+        if (isShutdown.get() || isConnectBackedOff() || !limitDeterminationStrategy.acquireCreationPermit()) {
+            return false;
+        }
+
+        onStateChange(PoolStateChangeEvent.onAcquireAttempted);
+        createNewConnection(configurator, new Subscriber<ObservableConnection<I, O>>() {
+            @Override
+            public void onCompleted() {
+                onDone.call(null);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                backgroundConnectsInProgress.decrementAndGet();
+                onDone.call(e);
+            }
+
+            @Override
+            public void onNext(ObservableConnection<I, O> connection) {
+                if (connection instanceof PooledConnection) {
+                    ((PooledConnection<I, O>) connection).setAcquireTimeNanos(0); // Not used, so not a latency sample.
+                }
+                connection.close(); // Returns the connection to the pool.
+                // Decremented after the connection is idle, so that a concurrent warm up does not miss counting it.
+                backgroundConnectsInProgress.decrementAndGet();
+            }
+        });
+        return true;
+    }
+
+    private void reuseConnection(PooledConnection<I, O> idleConnection,
+                                 Subscriber<? super ObservableConnection<I, O>> subscriber) {
+        final ClientConnectionHandler<I, O> connHandler = channelFactory.newConnectionHandler(subscriber);
+        idleConnection.cancelIdleEvictionTimeout();
+        idleConnection.beforeReuse();
+        latencyStats.getConnectionAgeAtReuse().record(microsSince(idleConnection.getCreateTimeNanos()));
+        onStateChange(PoolStateChangeEvent.OnConnectionReuse);
+        onStateChange(PoolStateChangeEvent.onAcquireSucceeded);
+        if (null != latencyAwareStrategy) {
+            idleConnection.setAcquireTimeNanos(System.nanoTime());
+        }
+        connHandler.onNewConnection(idleConnection);
+    }
+
+    /**
+     * Creates a new connection, for which a permit is already acquired from the {@link PoolLimitDeterminationStrategy}.
+     * If the maximum number of concurrent connects is reached, the connect is queued till a connect finishes.
+     */
+    private void createNewConnection(final PipelineConfigurator<I, O> pipelineConfigurator,
+                                     Subscriber<? super ObservableConnection<I, O>> subscriber) {
+        if (tryAcquireConnectSlot()) {
+            connect(pipelineConfigurator, subscriber);
+            return;
+        }
+
+        final QueuedConnect queuedConnect = new QueuedConnect(pipelineConfigurator, subscriber);
+        onStateChange(PoolStateChangeEvent.ConnectQueued);
+        subscriber.add(Subscriptions.create(new Action0() {
+            @Override
+            public void call() {
+                if (queuedConnect.claim()) { // Unsubscribed while queued.
+                    queuedConnects.remove(queuedConnect);
+                    CompositePoolLimitDeterminationStrategy.releaseCreationPermit(limitDeterminationStrategy);
+                    onStateChange(PoolStateChangeEvent.onAcquireFailed);
+                }
+            }
+        }));
+        queuedConnects.add(queuedConnect);
+        drainQueuedConnects(); // A connect may have finished between the slot check & adding to the queue.
+    }
+
+    private boolean tryAcquireConnectSlot() {
+        final int maxConcurrentConnects = poolConfig.getMaxConcurrentConnects();
+        for (;;) {
+            final int current = connectsInProgress.get();
+            if (current >= maxConcurrentConnects) {
+                return false;
+            }
+            if (connectsInProgress.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Connects to the server, the caller must have acquired a connect slot via {@link #tryAcquireConnectSlot()}.
+     */
+    private void connect(PipelineConfigurator<I, O> pipelineConfigurator,
+                         Subscriber<? super ObservableConnection<I, O>> subscriber) {
+        /**
+         * Here we want to make sure that if the connection attempt failed, we should inform the strategy.
+         * Failure to do so, will leak the permits from the strategy. So, any code in this block MUST
+         * ALWAYS use this new subscriber instead of the original subscriber to send any callbacks.
+         */
+        Subscriber<ObservableConnection<I, O>> newConnectionSubscriber = newConnectionSubscriber(subscriber,
+                                                                                                 System.nanoTime());
+        final ClientConnectionHandler<I, O> connHandler = channelFactory.newConnectionHandler(newConnectionSubscriber);
+        connHandler.recordConnectLatencyIn(latencyStats.getConnectLatency());
+        try {
+            channelFactory.connect(connHandler, pipelineConfigurator); // Manages the callbacks to the subscriber
+        } catch (Throwable throwable) {
+            newConnectionSubscriber.onError(throwable);
+        }
+    }
+
+    /**
+     * Adds the passed subscriber to the FIFO of pending acquires, if the pool is configured to do so and the maximum
+     * number of pending acquires is not yet reached.
+     *
+     * @return {@code true} if the subscriber is now waiting for a connection.
+     */
+    private boolean addPendingAcquire(PipelineConfigurator<I, O> pipelineConfigurator,
+                                      Subscriber<? super ObservableConnection<I, O>> subscriber) {
+        final int maxPendingAcquires = poolConfig.getMaxPendingAcquires();
+        for (;;) {
+            final int current = pendingAcquiresCount.get();
+            if (current >= maxPendingAcquires) {
+                return false;
+            }
+            if (pendingAcquiresCount.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+
+        final PendingAcquire pendingAcquire = new PendingAcquire(pipelineConfigurator, subscriber);
+        subscriber.add(Subscriptions.create(new Action0() {
+            @Override
+            public void call() {
+                if (pendingAcquire.claim()) { // Unsubscribed before getting a connection.
+                    pendingAcquire.cancelTimeout();
+                    pendingAcquires.remove(pendingAcquire);
+                    onStateChange(PoolStateChangeEvent.onAcquireFailed);
+                }
+            }
+        }));
+        pendingAcquires.add(pendingAcquire);
+        if (null != cleanupScheduler && poolConfig.isPendingAcquireTimeoutSet()) {
+            pendingAcquire.scheduleTimeout(cleanupScheduler, poolConfig.getPendingAcquireTimeoutMillis());
+        }
+        drainPendingAcquires(); // A connection may have been released between exhaustion & adding to the queue.
+        return true;
+    }
+
+    /**
+     * Hands over idle connections or new connection permits to the pending acquires in FIFO order. Only one thread
+     * drains at a time, any other thread invoking this, while a drain is in progress, makes the draining thread loop
+     * once more, so that no release is missed.
+     */
+    private void drainPendingAcquires() {
+        if (0 == pendingAcquiresCount.get()) {
+            return; // Nobody waiting, which is the common case. Waiters drain after they are added, so nothing is missed.
+        }
+
+        if (pendingAcquiresDrainWip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        for (;;) {
+            try {
+                drainPendingAcquiresOnce();
+            } catch (Throwable throwable) {
+                logger.error("Error while handing over connections to pending acquires.", throwable);
+            }
+            missed = pendingAcquiresDrainWip.addAndGet(-missed);
+            if (0 == missed) {
+                break;
+            }
+        }
+        refillDeferred(); // After the waiters took their permits.
+    }
+
+    private void drainPendingAcquiresOnce() {
+        PendingAcquire pendingAcquire;
+        while ((pendingAcquire = pendingAcquires.peek()) != null) {
+            if (isShutdown.get()) {
+                pendingAcquires.poll();
+                if (pendingAcquire.claim()) {
+                    pendingAcquire.cancelTimeout();
+                    onStateChange(PoolStateChangeEvent.onAcquireFailed);
+                    pendingAcquire.subscriber.onError(new IllegalStateException("Connection pool is already shutdown."));
+                }
+                continue;
+            }
+
+            if (pendingAcquire.isTimedOut()) { // Only happens when there is no scheduler to eagerly timeout.
+                pendingAcquires.poll();
+                if (pendingAcquire.claim()) {
+                    onStateChange(PoolStateChangeEvent.onAcquireFailed);
+                    pendingAcquire.subscriber.onError(PENDING_ACQUIRE_TIMEOUT_EXCEPTION);
+                }
+                continue;
+            }
+
+            PooledConnection<I, O> idleConnection = getAnIdleConnection(true);
+            if (null != idleConnection) {
+                pendingAcquires.poll();
+                if (pendingAcquire.claim()) {
+                    pendingAcquire.cancelTimeout();
+                    try {
+                        reuseConnection(idleConnection, pendingAcquire.subscriber);
+                    } catch (Throwable throwable) {
+                        onStateChange(PoolStateChangeEvent.onAcquireFailed);
+                        pendingAcquire.subscriber.onError(throwable);
+                    }
+                } else {
+                    idleConnection.unclaim(); // Waiter gone, the connection remains idle for the next one.
+                    idleConnections.add(idleConnection);
+                }
+            } else if (!isConnectBackedOff() && limitDeterminationStrategy.acquireCreationPermit()) {
+                pendingAcquires.poll();
+                if (pendingAcquire.claim()) {
+                    pendingAcquire.cancelTimeout();
+                    createNewConnection(pendingAcquire.pipelineConfigurator, pendingAcquire.subscriber);
+                } else {
+                    CompositePoolLimitDeterminationStrategy.releaseCreationPermit(limitDeterminationStrategy);
+                }
+            } else {
+                return; // Nothing to hand over, wait for the next release.
+            }
+        }
+    }
+
+    /**
+     * Starts the queued connects in FIFO order, as long as there are free connect slots. A queued connect is instead
+     * handed an idle connection, if available, and failed if connects are backed off. Draining follows the same
+     * protocol as {@link #drainPendingAcquires()}
+     */
+    private void drainQueuedConnects() {
+        if (queuedConnects.isEmpty()) {
+            return;
+        }
+
+        if (queuedConnectsDrainWip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        for (;;) {
+            try {
+                drainQueuedConnectsOnce();
+            } catch (Throwable throwable) {
+                logger.error("Error while starting queued connects.", throwable);
+            }
+            missed = queuedConnectsDrainWip.addAndGet(-missed);
+            if (0 == missed) {
+                break;
+            }
+        }
+        refillDeferred();
+    }
+
+    private void drainQueuedConnectsOnce() {
+        QueuedConnect queuedConnect;
+        while ((queuedConnect = queuedConnects.peek()) != null) {
+            if (isShutdown.get() || isConnectBackedOff()) {
+                queuedConnects.poll();
+                if (queuedConnect.claim()) {
+                    CompositePoolLimitDeterminationStrategy.releaseCreationPermit(limitDeterminationStrategy);
+                    onStateChange(PoolStateChangeEvent.onAcquireFailed);
+                    queuedConnect.subscriber.onError(isShutdown.get()
+                                                     ? new IllegalStateException("Connection pool is already shutdown.")
+                                                     : newConnectBackedOffException());
+                }
+                continue;
+            }
+
+            PooledConnection<I, O> idleConnection = getAnIdleConnection(true);
+            if (null != idleConnection) {
+                queuedConnects.poll();
+                if (queuedConnect.claim()) {
+                    CompositePoolLimitDeterminationStrategy.releaseCreationPermit(limitDeterminationStrategy);
+                    try {
+                        reuseConnection(idleConnection, queuedConnect.subscriber);
+                    } catch (Throwable throwable) {
+                        onStateChange(PoolStateChangeEvent.onAcquireFailed);
+                        queuedConnect.subscriber.onError(throwable);
+                    }
+                } else {
+                    idleConnection.unclaim(); // Unsubscribed, the connection remains idle for the next one.
+                    idleConnections.add(idleConnection);
+                }
+            } else if (tryAcquireConnectSlot()) {
+                queuedConnects.poll();
+                if (queuedConnect.claim()) {
+                    connect(queuedConnect.pipelineConfigurator, queuedConnect.subscriber);
+                } else {
+                    connectsInProgress.decrementAndGet(); // Unsubscribed, the slot is not used.
+                }
+            } else {
+                return; // Wait for a connect to finish.
+            }
+        }
+    }
+
+    /**
+     * Invoked when a connect attempt finishes. Updates the connect backoff and starts the next queued connect, if any.
+     *
+     * @param failure Cause of the connect failure, {@code null} if the connect succeeded.
+     */
+    private void onConnectDone(Throwable failure) {
+        connectsInProgress.decrementAndGet();
+        if (poolConfig.isConnectBackoffEnabled()) {
+            if (null == failure) {
+                consecutiveConnectFailures.set(0);
+            } else if (!(failure instanceof CancellationException)) { // Unsubscribed, not a server failure.
+                startConnectBackoff(failure);
+            }
+        }
+        drainQueuedConnects();
+    }
+
+    private void startConnectBackoff(Throwable failure) {
+        final int failures = consecutiveConnectFailures.incrementAndGet();
+        long backoffMillis = Math.min(poolConfig.getConnectBackoffMaxMillis(),
+                                      poolConfig.getConnectBackoffBaseMillis() << Math.min(failures - 1, 20));
+        // Equal jitter, so that all pools backing off from the same failure do not reconnect at the same time.
+        backoffMillis = backoffMillis / 2 + (long) (Math.random() * (backoffMillis / 2 + 1));
+        lastConnectFailure = failure;
+        connectBackoffEndNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+        if (null != cleanupScheduler) {
+            // Waiters can only get a new connection after the backoff, which nobody else looks for.
+            cleanupScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    drainPendingAcquires();
+                }
+            }, backoffMillis + 1, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean isConnectBackedOff() {
+        return 0 != consecutiveConnectFailures.get() && System.nanoTime() - connectBackoffEndNanos < 0;
+    }
+
+    private ConnectException newConnectBackedOffException() {
+        ConnectException exception =
+                new ConnectException("Connects backed off after " + consecutiveConnectFailures.get()
+                                     + " consecutive connect failures.");
+        exception.initCause(lastConnectFailure);
+        return exception;
+    }
+
+    private Subscriber<ObservableConnection<I, O>> newAcquireLatencyRecorder(
             final Subscriber<? super ObservableConnection<I, O>> subscriber) {
+        final long acquireStartTimeNanos = System.nanoTime();
+        return new Subscriber<ObservableConnection<I, O>>(subscriber) { // Shares the subscription with the original.
+            @Override
+            public void onCompleted() {
+                subscriber.onCompleted();
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                subscriber.onError(e);
+            }
+
+            @Override
+            public void onNext(ObservableConnection<I, O> connection) {
+                latencyStats.getAcquireLatency().record(microsSince(acquireStartTimeNanos));
+                subscriber.onNext(connection);
+            }
+        };
+    }
+
+    private static long microsSince(long startTimeNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTimeNanos);
+    }
+
+    private Subscriber<ObservableConnection<I, O>> newConnectionSubscriber(
+            final Subscriber<? super ObservableConnection<I, O>> subscriber, final long connectStartTimeNanos) {
         return Subscribers.create(new Action1<ObservableConnection<I, O>>() {
                                       @Override
                                       public void call(ObservableConnection<I, O> o) {
-                                          stateChangeObservable.onNext(PoolStateChangeEvent.NewConnectionCreated);
-                                          stateChangeObservable.onNext(PoolStateChangeEvent.onAcquireSucceeded);
+                                          onConnectDone(null);
+                                          if (null != latencyAwareStrategy) {
+                                              long nowNanos = System.nanoTime();
+                                              latencyAwareStrategy.onConnectLatencySample(nowNanos - connectStartTimeNanos);
+                                              if (o instanceof PooledConnection) {
+                                                  ((PooledConnection<I, O>) o).setAcquireTimeNanos(nowNanos);
+                                              }
+                                          }
+                                          onStateChange(PoolStateChangeEvent.NewConnectionCreated);
+                                          onStateChange(PoolStateChangeEvent.onAcquireSucceeded);
                                           subscriber.onNext(o);
                                           subscriber.onCompleted(); // This subscriber is for "A" connection, so it should be completed.
                                       }
                                   }, new Action1<Throwable>() {
                                       @Override
                                       public void call(Throwable throwable) {
-                                          stateChangeObservable.onNext(PoolStateChangeEvent.ConnectFailed);
+                                          onConnectDone(throwable);
+                                          onStateChange(PoolStateChangeEvent.ConnectFailed);
                                           subscriber.onError(throwable);
+                                          drainPendingAcquires(); // Failed connect releases a permit.
                                       }
                                   }
         );
@@ -277,6 +881,117 @@ class ConnectionPoolImpl<I, O> implements ConnectionPool<I, O> {
         }
     }
 
+    /**
+     * An acquire request waiting for a connection when the pool is exhausted.
+     */
+    private class PendingAcquire implements Runnable {
+
+        private final PipelineConfigurator<I, O> pipelineConfigurator;
+        private final Subscriber<? super ObservableConnection<I, O>> subscriber;
+        private final long expiryTimeMillis;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile ScheduledFuture<?> timeoutFuture;
+
+        private PendingAcquire(PipelineConfigurator<I, O> pipelineConfigurator,
+                               Subscriber<? super ObservableConnection<I, O>> subscriber) {
+            this.pipelineConfigurator = pipelineConfigurator;
+            this.subscriber = subscriber;
+            expiryTimeMillis = poolConfig.isPendingAcquireTimeoutSet()
+                               ? System.currentTimeMillis() + poolConfig.getPendingAcquireTimeoutMillis()
+                               : Long.MAX_VALUE;
+        }
+
+        /**
+         * Claims this waiter for either handing over a connection or failing it. Exactly one claim succeeds.
+         */
+        private boolean claim() {
+            if (claimed.compareAndSet(false, true)) {
+                pendingAcquiresCount.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isTimedOut() {
+            return System.currentTimeMillis() >= expiryTimeMillis;
+        }
+
+        private void scheduleTimeout(ScheduledExecutorService scheduler, long timeoutMillis) {
+            timeoutFuture = scheduler.schedule(this, timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void cancelTimeout() {
+            ScheduledFuture<?> future = timeoutFuture;
+            if (null != future) {
+                future.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (claim()) {
+                pendingAcquires.remove(this);
+                onStateChange(PoolStateChangeEvent.onAcquireFailed);
+                subscriber.onError(PENDING_ACQUIRE_TIMEOUT_EXCEPTION);
+            }
+        }
+    }
+
+    /**
+     * A connect waiting for a connect slot, it already has a permit to create a new connection.
+     */
+    private class QueuedConnect {
+
+        private final PipelineConfigurator<I, O> pipelineConfigurator;
+        private final Subscriber<? super ObservableConnection<I, O>> subscriber;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private QueuedConnect(PipelineConfigurator<I, O> pipelineConfigurator,
+                              Subscriber<? super ObservableConnection<I, O>> subscriber) {
+            this.pipelineConfigurator = pipelineConfigurator;
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Claims this connect for either starting the connect or failing it. Exactly one claim succeeds.
+         */
+        private boolean claim() {
+            if (claimed.compareAndSet(false, true)) {
+                onStateChange(PoolStateChangeEvent.ConnectDequeued);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Evicts a connection when it expires after being idle, scheduled on the {@link #idleEvictionTimer} every time the
+     * connection is returned to the pool.
+     */
+    private class IdleConnectionEvictionTask implements TimerTask {
+
+        private final PooledConnection<I, O> connection;
+
+        private IdleConnectionEvictionTask(PooledConnection<I, O> connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void run(Timeout timeout) throws Exception {
+            if (!connection.isIdleEvictionTimeout(timeout)) {
+                return; // Stale timeout: the connection was reused & released after this was scheduled.
+            }
+            try {
+                if (connection.claim()) {
+                    idleConnections.remove(connection); // If it isn't there, it was just polled & will be dropped as the claim failed.
+                    discardConnection(connection);
+                }
+            } catch (Exception e) {
+                logger.error("Exception while evicting an idle connection.", e);
+            }
+        }
+    }
+
     private class IdleConnectionsCleanupTask implements Runnable {
 
         @Override
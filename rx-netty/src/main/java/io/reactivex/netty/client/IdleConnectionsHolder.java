@@ -0,0 +1,213 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import io.netty.channel.EventLoop;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Holder of idle connections for {@link ConnectionPoolImpl}. <br/>
+ * Idle connections are striped by the {@link EventLoop} the underlying channel is registered with, so that an acquire
+ * issued from an event loop gets a connection that is served by the same event loop (if available). This avoids every
+ * write on the connection to be a task submitted to a different thread. <br/>
+ * If the stripe of the caller's event loop is empty (or the caller is not an event loop thread), the connection is
+ * stolen from the other stripes. <br/>
+ * Within a stripe, connections are picked as specified by the {@link PoolConfig.IdleSelectionPolicy}.
+ *
+ * @param <I> The type of the object that is read from the pooled connections.
+ * @param <O> The type of objects that are written to the pooled connections.
+ */
+class IdleConnectionsHolder<I, O> implements Iterable<PooledConnection<I, O>> {
+
+    @SuppressWarnings("rawtypes")
+    private static final IdleStripe[] NO_STRIPES = new IdleStripe[0];
+
+    private final PoolConfig.IdleSelectionPolicy selectionPolicy;
+    private final ConcurrentHashMap<EventLoop, IdleStripe<I, O>> stripesByEventLoop;
+    private volatile IdleStripe<I, O>[] stripes; // Copy on write, stripes are only ever added as the event loops are fixed.
+
+    @SuppressWarnings("unchecked")
+    IdleConnectionsHolder(PoolConfig.IdleSelectionPolicy selectionPolicy) {
+        this.selectionPolicy = selectionPolicy;
+        stripesByEventLoop = new ConcurrentHashMap<EventLoop, IdleStripe<I, O>>();
+        stripes = NO_STRIPES;
+    }
+
+    /**
+     * Adds the passed connection to the stripe of the event loop of the connection.
+     *
+     * @param connection Connection to add.
+     */
+    void add(PooledConnection<I, O> connection) {
+        getOrCreateStripe(eventLoopOf(connection)).connections.add(connection);
+    }
+
+    /**
+     * Removes and returns an idle connection, preferring the stripe of the event loop of the calling thread.
+     *
+     * @return An idle connection or {@code null} if there are no idle connections.
+     */
+    PooledConnection<I, O> poll() {
+        final IdleStripe<I, O>[] current = stripes;
+        final int stripeCount = current.length;
+        if (0 == stripeCount) {
+            return null;
+        }
+
+        int homeIndex = -1;
+        for (int i = 0; i < stripeCount; i++) {
+            if (current[i].eventLoop.inEventLoop()) {
+                homeIndex = i;
+                break;
+            }
+        }
+
+        int startIndex;
+        if (homeIndex >= 0) {
+            PooledConnection<I, O> connection = current[homeIndex].connections.poll();
+            if (null != connection) {
+                return connection;
+            }
+            startIndex = homeIndex + 1;
+        } else {
+            // Not an event loop thread, spread the steals based on the thread so that all callers do not hit the same stripe.
+            startIndex = (int) (Thread.currentThread().getId() % stripeCount);
+        }
+
+        for (int i = 0; i < stripeCount; i++) {
+            int index = (startIndex + i) % stripeCount;
+            if (index == homeIndex) {
+                continue;
+            }
+            PooledConnection<I, O> connection = current[index].connections.poll();
+            if (null != connection) {
+                return connection;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the passed connection, if present.
+     *
+     * @param connection Connection to remove.
+     *
+     * @return {@code true} if the connection was present in this holder.
+     */
+    boolean remove(PooledConnection<I, O> connection) {
+        IdleStripe<I, O> stripe = stripesByEventLoop.get(eventLoopOf(connection));
+        return null != stripe && stripe.connections.remove(connection);
+    }
+
+    /**
+     * A weakly consistent iterator over all the idle connections across all stripes. The returned iterator supports
+     * {@link Iterator#remove()}
+     *
+     * @return Weakly consistent iterator over all idle connections.
+     */
+    @Override
+    public Iterator<PooledConnection<I, O>> iterator() {
+        return new AllStripesIterator(stripes);
+    }
+
+    private static EventLoop eventLoopOf(PooledConnection<?, ?> connection) {
+        return connection.getChannelHandlerContext().channel().eventLoop();
+    }
+
+    private IdleStripe<I, O> getOrCreateStripe(EventLoop eventLoop) {
+        IdleStripe<I, O> stripe = stripesByEventLoop.get(eventLoop);
+        if (null != stripe) {
+            return stripe;
+        }
+
+        synchronized (stripesByEventLoop) { // Happens once per event loop, so no point in being smarter.
+            stripe = stripesByEventLoop.get(eventLoop);
+            if (null == stripe) {
+                stripe = new IdleStripe<I, O>(eventLoop, selectionPolicy);
+                IdleStripe<I, O>[] newStripes = Arrays.copyOf(stripes, stripes.length + 1);
+                newStripes[newStripes.length - 1] = stripe;
+                stripesByEventLoop.put(eventLoop, stripe);
+                stripes = newStripes;
+            }
+            return stripe;
+        }
+    }
+
+    private static class IdleStripe<I, O> {
+
+        private final EventLoop eventLoop;
+        private final Queue<PooledConnection<I, O>> connections;
+
+        private IdleStripe(EventLoop eventLoop, PoolConfig.IdleSelectionPolicy selectionPolicy) {
+            this.eventLoop = eventLoop;
+            switch (selectionPolicy) {
+                case Lifo:
+                    connections = new ConcurrentLifoQueue<PooledConnection<I, O>>();
+                    break;
+                default:
+                    connections = new ConcurrentLinkedQueue<PooledConnection<I, O>>();
+                    break;
+            }
+        }
+    }
+
+    private class AllStripesIterator implements Iterator<PooledConnection<I, O>> {
+
+        private final IdleStripe<I, O>[] stripesToIterate;
+        private int nextStripeIndex;
+        private Iterator<PooledConnection<I, O>> current;
+        private Iterator<PooledConnection<I, O>> lastReturnedFrom;
+
+        private AllStripesIterator(IdleStripe<I, O>[] stripesToIterate) {
+            this.stripesToIterate = stripesToIterate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (null == current || !current.hasNext()) {
+                if (nextStripeIndex >= stripesToIterate.length) {
+                    return false;
+                }
+                current = stripesToIterate[nextStripeIndex++].connections.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public PooledConnection<I, O> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturnedFrom = current;
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            if (null == lastReturnedFrom) {
+                throw new IllegalStateException("next() not called before remove()");
+            }
+            lastReturnedFrom.remove();
+            lastReturnedFrom = null;
+        }
+    }
+}
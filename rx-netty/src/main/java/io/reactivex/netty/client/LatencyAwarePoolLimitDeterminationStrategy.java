@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+/**
+ * A {@link PoolLimitDeterminationStrategy} that also wants the latencies observed by the {@link ConnectionPool}. A
+ * {@link ConnectionPoolImpl} (directly or via a {@link CompositePoolLimitDeterminationStrategy}) feeds these samples
+ * to the strategy along with the {@link PoolInsightProvider.PoolStateChangeEvent}s.
+ */
+public interface LatencyAwarePoolLimitDeterminationStrategy extends PoolLimitDeterminationStrategy {
+
+    /**
+     * Invoked when a new connection is established.
+     *
+     * @param latencyNanos Time taken to establish the connection, in nanoseconds.
+     */
+    void onConnectLatencySample(long latencyNanos);
+
+    /**
+     * Invoked when a connection is returned to the pool. For request-response protocols like HTTP, this is the
+     * response latency as seen by the pool.
+     *
+     * @param latencyNanos Time for which the connection was in use, from being handed over by the pool till it was
+     *                     released, in nanoseconds.
+     */
+    void onResponseLatencySample(long latencyNanos);
+
+    /**
+     * Invoked when a permit acquired via {@link #acquireCreationPermit()} is returned without a connect attempt (eg:
+     * the acquire was cancelled or was served by a released connection). Unlike
+     * {@link PoolInsightProvider.PoolStateChangeEvent#ConnectFailed}, this says nothing about the server. <br/>
+     * Strategies that are not latency aware are sent {@link PoolInsightProvider.PoolStateChangeEvent#ConnectFailed}
+     * instead.
+     */
+    void releaseCreationPermit();
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import com.netflix.numerus.LongAdder;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies in microseconds, with logarithmic buckets (as in HDR histograms). <br/>
+ * Values below 16 have their own bucket and every power of 2 above is split into 16 linear buckets, so any recorded
+ * value is reported with an error of at most 1/16th (~6%). All positive {@code long} values can be recorded, the
+ * histogram has a fixed size of 960 buckets. <br/>
+ * Recording a value is a bucket index computation and an atomic increment, there are no allocations.
+ * {@link #snapshotAndReset()} resets every bucket atomically but not the histogram as a whole, so a value recorded
+ * concurrently with the reset is either in the returned snapshot or in the next one.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKET_COUNT = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param latencyMicros Latency in microseconds. Negative values (eg: due to a clock going back) are recorded as 0.
+     */
+    public void record(long latencyMicros) {
+        final long value = Math.max(0, latencyMicros);
+        counts.incrementAndGet(bucketIndex(value));
+        sum.add(value);
+        for (;;) {
+            long currentMax = max.get();
+            if (value <= currentMax || max.compareAndSet(currentMax, value)) {
+                return;
+            }
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] snapshotCounts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshotCounts[i] = counts.get(i);
+        }
+        return new Snapshot(snapshotCounts, sum.sum(), max.get());
+    }
+
+    public Snapshot snapshotAndReset() {
+        long[] snapshotCounts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshotCounts[i] = counts.getAndSet(i, 0);
+        }
+        return new Snapshot(snapshotCounts, sum.sumThenReset(), max.getAndSet(0));
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowerBound = (SUB_BUCKETS + subBucket) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    /**
+     * An immutable point in time view of a {@link LatencyHistogram}. All values are in microseconds.
+     */
+    public static class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long sum, long max) {
+            this.counts = counts;
+            long total = 0;
+            for (long bucketCount : counts) {
+                total += bucketCount;
+            }
+            count = total;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return 0 == count ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Returns the value at the passed percentile, ie: the upper bound of the bucket containing it, capped at the
+         * maximum recorded value.
+         *
+         * @param percentile Percentile between 0 and 100, eg: 99.9
+         *
+         * @return Value at the percentile or {@code 0} if there are no values.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (0 == count) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100 * count);
+            rank = Math.max(1, rank);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Combines this snapshot with the passed one, as if all the values were recorded in the same histogram.
+         *
+         * @param other Snapshot to add.
+         *
+         * @return A new snapshot with the values of both the snapshots.
+         */
+        public Snapshot plus(Snapshot other) {
+            long[] combined = new long[counts.length];
+            for (int i = 0; i < combined.length; i++) {
+                combined[i] = counts[i] + other.counts[i];
+            }
+            return new Snapshot(combined, sum + other.sum, Math.max(max, other.max));
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", mean=" + (long) getMean() + ", p50=" + getValueAtPercentile(50) + ", p99="
+                   + getValueAtPercentile(99) + ", p99.9=" + getValueAtPercentile(99.9) + ", max=" + max;
+        }
+    }
+}
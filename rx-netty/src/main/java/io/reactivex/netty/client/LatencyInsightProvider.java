@@ -0,0 +1,32 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+/**
+ * A {@link PoolInsightProvider} that also provides the latency histograms of the pool, see {@link PoolLatencyStats}
+ */
+public interface LatencyInsightProvider extends PoolInsightProvider {
+
+    /**
+     * Returns a snapshot of the latency histograms of the pool, see {@link PoolLatencyStats}
+     *
+     * @param reset If {@code true}, the histograms are reset after the snapshot, so that the next snapshot only has
+     *              the latencies recorded after this call.
+     *
+     * @return Snapshot of the latency histograms, {@code null} if there is no pool.
+     */
+    PoolLatencyStats.Snapshot getLatencySnapshot(boolean reset);
+}
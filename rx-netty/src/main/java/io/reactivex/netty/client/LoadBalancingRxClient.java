@@ -0,0 +1,433 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import io.reactivex.netty.channel.ObservableConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Observable;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.functions.Func1;
+import rx.subscriptions.Subscriptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link RxClient} that spreads connections across a dynamic set of hosts. <br/>
+ *
+ * Every host gets its own {@link RxClient} (and hence its own {@link ConnectionPool}), created by the passed factory.
+ * Eg: to use a pooled TCP client for every host:
+ * <pre>
+ * {@code
+ *  new LoadBalancingRxClient<I, O>(hostsObservable, new Func1<ServerInfo, RxClient<I, O>>() {
+ *      public RxClient<I, O> call(ServerInfo host) {
+ *          return new ClientBuilder<I, O>(host.getHost(), host.getPort()).withMaxConnections(100).build();
+ *      }
+ *  });
+ * }
+ * </pre>
+ *
+ * <h2>Host selection</h2>
+ * Every {@link #connect()} picks two random hosts and uses the one with the lower cost (power of two choices), where
+ * the cost of a host is the number of connections in flight for that host multiplied by the exponentially weighted
+ * moving average of the time a connection to that host is held (from {@link #connect()} to the connection being
+ * closed). A host with no latency samples yet is only compared on the connections in flight, so new hosts get traffic
+ * immediately. <br/>
+ *
+ * <h2>Host membership</h2>
+ * The hosts are the last list emitted by the hosts {@link Observable}. Clients for new hosts are created and clients of
+ * the hosts that are no longer in the list have their pools shutdown, without interrupting the connections in use.
+ * {@link #connect()} fails if there are no hosts. <br/>
+ *
+ * Shutting down this client (or removing a host) shuts down the pools of the host clients but not their event loop
+ * groups, as these are typically shared across hosts. <br/>
+ *
+ * The {@link PoolStats} of this client is a {@link CompositePoolStats} of all the current hosts and
+ * {@link #poolStateChangeObservable()} emits the events of all the current hosts.
+ *
+ * @param <I> The request object type for this client.
+ * @param <O> The response object type for this client.
+ */
+public class LoadBalancingRxClient<I, O> implements RxClient<I, O>, LatencyInsightProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadBalancingRxClient.class);
+
+    private static final double LATENCY_SMOOTHING = 0.2; // Weight of a new sample in the latency average.
+
+    private static final ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random(); // Not sharing a Random across threads as that contends on its seed.
+        }
+    };
+
+    private final Func1<ServerInfo, RxClient<I, O>> clientFactory;
+    private final Map<ServerInfo, HostHolder<I, O>> hostsByServerInfo; // Guarded by this
+    private volatile List<HostHolder<I, O>> hosts; // Copy on write, for the selection.
+    private final CompositePoolStats stats = new CompositePoolStats();
+    private final PoolStateChangeTap stateChangeTap = new PoolStateChangeTap();
+    private final Subscription membershipSubscription;
+    private final AtomicBoolean isShutdown = new AtomicBoolean();
+
+    public LoadBalancingRxClient(Observable<List<ServerInfo>> hostsObservable,
+                                 Func1<ServerInfo, RxClient<I, O>> clientFactory) {
+        if (null == hostsObservable) {
+            throw new NullPointerException("Hosts observable can not be null.");
+        }
+        if (null == clientFactory) {
+            throw new NullPointerException("Client factory can not be null.");
+        }
+        this.clientFactory = clientFactory;
+        hostsByServerInfo = new LinkedHashMap<ServerInfo, HostHolder<I, O>>();
+        hosts = Collections.emptyList();
+        membershipSubscription = hostsObservable.subscribe(new Subscriber<List<ServerInfo>>() {
+            @Override
+            public void onCompleted() {
+                // Keeps the last hosts.
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                logger.error("Hosts observable emitted an error, no further host membership updates will be applied.",
+                             e);
+            }
+
+            @Override
+            public void onNext(List<ServerInfo> serverInfos) {
+                updateHosts(serverInfos);
+            }
+        });
+    }
+
+    @Override
+    public Observable<ObservableConnection<O, I>> connect() {
+        if (isShutdown.get()) {
+            return Observable.error(new IllegalStateException("Client is already shutdown."));
+        }
+
+        return Observable.create(new Observable.OnSubscribe<ObservableConnection<O, I>>() {
+            @Override
+            public void call(final Subscriber<? super ObservableConnection<O, I>> subscriber) {
+                final HostHolder<I, O> host = chooseHost();
+                if (null == host) {
+                    subscriber.onError(new IllegalStateException("No hosts available to connect."));
+                    return;
+                }
+                host.connect(subscriber);
+            }
+        });
+    }
+
+    /**
+     * Shuts down the pools of all the hosts. If the host clients are not {@link RxClientImpl}, they are shutdown.
+     */
+    @Override
+    public void shutdown() {
+        if (!isShutdown.compareAndSet(false, true)) {
+            return;
+        }
+
+        membershipSubscription.unsubscribe();
+        List<HostHolder<I, O>> current;
+        synchronized (this) {
+            current = hosts;
+            hostsByServerInfo.clear();
+            hosts = Collections.emptyList();
+        }
+        for (HostHolder<I, O> host : current) {
+            removeHost(host);
+        }
+        stateChangeTap.onCompleted();
+    }
+
+    @Override
+    public Observable<PoolStateChangeEvent> poolStateChangeObservable() {
+        return stateChangeTap.asObservable();
+    }
+
+    /**
+     * Returns the sum of the stats of all the current hosts.
+     *
+     * @return The stats of all the current hosts.
+     */
+    @Override
+    public PoolStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the latencies of all the current hosts, combined.
+     *
+     * @param reset If {@code true}, the histograms of all hosts are reset after the snapshot.
+     *
+     * @return The latencies of all the current hosts combined, {@code null} if no host has a pool. Hosts with clients
+     * that are not {@link LatencyInsightProvider}s are ignored.
+     */
+    @Override
+    public PoolLatencyStats.Snapshot getLatencySnapshot(boolean reset) {
+        PoolLatencyStats.Snapshot toReturn = null;
+        for (HostHolder<I, O> host : hosts) {
+            if (!(host.client instanceof LatencyInsightProvider)) {
+                continue;
+            }
+            PoolLatencyStats.Snapshot hostSnapshot = ((LatencyInsightProvider) host.client).getLatencySnapshot(reset);
+            if (null != hostSnapshot) {
+                toReturn = null == toReturn ? hostSnapshot : toReturn.plus(hostSnapshot);
+            }
+        }
+        return toReturn;
+    }
+
+    /**
+     * Returns an {@link Observable} that completes when the pools of all the current hosts are warmed up, see
+     * {@link RxClientImpl#warmUpObservable()}. Hosts with clients that are not {@link RxClientImpl} are considered to
+     * be warmed up.
+     *
+     * @return {@link Observable} that completes when the pools of all the current hosts are warmed up or emits the
+     * first connect error.
+     */
+    public Observable<Void> warmUpObservable() {
+        List<HostHolder<I, O>> current = hosts;
+        List<Observable<Void>> warmUps = new ArrayList<Observable<Void>>(current.size());
+        for (HostHolder<I, O> host : current) {
+            if (host.client instanceof RxClientImpl) {
+                warmUps.add(((RxClientImpl<I, O>) host.client).warmUpObservable());
+            }
+        }
+        return Observable.merge(warmUps);
+    }
+
+    /**
+     * Returns the current hosts.
+     *
+     * @return The current hosts.
+     */
+    public List<ServerInfo> getHosts() {
+        List<HostHolder<I, O>> current = hosts;
+        List<ServerInfo> toReturn = new ArrayList<ServerInfo>(current.size());
+        for (HostHolder<I, O> host : current) {
+            toReturn.add(host.serverInfo);
+        }
+        return toReturn;
+    }
+
+    /*Visible for testing*/ HostHolder<I, O> chooseHost() {
+        final List<HostHolder<I, O>> current = hosts;
+        switch (current.size()) {
+            case 0:
+                return null;
+            case 1:
+                return current.get(0);
+            default:
+                Random random = RANDOM.get();
+                int first = random.nextInt(current.size());
+                int second = random.nextInt(current.size() - 1);
+                if (second >= first) {
+                    second++; // Two distinct hosts.
+                }
+                HostHolder<I, O> host1 = current.get(first);
+                HostHolder<I, O> host2 = current.get(second);
+                return host1.cost(host2) <= host2.cost(host1) ? host1 : host2;
+        }
+    }
+
+    private synchronized void updateHosts(List<ServerInfo> serverInfos) {
+        if (isShutdown.get()) {
+            return;
+        }
+
+        Set<ServerInfo> newHosts = new HashSet<ServerInfo>(serverInfos);
+        List<HostHolder<I, O>> removed = new ArrayList<HostHolder<I, O>>();
+        for (HostHolder<I, O> host : hostsByServerInfo.values()) {
+            if (!newHosts.contains(host.serverInfo)) {
+                removed.add(host);
+            }
+        }
+        for (HostHolder<I, O> host : removed) {
+            hostsByServerInfo.remove(host.serverInfo);
+        }
+
+        for (ServerInfo serverInfo : serverInfos) {
+            if (!hostsByServerInfo.containsKey(serverInfo)) {
+                try {
+                    hostsByServerInfo.put(serverInfo, newHost(serverInfo));
+                } catch (Exception e) {
+                    logger.error("Failed to create a client for host: " + serverInfo.getHost() + ':'
+                                 + serverInfo.getPort() + ", ignoring the host.", e);
+                }
+            }
+        }
+
+        hosts = new ArrayList<HostHolder<I, O>>(hostsByServerInfo.values());
+
+        for (HostHolder<I, O> host : removed) {
+            removeHost(host);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Updated hosts of the load balancing client to: " + hosts);
+        }
+    }
+
+    private HostHolder<I, O> newHost(ServerInfo serverInfo) {
+        RxClient<I, O> client = clientFactory.call(serverInfo);
+        final HostHolder<I, O> host = new HostHolder<I, O>(serverInfo, client);
+        host.stateChangeSubscription = client.poolStateChangeObservable().subscribe(new Subscriber<PoolStateChangeEvent>() {
+            @Override
+            public void onCompleted() {
+                // No op, the host is removed.
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                logger.error("Pool state change observable for host: " + host + " emitted an error.", e);
+            }
+
+            @Override
+            public void onNext(PoolStateChangeEvent event) {
+                stateChangeTap.onNext(event);
+            }
+        });
+        if (null != client.getStats()) {
+            stats.addNewStats(client.getStats());
+        }
+        return host;
+    }
+
+    private void removeHost(HostHolder<I, O> host) {
+        host.stateChangeSubscription.unsubscribe();
+        if (null != host.client.getStats()) {
+            stats.removeStats(host.client.getStats());
+        }
+        if (host.client instanceof RxClientImpl) {
+            ((RxClientImpl<I, O>) host.client).shutdownPool(); // Other hosts share the event loops.
+        } else {
+            host.client.shutdown();
+        }
+    }
+
+    /*Visible for testing*/ static class HostHolder<I, O> {
+
+        private final ServerInfo serverInfo;
+        private final RxClient<I, O> client;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double latencyNanosAverage; // Written only under the lock of this holder.
+        private Subscription stateChangeSubscription;
+
+        private HostHolder(ServerInfo serverInfo, RxClient<I, O> client) {
+            this.serverInfo = serverInfo;
+            this.client = client;
+        }
+
+        /**
+         * Cost of sending a connection to this host, compared to the passed host.
+         */
+        /*Visible for testing*/ double cost(HostHolder<I, O> other) {
+            double latency = latencyNanosAverage;
+            if (0 == latency || 0 == other.latencyNanosAverage) {
+                return inFlight.get(); // Latencies are not comparable till both hosts have samples.
+            }
+            return (inFlight.get() + 1) * latency;
+        }
+
+        /*Visible for testing*/ int getInFlight() {
+            return inFlight.get();
+        }
+
+        /*Visible for testing*/ void onLatencySample(long latencyNanos) {
+            synchronized (this) {
+                double current = latencyNanosAverage;
+                latencyNanosAverage = 0 == current
+                                      ? latencyNanos
+                                      : current * (1 - LATENCY_SMOOTHING) + latencyNanos * LATENCY_SMOOTHING;
+            }
+        }
+
+        private void connect(final Subscriber<? super ObservableConnection<O, I>> subscriber) {
+            final long startTimeNanos = System.nanoTime();
+            final AtomicBoolean done = new AtomicBoolean();
+            final AtomicBoolean connected = new AtomicBoolean();
+            inFlight.incrementAndGet();
+            subscriber.add(Subscriptions.create(new Action0() {
+                @Override
+                public void call() {
+                    if (!connected.get() && done.compareAndSet(false, true)) {
+                        inFlight.decrementAndGet(); // Unsubscribed before getting a connection.
+                    }
+                }
+            }));
+            client.connect().subscribe(new Subscriber<ObservableConnection<O, I>>(subscriber) {
+                @Override
+                public void onCompleted() {
+                    subscriber.onCompleted();
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    if (done.compareAndSet(false, true)) {
+                        inFlight.decrementAndGet();
+                    }
+                    subscriber.onError(e);
+                }
+
+                @Override
+                public void onNext(ObservableConnection<O, I> connection) {
+                    connected.set(true); // From now on, the connection is in flight till it is closed.
+                    // Input completes when the connection is closed (or returned to the pool).
+                    connection.getInput().subscribe(new Subscriber<O>() {
+                        @Override
+                        public void onCompleted() {
+                            onConnectionDone();
+                        }
+
+                        @Override
+                        public void onError(Throwable e) {
+                            onConnectionDone();
+                        }
+
+                        @Override
+                        public void onNext(O o) {
+                            // No op, only tracking the completion.
+                        }
+                    });
+                    subscriber.onNext(connection);
+                }
+
+                private void onConnectionDone() {
+                    if (done.compareAndSet(false, true)) {
+                        inFlight.decrementAndGet();
+                        onLatencySample(System.nanoTime() - startTimeNanos);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public String toString() {
+            return serverInfo.getHost() + ':' + serverInfo.getPort();
+        }
+    }
+}
@@ -121,6 +121,10 @@ public class MaxConnectionsBasedStrategy implements PoolLimitDeterminationStrate
                 break;
             case onReleaseFailed:
                 break;
+            case ConnectQueued:
+                break;
+            case ConnectDequeued:
+                break;
         }
     }
 
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * A blocking lookup of the addresses of a host name. {@link CachingHostResolver} runs the lookups away from the event
+ * loops and caches the results.
+ */
+public interface NameResolver {
+
+    /**
+     * Resolves the passed host name, blocking till the addresses are available.
+     *
+     * @param host Host name to resolve.
+     *
+     * @return All the addresses of the host, never empty.
+     *
+     * @throws UnknownHostException If the host could not be resolved.
+     */
+    InetAddress[] resolve(String host) throws UnknownHostException;
+}
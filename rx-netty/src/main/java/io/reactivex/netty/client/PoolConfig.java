@@ -20,15 +20,281 @@ package io.reactivex.netty.client;
 */
 public class PoolConfig {
 
+    public static final long NO_TIMEOUT = -1;
+    public static final int NO_CONNECT_LIMIT = Integer.MAX_VALUE;
+    public static final long NO_CONNECT_BACKOFF = 0;
+    public static final int NO_REUSE_LIMIT = Integer.MAX_VALUE;
+
     public static final PoolConfig DEFAULT_CONFIG = new PoolConfig(30000);
 
     private final long maxIdleTimeMillis;
+    private final int maxPendingAcquires;
+    private final long pendingAcquireTimeoutMillis;
+    private final IdleSelectionPolicy idleSelectionPolicy;
+    private final int minIdleConnections;
+    private final int maxConcurrentConnects;
+    private final long connectBackoffBaseMillis;
+    private final long connectBackoffMaxMillis;
+    private final long maxLifetimeMillis;
+    private final long maxLifetimeJitterMillis;
+    private final int maxReuseCount;
 
     public PoolConfig(long maxIdleTimeMillis) {
+        this(maxIdleTimeMillis, 0, NO_TIMEOUT);
+    }
+
+    public PoolConfig(long maxIdleTimeMillis, int maxPendingAcquires, long pendingAcquireTimeoutMillis) {
+        this(maxIdleTimeMillis, maxPendingAcquires, pendingAcquireTimeoutMillis, IdleSelectionPolicy.Fifo);
+    }
+
+    /**
+     * Creates a new pool configuration.
+     *
+     * @param maxIdleTimeMillis Maximum time a connection can stay idle in the pool.
+     * @param maxPendingAcquires Maximum number of acquire requests that can wait for a connection when the pool is
+     *                           exhausted. {@code 0} means that the acquire fails immediately when the pool is exhausted.
+     * @param pendingAcquireTimeoutMillis Maximum time an acquire request waits for a connection, after which it fails
+     *                                    with a {@link PoolExhaustedException}. {@link #NO_TIMEOUT} means wait forever.
+     * @param idleSelectionPolicy Order in which idle connections are picked for reuse.
+     */
+    public PoolConfig(long maxIdleTimeMillis, int maxPendingAcquires, long pendingAcquireTimeoutMillis,
+                      IdleSelectionPolicy idleSelectionPolicy) {
+        this(maxIdleTimeMillis, maxPendingAcquires, pendingAcquireTimeoutMillis, idleSelectionPolicy, 0);
+    }
+
+    /**
+     * Creates a new pool configuration.
+     *
+     * @param maxIdleTimeMillis Maximum time a connection can stay idle in the pool.
+     * @param maxPendingAcquires Maximum number of acquire requests that can wait for a connection when the pool is
+     *                           exhausted. {@code 0} means that the acquire fails immediately when the pool is exhausted.
+     * @param pendingAcquireTimeoutMillis Maximum time an acquire request waits for a connection, after which it fails
+     *                                    with a {@link PoolExhaustedException}. {@link #NO_TIMEOUT} means wait forever.
+     * @param idleSelectionPolicy Order in which idle connections are picked for reuse.
+     * @param minIdleConnections Minimum number of idle connections the pool opens in the background when it is
+     *                           created and after idle connections are evicted.
+     */
+    public PoolConfig(long maxIdleTimeMillis, int maxPendingAcquires, long pendingAcquireTimeoutMillis,
+                      IdleSelectionPolicy idleSelectionPolicy, int minIdleConnections) {
+        this(maxIdleTimeMillis, maxPendingAcquires, pendingAcquireTimeoutMillis, idleSelectionPolicy,
+             minIdleConnections, NO_CONNECT_LIMIT, NO_CONNECT_BACKOFF, NO_CONNECT_BACKOFF);
+    }
+
+    /**
+     * Creates a new pool configuration.
+     *
+     * @param maxIdleTimeMillis Maximum time a connection can stay idle in the pool.
+     * @param maxPendingAcquires Maximum number of acquire requests that can wait for a connection when the pool is
+     *                           exhausted. {@code 0} means that the acquire fails immediately when the pool is exhausted.
+     * @param pendingAcquireTimeoutMillis Maximum time an acquire request waits for a connection, after which it fails
+     *                                    with a {@link PoolExhaustedException}. {@link #NO_TIMEOUT} means wait forever.
+     * @param idleSelectionPolicy Order in which idle connections are picked for reuse.
+     * @param minIdleConnections Minimum number of idle connections the pool opens in the background when it is
+     *                           created and after idle connections are evicted.
+     * @param maxConcurrentConnects Maximum number of connect attempts in progress at any time, any more connects are
+     *                              queued till one of the attempts finish. {@link #NO_CONNECT_LIMIT} means no limit.
+     * @param connectBackoffBaseMillis Time for which no new connects are attempted after a connect failure. This is
+     *                                 doubled for every consecutive failure. {@link #NO_CONNECT_BACKOFF} disables the
+     *                                 backoff.
+     * @param connectBackoffMaxMillis Maximum time for which connects are backed off.
+     */
+    public PoolConfig(long maxIdleTimeMillis, int maxPendingAcquires, long pendingAcquireTimeoutMillis,
+                      IdleSelectionPolicy idleSelectionPolicy, int minIdleConnections, int maxConcurrentConnects,
+                      long connectBackoffBaseMillis, long connectBackoffMaxMillis) {
+        this(maxIdleTimeMillis, maxPendingAcquires, pendingAcquireTimeoutMillis, idleSelectionPolicy,
+             minIdleConnections, maxConcurrentConnects, connectBackoffBaseMillis, connectBackoffMaxMillis, NO_TIMEOUT, 0,
+             NO_REUSE_LIMIT);
+    }
+
+    private PoolConfig(long maxIdleTimeMillis, int maxPendingAcquires, long pendingAcquireTimeoutMillis,
+                       IdleSelectionPolicy idleSelectionPolicy, int minIdleConnections, int maxConcurrentConnects,
+                       long connectBackoffBaseMillis, long connectBackoffMaxMillis, long maxLifetimeMillis,
+                       long maxLifetimeJitterMillis, int maxReuseCount) {
+        if (null == idleSelectionPolicy) {
+            throw new NullPointerException("Idle selection policy can not be null.");
+        }
         this.maxIdleTimeMillis = maxIdleTimeMillis;
+        this.maxPendingAcquires = maxPendingAcquires;
+        this.pendingAcquireTimeoutMillis = pendingAcquireTimeoutMillis;
+        this.idleSelectionPolicy = idleSelectionPolicy;
+        this.minIdleConnections = minIdleConnections;
+        if (maxConcurrentConnects <= 0) {
+            throw new IllegalArgumentException("Maximum concurrent connects must be positive.");
+        }
+        this.maxConcurrentConnects = maxConcurrentConnects;
+        this.connectBackoffBaseMillis = connectBackoffBaseMillis;
+        this.connectBackoffMaxMillis = Math.max(connectBackoffBaseMillis, connectBackoffMaxMillis);
+        if (NO_TIMEOUT != maxLifetimeMillis && maxLifetimeJitterMillis >= maxLifetimeMillis) {
+            throw new IllegalArgumentException("Maximum lifetime jitter must be less than the maximum lifetime.");
+        }
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.maxLifetimeJitterMillis = Math.max(0, maxLifetimeJitterMillis);
+        if (maxReuseCount < 0) {
+            throw new IllegalArgumentException("Maximum reuse count can not be negative.");
+        }
+        this.maxReuseCount = maxReuseCount;
     }
 
     public long getMaxIdleTimeMillis() {
         return maxIdleTimeMillis;
     }
+
+    public int getMaxPendingAcquires() {
+        return maxPendingAcquires;
+    }
+
+    public long getPendingAcquireTimeoutMillis() {
+        return pendingAcquireTimeoutMillis;
+    }
+
+    public boolean isPendingAcquireTimeoutSet() {
+        return NO_TIMEOUT != pendingAcquireTimeoutMillis;
+    }
+
+    public IdleSelectionPolicy getIdleSelectionPolicy() {
+        return idleSelectionPolicy;
+    }
+
+    public int getMinIdleConnections() {
+        return minIdleConnections;
+    }
+
+    public int getMaxConcurrentConnects() {
+        return maxConcurrentConnects;
+    }
+
+    public long getConnectBackoffBaseMillis() {
+        return connectBackoffBaseMillis;
+    }
+
+    public long getConnectBackoffMaxMillis() {
+        return connectBackoffMaxMillis;
+    }
+
+    public boolean isConnectBackoffEnabled() {
+        return connectBackoffBaseMillis > 0;
+    }
+
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    public boolean isMaxLifetimeSet() {
+        return NO_TIMEOUT != maxLifetimeMillis;
+    }
+
+    public long getMaxLifetimeJitterMillis() {
+        return maxLifetimeJitterMillis;
+    }
+
+    public int getMaxReuseCount() {
+        return maxReuseCount;
+    }
+
+    /**
+     * A builder for {@link PoolConfig}, starting with the values of {@link PoolConfig#DEFAULT_CONFIG}
+     */
+    public static class Builder {
+
+        private long maxIdleTimeMillis = DEFAULT_CONFIG.maxIdleTimeMillis;
+        private int maxPendingAcquires = DEFAULT_CONFIG.maxPendingAcquires;
+        private long pendingAcquireTimeoutMillis = DEFAULT_CONFIG.pendingAcquireTimeoutMillis;
+        private IdleSelectionPolicy idleSelectionPolicy = DEFAULT_CONFIG.idleSelectionPolicy;
+        private int minIdleConnections = DEFAULT_CONFIG.minIdleConnections;
+        private int maxConcurrentConnects = DEFAULT_CONFIG.maxConcurrentConnects;
+        private long connectBackoffBaseMillis = DEFAULT_CONFIG.connectBackoffBaseMillis;
+        private long connectBackoffMaxMillis = DEFAULT_CONFIG.connectBackoffMaxMillis;
+        private long maxLifetimeMillis = DEFAULT_CONFIG.maxLifetimeMillis;
+        private long maxLifetimeJitterMillis = DEFAULT_CONFIG.maxLifetimeJitterMillis;
+        private int maxReuseCount = DEFAULT_CONFIG.maxReuseCount;
+
+        public Builder maxIdleTimeMillis(long maxIdleTimeMillis) {
+            this.maxIdleTimeMillis = maxIdleTimeMillis;
+            return this;
+        }
+
+        public Builder maxPendingAcquires(int maxPendingAcquires) {
+            this.maxPendingAcquires = maxPendingAcquires;
+            return this;
+        }
+
+        public Builder pendingAcquireTimeoutMillis(long pendingAcquireTimeoutMillis) {
+            this.pendingAcquireTimeoutMillis = pendingAcquireTimeoutMillis;
+            return this;
+        }
+
+        public Builder idleSelectionPolicy(IdleSelectionPolicy idleSelectionPolicy) {
+            this.idleSelectionPolicy = idleSelectionPolicy;
+            return this;
+        }
+
+        public Builder minIdleConnections(int minIdleConnections) {
+            this.minIdleConnections = minIdleConnections;
+            return this;
+        }
+
+        public Builder maxConcurrentConnects(int maxConcurrentConnects) {
+            this.maxConcurrentConnects = maxConcurrentConnects;
+            return this;
+        }
+
+        public Builder connectBackoff(long baseMillis, long maxMillis) {
+            connectBackoffBaseMillis = baseMillis;
+            connectBackoffMaxMillis = maxMillis;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time a connection is used, after which it is closed when it is next released to the pool
+         * (or found idle in the pool). A random duration, up to {@code jitterMillis}, is subtracted from the lifetime
+         * of every connection, so that connections created together are not all closed at the same time.
+         *
+         * @param maxLifetimeMillis Maximum lifetime of a connection.
+         * @param jitterMillis Maximum random reduction of the lifetime of a connection.
+         *
+         * @return This builder.
+         */
+        public Builder maxLifetime(long maxLifetimeMillis, long jitterMillis) {
+            this.maxLifetimeMillis = maxLifetimeMillis;
+            maxLifetimeJitterMillis = jitterMillis;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of times a connection is reused, after which it is closed when it is next released
+         * to the pool.
+         *
+         * @param maxReuseCount Maximum number of reuses of a connection.
+         *
+         * @return This builder.
+         */
+        public Builder maxReuseCount(int maxReuseCount) {
+            this.maxReuseCount = maxReuseCount;
+            return this;
+        }
+
+        public PoolConfig build() {
+            return new PoolConfig(maxIdleTimeMillis, maxPendingAcquires, pendingAcquireTimeoutMillis,
+                                  idleSelectionPolicy, minIdleConnections, maxConcurrentConnects,
+                                  connectBackoffBaseMillis, connectBackoffMaxMillis, maxLifetimeMillis,
+                                  maxLifetimeJitterMillis, maxReuseCount);
+        }
+    }
+
+    /**
+     * The order in which idle connections are picked from the pool for reuse.
+     */
+    public enum IdleSelectionPolicy {
+
+        /**
+         * Least recently used connection first. This spreads the load over all idle connections.
+         */
+        Fifo,
+
+        /**
+         * Most recently used connection first. This keeps a minimal set of connections busy, so that the surplus
+         * connections (eg: created during a traffic spike) expire after being idle for the max idle time.
+         */
+        Lifo
+    }
 }
@@ -45,6 +45,8 @@ public interface PoolInsightProvider {
         onAcquireFailed,
         onReleaseAttempted,
         onReleaseSucceeded,
-        onReleaseFailed
+        onReleaseFailed,
+        ConnectQueued,
+        ConnectDequeued
     }
 }
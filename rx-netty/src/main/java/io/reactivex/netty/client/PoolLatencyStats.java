@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+/**
+ * Latency histograms recorded by a {@link ConnectionPoolImpl}, to tell where the time of getting a connection goes.
+ * All latencies are in microseconds.
+ */
+public class PoolLatencyStats {
+
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final LatencyHistogram connectLatency = new LatencyHistogram();
+    private final LatencyHistogram connectionAgeAtReuse = new LatencyHistogram();
+    private final LatencyHistogram connectionLifetime = new LatencyHistogram();
+
+    /**
+     * Time from subscribing to {@link ConnectionPool#acquire} till a connection is handed over, including waiting for
+     * a connection when the pool is exhausted and connecting.
+     */
+    public LatencyHistogram getAcquireLatency() {
+        return acquireLatency;
+    }
+
+    /**
+     * Time taken to establish new connections, ie: from the connect attempt till the connection is ready to be used.
+     */
+    public LatencyHistogram getConnectLatency() {
+        return connectLatency;
+    }
+
+    /**
+     * Time since a connection was established, when it is reused from the pool.
+     */
+    public LatencyHistogram getConnectionAgeAtReuse() {
+        return connectionAgeAtReuse;
+    }
+
+    /**
+     * Time from a connection being established till it is closed by the pool.
+     */
+    public LatencyHistogram getConnectionLifetime() {
+        return connectionLifetime;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(acquireLatency.snapshot(), connectLatency.snapshot(), connectionAgeAtReuse.snapshot(),
+                            connectionLifetime.snapshot());
+    }
+
+    public Snapshot snapshotAndReset() {
+        return new Snapshot(acquireLatency.snapshotAndReset(), connectLatency.snapshotAndReset(),
+                            connectionAgeAtReuse.snapshotAndReset(), connectionLifetime.snapshotAndReset());
+    }
+
+    /**
+     * A point in time view of {@link PoolLatencyStats}.
+     */
+    public static class Snapshot {
+
+        private final LatencyHistogram.Snapshot acquireLatency;
+        private final LatencyHistogram.Snapshot connectLatency;
+        private final LatencyHistogram.Snapshot connectionAgeAtReuse;
+        private final LatencyHistogram.Snapshot connectionLifetime;
+
+        Snapshot(LatencyHistogram.Snapshot acquireLatency, LatencyHistogram.Snapshot connectLatency,
+                 LatencyHistogram.Snapshot connectionAgeAtReuse, LatencyHistogram.Snapshot connectionLifetime) {
+            this.acquireLatency = acquireLatency;
+            this.connectLatency = connectLatency;
+            this.connectionAgeAtReuse = connectionAgeAtReuse;
+            this.connectionLifetime = connectionLifetime;
+        }
+
+        public LatencyHistogram.Snapshot getAcquireLatency() {
+            return acquireLatency;
+        }
+
+        public LatencyHistogram.Snapshot getConnectLatency() {
+            return connectLatency;
+        }
+
+        public LatencyHistogram.Snapshot getConnectionAgeAtReuse() {
+            return connectionAgeAtReuse;
+        }
+
+        public LatencyHistogram.Snapshot getConnectionLifetime() {
+            return connectionLifetime;
+        }
+
+        /**
+         * Combines this snapshot with the passed one, eg: to get the latencies across multiple pools.
+         *
+         * @param other Snapshot to add.
+         *
+         * @return A new snapshot with the values of both the snapshots.
+         */
+        public Snapshot plus(Snapshot other) {
+            return new Snapshot(acquireLatency.plus(other.acquireLatency), connectLatency.plus(other.connectLatency),
+                                connectionAgeAtReuse.plus(other.connectionAgeAtReuse),
+                                connectionLifetime.plus(other.connectionLifetime));
+        }
+
+        @Override
+        public String toString() {
+            return "Acquire: [" + acquireLatency + "], Connect: [" + connectLatency + "], Age at reuse: ["
+                   + connectionAgeAtReuse + "], Lifetime: [" + connectionLifetime + ']';
+        }
+    }
+}
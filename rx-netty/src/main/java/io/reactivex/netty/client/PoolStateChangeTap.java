@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.subscriptions.Subscriptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An opt-in tap on the {@link PoolInsightProvider.PoolStateChangeEvent}s of a pool, exposed as an {@link Observable}.
+ * <br/>
+ * The pool notifies its stats and limit strategy directly, this tap only exists for external subscribers. When
+ * nobody is subscribed, publishing an event is a single volatile read. <br/>
+ * Like a {@code PublishSubject}, events are delivered on the thread that caused the state change, so a subscriber can
+ * receive events concurrently from multiple threads.
+ */
+class PoolStateChangeTap {
+
+    private static final List<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>> NO_SUBSCRIBERS =
+            Collections.emptyList();
+    // Compared by identity, a distinct instance from NO_SUBSCRIBERS.
+    private static final List<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>> TERMINATED =
+            Collections.unmodifiableList(new ArrayList<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>>(0));
+
+    // Copy on write, a published list is never modified.
+    private final AtomicReference<List<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>>> subscribers;
+    private final Observable<PoolInsightProvider.PoolStateChangeEvent> observable;
+
+    PoolStateChangeTap() {
+        subscribers = new AtomicReference<List<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>>>(NO_SUBSCRIBERS);
+        observable = Observable.create(new Observable.OnSubscribe<PoolInsightProvider.PoolStateChangeEvent>() {
+            @Override
+            public void call(final Subscriber<? super PoolInsightProvider.PoolStateChangeEvent> subscriber) {
+                if (!add(subscriber)) {
+                    subscriber.onCompleted(); // Pool is already shutdown.
+                    return;
+                }
+                subscriber.add(Subscriptions.create(new Action0() {
+                    @Override
+                    public void call() {
+                        remove(subscriber);
+                    }
+                }));
+            }
+        });
+    }
+
+    Observable<PoolInsightProvider.PoolStateChangeEvent> asObservable() {
+        return observable;
+    }
+
+    void onNext(PoolInsightProvider.PoolStateChangeEvent event) {
+        List<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>> current = subscribers.get();
+        for (int i = 0; i < current.size(); i++) { // Indexed, as an iterator is an allocation per event.
+            current.get(i).onNext(event);
+        }
+    }
+
+    void onCompleted() {
+        List<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>> current = subscribers.getAndSet(TERMINATED);
+        for (Subscriber<? super PoolInsightProvider.PoolStateChangeEvent> subscriber : current) {
+            subscriber.onCompleted();
+        }
+    }
+
+    private boolean add(Subscriber<? super PoolInsightProvider.PoolStateChangeEvent> subscriber) {
+        for (;;) {
+            List<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>> current = subscribers.get();
+            if (current == TERMINATED) {
+                return false;
+            }
+            List<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>> updated =
+                    new ArrayList<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>>(current.size() + 1);
+            updated.addAll(current);
+            updated.add(subscriber);
+            if (subscribers.compareAndSet(current, updated)) {
+                return true;
+            }
+        }
+    }
+
+    private void remove(Subscriber<? super PoolInsightProvider.PoolStateChangeEvent> subscriber) {
+        for (;;) {
+            List<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>> current = subscribers.get();
+            int index = current.indexOf(subscriber);
+            if (index < 0) {
+                return; // Also the case when terminated.
+            }
+            List<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>> updated;
+            if (1 == current.size()) {
+                updated = NO_SUBSCRIBERS;
+            } else {
+                updated = new ArrayList<Subscriber<? super PoolInsightProvider.PoolStateChangeEvent>>(current);
+                updated.remove(index);
+            }
+            if (subscribers.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+}
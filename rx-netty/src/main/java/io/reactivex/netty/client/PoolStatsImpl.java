@@ -22,7 +22,7 @@ import org.slf4j.LoggerFactory;
 /**
  * @author Nitesh Kant
  */
-public class PoolStatsImpl implements PoolStats, PoolStatsProvider {
+public class PoolStatsImpl implements QueuedConnectStats, PoolStatsProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(PoolStatsImpl.class);
 
@@ -31,6 +31,7 @@ public class PoolStatsImpl implements PoolStats, PoolStatsProvider {
     private final LongAdder totalConnections;
     private final LongAdder pendingAcquires;
     private final LongAdder pendingReleases;
+    private final LongAdder queuedConnects;
 
     public PoolStatsImpl() {
         idleConnections = new LongAdder();
@@ -38,6 +39,7 @@ public class PoolStatsImpl implements PoolStats, PoolStatsProvider {
         totalConnections = new LongAdder();
         pendingAcquires = new LongAdder();
         pendingReleases = new LongAdder();
+        queuedConnects = new LongAdder();
     }
 
     @Override
@@ -65,6 +67,11 @@ public class PoolStatsImpl implements PoolStats, PoolStatsProvider {
         return pendingReleases.longValue();
     }
 
+    @Override
+    public long getQueuedConnectCount() {
+        return queuedConnects.longValue();
+    }
+
     @Override
     public void onCompleted() {
         // No op.
@@ -108,6 +115,12 @@ public class PoolStatsImpl implements PoolStats, PoolStatsProvider {
             case onReleaseFailed:
                 onReleaseFailed();
                 break;
+            case ConnectQueued:
+                queuedConnects.increment();
+                break;
+            case ConnectDequeued:
+                queuedConnects.decrement();
+                break;
         }
     }
 
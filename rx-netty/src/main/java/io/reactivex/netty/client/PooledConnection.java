@@ -17,11 +17,13 @@ package io.reactivex.netty.client;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.Timeout;
 import io.reactivex.netty.channel.ObservableConnection;
 import io.reactivex.netty.protocol.http.client.ClientRequestResponseConverter;
 import rx.Observable;
 import rx.subjects.PublishSubject;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -34,21 +36,47 @@ public class PooledConnection<I, O> extends ObservableConnection<I, O> {
 
     private final AtomicBoolean acquiredOrSoonToBeDiscarded = new AtomicBoolean(); // Being paranoid on the name as this
                                                                                    // is exactly what it is doing and I don't want this flag use to be overloaded.
+    private final AtomicBoolean discarded = new AtomicBoolean();
 
     private final ConnectionPool<I, O> pool;
 
     private volatile long lastReturnToPoolTimeMillis;
     private volatile long maxIdleTimeMillis;
+    private volatile Timeout idleEvictionTimeout;
+    private volatile long acquireTimeNanos;
+    private final long createTimeNanos = System.nanoTime();
+    private final long maxLifetimeNanos;
+    private final int maxReuseCount;
+    private volatile int reuseCount; // Only updated by the pool after claiming the connection.
 
     public PooledConnection(ChannelHandlerContext ctx, ConnectionPool<I, O> pool) {
         this(ctx, pool, PoolConfig.DEFAULT_CONFIG.getMaxIdleTimeMillis());
     }
 
     public PooledConnection(ChannelHandlerContext ctx, ConnectionPool<I, O> pool, long maxIdleTimeMillis) {
+        this(ctx, pool, maxIdleTimeMillis, PoolConfig.NO_TIMEOUT, PoolConfig.NO_REUSE_LIMIT);
+    }
+
+    /**
+     * Creates a new pooled connection.
+     *
+     * @param ctx Context of the connection.
+     * @param pool Pool to which this connection belongs.
+     * @param maxIdleTimeMillis Maximum time this connection can stay idle in the pool.
+     * @param maxLifetimeMillis Maximum time since creation this connection can be used, {@link PoolConfig#NO_TIMEOUT}
+     *                          if there is no limit.
+     * @param maxReuseCount Maximum number of times this connection can be reused.
+     */
+    public PooledConnection(ChannelHandlerContext ctx, ConnectionPool<I, O> pool, long maxIdleTimeMillis,
+                            long maxLifetimeMillis, int maxReuseCount) {
         super(ctx);
         this.pool = pool;
         lastReturnToPoolTimeMillis = System.currentTimeMillis();
         this.maxIdleTimeMillis = maxIdleTimeMillis;
+        maxLifetimeNanos = PoolConfig.NO_TIMEOUT == maxLifetimeMillis
+                           ? Long.MAX_VALUE
+                           : TimeUnit.MILLISECONDS.toNanos(maxLifetimeMillis);
+        this.maxReuseCount = maxReuseCount;
     }
 
     @Override
@@ -88,7 +116,9 @@ public class PooledConnection<I, O> extends ObservableConnection<I, O> {
     /**
      * Returns whether this connection is safe to be used at this moment. <br/>
      * This makes sure that the underlying netty's channel is active as returned by
-     * {@link Channel#isActive()} and it has not passed the maximum idle time in the pool.
+     * {@link Channel#isActive()}, it has not passed the maximum idle time in the pool and it has not reached its
+     * maximum lifetime or reuse count. A connection that reaches either of the limits while in use, is closed when it
+     * is released.
      *
      * @return {@code true} if the connection is usable.
      */
@@ -100,12 +130,17 @@ public class PooledConnection<I, O> extends ObservableConnection<I, O> {
             return false;
         }
 
+        if (reuseCount >= maxReuseCount || System.nanoTime() - createTimeNanos >= maxLifetimeNanos) {
+            return false; // Retired, so that the load is spread over the servers that came up after the connection.
+        }
+
         long nowMillis = System.currentTimeMillis();
         long idleTime = nowMillis - lastReturnToPoolTimeMillis;
         return idleTime < maxIdleTimeMillis;
     }
 
     public void beforeReuse() {
+        reuseCount++;
         closeIssued.set(false); // So that close can be called after reuse.
         PublishSubject<I> newInputSubject = PublishSubject.create();
         updateInputSubject(newInputSubject);
@@ -113,6 +148,59 @@ public class PooledConnection<I, O> extends ObservableConnection<I, O> {
         getChannelHandlerContext().fireUserEventTriggered(reuseEvent);
     }
 
+    /**
+     * Returns the maximum time this connection can stay idle in the pool. This is the pool's configured idle time
+     * unless the server sent a keep-alive timeout for this connection.
+     *
+     * @return The maximum idle time in milliseconds.
+     */
+    public long getMaxIdleTimeMillis() {
+        return maxIdleTimeMillis;
+    }
+
+    /*Package private to be used only by ConnectionPoolImpl*/ void setIdleEvictionTimeout(Timeout idleEvictionTimeout) {
+        this.idleEvictionTimeout = idleEvictionTimeout;
+    }
+
+    /*Package private to be used only by ConnectionPoolImpl*/ boolean isIdleEvictionTimeout(Timeout timeout) {
+        return idleEvictionTimeout == timeout;
+    }
+
+    /*Package private to be used only by ConnectionPoolImpl*/ void cancelIdleEvictionTimeout() {
+        Timeout timeout = idleEvictionTimeout;
+        if (null != timeout) {
+            idleEvictionTimeout = null;
+            timeout.cancel();
+        }
+    }
+
+    /*Package private to be used only by ConnectionPoolImpl*/ void setAcquireTimeNanos(long acquireTimeNanos) {
+        this.acquireTimeNanos = acquireTimeNanos;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} when this connection was last handed over by the pool, if the pool tracks
+     * latencies.
+     *
+     * @return The time of the last acquire or {@code 0} if unknown.
+     */
+    /*Package private to be used only by ConnectionPoolImpl*/ long getAcquireTimeNanos() {
+        return acquireTimeNanos;
+    }
+
+    /**
+     * Returns the number of times this connection was reused after creation.
+     *
+     * @return The reuse count.
+     */
+    public int getReuseCount() {
+        return reuseCount;
+    }
+
+    /*Package private to be used only by ConnectionPoolImpl*/ long getCreateTimeNanos() {
+        return createTimeNanos;
+    }
+
     /*Visible for testing*/ void setLastReturnToPoolTimeMillis(long lastReturnToPoolTimeMillis) {
         this.lastReturnToPoolTimeMillis = lastReturnToPoolTimeMillis;
     }
@@ -125,4 +213,20 @@ public class PooledConnection<I, O> extends ObservableConnection<I, O> {
     /*Package private to be used only by ConnectionPoolImp. The contract is too weak to be public*/ boolean claim() {
         return acquiredOrSoonToBeDiscarded.compareAndSet(false, true);
     }
+
+    /**
+     * Marks this connection as discarded from the pool. Unlike {@link #claim()}, this is never reverted.
+     *
+     * @return {@code true} only for the first invocation, ie: only this caller must evict the connection.
+     */
+    /*Package private to be used only by ConnectionPoolImpl*/ boolean markDiscarded() {
+        return discarded.compareAndSet(false, true);
+    }
+
+    /**
+     * Reverts a successful {@link #claim()}, when the claimed connection could not be handed over to anyone.
+     */
+    /*Package private to be used only by ConnectionPoolImp. The contract is too weak to be public*/ void unclaim() {
+        acquiredOrSoonToBeDiscarded.set(false);
+    }
 }
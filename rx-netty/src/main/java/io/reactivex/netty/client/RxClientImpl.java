@@ -34,13 +34,13 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * @param <I> The request object type for this client.
  * @param <O> The response object type for this client.
  */
-public class RxClientImpl<I, O> implements RxClient<I, O> {
+public class RxClientImpl<I, O> implements RxClient<I, O>, LatencyInsightProvider {
 
     protected final ServerInfo serverInfo;
     protected final Bootstrap clientBootstrap;
 
     /**
-     * This should NOT be used directly. {@link ClientChannelFactoryImpl#getPipelineConfiguratorForAChannel(ClientConnectionHandler, PipelineConfigurator)}
+     * This should NOT be used directly. {@link ClientChannelFactoryImpl#getPipelineConfiguratorForClient(io.reactivex.netty.channel.ConnectionHandler, PipelineConfigurator)}
      * is the correct way of getting the pipeline configurator.
      */
     private final PipelineConfigurator<O, I> incompleteConfigurator;
@@ -50,6 +50,7 @@ public class RxClientImpl<I, O> implements RxClient<I, O> {
     protected final ClientChannelAbstractFactory<O, I> clientChannelAbstractFactory;
     protected ConnectionPool<O, I> pool;
     private final AtomicBoolean isShutdown = new AtomicBoolean();
+    private volatile Observable<Void> warmUpObservable = Observable.empty();
 
     public RxClientImpl(ServerInfo serverInfo, Bootstrap clientBootstrap, ClientConfig clientConfig) {
         this(serverInfo, clientBootstrap, null, clientConfig, null);
@@ -107,6 +108,11 @@ public class RxClientImpl<I, O> implements RxClient<I, O> {
         }
 
         incompleteConfigurator = pipelineConfigurator;
+
+        if (pool instanceof ConnectionPoolImpl) {
+            warmUpObservable = ((ConnectionPoolImpl<O, I>) pool).setBackgroundConnectConfigurator(incompleteConfigurator)
+                                                                .cache();
+        }
     }
 
     /**
@@ -153,6 +159,16 @@ public class RxClientImpl<I, O> implements RxClient<I, O> {
         }
     }
 
+    /**
+     * Shuts down the connection pool of this client without shutting down the event loop group, which may be shared
+     * with other clients, eg: by {@link LoadBalancingRxClient}.
+     */
+    void shutdownPool() {
+        if (isShutdown.compareAndSet(false, true) && null != pool) {
+            pool.shutdown();
+        }
+    }
+
     @Override
     public Observable<PoolStateChangeEvent> poolStateChangeObservable() {
         if (null == pool) {
@@ -161,6 +177,27 @@ public class RxClientImpl<I, O> implements RxClient<I, O> {
         return pool.poolStateChangeObservable();
     }
 
+    /**
+     * Returns an {@link Observable} that completes when the connections opened by the pool of this client in the
+     * background, on creation of the client, are established. These are the connections requested via
+     * {@link AbstractClientBuilder#withMinIdleConnections(int)} and {@link AbstractClientBuilder#warmUp(int)}. <br/>
+     * The connections are opened irrespective of any subscription to the returned {@link Observable}.
+     *
+     * @return {@link Observable} that completes when the pool is warmed up or emits the first connect error. If the
+     * client does not have a {@link ConnectionPool}, an empty {@link Observable}.
+     */
+    public Observable<Void> warmUpObservable() {
+        return warmUpObservable;
+    }
+
+    @Override
+    public PoolLatencyStats.Snapshot getLatencySnapshot(boolean reset) {
+        if (!(pool instanceof LatencyInsightProvider)) {
+            return null;
+        }
+        return ((LatencyInsightProvider) pool).getLatencySnapshot(reset);
+    }
+
     @Override
     public PoolStats getStats() {
         if (null == pool) {
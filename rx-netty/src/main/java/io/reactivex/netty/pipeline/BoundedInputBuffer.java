@@ -0,0 +1,396 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.pipeline;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import rx.Observable;
+import rx.Observer;
+import rx.Producer;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.subjects.Subject;
+import rx.subscriptions.Subscriptions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A bounded buffer between the messages read from a {@link Channel} and the subscribers of the connection's input,
+ * which stops reading from the channel when the subscribers do not ask for more. <br/>
+ * By default, {@link ObservableAdapter} pushes every message read to the subscribers, irrespective of whether they can
+ * process it, so a subscriber that hands the messages off to a different thread (eg: using {@code observeOn()}) makes
+ * netty read and queue data as fast as the peer sends it. With this buffer, a message is only delivered once all the
+ * subscribers it is meant for have requested it (see {@link Subscriber#request(long)}). Messages read while there is no
+ * demand are buffered and once {@code maxBufferedMessages} are buffered, reads on the channel are stopped (by turning
+ * off {@code autoRead}) till the subscribers drain the buffer to half of its capacity. A read that is already in
+ * progress when the buffer fills may still add the messages decoded from it. <br/>
+ * The demand is only known for the subscribers of the {@link Observable}s returned by {@link #demandDriven(Subject)},
+ * which is how {@link io.reactivex.netty.channel.ObservableConnection#getInput()} and the content of HTTP requests and
+ * responses are exposed when this buffer is set. Messages for an observer without any such subscriber are delivered as
+ * soon as they are read. <br/>
+ * Protocols that deliver the content of a message separately from the message (eg: HTTP) must buffer the content via
+ * {@link #onContent(Observer, Object)}, so that the content is bounded too and is not delivered before the message.
+ * <br/>
+ * All the messages are delivered on the event loop of the channel. <br/>
+ * This is opt-in and is enabled for a channel by setting an instance of this class as the attribute
+ * {@link #BOUNDED_INPUT_BUFFER_ATTR} on the channel before the channel is active.
+ * {@link PipelineConfigurators#boundedInputConfigurator(int)} does this for every new channel.
+ */
+public class BoundedInputBuffer {
+
+    public static final AttributeKey<BoundedInputBuffer> BOUNDED_INPUT_BUFFER_ATTR =
+            AttributeKey.valueOf("rxnetty_bounded_input_buffer");
+
+    private final Channel channel;
+    private final int maxBufferedMessages;
+    private final int resumeReadThreshold;
+
+    /* The buffer and the demand are only accessed on the event loop of the channel. */
+    private final Queue<Signal> signals = new ArrayDeque<Signal>();
+    private final Map<Object, List<SubscriberDemand<?>>> demandsByTarget =
+            new IdentityHashMap<Object, List<SubscriberDemand<?>>>();
+    private boolean delivering;
+    private volatile int bufferedMessages; // Only updated on the event loop.
+    private volatile boolean readsPaused; // Only updated on the event loop.
+
+    /**
+     * Creates a new buffer for the passed channel.
+     *
+     * @param channel Channel for which the input is buffered.
+     * @param maxBufferedMessages Number of buffered messages at which the reads on the channel are stopped.
+     */
+    public BoundedInputBuffer(Channel channel, int maxBufferedMessages) {
+        if (null == channel) {
+            throw new NullPointerException("Channel can not be null.");
+        }
+        if (maxBufferedMessages < 1) {
+            throw new IllegalArgumentException("Max buffered messages must be at least 1.");
+        }
+        this.channel = channel;
+        this.maxBufferedMessages = maxBufferedMessages;
+        resumeReadThreshold = maxBufferedMessages / 2;
+    }
+
+    void onNext(@SuppressWarnings("rawtypes") Observer target, Object msg) {
+        addMessage(new Signal(target, msg, null, Signal.Kind.Message));
+    }
+
+    void onError(@SuppressWarnings("rawtypes") Observer target, Throwable error) {
+        signals.add(new Signal(target, null, error, Signal.Kind.Error));
+        deliver();
+    }
+
+    void onCompleted(@SuppressWarnings("rawtypes") Observer target) {
+        signals.add(new Signal(target, null, null, Signal.Kind.Completed));
+        deliver();
+    }
+
+    /**
+     * Buffers the content of a message read from the channel (eg: the content of an HTTP request or response, which is
+     * delivered to the content subject of the request or response) for delivery in order with the other messages read
+     * from the channel. So, the content is only delivered after the message it belongs to and is counted against the
+     * bound like any other message. <br/>
+     * Unlike the messages read by {@link ObservableAdapter}, the content is not released after delivery, as it is owned
+     * by the subscribers of the content. <br/>
+     * This must be called on the event loop of the channel.
+     *
+     * @param target Observer to which the content is delivered.
+     * @param content Content to deliver.
+     */
+    public void onContent(@SuppressWarnings("rawtypes") Observer target, Object content) {
+        addMessage(new Signal(target, content, null, Signal.Kind.Content));
+    }
+
+    /**
+     * Buffers the completion of a content stream (see {@link #onContent(Observer, Object)}) for delivery after all the
+     * content buffered before it. <br/>
+     * This must be called on the event loop of the channel.
+     *
+     * @param target Observer to which the completion is delivered.
+     */
+    public void onContentCompleted(@SuppressWarnings("rawtypes") Observer target) {
+        signals.add(new Signal(target, null, null, Signal.Kind.Completed));
+        deliver();
+    }
+
+    /**
+     * Returns an {@link Observable} of the items emitted by the passed subject, which lets the messages buffered for
+     * the subject be delivered only as they are requested by its subscribers. A message for the subject is delivered
+     * once every subscriber of the returned {@link Observable} has requested one more message. A subscriber that does
+     * not request explicitly requests all the messages. <br/>
+     * The subscription to the subject happens on the event loop of the channel.
+     *
+     * @param target Subject to which the messages are delivered by this buffer.
+     *
+     * @return An {@link Observable} that tracks the demand of its subscribers.
+     */
+    public <T> Observable<T> demandDriven(final Subject<T, T> target) {
+        return Observable.create(new Observable.OnSubscribe<T>() {
+            @Override
+            public void call(final Subscriber<? super T> subscriber) {
+                final SubscriberDemand<T> demand = new SubscriberDemand<T>(target, subscriber);
+                if (channel.eventLoop().inEventLoop()) {
+                    demand.subscribe();
+                } else {
+                    try {
+                        channel.eventLoop().execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                demand.subscribe();
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        subscriber.onError(e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the number of messages that are read but not yet delivered.
+     *
+     * @return The number of messages pending delivery.
+     */
+    public int getBufferedMessages() {
+        return bufferedMessages;
+    }
+
+    /**
+     * Returns whether the reads on the channel are stopped because the buffer is full.
+     *
+     * @return {@code true} if the reads are stopped.
+     */
+    public boolean isReadPaused() {
+        return readsPaused;
+    }
+
+    private void addMessage(Signal signal) {
+        signals.add(signal);
+        bufferedMessages++; // Only updated on the event loop.
+        if (!readsPaused && bufferedMessages >= maxBufferedMessages) {
+            readsPaused = true;
+            channel.config().setAutoRead(false);
+        }
+        deliver();
+    }
+
+    private void deliver() {
+        if (delivering) {
+            return; // Called by a subscriber during delivery, the outer delivery loop continues delivering.
+        }
+        delivering = true;
+        try {
+            Signal signal;
+            while (null != (signal = signals.peek())) {
+                if (Signal.Kind.Message == signal.kind || Signal.Kind.Content == signal.kind) {
+                    if (!claimDemand(signal.target)) {
+                        return; // Delivered when the subscribers request more.
+                    }
+                }
+                signals.poll();
+                deliver(signal);
+            }
+        } finally {
+            delivering = false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(Signal signal) {
+        switch (signal.kind) {
+            case Completed:
+                signal.target.onCompleted();
+                break;
+            case Error:
+                signal.target.onError(signal.error);
+                break;
+            default:
+                try {
+                    signal.target.onNext(signal.msg);
+                } catch (ClassCastException cce) {
+                    signal.target.onError(new RuntimeException("Mismatched message type.", cce));
+                } finally {
+                    if (Signal.Kind.Message == signal.kind) {
+                        ReferenceCountUtil.release(signal.msg);
+                    }
+                    bufferedMessages--; // Only updated on the event loop.
+                    if (readsPaused && bufferedMessages <= resumeReadThreshold) {
+                        readsPaused = false;
+                        channel.config().setAutoRead(true); // Also issues a read if autoRead was off.
+                    }
+                }
+        }
+    }
+
+    /**
+     * Claims one message from the demand of every subscriber of the passed target, if all of them have requested more.
+     * Targets without any subscriber tracking demand (including the ones with no subscribers at all, which drop the
+     * message, as without this buffer) are always deliverable.
+     */
+    private boolean claimDemand(Object target) {
+        List<SubscriberDemand<?>> demands = demandsByTarget.get(target);
+        if (null == demands) {
+            return true;
+        }
+        for (int i = 0; i < demands.size(); i++) {
+            if (0 == demands.get(i).requested) {
+                return false;
+            }
+        }
+        for (int i = 0; i < demands.size(); i++) {
+            SubscriberDemand<?> demand = demands.get(i);
+            if (Long.MAX_VALUE != demand.requested) {
+                demand.requested--;
+            }
+        }
+        return true;
+    }
+
+    private void runOnEventLoop(Runnable task) {
+        if (channel.eventLoop().inEventLoop()) {
+            task.run();
+        } else {
+            try {
+                channel.eventLoop().execute(task);
+            } catch (RejectedExecutionException e) {
+                // Event loop shutdown, nothing is delivered anymore.
+            }
+        }
+    }
+
+    /**
+     * Demand of a subscriber of {@link #demandDriven(Subject)}. All the state is only accessed on the event loop.
+     */
+    private final class SubscriberDemand<T> implements Producer {
+
+        private final Subject<T, T> target;
+        private final Subscriber<? super T> subscriber;
+        private final Runnable unregisterTask;
+        private long requested;
+        private boolean registered;
+
+        private SubscriberDemand(Subject<T, T> target, Subscriber<? super T> subscriber) {
+            this.target = target;
+            this.subscriber = subscriber;
+            unregisterTask = new Runnable() {
+                @Override
+                public void run() {
+                    unregister();
+                }
+            };
+        }
+
+        private void subscribe() {
+            if (subscriber.isUnsubscribed()) {
+                return;
+            }
+            List<SubscriberDemand<?>> demands = demandsByTarget.get(target);
+            if (null == demands) {
+                demands = new ArrayList<SubscriberDemand<?>>(1);
+                demandsByTarget.put(target, demands);
+            }
+            demands.add(this);
+            registered = true;
+            subscriber.add(Subscriptions.create(new Action0() {
+                @Override
+                public void call() {
+                    runOnEventLoop(unregisterTask);
+                }
+            }));
+            target.unsafeSubscribe(new Subscriber<T>(subscriber) {
+                @Override
+                public void onCompleted() {
+                    runOnEventLoop(unregisterTask);
+                    subscriber.onCompleted();
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    runOnEventLoop(unregisterTask);
+                    subscriber.onError(e);
+                }
+
+                @Override
+                public void onNext(T t) {
+                    subscriber.onNext(t);
+                }
+            });
+            subscriber.setProducer(this);
+        }
+
+        @Override
+        public void request(final long n) {
+            if (channel.eventLoop().inEventLoop()) {
+                addDemand(n);
+            } else {
+                runOnEventLoop(new Runnable() {
+                    @Override
+                    public void run() {
+                        addDemand(n);
+                    }
+                });
+            }
+        }
+
+        private void addDemand(long n) {
+            if (!registered || n <= 0) {
+                return;
+            }
+            requested = Long.MAX_VALUE - requested <= n ? Long.MAX_VALUE : requested + n;
+            deliver();
+        }
+
+        private void unregister() {
+            if (!registered) {
+                return;
+            }
+            registered = false;
+            List<SubscriberDemand<?>> demands = demandsByTarget.get(target);
+            if (null != demands) {
+                demands.remove(this);
+                if (demands.isEmpty()) {
+                    demandsByTarget.remove(target);
+                }
+            }
+            deliver(); // The buffered messages may only have been waiting for this subscriber.
+        }
+    }
+
+    private static final class Signal {
+
+        private enum Kind { Message, Content, Error, Completed }
+
+        @SuppressWarnings("rawtypes") private final Observer target;
+        private final Object msg;
+        private final Throwable error;
+        private final Kind kind;
+
+        private Signal(@SuppressWarnings("rawtypes") Observer target, Object msg, Throwable error, Kind kind) {
+            this.target = target;
+            this.msg = msg;
+            this.error = error;
+            this.kind = kind;
+        }
+    }
+}
@@ -27,7 +27,9 @@ import rx.subjects.PublishSubject;
  * An adapter that converts a message generated by netty's pipeline to an Observable event. <br/>
  * This adapter always requires a {@link PublishSubject} because all read events on the channel are always multicast to
  * all subscribers. Although this can also be achieved by having multiple instances of this adapter in the pipeline,
- * that will be an overhead.
+ * that will be an overhead. <br/>
+ * If a {@link BoundedInputBuffer} is set on the channel, the messages are delivered via the buffer, as requested by the
+ * subscribers, instead of as soon as they are read.
  *
  * @author Nitesh Kant
  */
@@ -35,11 +37,16 @@ public class ObservableAdapter extends ChannelInboundHandlerAdapter {
 
     @SuppressWarnings("rawtypes")
     /*Nullable*/ private Observer bridgedObserver;
+    /*Nullable*/ private BoundedInputBuffer inputBuffer;
 
     @SuppressWarnings("unchecked")
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         if (null != bridgedObserver) {
+            if (null != inputBuffer) {
+                inputBuffer.onNext(bridgedObserver, msg); // Buffer releases the message once delivered.
+                return;
+            }
             try {
                 bridgedObserver.onNext(msg);
             } catch (ClassCastException cce) {
@@ -53,14 +60,22 @@ public class ObservableAdapter extends ChannelInboundHandlerAdapter {
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         if (null != bridgedObserver) {
-            bridgedObserver.onError(cause);
+            if (null != inputBuffer) {
+                inputBuffer.onError(bridgedObserver, cause);
+            } else {
+                bridgedObserver.onError(cause);
+            }
         }
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         if (null != bridgedObserver) {
-            bridgedObserver.onCompleted();
+            if (null != inputBuffer) {
+                inputBuffer.onCompleted(bridgedObserver);
+            } else {
+                bridgedObserver.onCompleted();
+            }
         }
     }
 
@@ -69,6 +84,7 @@ public class ObservableAdapter extends ChannelInboundHandlerAdapter {
         if (event instanceof NewRxConnectionEvent) {
             NewRxConnectionEvent rxConnectionEvent = (NewRxConnectionEvent) event;
             bridgedObserver = rxConnectionEvent.getConnectedObserver();
+            inputBuffer = ctx.channel().attr(BoundedInputBuffer.BOUNDED_INPUT_BUFFER_ATTR).get();
         } else if (event instanceof ConnectionReuseEvent) {
             ConnectionReuseEvent reuseEvent = (ConnectionReuseEvent) event;
             bridgedObserver = reuseEvent.getConnectedObserver();
@@ -16,9 +16,11 @@
 package io.reactivex.netty.pipeline;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
+import io.reactivex.netty.channel.FlushConsolidator;
 import io.reactivex.netty.protocol.http.HttpObjectAggregationConfigurator;
 import io.reactivex.netty.protocol.http.client.HttpClientPipelineConfigurator;
 import io.reactivex.netty.protocol.http.client.HttpClientRequest;
@@ -31,6 +33,7 @@ import io.reactivex.netty.protocol.http.sse.SseOverHttpServerPipelineConfigurato
 import io.reactivex.netty.protocol.text.SimpleTextProtocolConfigurator;
 import io.reactivex.netty.protocol.text.sse.ServerSentEvent;
 
+
 import java.nio.charset.Charset;
 
 /**
@@ -158,6 +161,53 @@ public final class PipelineConfigurators {
         };
     }
 
+    /**
+     * Enables flush consolidation for all channels configured by the returned configurator, see
+     * {@link FlushConsolidator}. All flushes requested within one run of the channel's event loop are merged into a
+     * single flush, unless {@code maxConsolidatedFlushes} flushes or {@code maxConsolidatedBytes} bytes are pending.
+     * <br/>
+     * This is useful for handlers that write and flush a stream of small messages, where a flush per message means a
+     * system call per message.
+     *
+     * @param maxConsolidatedFlushes Maximum number of flushes merged into one.
+     * @param maxConsolidatedBytes Maximum number of written bytes that can wait for a consolidated flush.
+     *
+     * @return Configurator enabling flush consolidation.
+     */
+    public static <I, O> PipelineConfigurator<I, O> flushConsolidationConfigurator(final int maxConsolidatedFlushes,
+                                                                                   final long maxConsolidatedBytes) {
+        return new PipelineConfigurator<I, O>() {
+            @Override
+            public void configureNewPipeline(ChannelPipeline pipeline) {
+                Channel channel = pipeline.channel();
+                channel.attr(FlushConsolidator.FLUSH_CONSOLIDATOR_ATTR)
+                       .set(new FlushConsolidator(channel, maxConsolidatedFlushes, maxConsolidatedBytes));
+            }
+        };
+    }
+
+    /**
+     * Bounds the input buffered for all channels configured by the returned configurator, see
+     * {@link BoundedInputBuffer}. The messages read are delivered as the subscribers of the input request them and the
+     * reads on a channel are stopped while {@code maxBufferedMessages} messages are waiting for demand. <br/>
+     * This is useful when the input is processed on a different thread than the event loop, so that the memory used
+     * for a slow consumer is bounded by this configuration instead of by the speed of the peer.
+     *
+     * @param maxBufferedMessages Number of buffered messages at which the reads on a channel are stopped.
+     *
+     * @return Configurator bounding the input buffer.
+     */
+    public static <I, O> PipelineConfigurator<I, O> boundedInputConfigurator(final int maxBufferedMessages) {
+        return new PipelineConfigurator<I, O>() {
+            @Override
+            public void configureNewPipeline(ChannelPipeline pipeline) {
+                Channel channel = pipeline.channel();
+                channel.attr(BoundedInputBuffer.BOUNDED_INPUT_BUFFER_ATTR)
+                       .set(new BoundedInputBuffer(channel, maxBufferedMessages));
+            }
+        };
+    }
+
     public static PipelineConfigurator<ByteBuf, ByteBuf> empty() {
         return EMPTY_CONFIGURATOR;
     }
@@ -17,10 +17,7 @@ package io.reactivex.netty.protocol.http;
 
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
-import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
-import rx.Observable;
-import rx.subjects.PublishSubject;
 
 import java.util.Iterator;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -35,22 +32,12 @@ public class MultipleFutureListener implements ChannelFutureListener {
 
     private final AtomicInteger listeningToCount = new AtomicInteger();
     private final ConcurrentLinkedQueue<ChannelFuture> pendingFutures = new ConcurrentLinkedQueue<ChannelFuture>();
-    private final PublishSubject<ChannelFuture> lastCompletedFuture; // This never completes or throw an error.
-    private final ChannelFuture futureWhenNoPendingFutures;
 
     public MultipleFutureListener(ChannelPromise finalPromise) {
         if (null == finalPromise) {
             throw new NullPointerException("Promise can not be null.");
         }
         this.finalPromise = finalPromise;
-        lastCompletedFuture = PublishSubject.create();
-        futureWhenNoPendingFutures = finalPromise.channel().newPromise().setSuccess();
-    }
-
-    public MultipleFutureListener(ChannelHandlerContext ctx) {
-        finalPromise = null;
-        lastCompletedFuture = PublishSubject.create();
-        futureWhenNoPendingFutures = ctx.newPromise();
     }
 
     public void listen(ChannelFuture future) {
@@ -59,14 +46,6 @@ public class MultipleFutureListener implements ChannelFutureListener {
         future.addListener(this);
     }
 
-    public Observable<ChannelFuture> listenForNextCompletion() {
-        if (listeningToCount.get() > 0) {
-            return lastCompletedFuture;
-        } else {
-            return Observable.<ChannelFuture>from(futureWhenNoPendingFutures);
-        }
-    }
-
     public void cancelPendingFutures(boolean mayInterruptIfRunning) {
         for (Iterator<ChannelFuture> iterator = pendingFutures.iterator(); iterator.hasNext(); ) {
             ChannelFuture pendingFuture = iterator.next();
@@ -80,17 +59,10 @@ public class MultipleFutureListener implements ChannelFutureListener {
         pendingFutures.remove(future);
         int nowListeningTo = listeningToCount.decrementAndGet();
         if (!future.isSuccess()) {
-            if (null != finalPromise) {
-                cancelPendingFutures(true);
-                finalPromise.tryFailure(future.cause());
-            } else {
-                lastCompletedFuture.onError(future.cause());
-            }
+            cancelPendingFutures(true);
+            finalPromise.tryFailure(future.cause());
         } else if (nowListeningTo <= 0) {
-            if (null != finalPromise) {
-                finalPromise.trySuccess(null);
-            }
-            lastCompletedFuture.onNext(future);
+            finalPromise.trySuccess(null);
         }
     }
 }
@@ -29,6 +29,7 @@ import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.util.AttributeKey;
+import io.reactivex.netty.pipeline.BoundedInputBuffer;
 import io.reactivex.netty.protocol.http.MultipleFutureListener;
 import io.reactivex.netty.serialization.ContentTransformer;
 import rx.Observer;
@@ -82,8 +83,11 @@ public class ClientRequestResponseConverter extends ChannelDuplexHandler {
             @SuppressWarnings({"rawtypes", "unchecked"})
             HttpResponse response = (HttpResponse) msg;
 
+            BoundedInputBuffer inputBuffer = ctx.channel().attr(BoundedInputBuffer.BOUNDED_INPUT_BUFFER_ATTR).get();
             @SuppressWarnings({"rawtypes", "unchecked"})
-            HttpClientResponse rxResponse = new HttpClientResponse(response, contentSubject);
+            HttpClientResponse rxResponse = new HttpClientResponse(response, null == inputBuffer
+                                                                             ? contentSubject
+                                                                             : inputBuffer.demandDriven(contentSubject));
             Long keepAliveTimeoutSeconds = rxResponse.getKeepAliveTimeoutSeconds();
             if (null != keepAliveTimeoutSeconds) {
                 ctx.channel().attr(KEEP_ALIVE_TIMEOUT_MILLIS_ATTR).set(keepAliveTimeoutSeconds * 1000);
@@ -98,17 +102,26 @@ public class ClientRequestResponseConverter extends ChannelDuplexHandler {
 
         if (HttpContent.class.isAssignableFrom(recievedMsgClass)) {// This will be executed if the incoming message is a FullHttpResponse or only HttpContent.
             ByteBuf content = ((ByteBufHolder) msg).content();
+            BoundedInputBuffer inputBuffer = ctx.channel().attr(BoundedInputBuffer.BOUNDED_INPUT_BUFFER_ATTR).get();
             if (content.isReadable()) {
-                invokeContentOnNext(content);
+                invokeContentOnNext(inputBuffer, content);
             }
             if (LastHttpContent.class.isAssignableFrom(recievedMsgClass)) {
-                if (null != requestProcessingObserver) {
-                    requestProcessingObserver.onCompleted();
+                if (null != inputBuffer) {
+                    // Completions are delivered after the buffered content, so the content is not lost.
+                    if (null != requestProcessingObserver) {
+                        inputBuffer.onContentCompleted(requestProcessingObserver);
+                    }
+                    inputBuffer.onContentCompleted(contentSubject);
+                } else {
+                    if (null != requestProcessingObserver) {
+                        requestProcessingObserver.onCompleted();
+                    }
+                    contentSubject.onCompleted();
                 }
-                contentSubject.onCompleted();
             }
         } else if(!HttpResponse.class.isAssignableFrom(recievedMsgClass)){
-            invokeContentOnNext(msg);
+            invokeContentOnNext(ctx.channel().attr(BoundedInputBuffer.BOUNDED_INPUT_BUFFER_ATTR).get(), msg);
         }
     }
 
@@ -165,7 +178,12 @@ public class ClientRequestResponseConverter extends ChannelDuplexHandler {
     }
 
     @SuppressWarnings("unchecked")
-    private void invokeContentOnNext(Object nextObject) {
+    private void invokeContentOnNext(BoundedInputBuffer inputBuffer, Object nextObject) {
+        if (null != inputBuffer) {
+            // Delivered after the response, so the content is not lost if it is subscribed after this read.
+            inputBuffer.onContent(contentSubject, nextObject);
+            return;
+        }
         try {
             contentSubject.onNext(nextObject);
         } catch (ClassCastException e) {
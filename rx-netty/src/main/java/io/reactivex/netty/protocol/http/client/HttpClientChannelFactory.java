@@ -16,9 +16,9 @@
 package io.reactivex.netty.protocol.http.client;
 
 import io.netty.bootstrap.Bootstrap;
+import io.reactivex.netty.channel.ConnectionHandler;
 import io.reactivex.netty.channel.ObservableConnectionFactory;
 import io.reactivex.netty.client.ClientChannelFactoryImpl;
-import io.reactivex.netty.client.ClientConnectionHandler;
 import io.reactivex.netty.client.RxClient;
 import io.reactivex.netty.pipeline.PipelineConfigurator;
 import io.reactivex.netty.pipeline.PipelineConfiguratorComposite;
@@ -36,11 +36,11 @@ public class HttpClientChannelFactory<I, O> extends
     }
 
     @Override
-    protected PipelineConfigurator<HttpClientResponse<O>, HttpClientRequest<I>> getPipelineConfiguratorForAChannel(
-            ClientConnectionHandler<HttpClientResponse<O>, HttpClientRequest<I>> connHandler,
+    protected PipelineConfigurator<HttpClientResponse<O>, HttpClientRequest<I>> getPipelineConfiguratorForClient(
+            ConnectionHandler<HttpClientResponse<O>, HttpClientRequest<I>> connHandler,
             PipelineConfigurator<HttpClientResponse<O>, HttpClientRequest<I>> pipelineConfigurator) {
         PipelineConfigurator<HttpClientResponse<O>, HttpClientRequest<I>> configurator =
                 new PipelineConfiguratorComposite<HttpClientResponse<O>, HttpClientRequest<I>>(pipelineConfigurator, new ClientRequiredConfigurator<I, O>());
-        return super.getPipelineConfiguratorForAChannel(connHandler, configurator);
+        return super.getPipelineConfiguratorForClient(connHandler, configurator);
     }
 }
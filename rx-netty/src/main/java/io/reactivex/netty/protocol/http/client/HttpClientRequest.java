@@ -131,7 +131,7 @@ public class HttpClientRequest<T> {
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public HttpClientRequest<T> withContent(byte[] content) {
         headers.set(HttpHeaders.Names.CONTENT_LENGTH, content.length);
-        setRawContentFactory(new SimpleContentSourceFactory(new SingletonRawSource<byte[]>(content, new ByteTransformer())));
+        setRawContentFactory(new SimpleContentSourceFactory(new SingletonRawSource<byte[]>(content, ByteTransformer.DEFAULT_INSTANCE)));
         return this;
     }
 
@@ -47,15 +47,23 @@ public class HttpClientResponse<T> {
     public static final String KEEP_ALIVE_TIMEOUT_HEADER_ATTR = "timeout";
 
     private final HttpResponse nettyResponse;
-    private final PublishSubject<T> contentSubject;
+    private final Observable<T> content;
     private final HttpResponseHeaders responseHeaders;
     private final HttpVersion httpVersion;
     private final HttpResponseStatus status;
     private final CookiesHolder cookiesHolder;
 
     public HttpClientResponse(HttpResponse nettyResponse, PublishSubject<T> contentSubject) {
+        this(nettyResponse, (Observable<T>) contentSubject);
+    }
+
+    /**
+     * Creates a response whose content is exposed via the passed observable, eg: an observable that tracks the demand
+     * of its subscribers.
+     */
+    HttpClientResponse(HttpResponse nettyResponse, Observable<T> content) {
         this.nettyResponse = nettyResponse;
-        this.contentSubject = contentSubject;
+        this.content = content;
         httpVersion = this.nettyResponse.getProtocolVersion();
         status = this.nettyResponse.getStatus();
         responseHeaders = new HttpResponseHeaders(nettyResponse);
@@ -79,7 +87,7 @@ public class HttpClientResponse<T> {
     }
 
     public Observable<T> getContent() {
-        return contentSubject;
+        return content;
     }
 
     /**
@@ -15,18 +15,27 @@
  */
 package io.reactivex.netty.protocol.http.server;
 
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import io.reactivex.netty.channel.ConnectionHandler;
 import io.reactivex.netty.channel.ObservableConnection;
+import io.reactivex.netty.server.ExecutionStrategy;
 import rx.Observable;
+import rx.Subscriber;
 import rx.functions.Action0;
+import rx.functions.Func0;
 import rx.functions.Func1;
 
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
 * @author Nitesh Kant
 */
 class HttpConnectionHandler<I, O> implements ConnectionHandler<HttpServerRequest<I>, HttpServerResponse<O>> {
 
     private ErrorResponseGenerator<O> responseGenerator = new DefaultErrorResponseGenerator<O>();
+    private ExecutionStrategy executionStrategy = ExecutionStrategy.ioThread();
 
     private final RequestHandler<I, O> requestHandler;
 
@@ -38,31 +47,60 @@ class HttpConnectionHandler<I, O> implements ConnectionHandler<HttpServerRequest
         this.responseGenerator = responseGenerator;
     }
 
+    void setExecutionStrategy(ExecutionStrategy executionStrategy) {
+        this.executionStrategy = executionStrategy;
+    }
+
     @Override
     public Observable<Void> handle(final ObservableConnection<HttpServerRequest<I>, HttpServerResponse<O>> newConnection) {
 
         return newConnection.getInput().flatMap(new Func1<HttpServerRequest<I>, Observable<Void>>() {
             @Override
-            public Observable<Void> call(HttpServerRequest<I> newRequest) {
+            public Observable<Void> call(final HttpServerRequest<I> newRequest) {
                 final HttpServerResponse<O> response = new HttpServerResponse<O>(newConnection.getChannelHandlerContext(),
                                                                newRequest.getHttpVersion());
+                final AtomicBoolean handedOff = new AtomicBoolean(); // Set once the strategy accepts the handler.
+                final Channel channel = newConnection.getChannelHandlerContext().channel();
                 Observable<Void> toReturn;
 
-                try {
-                    toReturn = requestHandler.handle(newRequest, response);
-                    if (null == toReturn) {
-                        toReturn = Observable.empty();
-                    }
-                } catch (Throwable throwable) {
-                    toReturn = Observable.error(throwable);
+                if (executionStrategy.executesOnIoThread()) {
+                    handedOff.set(true);
+                    toReturn = invokeRequestHandler(newRequest, response);
+                } else {
+                    // Reads are paused till the handler subscribes, so that only the content of the reads in progress
+                    // is buffered while the request waits for a thread.
+                    channel.config().setAutoRead(false);
+                    newRequest.bufferContent();
+                    toReturn = executionStrategy.execute(new Func0<Observable<Void>>() {
+                        @Override
+                        public Observable<Void> call() {
+                            handedOff.set(true);
+                            final Observable<Void> handled = invokeRequestHandler(newRequest, response);
+                            return Observable.create(new Observable.OnSubscribe<Void>() {
+                                @Override
+                                public void call(Subscriber<? super Void> subscriber) {
+                                    handled.unsafeSubscribe(subscriber);
+                                    channel.config().setAutoRead(true);
+                                }
+                            });
+                        }
+                    });
                 }
 
                 return toReturn
                         .onErrorResumeNext(new Func1<Throwable, Observable<Void>>() {
                             @Override
                             public Observable<Void> call(Throwable throwable) {
+                                if (!handedOff.get()) {
+                                    channel.config().setAutoRead(true); // Rejected, the handler never resumes reads.
+                                }
                                 if (!response.isHeaderWritten()) {
-                                    responseGenerator.updateResponse(response, throwable);
+                                    // Only the strategy's rejection, a rejection thrown by the handler is its error.
+                                    if (!handedOff.get() && throwable instanceof RejectedExecutionException) {
+                                        response.setStatus(HttpResponseStatus.SERVICE_UNAVAILABLE);
+                                    } else {
+                                        responseGenerator.updateResponse(response, throwable);
+                                    }
                                 }
                                 return Observable.empty();
                             }
@@ -76,4 +114,17 @@ class HttpConnectionHandler<I, O> implements ConnectionHandler<HttpServerRequest
             }
         });
     }
+
+    private Observable<Void> invokeRequestHandler(HttpServerRequest<I> request, HttpServerResponse<O> response) {
+        Observable<Void> toReturn;
+        try {
+            toReturn = requestHandler.handle(request, response);
+            if (null == toReturn) {
+                toReturn = Observable.empty();
+            }
+        } catch (Throwable throwable) {
+            toReturn = Observable.error(throwable);
+        }
+        return toReturn;
+    }
 }
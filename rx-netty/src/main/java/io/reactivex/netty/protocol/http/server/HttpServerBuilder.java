@@ -45,6 +45,7 @@ public class HttpServerBuilder<I, O>
 
     @Override
     protected HttpServer<I, O> createServer() {
+        ((HttpConnectionHandler<I, O>) connectionHandler).setExecutionStrategy(executionStrategy);
         return new HttpServer<I, O>(serverBootstrap, port, pipelineConfigurator,
                                     (HttpConnectionHandler<I, O>) connectionHandler);
     }
@@ -19,6 +19,7 @@ import io.netty.handler.codec.http.Cookie;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpVersion;
+import io.reactivex.netty.channel.EventLoopScheduler;
 import io.reactivex.netty.protocol.http.CookiesHolder;
 import rx.Observable;
 import rx.subjects.PublishSubject;
@@ -39,17 +40,48 @@ public class HttpServerRequest<T> {
     private final HttpVersion protocolVersion;
     private final UriInfoHolder uriInfoHolder;
     private final CookiesHolder cookiesHolder;
+    private final EventLoopScheduler eventLoopScheduler;
+    private Observable<T> content; // Replaced only before the request is handed off to another thread.
 
     public HttpServerRequest(HttpRequest nettyRequest, PublishSubject<T> contentSubject) {
+        this(nettyRequest, contentSubject, null);
+    }
+
+    public HttpServerRequest(HttpRequest nettyRequest, PublishSubject<T> contentSubject,
+                             EventLoopScheduler eventLoopScheduler) {
+        this(nettyRequest, contentSubject, contentSubject, eventLoopScheduler);
+    }
+
+    /**
+     * Creates a request whose content is exposed via the passed {@code content} observable, which emits the items of
+     * {@code contentSubject}, eg: an observable that tracks the demand of its subscribers.
+     */
+    HttpServerRequest(HttpRequest nettyRequest, PublishSubject<T> contentSubject, Observable<T> content,
+                      EventLoopScheduler eventLoopScheduler) {
+        this.eventLoopScheduler = eventLoopScheduler;
         this.nettyRequest = nettyRequest;
         headers = new HttpRequestHeaders(this.nettyRequest);
         method = this.nettyRequest.getMethod();
         protocolVersion = this.nettyRequest.getProtocolVersion();
         this.contentSubject = contentSubject;
+        this.content = content;
         uriInfoHolder = new UriInfoHolder(this.nettyRequest.getUri());
         cookiesHolder = CookiesHolder.newServerRequestHolder(nettyRequest.headers());
     }
 
+    /**
+     * Returns a {@link rx.Scheduler} that executes actions on the event loop of the connection on which this request
+     * was received. Processing of the request observed on this scheduler stays on the I/O thread of the connection.
+     * <br/>
+     * Only non-blocking work must be executed on this scheduler.
+     *
+     * @return Scheduler for the event loop of the connection, {@code null} if this request was not created for a
+     * connection.
+     */
+    public EventLoopScheduler getEventLoopScheduler() {
+        return eventLoopScheduler;
+    }
+
     public HttpRequestHeaders getHeaders() {
         return headers;
     }
@@ -83,6 +115,17 @@ public class HttpServerRequest<T> {
     }
 
     public Observable<T> getContent() {
-        return contentSubject;
+        return content;
+    }
+
+    /**
+     * Buffers the content of this request till it is subscribed. This must be called on the I/O thread before the
+     * request is handled on another thread, as the content received before the handler subscribes is otherwise lost.
+     * The caller must pause the reads on the channel till the handler subscribes, so that the buffer is bounded.
+     */
+    void bufferContent() {
+        RequestContentBuffer<T> buffer = new RequestContentBuffer<T>(contentSubject);
+        contentSubject.subscribe(buffer);
+        content = Observable.create(buffer);
     }
 }
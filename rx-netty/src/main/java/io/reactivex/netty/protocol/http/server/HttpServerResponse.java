@@ -17,17 +17,28 @@ package io.reactivex.netty.protocol.http.server;
 
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.Cookie;
 import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContentEncoder;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.ServerCookieEncoder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.reactivex.netty.channel.DefaultChannelWriter;
 import rx.Observable;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -35,6 +46,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class HttpServerResponse<T> extends DefaultChannelWriter<T> {
 
+    public static final String CHUNKED_WRITER_HANDLER_NAME = "chunked-writer";
+    private static final int FILE_CHUNK_SIZE = 8192;
+
     private final HttpResponseHeaders headers;
     private final HttpResponse nettyResponse;
     private final AtomicBoolean headerWritten = new AtomicBoolean();
@@ -66,6 +80,58 @@ public class HttpServerResponse<T> extends DefaultChannelWriter<T> {
         nettyResponse.setStatus(status);
     }
 
+    /**
+     * Same as calling {@link #writeFile(File, long, long)} with offset {@code 0} and the length of the file.
+     *
+     * @param file File to write.
+     *
+     * @throws IOException If the file could not be opened.
+     */
+    public void writeFile(File file) throws IOException {
+        writeFile(file, 0, file.length());
+    }
+
+    /**
+     * Same as {@link #writeFile(FileChannel, long, long)} for a file that is opened by this method.
+     *
+     * @param file File to write.
+     * @param offset Offset in the file from where the content is written.
+     * @param length Number of bytes to write.
+     *
+     * @throws IOException If the file could not be opened.
+     */
+    public void writeFile(File file, long offset, long length) throws IOException {
+        writeFile(new RandomAccessFile(file, "r").getChannel(), offset, length);
+    }
+
+    /**
+     * Writes the passed region of the file as the content of this response. <br/>
+     * If no handler in the pipeline needs the bytes of the content (eg: for encryption or compression), the file is
+     * written using a {@link DefaultFileRegion}, ie: the bytes are transferred from the file to the socket by the
+     * kernel without copying them to the heap. Otherwise, the file is read in chunks via a {@link ChunkedNioFile}. <br/>
+     * If the headers are not yet written, the {@code Content-Length} header is set to {@code length}, so the file must
+     * be the only content of this response. <br/>
+     * The passed file channel is closed once the content is written.
+     *
+     * @param fileChannel Channel of the file to write.
+     * @param offset Offset in the file from where the content is written.
+     * @param length Number of bytes to write.
+     *
+     * @throws IOException If the file could not be read.
+     */
+    public void writeFile(FileChannel fileChannel, long offset, long length) throws IOException {
+        if (!headerWritten.get()) {
+            headers.set(HttpHeaders.Names.CONTENT_LENGTH, length);
+        }
+        ChannelPipeline pipeline = getChannelHandlerContext().pipeline();
+        if (isZeroCopyPossible(pipeline)) {
+            writeOnChannel(new DefaultFileRegion(fileChannel, offset, length));
+        } else {
+            addChunkedWriterIfAbsent(pipeline);
+            writeOnChannel(new ChunkedNioFile(fileChannel, offset, length, FILE_CHUNK_SIZE));
+        }
+    }
+
     public Observable<Void> close() {
         writeOnChannel(new DefaultLastHttpContent());
         return flush();
@@ -79,12 +145,33 @@ public class HttpServerResponse<T> extends DefaultChannelWriter<T> {
         return null != headerWriteFuture && headerWriteFuture.isSuccess();
     }
 
+    private boolean isZeroCopyPossible(ChannelPipeline pipeline) {
+        return getChannel() instanceof SocketChannel && null == pipeline.get(SslHandler.class)
+               && null == pipeline.get(HttpContentEncoder.class);
+    }
+
+    /**
+     * The chunked writer is only added when required, as it queues every write passing through it. It is added after
+     * {@link ServerRequestResponseConverter}, so that the chunks read from the file are converted to HTTP content.
+     */
+    private static void addChunkedWriterIfAbsent(ChannelPipeline pipeline) {
+        if (null != pipeline.get(CHUNKED_WRITER_HANDLER_NAME)) {
+            return;
+        }
+        if (null != pipeline.get(ServerRequiredConfigurator.REQUEST_RESPONSE_CONVERTER_HANDLER_NAME)) {
+            pipeline.addAfter(ServerRequiredConfigurator.REQUEST_RESPONSE_CONVERTER_HANDLER_NAME,
+                              CHUNKED_WRITER_HANDLER_NAME, new ChunkedWriteHandler());
+        } else {
+            pipeline.addLast(CHUNKED_WRITER_HANDLER_NAME, new ChunkedWriteHandler());
+        }
+    }
+
     @Override
-    protected ChannelFuture writeOnChannel(Object msg) {
+    protected ChannelFuture writeOnChannel(Object msg, boolean trackCompletion) {
         if (!HttpServerResponse.class.isAssignableFrom(msg.getClass()) && headerWritten.compareAndSet(false, true)) {
-            headerWriteFuture = super.writeOnChannel(this);
+            headerWriteFuture = super.writeOnChannel(this, true);
         }
 
-        return super.writeOnChannel(msg);
+        return super.writeOnChannel(msg, trackCompletion);
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import rx.Notification;
+import rx.Observable;
+import rx.Observer;
+import rx.Subscriber;
+
+import java.util.LinkedList;
+import java.util.Queue;
+
+/**
+ * Holds the content of a request till the first subscriber subscribes, so that the content received on the I/O thread
+ * before a request handler on another thread subscribes, is not lost. <br/>
+ * Unlike a {@link rx.subjects.ReplaySubject}, the content is dropped from this buffer once it is delivered to the
+ * first subscriber. Later subscribers only get the content received after they subscribe, same as when the content is
+ * not buffered. <br/>
+ * The amount of buffered content is bounded by pausing the reads on the channel till the handler subscribes, see
+ * {@link HttpConnectionHandler}.
+ */
+class RequestContentBuffer<T> implements Observer<T>, Observable.OnSubscribe<T> {
+
+    private final Observable<T> source;
+    private final Queue<Notification<T>> pending = new LinkedList<Notification<T>>(); // Guarded by this.
+    private Subscriber<? super T> subscriber; // Guarded by this, set once.
+    private boolean draining; // Guarded by this.
+
+    RequestContentBuffer(Observable<T> source) {
+        this.source = source;
+    }
+
+    @Override
+    public void call(Subscriber<? super T> newSubscriber) {
+        synchronized (this) {
+            if (null == subscriber) {
+                subscriber = newSubscriber;
+                newSubscriber = null;
+            }
+        }
+        if (null != newSubscriber) {
+            source.unsafeSubscribe(newSubscriber); // Not the first subscriber, gets live content only.
+        } else {
+            drain();
+        }
+    }
+
+    @Override
+    public void onCompleted() {
+        enqueue(Notification.<T>createOnCompleted());
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        enqueue(Notification.<T>createOnError(e));
+    }
+
+    @Override
+    public void onNext(T t) {
+        enqueue(Notification.createOnNext(t));
+    }
+
+    private void enqueue(Notification<T> notification) {
+        synchronized (this) {
+            pending.add(notification);
+        }
+        drain();
+    }
+
+    private void drain() {
+        synchronized (this) {
+            if (draining || null == subscriber) {
+                return;
+            }
+            draining = true;
+        }
+        for (;;) {
+            Notification<T> next;
+            synchronized (this) {
+                next = pending.poll();
+                if (null == next) {
+                    draining = false;
+                    return;
+                }
+            }
+            next.accept(subscriber);
+        }
+    }
+}
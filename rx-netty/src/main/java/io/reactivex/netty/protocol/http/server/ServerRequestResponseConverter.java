@@ -27,6 +27,8 @@ import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.LastHttpContent;
+import io.reactivex.netty.channel.EventLoopScheduler;
+import io.reactivex.netty.pipeline.BoundedInputBuffer;
 import rx.subjects.PublishSubject;
 
 /**
@@ -65,8 +67,12 @@ public class ServerRequestResponseConverter extends ChannelDuplexHandler {
         Class<?> recievedMsgClass = msg.getClass();
 
         if (HttpRequest.class.isAssignableFrom(recievedMsgClass)) {
+            BoundedInputBuffer inputBuffer = ctx.channel().attr(BoundedInputBuffer.BOUNDED_INPUT_BUFFER_ATTR).get();
             @SuppressWarnings({"rawtypes", "unchecked"})
-            HttpServerRequest rxRequest = new HttpServerRequest((HttpRequest) msg, contentSubject);
+            HttpServerRequest rxRequest = new HttpServerRequest((HttpRequest) msg, contentSubject,
+                                                                null == inputBuffer ? contentSubject
+                                                                                    : inputBuffer.demandDriven(contentSubject),
+                                                                EventLoopScheduler.forChannel(ctx.channel()));
             keepAlive = rxRequest.getHeaders().isKeepAlive();
             super.channelRead(ctx, rxRequest); // For FullHttpRequest, this assumes that after this call returns,
                                                // someone has subscribed to the content observable, if not the content will be lost.
@@ -74,12 +80,17 @@ public class ServerRequestResponseConverter extends ChannelDuplexHandler {
 
         if (HttpContent.class.isAssignableFrom(recievedMsgClass)) {// This will be executed if the incoming message is a FullHttpRequest or only HttpContent.
             ByteBuf content = ((ByteBufHolder) msg).content();
-            invokeContentOnNext(content);
+            BoundedInputBuffer inputBuffer = ctx.channel().attr(BoundedInputBuffer.BOUNDED_INPUT_BUFFER_ATTR).get();
+            invokeContentOnNext(inputBuffer, content);
             if (LastHttpContent.class.isAssignableFrom(recievedMsgClass)) {
-                contentSubject.onCompleted();
+                if (null != inputBuffer) {
+                    inputBuffer.onContentCompleted(contentSubject);
+                } else {
+                    contentSubject.onCompleted();
+                }
             }
-        } else {
-            invokeContentOnNext(msg);
+        } else if (!HttpRequest.class.isAssignableFrom(recievedMsgClass)) {
+            invokeContentOnNext(ctx.channel().attr(BoundedInputBuffer.BOUNDED_INPUT_BUFFER_ATTR).get(), msg);
         }
     }
 
@@ -108,7 +119,12 @@ public class ServerRequestResponseConverter extends ChannelDuplexHandler {
     }
 
     @SuppressWarnings("unchecked")
-    private void invokeContentOnNext(Object nextObject) {
+    private void invokeContentOnNext(BoundedInputBuffer inputBuffer, Object nextObject) {
+        if (null != inputBuffer) {
+            // Delivered after the request, so the content is not lost if the handler subscribes after this read.
+            inputBuffer.onContent(contentSubject, nextObject);
+            return;
+        }
         try {
             contentSubject.onNext(nextObject);
         } catch (ClassCastException e) {
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.protocol.http.server.file;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An LRU cache of memory mapped small files, used by {@link StaticFileRequestHandler}. <br/>
+ * The content of a file is a read-only {@link ByteBuf} over the mapped region, which is shared by all the responses for
+ * the file. Every lookup returns the buffer retained, so a file evicted from the cache remains valid till all the
+ * responses using it are written. <br/>
+ * The cache is bounded by the number of files and their total size, and a cached file is re-mapped if its length or
+ * modification time changes.
+ */
+class MappedFileCache {
+
+    private final int maxFiles;
+    private final long maxFileSize;
+    private final long maxSize;
+    private final LinkedHashMap<File, CachedFile> files;
+    private long size;
+
+    MappedFileCache(int maxFiles, long maxFileSize, long maxSize) {
+        this.maxFiles = maxFiles;
+        this.maxFileSize = maxFileSize;
+        this.maxSize = maxSize;
+        files = new LinkedHashMap<File, CachedFile>(16, 0.75f, true); // Access order for LRU.
+    }
+
+    /**
+     * Returns the content of the passed file, mapping it if it is not cached or has changed.
+     *
+     * @param file File to get.
+     * @param length Current length of the file.
+     * @param lastModified Current modification time of the file.
+     *
+     * @return The retained content of the file, which the caller must release, or {@code null} if the file is not
+     * cacheable because of its size.
+     *
+     * @throws IOException If the file could not be mapped.
+     */
+    ByteBuf acquire(File file, long length, long lastModified) throws IOException {
+        if (maxFiles <= 0 || length > maxFileSize || length > maxSize) {
+            return null;
+        }
+
+        synchronized (this) {
+            CachedFile cached = files.get(file);
+            if (null != cached && cached.length == length && cached.lastModified == lastModified) {
+                return cached.content.retain();
+            }
+        }
+
+        ByteBuf content = map(file, length); // Outside the lock as it is I/O.
+
+        synchronized (this) {
+            CachedFile stale = files.put(file, new CachedFile(content, length, lastModified));
+            size += length;
+            if (null != stale) {
+                size -= stale.length;
+                stale.content.release();
+            }
+            content.retain(); // Before evicting, as the caller's reference must outlive an eviction.
+            evict();
+            return content;
+        }
+    }
+
+    synchronized int getCachedFileCount() {
+        return files.size();
+    }
+
+    synchronized long getCachedBytes() {
+        return size;
+    }
+
+    synchronized void clear() {
+        for (CachedFile cached : files.values()) {
+            cached.content.release();
+        }
+        files.clear();
+        size = 0;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<File, CachedFile>> eldestFirst = files.entrySet().iterator();
+        while ((files.size() > maxFiles || size > maxSize) && eldestFirst.hasNext()) {
+            CachedFile evicted = eldestFirst.next().getValue();
+            eldestFirst.remove();
+            size -= evicted.length;
+            evicted.content.release();
+        }
+    }
+
+    private static ByteBuf map(File file, long length) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // The mapping stays valid after the file is closed, so no file descriptor is held per cached file.
+            return Unpooled.wrappedBuffer(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length)
+                                             .asReadOnlyBuffer());
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static class CachedFile {
+
+        private final ByteBuf content;
+        private final long length;
+        private final long lastModified;
+
+        private CachedFile(ByteBuf content, long length, long lastModified) {
+            this.content = content;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+    }
+}
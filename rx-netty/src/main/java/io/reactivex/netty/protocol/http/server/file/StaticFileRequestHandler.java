@@ -0,0 +1,246 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.protocol.http.server.file;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.CharsetUtil;
+import io.reactivex.netty.protocol.http.server.HttpServerRequest;
+import io.reactivex.netty.protocol.http.server.HttpServerResponse;
+import io.reactivex.netty.protocol.http.server.RequestHandler;
+import rx.Observable;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link RequestHandler} that serves the files under a root directory, for {@code GET} and {@code HEAD} requests. <br/>
+ * Small files are served from a {@link MappedFileCache}, ie: from a memory mapped region that is shared by all the
+ * responses for the file, so serving a cached file neither reads nor copies it. Larger files are written using
+ * {@link HttpServerResponse#writeFile(File, long, long)}. <br/>
+ * The handler supports:
+ * <ul>
+ <li>Conditional requests via {@code If-None-Match} (against an {@code ETag} derived from the length and modification
+ time of the file) and {@code If-Modified-Since}.</li>
+ <li>A single byte range via the {@code Range} header. Requests for multiple ranges get the whole file.</li>
+ </ul>
+ * Files are looked up from the request path, after percent-decoding it as UTF-8. Paths that resolve outside the root directory (including via symbolic
+ * links) and directories are not found.
+ */
+public class StaticFileRequestHandler implements RequestHandler<ByteBuf, ByteBuf> {
+
+    public static final int DEFAULT_MAX_CACHED_FILES = 1024;
+    public static final long DEFAULT_MAX_CACHED_FILE_SIZE = 64 * 1024;
+    public static final long DEFAULT_MAX_CACHE_SIZE = 64 * 1024 * 1024;
+
+    private static final Pattern SINGLE_RANGE_PATTERN = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final File rootDirectory;
+    private final String rootPathPrefix;
+    private final MappedFileCache cache;
+
+    public StaticFileRequestHandler(File rootDirectory) throws IOException {
+        this(rootDirectory, DEFAULT_MAX_CACHED_FILES, DEFAULT_MAX_CACHED_FILE_SIZE, DEFAULT_MAX_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a new handler.
+     *
+     * @param rootDirectory Directory from which the files are served.
+     * @param maxCachedFiles Maximum number of files in the cache, {@code 0} disables the cache.
+     * @param maxCachedFileSize Maximum size of a file that is cached.
+     * @param maxCacheSize Maximum total size of the cached files.
+     *
+     * @throws IOException If the root directory could not be resolved.
+     */
+    public StaticFileRequestHandler(File rootDirectory, int maxCachedFiles, long maxCachedFileSize, long maxCacheSize)
+            throws IOException {
+        if (!rootDirectory.isDirectory()) {
+            throw new IllegalArgumentException("Root directory: " + rootDirectory + " is not a directory.");
+        }
+        this.rootDirectory = rootDirectory.getCanonicalFile();
+        rootPathPrefix = this.rootDirectory.getPath() + File.separator;
+        cache = new MappedFileCache(maxCachedFiles, maxCachedFileSize, maxCacheSize);
+    }
+
+    @Override
+    public Observable<Void> handle(HttpServerRequest<ByteBuf> request, HttpServerResponse<ByteBuf> response) {
+        HttpMethod method = request.getHttpMethod();
+        if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+            response.getHeaders().set(HttpHeaders.Names.ALLOW, "GET, HEAD");
+            return sendEmpty(response, HttpResponseStatus.METHOD_NOT_ALLOWED);
+        }
+
+        try {
+            File file = resolve(request.getPath());
+            if (null == file || !file.isFile()) {
+                return sendEmpty(response, HttpResponseStatus.NOT_FOUND);
+            }
+            return sendFile(request, response, file, HttpMethod.HEAD.equals(method));
+        } catch (IOException e) {
+            return Observable.error(e);
+        }
+    }
+
+    /**
+     * Releases all the cached files.
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /*Visible for testing*/ MappedFileCache getCache() {
+        return cache;
+    }
+
+    private Observable<Void> sendFile(HttpServerRequest<ByteBuf> request, HttpServerResponse<ByteBuf> response,
+                                      File file, boolean headOnly) throws IOException {
+        final long length = file.length();
+        final long lastModified = file.lastModified();
+        final String etag = '"' + Long.toHexString(length) + '-' + Long.toHexString(lastModified) + '"';
+
+        response.getHeaders().set(HttpHeaders.Names.ETAG, etag);
+        response.getHeaders().set(HttpHeaders.Names.LAST_MODIFIED, new Date(lastModified));
+        response.getHeaders().set(HttpHeaders.Names.ACCEPT_RANGES, HttpHeaders.Values.BYTES);
+
+        if (isNotModified(request, etag, lastModified)) {
+            // Content length of the full file, as a 304 has no content and must not be sent chunked.
+            response.getHeaders().set(HttpHeaders.Names.CONTENT_LENGTH, length);
+            response.setStatus(HttpResponseStatus.NOT_MODIFIED);
+            return response.close();
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeaders().get(HttpHeaders.Names.RANGE);
+        if (null != range) {
+            Matcher matcher = SINGLE_RANGE_PATTERN.matcher(range.trim());
+            if (matcher.matches()) {
+                String first = matcher.group(1);
+                String last = matcher.group(2);
+                if (first.isEmpty() && last.isEmpty()) {
+                    return sendRangeNotSatisfiable(response, length);
+                } else if (first.isEmpty()) { // Suffix range, ie: the last N bytes.
+                    start = Math.max(0, length - parseRangeValue(last));
+                } else {
+                    start = parseRangeValue(first);
+                    if (!last.isEmpty()) {
+                        end = Math.min(end, parseRangeValue(last));
+                    }
+                }
+                if (start > end) {
+                    return sendRangeNotSatisfiable(response, length);
+                }
+                response.setStatus(HttpResponseStatus.PARTIAL_CONTENT);
+                response.getHeaders().set(HttpHeaders.Names.CONTENT_RANGE,
+                                          "bytes " + start + '-' + end + '/' + length);
+            }
+        }
+
+        final long contentLength = end - start + 1;
+        String contentType = URLConnection.getFileNameMap().getContentTypeFor(file.getName());
+        response.getHeaders().set(HttpHeaders.Names.CONTENT_TYPE, null == contentType ? DEFAULT_CONTENT_TYPE : contentType);
+        response.getHeaders().set(HttpHeaders.Names.CONTENT_LENGTH, contentLength);
+
+        if (headOnly || 0 == contentLength) {
+            return response.close();
+        }
+
+        ByteBuf content = cache.acquire(file, length, lastModified);
+        if (null != content) {
+            /*
+             * The range is taken on the mapped NIO buffer and not via ByteBuf.slice() as nioBuffer(index, length) of a
+             * read-only ByteBuf is incorrect for a non-zero index, which the socket write uses. The wrapped range
+             * references the mapping on its own, so the reference acquired from the cache is not required beyond this.
+             */
+            ByteBuffer region = content.nioBuffer();
+            region.limit((int) (start + contentLength)).position((int) start);
+            content.release();
+            response.write(Unpooled.wrappedBuffer(region.slice()));
+        } else {
+            response.writeFile(file, start, contentLength);
+        }
+        return response.close();
+    }
+
+    private static boolean isNotModified(HttpServerRequest<ByteBuf> request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeaders().get(HttpHeaders.Names.IF_NONE_MATCH);
+        if (null != ifNoneMatch) { // Takes precedence over If-Modified-Since.
+            for (String candidate : ifNoneMatch.split(",")) {
+                String trimmed = candidate.trim();
+                if ("*".equals(trimmed) || etag.equals(trimmed)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Date ifModifiedSince = request.getHeaders().getDateHeader(HttpHeaders.Names.IF_MODIFIED_SINCE, null);
+        // HTTP dates have a precision of seconds.
+        return null != ifModifiedSince && lastModified / 1000 <= ifModifiedSince.getTime() / 1000;
+    }
+
+    /**
+     * Parses a position of a byte range. The range pattern only matches digits, so the only failure is a value that does
+     * not fit in a {@code long}, which is beyond the end of any file.
+     */
+    private static long parseRangeValue(String digits) {
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private File resolve(String path) throws IOException {
+        if (null == path) {
+            return null;
+        }
+        String decodedPath;
+        try {
+            // A '+' in a path is a literal, it only stands for a space in a query string.
+            decodedPath = QueryStringDecoder.decodeComponent(path.replace("+", "%2B"), CharsetUtil.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null; // Malformed percent-encoding.
+        }
+        if (decodedPath.indexOf('\0') >= 0) {
+            return null;
+        }
+        File file = new File(rootDirectory, decodedPath).getCanonicalFile();
+        return file.getPath().startsWith(rootPathPrefix) ? file : null;
+    }
+
+    private static Observable<Void> sendRangeNotSatisfiable(HttpServerResponse<ByteBuf> response, long length) {
+        response.getHeaders().set(HttpHeaders.Names.CONTENT_RANGE, "bytes */" + length);
+        return sendEmpty(response, HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+    }
+
+    private static Observable<Void> sendEmpty(HttpServerResponse<ByteBuf> response, HttpResponseStatus status) {
+        response.setStatus(status);
+        response.getHeaders().set(HttpHeaders.Names.CONTENT_LENGTH, 0);
+        return response.close();
+    }
+}
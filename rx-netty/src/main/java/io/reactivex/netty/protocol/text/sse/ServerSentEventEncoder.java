@@ -19,6 +19,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
+import io.reactivex.netty.serialization.StringTransformer;
 
 import java.util.List;
 
@@ -30,6 +31,8 @@ import java.util.List;
 @ChannelHandler.Sharable
 public class ServerSentEventEncoder extends MessageToMessageEncoder<ServerSentEvent> {
 
+    private static final StringTransformer EVENT_TRANSFORMER = new StringTransformer(); // Own estimate for events.
+
     @Override
     protected void encode(ChannelHandlerContext ctx, ServerSentEvent serverSentEvent, List<Object> out) throws Exception {
         StringBuilder eventBuilder = new StringBuilder();
@@ -37,7 +40,6 @@ public class ServerSentEventEncoder extends MessageToMessageEncoder<ServerSentEv
         eventBuilder.append(": ");
         eventBuilder.append(serverSentEvent.getEventData());
         eventBuilder.append("\n\n");
-        String data = eventBuilder.toString();
-        out.add(ctx.alloc().buffer(data.length()).writeBytes(data.getBytes()));
+        out.add(EVENT_TRANSFORMER.transform(eventBuilder.toString(), ctx.alloc()));
     }
 }
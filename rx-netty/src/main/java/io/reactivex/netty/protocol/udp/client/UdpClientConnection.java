@@ -19,10 +19,10 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.socket.DatagramPacket;
 import io.reactivex.netty.channel.ObservableConnection;
+import io.reactivex.netty.serialization.StringTransformer;
 import rx.Observable;
 
 import java.net.InetSocketAddress;
-import java.nio.charset.Charset;
 
 /**
  * An extension of {@link ObservableConnection} for UDP. The basic difference is that a UDP connection must always
@@ -54,8 +54,8 @@ public class UdpClientConnection<I, O> extends ObservableConnection<I, O> {
 
     @Override
     public void writeString(String msg) {
-        byte[] dataBytes = msg.getBytes(Charset.defaultCharset());
-        writeBytes(dataBytes);
+        ByteBuf data = StringTransformer.DEFAULT_INSTANCE.transform(msg, getChannelHandlerContext().alloc());
+        writeOnChannel(new DatagramPacket(data, receiverAddress));
     }
 
     @Override
@@ -18,7 +18,8 @@ package io.reactivex.netty.protocol.udp.server;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.AbstractRxEventLoopProvider;
 import io.reactivex.netty.channel.ConnectionHandler;
 import io.reactivex.netty.server.AbstractServerBuilder;
 
@@ -38,7 +39,7 @@ public class UdpServerBuilder<I, O> extends AbstractServerBuilder<I, O, Bootstra
 
     @Override
     protected Class<? extends Channel> defaultServerChannelClass() {
-        return NioDatagramChannel.class;
+        return AbstractRxEventLoopProvider.datagramChannelClassOf(RxNetty.getRxEventLoopProvider());
     }
 
     @Override
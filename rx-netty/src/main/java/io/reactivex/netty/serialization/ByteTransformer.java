@@ -19,10 +19,15 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 
 /**
+ * A {@link ContentTransformer} that copies a byte array into the allocated {@link ByteBuf}. This class is stateless and
+ * hence {@link #DEFAULT_INSTANCE} can be shared.
+ *
  * @author Nitesh Kant
  */
 public class ByteTransformer implements ContentTransformer<byte[]> {
 
+    public static final ByteTransformer DEFAULT_INSTANCE = new ByteTransformer();
+
     @Override
     public ByteBuf transform(byte[] toTransform, ByteBufAllocator byteBufAllocator) {
         return byteBufAllocator.buffer(toTransform.length).writeBytes(toTransform);
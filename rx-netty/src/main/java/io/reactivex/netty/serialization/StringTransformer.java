@@ -17,15 +17,35 @@ package io.reactivex.netty.serialization;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.CharsetUtil;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
 
 /**
+ * A {@link ContentTransformer} that encodes a {@link String} with a {@link Charset} directly into the allocated
+ * {@link ByteBuf}, without an intermediate byte array. <br/>
+ * The allocated buffer is sized from an estimate of encoded bytes per character, which starts as the average for the
+ * charset and is raised whenever an encoded string does not fit. So, a transformer instance that is used for similar
+ * content (eg: one instance per call site) rarely has to grow the buffer. <br/>
+ * This class is stateless apart from the above estimate and hence can be shared across threads.
+ *
  * @author Nitesh Kant
  */
 public class StringTransformer implements ContentTransformer<String> {
 
+    /**
+     * A shared instance using the default {@link Charset}.
+     */
+    public static final StringTransformer DEFAULT_INSTANCE = new StringTransformer();
+
     private final Charset charset;
+    private final float maxBytesPerChar;
+    private volatile float estimatedBytesPerChar; // Racy updates are fine as this is only an estimate.
 
     public StringTransformer() {
         this(Charset.defaultCharset());
@@ -33,11 +53,51 @@ public class StringTransformer implements ContentTransformer<String> {
 
     public StringTransformer(Charset charset) {
         this.charset = charset;
+        CharsetEncoder encoder = CharsetUtil.getEncoder(charset);
+        maxBytesPerChar = encoder.maxBytesPerChar();
+        estimatedBytesPerChar = encoder.averageBytesPerChar();
     }
 
     @Override
     public ByteBuf transform(String toTransform, ByteBufAllocator byteBufAllocator) {
-        byte[] contentAsBytes = toTransform.getBytes(charset);
-        return byteBufAllocator.buffer(contentAsBytes.length).writeBytes(contentAsBytes);
+        final int length = toTransform.length();
+        ByteBuf buffer = byteBufAllocator.buffer((int) (length * estimatedBytesPerChar) + 1);
+        if (0 == length) {
+            return buffer;
+        }
+
+        CharsetEncoder encoder = CharsetUtil.getEncoder(charset); // Thread local, so no need to synchronize.
+        encoder.reset();
+        CharBuffer in = CharBuffer.wrap(toTransform);
+        boolean flushing = false;
+        boolean grown = false;
+        try {
+            for (;;) {
+                ByteBuffer out = buffer.internalNioBuffer(buffer.writerIndex(), buffer.writableBytes());
+                int startPosition = out.position();
+                CoderResult result = flushing ? encoder.flush(out) : encoder.encode(in, out, true);
+                buffer.writerIndex(buffer.writerIndex() + out.position() - startPosition);
+                if (result.isUnderflow()) {
+                    if (flushing) {
+                        break;
+                    }
+                    flushing = true; // All input is consumed on underflow as this is the end of input.
+                } else if (result.isOverflow()) {
+                    // Grow enough to hold the remaining characters in the worst case.
+                    buffer.ensureWritable((int) (in.remaining() * maxBytesPerChar) + 16);
+                    grown = true;
+                } else {
+                    result.throwException();
+                }
+            }
+        } catch (CharacterCodingException e) {
+            buffer.release();
+            throw new IllegalStateException(e); // Can not happen as the encoder replaces malformed input.
+        }
+
+        if (grown) {
+            estimatedBytesPerChar = Math.min(maxBytesPerChar, (float) buffer.readableBytes() / length);
+        }
+        return buffer;
     }
 }
@@ -27,6 +27,8 @@ import io.reactivex.netty.pipeline.RxRequiredConfigurator;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -43,6 +45,8 @@ public class AbstractServer<I, O, B extends AbstractBootstrap<B, C>, C extends C
     protected final AtomicReference<ServerState> serverStateRef;
     protected ErrorHandler errorHandler;
     private ChannelFuture bindFuture;
+    private int listenerCount = 1;
+    private final List<ChannelFuture> additionalBindFutures = new ArrayList<ChannelFuture>();
 
     public AbstractServer(B bootstrap, int port) {
         if (null == bootstrap) {
@@ -73,6 +77,7 @@ public class AbstractServer<I, O, B extends AbstractBootstrap<B, C>, C extends C
             if (!bindFuture.isSuccess()) {
                 throw new RuntimeException(bindFuture.cause());
             }
+            bindAdditionalListeners();
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         }
@@ -102,7 +107,13 @@ public class AbstractServer<I, O, B extends AbstractBootstrap<B, C>, C extends C
         if (!serverStateRef.compareAndSet(ServerState.Started, ServerState.Shutdown)) {
             throw new IllegalStateException("The server is already shutdown.");
         } else {
+            for (ChannelFuture additionalBindFuture : additionalBindFutures) {
+                additionalBindFuture.channel().close();
+            }
             bindFuture.channel().close().sync();
+            for (ChannelFuture additionalBindFuture : additionalBindFutures) {
+                additionalBindFuture.channel().closeFuture().sync();
+            }
         }
     }
 
@@ -115,6 +126,9 @@ public class AbstractServer<I, O, B extends AbstractBootstrap<B, C>, C extends C
                 throw new IllegalStateException("Server not started yet.");
             case Started:
                 bindFuture.channel().closeFuture().await();
+                for (ChannelFuture additionalBindFuture : additionalBindFutures) {
+                    additionalBindFuture.channel().closeFuture().await();
+                }
                 break;
             case Shutdown:
                 // Nothing to do as it is already shutdown.
@@ -133,6 +147,36 @@ public class AbstractServer<I, O, B extends AbstractBootstrap<B, C>, C extends C
         return port;
     }
 
+    /**
+     * Sets the number of server channels to bind on the port of this server. All channels beyond the first are bound to
+     * the port of the first (so this also works for an ephemeral port) and hence require the bootstrap to enable a
+     * reuse port option for the channels.
+     *
+     * @param listenerCount Number of server channels to bind.
+     */
+    void setListenerCount(int listenerCount) {
+        if (serverStateRef.get() != ServerState.Created) {
+            throw new IllegalStateException("Listener count can not be set after starting the server.");
+        }
+        this.listenerCount = listenerCount;
+    }
+
+    private void bindAdditionalListeners() throws InterruptedException {
+        int boundPort = getServerPort();
+        for (int i = 1; i < listenerCount; i++) {
+            ChannelFuture additionalBindFuture = bootstrap.bind(boundPort).await();
+            if (!additionalBindFuture.isSuccess()) {
+                // Release the port if any of the listeners fail to bind.
+                for (ChannelFuture boundFuture : additionalBindFutures) {
+                    boundFuture.channel().close();
+                }
+                bindFuture.channel().close().sync();
+                throw new RuntimeException(additionalBindFuture.cause());
+            }
+            additionalBindFutures.add(additionalBindFuture);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     protected S returnServer() {
         return (S) this;
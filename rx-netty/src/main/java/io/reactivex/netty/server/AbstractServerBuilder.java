@@ -24,6 +24,7 @@ import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.reactivex.netty.RxNetty;
 import io.reactivex.netty.channel.ConnectionHandler;
+import io.reactivex.netty.channel.RxEventLoopProvider;
 import io.reactivex.netty.pipeline.PipelineConfigurator;
 import io.reactivex.netty.pipeline.PipelineConfigurators;
 
@@ -114,13 +115,13 @@ public abstract class AbstractServerBuilder<I, O, T extends AbstractBootstrap<T,
             serverChannelClass = defaultServerChannelClass();
             EventLoopGroup acceptorGroup = serverBootstrap.group();
             if (null == acceptorGroup) {
-                serverBootstrap.group(RxNetty.getRxEventLoopProvider().globalServerEventLoop());
+                useGlobalEventLoops(RxNetty.getRxEventLoopProvider());
             }
         }
 
         if (null == serverBootstrap.group()) {
             if (defaultServerChannelClass() == serverChannelClass) {
-                serverBootstrap.group(RxNetty.getRxEventLoopProvider().globalServerEventLoop());
+                useGlobalEventLoops(RxNetty.getRxEventLoopProvider());
             } else {
                 // Fail fast for defaults we do not support.
                 throw new IllegalStateException("Specified a channel class but not the event loop group.");
@@ -137,6 +138,15 @@ public abstract class AbstractServerBuilder<I, O, T extends AbstractBootstrap<T,
 
     protected abstract Class<? extends C> defaultServerChannelClass();
 
+    /**
+     * Sets the event loops from the passed provider on the bootstrap, when they are not provided explicitly.
+     *
+     * @param eventLoopProvider Provider of the global event loops.
+     */
+    protected void useGlobalEventLoops(RxEventLoopProvider eventLoopProvider) {
+        serverBootstrap.group(eventLoopProvider.globalServerEventLoop());
+    }
+
     protected abstract S createServer();
 
     @SuppressWarnings("unchecked")
@@ -20,8 +20,14 @@ import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.AbstractRxEventLoopProvider;
 import io.reactivex.netty.channel.ConnectionHandler;
+import io.reactivex.netty.channel.RxEventLoopProvider;
+import io.reactivex.netty.channel.SingleEpollLoopProvider;
+import io.reactivex.netty.channel.WriteBufferWaterMarks;
+
+import java.util.Map;
 
 /**
  * @author Nitesh Kant
@@ -30,6 +36,9 @@ import io.reactivex.netty.channel.ConnectionHandler;
 public abstract class ConnectionBasedServerBuilder<I, O, B extends ConnectionBasedServerBuilder>
         extends AbstractServerBuilder<I,O, ServerBootstrap, ServerChannel, B, RxServer<I, O>> {
 
+    private int listenerCount = 1;
+    protected ExecutionStrategy executionStrategy = ExecutionStrategy.ioThread();
+
     protected ConnectionBasedServerBuilder(int port, ConnectionHandler<I, O> connectionHandler) {
         this(port, connectionHandler, new ServerBootstrap());
     }
@@ -49,9 +58,89 @@ public abstract class ConnectionBasedServerBuilder<I, O, B extends ConnectionBas
         return returnBuilder();
     }
 
+    /**
+     * Sets the write buffer water marks of the accepted connections. A channel is not writable once more than {@code highWaterMark}
+     * bytes are queued for writing and is writable again once the queued bytes go below {@code lowWaterMark}. <br/>
+     * {@link io.reactivex.netty.channel.ObservableConnection#writeAll(rx.Observable)} pauses the source while the
+     * channel is not writable.
+     *
+     * @param lowWaterMark Low water mark in bytes.
+     * @param highWaterMark High water mark in bytes.
+     *
+     * @return This builder.
+     */
+    public B withWriteBufferWaterMarks(int lowWaterMark, int highWaterMark) {
+        for (Map.Entry<ChannelOption<Integer>, Integer> option
+                : WriteBufferWaterMarks.toChannelOptions(lowWaterMark, highWaterMark).entrySet()) {
+            childChannelOption(option.getKey(), option.getValue());
+        }
+        return returnBuilder();
+    }
+
+    /**
+     * Binds {@code listenerCount} server sockets on the server port using {@code SO_REUSEPORT}, so that the kernel
+     * spreads new connections across the listeners. Every listener is registered with a different event loop of the
+     * acceptor group, if the group has at least as many event loops. <br/>
+     * This is only supported by the epoll transport, see
+     * {@link io.reactivex.netty.channel.SingleEpollLoopProvider}.
+     *
+     * @param listenerCount Number of server sockets to bind.
+     *
+     * @return This builder.
+     */
+    public B withReusePortListeners(int listenerCount) {
+        if (listenerCount < 1) {
+            throw new IllegalArgumentException("Listener count must be at least 1.");
+        }
+        this.listenerCount = listenerCount;
+        return returnBuilder();
+    }
+
+    /**
+     * Sets the {@link ExecutionStrategy} that decides the thread on which the handler of this server is invoked.
+     * Defaults to {@link ExecutionStrategy#ioThread()}.
+     *
+     * @param executionStrategy Strategy to use.
+     *
+     * @return This builder.
+     */
+    public B withExecutionStrategy(ExecutionStrategy executionStrategy) {
+        if (null == executionStrategy) {
+            throw new IllegalArgumentException("Execution strategy can not be null.");
+        }
+        this.executionStrategy = executionStrategy;
+        return returnBuilder();
+    }
+
+    @Override
+    public RxServer<I, O> build() {
+        if (listenerCount > 1) {
+            Class<?> channelClass = null != serverChannelClass ? serverChannelClass : defaultServerChannelClass();
+            ChannelOption<Boolean> reusePortOption = SingleEpollLoopProvider.reusePortOption();
+            if (null == reusePortOption || !SingleEpollLoopProvider.isEpollServerSocketChannel(channelClass)) {
+                throw new IllegalStateException("Multiple listeners require SO_REUSEPORT, which is only supported by "
+                                                + "the epoll transport.");
+            }
+            channelOption(reusePortOption, true);
+        }
+        RxServer<I, O> server = super.build();
+        server.setListenerCount(listenerCount);
+        return server;
+    }
+
+    @Override
+    protected void useGlobalEventLoops(RxEventLoopProvider eventLoopProvider) {
+        if (eventLoopProvider instanceof AbstractRxEventLoopProvider) {
+            serverBootstrap.group(((AbstractRxEventLoopProvider) eventLoopProvider).globalServerAcceptorEventLoop(),
+                                  eventLoopProvider.globalServerEventLoop());
+        } else {
+            super.useGlobalEventLoops(eventLoopProvider);
+        }
+    }
+
     @Override
     protected Class<? extends ServerChannel> defaultServerChannelClass() {
-        return NioServerSocketChannel.class;
+        return AbstractRxEventLoopProvider.serverSocketChannelClassOf(RxNetty.getRxEventLoopProvider());
     }
 
     @Override
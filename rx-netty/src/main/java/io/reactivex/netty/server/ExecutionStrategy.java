@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.server;
+
+import io.reactivex.netty.channel.RxDefaultThreadFactory;
+import rx.Observable;
+import rx.functions.Func0;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strategy that decides the thread on which a server invokes the connection handler (or the request handler for HTTP
+ * servers). The following strategies are available:
+ * <ul>
+ <li>{@link #ioThread()}: The handler is invoked on the I/O thread of the connection. This is the default and the
+ fastest option for non-blocking handlers, but a handler that blocks stalls all the connections on the event loop.</li>
+ <li>{@link #boundedPool(int, int)}: The handler is invoked on a fixed size pool of worker threads with a bounded
+ queue. When the queue is full, the handler is not invoked and an HTTP server responds with a
+ {@code 503 Service Unavailable}, other servers close the connection.</li>
+ <li>{@link #virtualThreads()}: The handler is invoked on a new virtual thread, if the JDK supports them (see
+ {@link #isVirtualThreadsAvailable()}).</li>
+ </ul>
+ * Strategies that offload the handler measure the time a handler waits before it is invoked, see
+ * {@link ExecutorExecutionStrategy}.
+ */
+public abstract class ExecutionStrategy {
+
+    private static final ExecutionStrategy IO_THREAD = new ExecutionStrategy() {
+        @Override
+        public boolean executesOnIoThread() {
+            return true;
+        }
+
+        @Override
+        public <T> Observable<T> execute(Func0<Observable<T>> task) {
+            return task.call();
+        }
+    };
+
+    /**
+     * Returns the strategy that invokes the handler on the I/O thread of the connection.
+     *
+     * @return The I/O thread strategy.
+     */
+    public static ExecutionStrategy ioThread() {
+        return IO_THREAD;
+    }
+
+    /**
+     * Creates a strategy that invokes the handler on a pool of {@code threads} worker threads, queuing at most
+     * {@code maxQueuedTasks} handler invocations when all the threads are busy.
+     *
+     * @param threads Number of worker threads.
+     * @param maxQueuedTasks Maximum number of handler invocations waiting for a worker thread. {@code 0} rejects an
+     *                       invocation whenever all the threads are busy.
+     *
+     * @return A new bounded pool strategy.
+     */
+    public static ExecutorExecutionStrategy boundedPool(int threads, int maxQueuedTasks) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1.");
+        }
+        if (maxQueuedTasks < 0) {
+            throw new IllegalArgumentException("Maximum queued tasks can not be negative.");
+        }
+        BlockingQueue<Runnable> queue = 0 == maxQueuedTasks ? new SynchronousQueue<Runnable>()
+                                                            : new ArrayBlockingQueue<Runnable>(maxQueuedTasks);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue,
+                                                             new RxDefaultThreadFactory("rx-server-handler"));
+        return new ExecutorExecutionStrategy(executor);
+    }
+
+    /**
+     * Creates a strategy that invokes every handler on a new virtual thread.
+     *
+     * @return A new virtual threads strategy.
+     *
+     * @throws IllegalStateException If virtual threads are not supported by the JDK.
+     */
+    public static ExecutorExecutionStrategy virtualThreads() {
+        if (!isVirtualThreadsAvailable()) {
+            throw new IllegalStateException("Virtual threads are not supported by this JDK.",
+                                            VirtualThreads.unavailabilityCause);
+        }
+        ExecutorService executor;
+        try {
+            executor = (ExecutorService) VirtualThreads.newExecutorMethod.invoke(null);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create the virtual thread executor.", e);
+        }
+        return new ExecutorExecutionStrategy(executor);
+    }
+
+    /**
+     * Returns whether {@link #virtualThreads()} can be used in this JVM.
+     *
+     * @return {@code true} if the JDK supports virtual threads.
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        return null == VirtualThreads.unavailabilityCause;
+    }
+
+    /**
+     * Returns whether this strategy invokes the handler on the I/O thread of the connection.
+     *
+     * @return {@code true} if the handler is invoked on the I/O thread.
+     */
+    public abstract boolean executesOnIoThread();
+
+    /**
+     * Executes the passed task as per this strategy. The task is executed when the returned {@link Observable} is
+     * subscribed and the subscriber then receives the notifications of the {@link Observable} returned by the task.
+     * If this strategy can not accept the task, the returned {@link Observable} emits a
+     * {@link java.util.concurrent.RejectedExecutionException}.
+     *
+     * @param task Task to execute.
+     *
+     * @return Observable of the result of the task.
+     */
+    public abstract <T> Observable<T> execute(Func0<Observable<T>> task);
+
+    private static final class VirtualThreads {
+
+        private static final Method newExecutorMethod;
+        private static final Throwable unavailabilityCause;
+
+        static {
+            Method method = null;
+            Throwable cause = null;
+            try {
+                method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            } catch (Throwable t) {
+                cause = t;
+            }
+            newExecutorMethod = method;
+            unavailabilityCause = cause;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.server;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Func0;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link ExecutionStrategy} that invokes the handler on an {@link ExecutorService}, rejecting the invocations that
+ * the executor rejects. <br/>
+ * This strategy measures the queue wait time of every handler invocation, i.e. the time between the I/O thread
+ * handing off the invocation and a thread of the executor starting it. Use a separate strategy instance per server to
+ * get the metrics of a single handler.
+ */
+public class ExecutorExecutionStrategy extends ExecutionStrategy {
+
+    private final ExecutorService executor;
+    private final AtomicLong executedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+
+    public ExecutorExecutionStrategy(ExecutorService executor) {
+        if (null == executor) {
+            throw new NullPointerException("Executor can not be null.");
+        }
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean executesOnIoThread() {
+        return false;
+    }
+
+    @Override
+    public <T> Observable<T> execute(final Func0<Observable<T>> task) {
+        return Observable.create(new Observable.OnSubscribe<T>() {
+            @Override
+            public void call(final Subscriber<? super T> subscriber) {
+                final long queuedAtNanos = System.nanoTime();
+                try {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            recordQueueWait(System.nanoTime() - queuedAtNanos);
+                            if (subscriber.isUnsubscribed()) {
+                                return;
+                            }
+                            Observable<T> result;
+                            try {
+                                result = task.call();
+                            } catch (Throwable throwable) {
+                                subscriber.onError(throwable);
+                                return;
+                            }
+                            if (null == result) {
+                                subscriber.onCompleted();
+                            } else {
+                                result.unsafeSubscribe(subscriber);
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    rejectedCount.incrementAndGet();
+                    subscriber.onError(e);
+                }
+            }
+        });
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Shuts down the executor of this strategy. Handler invocations after shutdown are rejected.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Number of handler invocations started by the executor.
+     *
+     * @return Number of executed invocations.
+     */
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    /**
+     * Number of handler invocations rejected by the executor.
+     *
+     * @return Number of rejected invocations.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Number of handler invocations waiting for a thread of the executor.
+     *
+     * @return Number of queued invocations, {@code -1} if the executor does not provide this number.
+     */
+    public int getQueuedCount() {
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getQueue().size();
+        }
+        return -1;
+    }
+
+    /**
+     * Mean queue wait time of the executed handler invocations.
+     *
+     * @return Mean queue wait in microseconds.
+     */
+    public long getMeanQueueWaitMicros() {
+        long executed = executedCount.get();
+        return 0 == executed ? 0 : TimeUnit.NANOSECONDS.toMicros(totalQueueWaitNanos.get() / executed);
+    }
+
+    /**
+     * Maximum queue wait time of any executed handler invocation.
+     *
+     * @return Maximum queue wait in microseconds.
+     */
+    public long getMaxQueueWaitMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxQueueWaitNanos.get());
+    }
+
+    private void recordQueueWait(long waitNanos) {
+        totalQueueWaitNanos.addAndGet(waitNanos);
+        executedCount.incrementAndGet();
+        long currentMax;
+        do {
+            currentMax = maxQueueWaitNanos.get();
+        } while (waitNanos > currentMax && !maxQueueWaitNanos.compareAndSet(currentMax, waitNanos));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.server;
+
+import io.netty.channel.Channel;
+import io.reactivex.netty.channel.ConnectionHandler;
+import io.reactivex.netty.channel.ObservableConnection;
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Func0;
+
+/**
+ * A {@link ConnectionHandler} that invokes another handler as per an {@link ExecutionStrategy}. <br/>
+ * Reading from the connection is suspended till the offloaded handler subscribes to the connection, so that no input
+ * is lost before the handler subscribes to {@link ObservableConnection#getInput()}.
+ */
+class OffloadingConnectionHandler<I, O> implements ConnectionHandler<I, O> {
+
+    private final ConnectionHandler<I, O> connectionHandler;
+    private final ExecutionStrategy executionStrategy;
+
+    OffloadingConnectionHandler(ConnectionHandler<I, O> connectionHandler, ExecutionStrategy executionStrategy) {
+        this.connectionHandler = connectionHandler;
+        this.executionStrategy = executionStrategy;
+    }
+
+    @Override
+    public Observable<Void> handle(final ObservableConnection<I, O> newConnection) {
+        final Channel channel = newConnection.getChannelHandlerContext().channel();
+        channel.config().setAutoRead(false); // Called from channelActive, so this is before the first read.
+        return executionStrategy.execute(new Func0<Observable<Void>>() {
+            @Override
+            public Observable<Void> call() {
+                Observable<Void> handled = connectionHandler.handle(newConnection);
+                final Observable<Void> toSubscribe = null == handled ? Observable.<Void>empty() : handled;
+                return Observable.create(new Observable.OnSubscribe<Void>() {
+                    @Override
+                    public void call(Subscriber<? super Void> subscriber) {
+                        toSubscribe.unsafeSubscribe(subscriber);
+                        channel.config().setAutoRead(true);
+                    }
+                });
+            }
+        });
+    }
+}
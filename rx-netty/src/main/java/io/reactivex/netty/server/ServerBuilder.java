@@ -35,6 +35,10 @@ public class ServerBuilder<I, O> extends ConnectionBasedServerBuilder<I,O, Serve
 
     @Override
     protected RxServer<I, O> createServer() {
-        return new RxServer<I, O>(serverBootstrap, port, pipelineConfigurator, connectionHandler);
+        ConnectionHandler<I, O> handler = connectionHandler;
+        if (!executionStrategy.executesOnIoThread()) {
+            handler = new OffloadingConnectionHandler<I, O>(connectionHandler, executionStrategy);
+        }
+        return new RxServer<I, O>(serverBootstrap, port, pipelineConfigurator, handler);
     }
 }
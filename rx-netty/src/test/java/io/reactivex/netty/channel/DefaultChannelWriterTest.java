@@ -0,0 +1,220 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.Observer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DefaultChannelWriterTest {
+
+    private EmbeddedChannel channel;
+    private WriteHolder writeHolder;
+    private DefaultChannelWriter<ByteBuf> writer;
+
+    @Before
+    public void setUp() throws Exception {
+        writeHolder = new WriteHolder();
+        ChannelOutboundHandlerAdapter writerHandler = new ChannelOutboundHandlerAdapter();
+        channel = new EmbeddedChannel(writeHolder, writerHandler);
+        writer = new DefaultChannelWriter<ByteBuf>(channel.pipeline().context(writerHandler));
+    }
+
+    @Test(timeout = 60000)
+    public void testFlushWithoutWrites() throws Exception {
+        writer.flush().toBlockingObservable().lastOrDefault(null);
+    }
+
+    @Test
+    public void testFlushCompletesWithAllWrites() throws Exception {
+        writer.write(Unpooled.buffer().writeByte(1));
+        FlushObserver flushObserver = new FlushObserver();
+        writer.writeAndFlush(Unpooled.buffer().writeByte(2)).subscribe(flushObserver);
+        Assert.assertEquals("Unexpected writes.", 2, writeHolder.promises.size());
+
+        writeHolder.promises.get(0).setSuccess();
+        Assert.assertFalse("Flush completed before all writes completed.", flushObserver.completed);
+
+        writeHolder.promises.get(1).setSuccess();
+        Assert.assertTrue("Flush not completed after all writes completed.", flushObserver.completed);
+
+        FlushObserver noNewWritesObserver = new FlushObserver();
+        writer.flush().subscribe(noNewWritesObserver);
+        Assert.assertTrue("Flush without new writes not completed.", noNewWritesObserver.completed);
+    }
+
+    @Test
+    public void testFlushWithoutNewWritesWaitsForPendingWrites() throws Exception {
+        writer.writeAndFlush(Unpooled.buffer().writeByte(1));
+        FlushObserver flushObserver = new FlushObserver();
+        writer.flush().subscribe(flushObserver);
+        Assert.assertFalse("Flush completed before the pending write completed.", flushObserver.completed);
+
+        writeHolder.promises.get(0).setSuccess();
+        Assert.assertTrue("Flush not completed after the pending write completed.", flushObserver.completed);
+    }
+
+    @Test
+    public void testFlushFailsOnWriteFailure() throws Exception {
+        FlushObserver flushObserver = new FlushObserver();
+        writer.write(Unpooled.buffer().writeByte(1));
+        writer.writeAndFlush(Unpooled.buffer().writeByte(2)).subscribe(flushObserver);
+
+        IllegalStateException cause = new IllegalStateException("Deliberate write failure.");
+        writeHolder.promises.get(0).setFailure(cause);
+        Assert.assertSame("Unexpected flush error.", cause, flushObserver.error);
+    }
+
+    @Test
+    public void testFlushAfterFailedWriteCompletes() throws Exception {
+        FlushObserver failedFlushObserver = new FlushObserver();
+        writer.writeAndFlush(Unpooled.buffer().writeByte(1)).subscribe(failedFlushObserver);
+        IllegalStateException cause = new IllegalStateException("Deliberate write failure.");
+        writeHolder.promises.get(0).setFailure(cause);
+        Assert.assertSame("Unexpected flush error.", cause, failedFlushObserver.error);
+
+        FlushObserver flushObserver = new FlushObserver();
+        writer.writeAndFlush(Unpooled.buffer().writeByte(2)).subscribe(flushObserver);
+        writeHolder.promises.get(1).setSuccess();
+        Assert.assertNull("Earlier write failure failed a later flush.", flushObserver.error);
+        Assert.assertTrue("Flush after a failed write not completed.", flushObserver.completed);
+    }
+
+    @Test
+    public void testWriteAndForget() throws Exception {
+        writer.writeAndForget(Unpooled.buffer().writeByte(1));
+        Assert.assertEquals("Message not written.", 1, writeHolder.promises.size());
+        Assert.assertSame("Message not written with a void promise.", channel.voidPromise(), writeHolder.promises.get(0));
+        Assert.assertEquals("Message not flushed.", 1, writeHolder.flushCount);
+
+        FlushObserver flushObserver = new FlushObserver();
+        writer.flush().subscribe(flushObserver);
+        Assert.assertTrue("Fire and forget write tracked by flush.", flushObserver.completed);
+    }
+
+    @Test
+    public void testCancelPendingWrites() throws Exception {
+        FlushObserver flushObserver = new FlushObserver();
+        writer.writeAndFlush(Unpooled.buffer().writeByte(1)).subscribe(flushObserver);
+        writer.cancelPendingWrites(true);
+        Assert.assertTrue("Pending flush not cancelled.", flushObserver.error instanceof CancellationException);
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentWritersSeeTheirWriteFailures() throws Exception {
+        // A channel on a real event loop, as the tracker executes the calls made off the event loop on the event loop.
+        NioEventLoopGroup eventLoop = new NioEventLoopGroup(1);
+        try {
+            final NioSocketChannel writersChannel = new NioSocketChannel();
+            eventLoop.register(writersChannel).sync();
+            assertWritersSeeTheirWriteFailures(writersChannel);
+        } finally {
+            eventLoop.shutdownGracefully();
+        }
+    }
+
+    private static void assertWritersSeeTheirWriteFailures(final Channel writersChannel) throws Exception {
+        final WriteCompletionTracker tracker = new WriteCompletionTracker(writersChannel);
+        final IllegalStateException cause = new IllegalStateException("Deliberate write failure.");
+        final AtomicInteger missedFailures = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] writers = new Thread[4];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int j = 0; j < 5000; j++) {
+                        ChannelPromise write = writersChannel.newPromise();
+                        tracker.track(write);
+                        Observable<Void> flushed = tracker.onFlush();
+                        write.setFailure(cause);
+                        try {
+                            flushed.toBlockingObservable().lastOrDefault(null);
+                            missedFailures.incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            // Expected, the flush covers the failed write.
+                        }
+                    }
+                }
+            });
+            writers[i].start();
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        Assert.assertEquals("Write failures not seen by the flush of the writer.", 0, missedFailures.get());
+    }
+
+    private static class WriteHolder extends ChannelOutboundHandlerAdapter {
+
+        private final List<ChannelPromise> promises = new ArrayList<ChannelPromise>();
+        private int flushCount;
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            promises.add(promise); // Completed by the tests.
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            flushCount++;
+        }
+    }
+
+    private static class FlushObserver implements Observer<Void> {
+
+        private boolean completed;
+        private Throwable error;
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            error = e;
+        }
+
+        @Override
+        public void onNext(Void aVoid) {
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoop;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.protocol.http.client.HttpClientRequest;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import io.reactivex.netty.protocol.http.server.HttpServer;
+import io.reactivex.netty.protocol.http.server.HttpServerRequest;
+import io.reactivex.netty.protocol.http.server.HttpServerResponse;
+import io.reactivex.netty.protocol.http.server.RequestHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.functions.Func1;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class EventLoopSchedulerTest {
+
+    private NioEventLoopGroup group;
+    private EventLoopScheduler scheduler;
+    private HttpServer<ByteBuf, ByteBuf> server;
+
+    @Before
+    public void setUp() throws Exception {
+        group = new NioEventLoopGroup(1);
+        scheduler = new EventLoopScheduler(group.next());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (null != server) {
+            server.shutdown();
+        }
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS).await();
+    }
+
+    @Test(timeout = 60000)
+    public void testActionsRunInOrderOnEventLoop() throws Exception {
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicBoolean offLoop = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(100);
+        Scheduler.Worker worker = scheduler.createWorker();
+        for (int i = 0; i < 100; i++) {
+            final int index = i;
+            worker.schedule(new Action0() {
+                @Override
+                public void call() {
+                    if (!scheduler.getEventLoop().inEventLoop()) {
+                        offLoop.set(true);
+                    }
+                    executed.add(index);
+                    done.countDown();
+                }
+            });
+        }
+        Assert.assertTrue("Actions not executed.", done.await(1, TimeUnit.MINUTES));
+        Assert.assertFalse("Action executed outside the event loop.", offLoop.get());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("Unexpected execution order.", Integer.valueOf(i), executed.get(i));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testDelayedAction() throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+        long startTime = System.nanoTime();
+        scheduler.createWorker().schedule(new Action0() {
+            @Override
+            public void call() {
+                done.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        Assert.assertTrue("Delayed action not executed.", done.await(1, TimeUnit.MINUTES));
+        Assert.assertTrue("Delayed action executed too early.",
+                          System.nanoTime() - startTime >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test(timeout = 60000)
+    public void testUnsubscribe() throws Exception {
+        final AtomicBoolean executed = new AtomicBoolean();
+        final CountDownLatch blockLoop = new CountDownLatch(1);
+        Action0 markExecuted = new Action0() {
+            @Override
+            public void call() {
+                executed.set(true);
+            }
+        };
+
+        Scheduler.Worker worker = scheduler.createWorker();
+        Subscription delayed = worker.schedule(markExecuted, 10, TimeUnit.MILLISECONDS);
+        delayed.unsubscribe();
+        Assert.assertTrue("Action subscription not unsubscribed.", delayed.isUnsubscribed());
+
+        Scheduler.Worker unsubscribedWorker = scheduler.createWorker();
+        unsubscribedWorker.schedule(new Action0() {
+            @Override
+            public void call() {
+                try {
+                    blockLoop.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        unsubscribedWorker.schedule(markExecuted); // Queued behind the blocking action.
+        unsubscribedWorker.unsubscribe();
+        blockLoop.countDown();
+        unsubscribedWorker.schedule(markExecuted);
+
+        final CountDownLatch drained = new CountDownLatch(1);
+        worker.schedule(new Action0() {
+            @Override
+            public void call() {
+                drained.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        Assert.assertTrue("Event loop not drained.", drained.await(1, TimeUnit.MINUTES));
+        Assert.assertFalse("Unsubscribed action executed.", executed.get());
+    }
+
+    @Test(timeout = 60000)
+    public void testUnsubscribeWorkerCancelsDelayedActions() throws Exception {
+        final EventLoop eventLoop = group.next();
+        final List<Future<?>> scheduled = Collections.synchronizedList(new ArrayList<Future<?>>());
+        EventLoop recordingEventLoop = (EventLoop) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{EventLoop.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        Object result = method.invoke(eventLoop, args);
+                        if ("schedule".equals(method.getName())) {
+                            scheduled.add((Future<?>) result);
+                        }
+                        return result;
+                    }
+                });
+
+        Scheduler.Worker worker = new EventLoopScheduler(recordingEventLoop).createWorker();
+        Action0 noOp = new Action0() {
+            @Override
+            public void call() {
+            }
+        };
+        worker.schedule(noOp, 1, TimeUnit.HOURS);
+        worker.schedule(noOp, 2, TimeUnit.HOURS);
+        worker.unsubscribe();
+
+        Assert.assertEquals("Unexpected scheduled actions.", 2, scheduled.size());
+        for (Future<?> future : scheduled) {
+            Assert.assertTrue("Delayed action not cancelled on worker unsubscribe.", future.isCancelled());
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testServerRequestScheduler() throws Exception {
+        final AtomicBoolean onConnectionLoop = new AtomicBoolean();
+        server = RxNetty.createHttpServer(0, new RequestHandler<ByteBuf, ByteBuf>() {
+            @Override
+            public Observable<Void> handle(final HttpServerRequest<ByteBuf> request,
+                                           final HttpServerResponse<ByteBuf> response) {
+                final EventLoopScheduler requestScheduler = request.getEventLoopScheduler();
+                return Observable.just("Hello")
+                                 .observeOn(requestScheduler)
+                                 .flatMap(new Func1<String, Observable<Void>>() {
+                                     @Override
+                                     public Observable<Void> call(String content) {
+                                         onConnectionLoop.set(requestScheduler.getEventLoop().inEventLoop());
+                                         return response.writeStringAndFlush(content);
+                                     }
+                                 });
+            }
+        }).start();
+
+        HttpClientResponse<ByteBuf> response =
+                RxNetty.createHttpClient("localhost", server.getServerPort())
+                       .submit(HttpClientRequest.createGet("/")).toBlockingObservable().last();
+
+        Assert.assertEquals("Unexpected response status.", HttpResponseStatus.OK.code(), response.getStatus().code());
+        Assert.assertTrue("Request processing not executed on the connection's event loop.", onConnectionLoop.get());
+    }
+}
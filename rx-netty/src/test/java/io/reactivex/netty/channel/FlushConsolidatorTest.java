@@ -0,0 +1,190 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoopGroup;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Action0;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FlushConsolidatorTest {
+
+    private EmbeddedChannel channel;
+    private FlushCounter flushCounter;
+    private ChannelOutboundHandlerAdapter writerHandler; // Writer is placed after the counter so that it sees the flushes.
+
+    @Before
+    public void setUp() throws Exception {
+        flushCounter = new FlushCounter();
+        writerHandler = new ChannelOutboundHandlerAdapter();
+        channel = new EmbeddedChannel(flushCounter, writerHandler);
+    }
+
+    @Test
+    public void testFlushesAreConsolidated() throws Exception {
+        DefaultChannelWriter<ByteBuf> writer = newWriter(10, 1024);
+
+        final AtomicInteger completedFlushes = new AtomicInteger();
+        Action0 onFlushComplete = new Action0() {
+            @Override
+            public void call() {
+                completedFlushes.incrementAndGet();
+            }
+        };
+        writer.writeAndFlush(Unpooled.buffer().writeByte(1)).doOnCompleted(onFlushComplete).subscribe();
+        writer.writeAndFlush(Unpooled.buffer().writeByte(2)).doOnCompleted(onFlushComplete).subscribe();
+        Assert.assertEquals("Flushed before the pending tasks ran.", 0, flushCounter.flushCount);
+        Assert.assertNull("Message written before flush.", channel.readOutbound());
+
+        channel.runPendingTasks();
+        Assert.assertEquals("Flushes not consolidated.", 1, flushCounter.flushCount);
+        Assert.assertEquals("Unexpected messages written.", 2, channel.outboundMessages().size());
+        Assert.assertEquals("Flush observables not completed.", 2, completedFlushes.get());
+    }
+
+    @Test
+    public void testFlushAtMaxConsolidatedFlushes() throws Exception {
+        DefaultChannelWriter<ByteBuf> writer = newWriter(3, 1024);
+
+        writer.writeAndFlush(Unpooled.buffer().writeByte(1));
+        writer.writeAndFlush(Unpooled.buffer().writeByte(2));
+        Assert.assertEquals("Flushed before reaching the max flushes.", 0, flushCounter.flushCount);
+        writer.writeAndFlush(Unpooled.buffer().writeByte(3));
+        Assert.assertEquals("Not flushed at the max flushes.", 1, flushCounter.flushCount);
+        Assert.assertEquals("Unexpected messages written.", 3, channel.outboundMessages().size());
+    }
+
+    @Test
+    public void testFlushAtMaxConsolidatedBytes() throws Exception {
+        DefaultChannelWriter<ByteBuf> writer = newWriter(10, 8);
+
+        writer.writeAndFlush(Unpooled.buffer().writeBytes(new byte[4]));
+        Assert.assertEquals("Flushed before reaching the max bytes.", 0, flushCounter.flushCount);
+        writer.writeAndFlush(Unpooled.buffer().writeBytes(new byte[4]));
+        Assert.assertEquals("Not flushed at the max bytes.", 1, flushCounter.flushCount);
+
+        channel.runPendingTasks(); // Scheduled flush after the first write has nothing more to write.
+        Assert.assertEquals("Unexpected messages written.", 2, channel.outboundMessages().size());
+    }
+
+    @Test
+    public void testNoConsolidationByDefault() throws Exception {
+        DefaultChannelWriter<ByteBuf> writer =
+                new DefaultChannelWriter<ByteBuf>(channel.pipeline().context(writerHandler));
+
+        writer.writeAndFlush(Unpooled.buffer().writeByte(1));
+        Assert.assertEquals("Flush not immediate without consolidation.", 1, flushCounter.flushCount);
+    }
+
+    @Test
+    public void testWriteFlushAndCloseOnTheEventLoop() throws Exception {
+        channel.attr(FlushConsolidator.FLUSH_CONSOLIDATOR_ATTR).set(new FlushConsolidator(channel, 10, 1024));
+        ObservableConnection<ByteBuf, ByteBuf> connection =
+                new ObservableConnection<ByteBuf, ByteBuf>(channel.pipeline().context(writerHandler));
+
+        connection.writeAndFlush(Unpooled.buffer().writeByte(1));
+        connection.close();
+        Assert.assertFalse("Channel not closed.", channel.isOpen());
+        Assert.assertEquals("Write before close not flushed.", 1, channel.outboundMessages().size());
+    }
+
+    @Test(timeout = 60000)
+    public void testFlushFromOutsideTheEventLoop() throws Exception {
+        LocalEventLoopGroup group = new LocalEventLoopGroup(1);
+        try {
+            final CountDownLatch receivedAll = new CountDownLatch(2);
+            LocalAddress address = new LocalAddress("flush-consolidator-test");
+            Channel serverChannel = new ServerBootstrap().group(group).channel(LocalServerChannel.class)
+                                                         .childHandler(new ChannelInboundHandlerAdapter() {
+                                                             @Override
+                                                             public void channelRead(ChannelHandlerContext ctx,
+                                                                                     Object msg) throws Exception {
+                                                                 ReferenceCountUtil.release(msg);
+                                                                 receivedAll.countDown();
+                                                             }
+                                                         }).bind(address).sync().channel();
+            ChannelOutboundHandlerAdapter localWriterHandler = new ChannelOutboundHandlerAdapter();
+            Channel clientChannel = new Bootstrap().group(group).channel(LocalChannel.class)
+                                                   .handler(localWriterHandler).connect(address).sync().channel();
+            clientChannel.attr(FlushConsolidator.FLUSH_CONSOLIDATOR_ATTR)
+                         .set(new FlushConsolidator(clientChannel, 10, 1024));
+            DefaultChannelWriter<ByteBuf> writer =
+                    new DefaultChannelWriter<ByteBuf>(clientChannel.pipeline().context(localWriterHandler));
+
+            final CountDownLatch unblockLoop = new CountDownLatch(1);
+            clientChannel.eventLoop().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        unblockLoop.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+            // The second write is queued on the busy event loop behind the flush task scheduled by the first flush.
+            Observable<Void> firstFlush = writer.writeAndFlush(Unpooled.buffer().writeByte(1));
+            Observable<Void> secondFlush = writer.writeAndFlush(Unpooled.buffer().writeByte(2));
+            unblockLoop.countDown();
+
+            firstFlush.toBlockingObservable().lastOrDefault(null);
+            secondFlush.toBlockingObservable().lastOrDefault(null);
+            Assert.assertTrue("Not all writes received.", receivedAll.await(1, TimeUnit.MINUTES));
+
+            clientChannel.close().sync();
+            serverChannel.close().sync();
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).await();
+        }
+    }
+
+    private DefaultChannelWriter<ByteBuf> newWriter(int maxConsolidatedFlushes, long maxConsolidatedBytes) {
+        channel.attr(FlushConsolidator.FLUSH_CONSOLIDATOR_ATTR)
+               .set(new FlushConsolidator(channel, maxConsolidatedFlushes, maxConsolidatedBytes));
+        return new DefaultChannelWriter<ByteBuf>(channel.pipeline().context(writerHandler));
+    }
+
+    private static class FlushCounter extends ChannelOutboundHandlerAdapter {
+
+        private int flushCount;
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            flushCount++;
+            super.flush(ctx);
+        }
+    }
+}
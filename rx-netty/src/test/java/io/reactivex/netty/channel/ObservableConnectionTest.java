@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelOption;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.server.RxServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ObservableConnectionTest {
+
+    private static final int ITEM_SIZE = 1024;
+    private static final int ITEM_COUNT = 10000;
+
+    private RxServer<ByteBuf, ByteBuf> server;
+
+    @After
+    public void tearDown() throws Exception {
+        if (null != server) {
+            server.shutdown();
+            server.waitTillShutdown();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testWriteAllPausesSourceWhenNotWritable() throws Exception {
+        testWriteAllPausesSource(true);
+    }
+
+    @Test(timeout = 60000)
+    public void testWriteAllPausesSourceOnEventLoopWhenNotWritable() throws Exception {
+        testWriteAllPausesSource(false);
+    }
+
+    private void testWriteAllPausesSource(final boolean emitOnNewThread) throws Exception {
+        final AtomicInteger emitted = new AtomicInteger();
+        final CountDownLatch writeAllCompleted = new CountDownLatch(1);
+        final byte[] item = new byte[ITEM_SIZE];
+        server = RxNetty.newTcpServerBuilder(0, new ConnectionHandler<ByteBuf, ByteBuf>() {
+            @Override
+            public Observable<Void> handle(ObservableConnection<ByteBuf, ByteBuf> connection) {
+                Observable<ByteBuf> source = Observable.range(0, ITEM_COUNT).map(new Func1<Integer, ByteBuf>() {
+                    @Override
+                    public ByteBuf call(Integer index) {
+                        return Unpooled.wrappedBuffer(item);
+                    }
+                }).doOnNext(new Action1<ByteBuf>() {
+                    @Override
+                    public void call(ByteBuf byteBuf) {
+                        emitted.incrementAndGet();
+                    }
+                });
+                if (emitOnNewThread) {
+                    source = source.subscribeOn(Schedulers.newThread());
+                }
+                return connection.writeAll(source).doOnCompleted(new Action0() {
+                    @Override
+                    public void call() {
+                        writeAllCompleted.countDown();
+                    }
+                });
+            }
+        }).withWriteBufferWaterMarks(8 * 1024, 32 * 1024)
+          .childChannelOption(ChannelOption.SO_SNDBUF, 8 * 1024)
+          .build().start();
+
+        Socket slowPeer = new Socket();
+        try {
+            slowPeer.setReceiveBufferSize(8 * 1024);
+            slowPeer.connect(new InetSocketAddress("localhost", server.getServerPort()));
+
+            Thread.sleep(500); // Not reading, so that the server's channel becomes unwritable.
+            Assert.assertTrue("Source not paused for a slow peer, items emitted: " + emitted.get(),
+                              emitted.get() < ITEM_COUNT / 2);
+
+            InputStream in = slowPeer.getInputStream();
+            byte[] readBuffer = new byte[8 * 1024];
+            long totalRead = 0;
+            int read;
+            while (totalRead < (long) ITEM_SIZE * ITEM_COUNT && (read = in.read(readBuffer)) >= 0) {
+                totalRead += read;
+            }
+            Assert.assertEquals("Unexpected bytes read.", (long) ITEM_SIZE * ITEM_COUNT, totalRead);
+            Assert.assertTrue("Write all did not complete.", writeAllCompleted.await(1, TimeUnit.MINUTES));
+        } finally {
+            slowPeer.close();
+        }
+    }
+}
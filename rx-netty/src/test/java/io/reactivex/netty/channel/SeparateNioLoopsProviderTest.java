@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.server.RxServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class SeparateNioLoopsProviderTest {
+
+    private RxEventLoopProvider previousProvider;
+    private SeparateNioLoopsProvider provider;
+    private RxServer<ByteBuf, ByteBuf> server;
+
+    @Before
+    public void setUp() throws Exception {
+        provider = new SeparateNioLoopsProvider(1, 2, 2, 10);
+        previousProvider = RxNetty.useEventLoopProvider(provider);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        RxNetty.useEventLoopProvider(previousProvider);
+        if (null != server) {
+            server.shutdown();
+            server.waitTillShutdown();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testServerAndClientUseSeparateLoops() throws Exception {
+        final String[] serverThread = new String[1];
+        server = RxNetty.createTcpServer(0, new ConnectionHandler<ByteBuf, ByteBuf>() {
+            @Override
+            public Observable<Void> handle(ObservableConnection<ByteBuf, ByteBuf> connection) {
+                serverThread[0] = Thread.currentThread().getName();
+                return connection.writeStringAndFlush("Hello");
+            }
+        }).start();
+
+        String clientThread = RxNetty.createTcpClient("localhost", server.getServerPort()).connect()
+                                     .flatMap(new Func1<ObservableConnection<ByteBuf, ByteBuf>, Observable<String>>() {
+                                         @Override
+                                         public Observable<String> call(ObservableConnection<ByteBuf, ByteBuf> connection) {
+                                             return connection.getInput().take(1)
+                                                              .map(new Func1<ByteBuf, String>() {
+                                                                  @Override
+                                                                  public String call(ByteBuf byteBuf) {
+                                                                      return Thread.currentThread().getName();
+                                                                  }
+                                                              });
+                                         }
+                                     }).toBlockingObservable().single();
+
+        Assert.assertTrue("Unexpected server thread: " + serverThread[0], serverThread[0].startsWith("rx-server-selector"));
+        Assert.assertTrue("Unexpected client thread: " + clientThread, clientThread.startsWith("rx-client-selector"));
+        Assert.assertEquals("Unexpected acceptor loops.", 1, provider.getServerAcceptorMetrics().getLoopMetrics().size());
+        Assert.assertEquals("Unexpected server worker loops.", 2,
+                            provider.getServerWorkerMetrics().getLoopMetrics().size());
+        Assert.assertEquals("Unexpected client loops.", 2, provider.getClientMetrics().getLoopMetrics().size());
+    }
+
+    @Test(timeout = 60000)
+    public void testLagAndPendingTasks() throws Exception {
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        final CountDownLatch unblock = new CountDownLatch(1);
+        try {
+            EventLoopGroupMetrics metrics = new EventLoopGroupMetrics(group, 10);
+            group.next().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        unblock.await(); // Block the event loop.
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            for (int i = 0; i < 5; i++) {
+                group.next().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                });
+            }
+
+            // Probes scheduled from outside the event loop may also be pending.
+            Assert.assertTrue("Unexpected pending tasks: " + metrics.getPendingTasks(), metrics.getPendingTasks() >= 5);
+            Thread.sleep(200);
+            unblock.countDown();
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (metrics.getLoopMetrics().get(0).getMaxLagMillis() < 100 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue("Lag of a blocked event loop not observed.",
+                              metrics.getLoopMetrics().get(0).getMaxLagMillis() >= 100);
+        } finally {
+            unblock.countDown();
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).await();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+import rx.schedulers.TestScheduler;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachingHostResolverTest {
+
+    private static final Executor SAME_THREAD_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void testCacheHitAndMiss() throws Exception {
+        StubNameResolver stub = new StubNameResolver().withHost("foo", "10.0.0.1");
+        CachingHostResolver resolver = new CachingHostResolver(stub, SAME_THREAD_EXECUTOR, 60000, 60000);
+
+        Assert.assertNull("Address cached before lookup.", resolver.resolveIfCached("foo"));
+        Assert.assertEquals("Unexpected address.", "10.0.0.1",
+                            resolver.resolve("foo").toBlockingObservable().single().getHostAddress());
+        Assert.assertEquals("Unexpected address.", "10.0.0.1", resolver.resolveIfCached("foo").getHostAddress());
+        resolver.resolve("foo").toBlockingObservable().single();
+
+        Assert.assertEquals("Unexpected lookups.", 1, stub.getLookupCount("foo"));
+        Assert.assertEquals("Unexpected miss count.", 1, resolver.getMissCount());
+        Assert.assertEquals("Unexpected hit count.", 2, resolver.getHitCount());
+    }
+
+    @Test
+    public void testIpLiteralIsNotLookedUp() throws Exception {
+        StubNameResolver stub = new StubNameResolver();
+        CachingHostResolver resolver = new CachingHostResolver(stub, SAME_THREAD_EXECUTOR, 60000, 60000);
+
+        Assert.assertEquals("Unexpected address.", "127.0.0.1", resolver.resolveIfCached("127.0.0.1").getHostAddress());
+        Assert.assertEquals("Unexpected lookups.", 0, stub.getLookupCount("127.0.0.1"));
+    }
+
+    @Test
+    public void testRoundRobinOverAddresses() throws Exception {
+        StubNameResolver stub = new StubNameResolver().withHost("foo", "10.0.0.1", "10.0.0.2");
+        CachingHostResolver resolver = new CachingHostResolver(stub, SAME_THREAD_EXECUTOR, 60000, 60000);
+        resolver.resolve("foo").toBlockingObservable().single();
+
+        List<String> addresses = new ArrayList<String>();
+        for (int i = 0; i < 4; i++) {
+            addresses.add(resolver.resolveIfCached("foo").getHostAddress());
+        }
+        Assert.assertFalse("Addresses not used in turn.", addresses.get(0).equals(addresses.get(1)));
+        Assert.assertEquals("Addresses not used in turn.", addresses.get(0), addresses.get(2));
+        Assert.assertEquals("Addresses not used in turn.", addresses.get(1), addresses.get(3));
+    }
+
+    @Test
+    public void testNegativeCaching() throws Exception {
+        StubNameResolver stub = new StubNameResolver();
+        TestScheduler clock = new TestScheduler();
+        CachingHostResolver resolver = new CachingHostResolver(stub, SAME_THREAD_EXECUTOR, 60000, 200, clock);
+
+        assertUnknownHost(resolver, "bar");
+        assertUnknownHost(resolver, "bar");
+        Assert.assertEquals("Failed lookup not cached.", 1, stub.getLookupCount("bar"));
+        Assert.assertEquals("Unexpected negative hit count.", 1, resolver.getNegativeHitCount());
+
+        stub.withHost("bar", "10.0.0.3");
+        clock.advanceTimeBy(300, TimeUnit.MILLISECONDS);
+        Assert.assertEquals("Negative entry not expired.", "10.0.0.3",
+                            resolver.resolve("bar").toBlockingObservable().single().getHostAddress());
+    }
+
+    @Test
+    public void testExpiryAndBackgroundRefresh() throws Exception {
+        StubNameResolver stub = new StubNameResolver().withHost("foo", "10.0.0.1");
+        TestScheduler clock = new TestScheduler();
+        CachingHostResolver resolver = new CachingHostResolver(stub, SAME_THREAD_EXECUTOR, 500, 500, clock);
+        resolver.resolve("foo").toBlockingObservable().single();
+
+        stub.withHost("foo", "10.0.0.2");
+        clock.advanceTimeBy(420, TimeUnit.MILLISECONDS); // Past the refresh point (80% of TTL) but not expired.
+        Assert.assertEquals("Cached address not served while refreshing.", "10.0.0.1",
+                            resolver.resolveIfCached("foo").getHostAddress());
+        Assert.assertEquals("Entry not refreshed.", 1, resolver.getRefreshCount());
+        Assert.assertEquals("Refreshed address not cached.", "10.0.0.2",
+                            resolver.resolveIfCached("foo").getHostAddress());
+
+        clock.advanceTimeBy(600, TimeUnit.MILLISECONDS);
+        Assert.assertNull("Entry not expired.", resolver.resolveIfCached("foo"));
+    }
+
+    @Test
+    public void testFailedRefreshKeepsAddresses() throws Exception {
+        StubNameResolver stub = new StubNameResolver().withHost("foo", "10.0.0.1");
+        TestScheduler clock = new TestScheduler();
+        CachingHostResolver resolver = new CachingHostResolver(stub, SAME_THREAD_EXECUTOR, 500, 60000, clock);
+        resolver.resolve("foo").toBlockingObservable().single();
+
+        stub.removeHost("foo");
+        clock.advanceTimeBy(420, TimeUnit.MILLISECONDS);
+        resolver.resolveIfCached("foo"); // Triggers a failing refresh.
+        Assert.assertEquals("Valid addresses dropped on refresh failure.", "10.0.0.1",
+                            resolver.resolveIfCached("foo").getHostAddress());
+    }
+
+    private static void assertUnknownHost(CachingHostResolver resolver, String host) {
+        try {
+            resolver.resolve(host).toBlockingObservable().single();
+            Assert.fail("Unknown host resolved.");
+        } catch (RuntimeException e) {
+            Assert.assertTrue("Unexpected error: " + e, e.getCause() instanceof UnknownHostException);
+        }
+    }
+
+    private static class StubNameResolver implements NameResolver {
+
+        private final ConcurrentHashMap<String, InetAddress[]> hosts = new ConcurrentHashMap<String, InetAddress[]>();
+        private final ConcurrentHashMap<String, AtomicInteger> lookups = new ConcurrentHashMap<String, AtomicInteger>();
+
+        private StubNameResolver withHost(String host, String... ipAddresses) throws UnknownHostException {
+            InetAddress[] addresses = new InetAddress[ipAddresses.length];
+            for (int i = 0; i < ipAddresses.length; i++) {
+                addresses[i] = InetAddress.getByName(ipAddresses[i]);
+            }
+            hosts.put(host, addresses);
+            return this;
+        }
+
+        private void removeHost(String host) {
+            hosts.remove(host);
+        }
+
+        private int getLookupCount(String host) {
+            AtomicInteger count = lookups.get(host);
+            return null == count ? 0 : count.get();
+        }
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            lookups.putIfAbsent(host, new AtomicInteger());
+            lookups.get(host).incrementAndGet();
+            InetAddress[] addresses = hosts.get(host);
+            if (null == addresses) {
+                throw new UnknownHostException(host);
+            }
+            return addresses;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.ConnectionHandler;
+import io.reactivex.netty.channel.ObservableConnection;
+import io.reactivex.netty.channel.UnpooledConnectionFactory;
+import io.reactivex.netty.pipeline.PipelineConfigurator;
+import io.reactivex.netty.pipeline.PipelineConfigurators;
+import io.reactivex.netty.pipeline.RxRequiredConfigurator;
+import io.reactivex.netty.server.RxServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.Subscriber;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ClientChannelFactoryImplTest {
+
+    private static final int CONNECT_COUNT = 1000;
+    private static final int CONNECTING_THREADS = 8;
+
+    private RxServer<String, String> server;
+    private EventLoopGroup clientGroup;
+    private ClientChannelFactoryImpl<String, String> factory;
+    private PipelineConfigurator<String, String> configurator;
+
+    @Before
+    public void setUp() throws Exception {
+        server = RxNetty.createTcpServer(0, PipelineConfigurators.textOnlyConfigurator(),
+                                         new ConnectionHandler<String, String>() {
+                                             @Override
+                                             public Observable<Void> handle(ObservableConnection<String, String> newConnection) {
+                                                 return Observable.never(); // Client closes the connection.
+                                             }
+                                         }).start();
+        configurator = PipelineConfigurators.stringMessageConfigurator();
+        clientGroup = new NioEventLoopGroup(4);
+        Bootstrap clientBootstrap = new Bootstrap().group(clientGroup).channel(NioSocketChannel.class);
+        factory = new ClientChannelFactoryImpl<String, String>(clientBootstrap,
+                                                               new UnpooledConnectionFactory<String, String>(),
+                                                               new RxClient.ServerInfo("localhost", server.getServerPort()));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (null != clientGroup) {
+            clientGroup.shutdownGracefully();
+        }
+        if (null != server) {
+            server.shutdown();
+            server.waitTillShutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentConnects() throws Exception {
+        final CountDownLatch connectsDone = new CountDownLatch(CONNECT_COUNT);
+        final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<Throwable>();
+        final Set<Channel> connectedChannels = Collections.newSetFromMap(new ConcurrentHashMap<Channel, Boolean>());
+        final AtomicInteger duplicateNotifications = new AtomicInteger();
+        final AtomicInteger incompletePipelines = new AtomicInteger();
+
+        ExecutorService connectors = Executors.newFixedThreadPool(CONNECTING_THREADS);
+        final AtomicInteger connectsIssued = new AtomicInteger();
+        try {
+            for (int i = 0; i < CONNECTING_THREADS; i++) {
+                connectors.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        while (connectsIssued.incrementAndGet() <= CONNECT_COUNT) {
+                            final int connectIndex = connectsIssued.get();
+                            Runnable connect = new Runnable() {
+                                @Override
+                                public void run() {
+                                    factory.connect(factory.newConnectionHandler(
+                                            new ConnectSubscriber(connectsDone, errors, connectedChannels,
+                                                                  duplicateNotifications, incompletePipelines)),
+                                                    configurator);
+                                }
+                            };
+                            if (0 == connectIndex % 2) {
+                                clientGroup.next().execute(connect); // Registration happens inline on the event loop.
+                            } else {
+                                connect.run();
+                            }
+                        }
+                    }
+                });
+            }
+
+            Assert.assertTrue("Connects did not complete.", connectsDone.await(1, TimeUnit.MINUTES));
+        } finally {
+            connectors.shutdownNow();
+            for (Channel channel : connectedChannels) {
+                channel.close();
+            }
+        }
+
+        Assert.assertTrue("Unexpected connect errors: " + errors, errors.isEmpty());
+        Assert.assertEquals("Connection delivered to more than one subscriber.", 0, duplicateNotifications.get());
+        Assert.assertEquals("Unexpected pipeline configuration.", 0, incompletePipelines.get());
+        Assert.assertEquals("Unexpected number of distinct connections.", CONNECT_COUNT, connectedChannels.size());
+    }
+
+    @Test
+    public void testUnsubscribeBeforeConnectClosesChannel() throws Exception {
+        Subscriber<ObservableConnection<String, String>> subscriber = new Subscriber<ObservableConnection<String, String>>() {
+            @Override
+            public void onCompleted() {
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onNext(ObservableConnection<String, String> connection) {
+                connection.close(); // In case the connect finished before unsubscribe.
+            }
+        };
+        ChannelFuture connectFuture = factory.connect(factory.newConnectionHandler(subscriber), configurator);
+        subscriber.unsubscribe();
+        Assert.assertTrue("Channel not closed after unsubscribe.",
+                          connectFuture.channel().closeFuture().await(1, TimeUnit.MINUTES));
+    }
+
+    private static class ConnectSubscriber extends Subscriber<ObservableConnection<String, String>> {
+
+        private final CountDownLatch connectsDone;
+        private final ConcurrentLinkedQueue<Throwable> errors;
+        private final Set<Channel> connectedChannels;
+        private final AtomicInteger duplicateNotifications;
+        private final AtomicInteger incompletePipelines;
+        private final AtomicInteger notifications = new AtomicInteger();
+
+        private ConnectSubscriber(CountDownLatch connectsDone, ConcurrentLinkedQueue<Throwable> errors,
+                                  Set<Channel> connectedChannels, AtomicInteger duplicateNotifications,
+                                  AtomicInteger incompletePipelines) {
+            this.connectsDone = connectsDone;
+            this.errors = errors;
+            this.connectedChannels = connectedChannels;
+            this.duplicateNotifications = duplicateNotifications;
+            this.incompletePipelines = incompletePipelines;
+        }
+
+        @Override
+        public void onCompleted() {
+            connectsDone.countDown();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            errors.add(e);
+            connectsDone.countDown();
+        }
+
+        @Override
+        public void onNext(ObservableConnection<String, String> connection) {
+            Channel channel = connection.getChannelHandlerContext().channel();
+            if (notifications.incrementAndGet() > 1 || !connectedChannels.add(channel)) {
+                duplicateNotifications.incrementAndGet();
+            }
+            if (null == channel.pipeline().get(RxRequiredConfigurator.CONN_LIFECYCLE_HANDLER_NAME)
+                || null == channel.pipeline().get(RxRequiredConfigurator.NETTY_OBSERVABLE_ADAPTER_NAME)
+                || null != channel.attr(ClientChannelFactoryImpl.CONNECTION_HANDLER_ATTR).get()) {
+                incompletePipelines.incrementAndGet();
+            }
+        }
+    }
+}
@@ -33,6 +33,7 @@ public class CompositeStatsTest {
         stats1.totalCount.incrementAndGet();
         stats1.pendingAcquire.incrementAndGet();
         stats1.pendingRelease.incrementAndGet();
+        stats1.queuedConnects.incrementAndGet();
 
         CompositePoolStats stats = new CompositePoolStats(stats1);
 
@@ -41,6 +42,7 @@ public class CompositeStatsTest {
         Assert.assertEquals("Unexpected total count", 1, stats.getTotalConnectionCount());
         Assert.assertEquals("Unexpected pending acquire count", 1, stats.getPendingAcquireRequestCount());
         Assert.assertEquals("Unexpected pending release count", 1, stats.getPendingReleaseRequestCount());
+        Assert.assertEquals("Unexpected queued connect count", 1, stats.getQueuedConnectCount());
 
         stats.addNewStats(stats1);
 
@@ -50,15 +52,18 @@ public class CompositeStatsTest {
         Assert.assertEquals("Unexpected pending acquire count after adding one more stats.", 2, stats.getPendingAcquireRequestCount());
         Assert.assertEquals("Unexpected pending release count after adding one more stats.", 2,
                             stats.getPendingReleaseRequestCount());
+        Assert.assertEquals("Unexpected queued connect count after adding one more stats.", 2,
+                            stats.getQueuedConnectCount());
     }
 
-    private static class TestablePoolStats implements PoolStats {
+    private static class TestablePoolStats implements QueuedConnectStats {
 
         public final AtomicLong inUse = new AtomicLong();
         public final AtomicLong idleCount = new AtomicLong();
         public final AtomicLong totalCount = new AtomicLong();
         public final AtomicLong pendingAcquire = new AtomicLong();
         public final AtomicLong pendingRelease = new AtomicLong();
+        public final AtomicLong queuedConnects = new AtomicLong();
 
         @Override
         public long getInUseCount() {
@@ -84,5 +89,10 @@ public class CompositeStatsTest {
         public long getPendingReleaseRequestCount() {
             return pendingRelease.get();
         }
+
+        @Override
+        public long getQueuedConnectCount() {
+            return queuedConnects.get();
+        }
     }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentLifoQueueTest {
+
+    @Test
+    public void testLifoOrder() throws Exception {
+        ConcurrentLifoQueue<Integer> queue = new ConcurrentLifoQueue<Integer>();
+        queue.offer(1);
+        queue.offer(2);
+        queue.offer(3);
+
+        Assert.assertEquals("Unexpected size.", 3, queue.size());
+        Assert.assertEquals("Unexpected peek.", Integer.valueOf(3), queue.peek());
+        Assert.assertEquals("Unexpected poll.", Integer.valueOf(3), queue.poll());
+        Assert.assertEquals("Unexpected poll.", Integer.valueOf(2), queue.poll());
+        Assert.assertEquals("Unexpected poll.", Integer.valueOf(1), queue.poll());
+        Assert.assertNull("Poll on empty queue returned an element.", queue.poll());
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        ConcurrentLifoQueue<Integer> queue = new ConcurrentLifoQueue<Integer>();
+        queue.offer(1);
+        queue.offer(2);
+        queue.offer(3);
+
+        Assert.assertTrue("Element not removed.", queue.remove(2));
+        Assert.assertFalse("Removed element removed again.", queue.remove(2));
+        Assert.assertEquals("Unexpected size post remove.", 2, queue.size());
+
+        Iterator<Integer> iterator = queue.iterator();
+        Assert.assertEquals("Unexpected first element.", Integer.valueOf(3), iterator.next());
+        iterator.remove();
+        Assert.assertEquals("Unexpected second element.", Integer.valueOf(1), iterator.next());
+        Assert.assertFalse("Unexpected element.", iterator.hasNext());
+
+        Assert.assertEquals("Unexpected poll post remove.", Integer.valueOf(1), queue.poll());
+        Assert.assertTrue("Queue not empty.", queue.isEmpty());
+    }
+
+    @Test
+    public void testPurgeRetainsOrder() throws Exception {
+        ConcurrentLifoQueue<Integer> queue = new ConcurrentLifoQueue<Integer>();
+        for (int i = 0; i < 200; i++) {
+            queue.offer(i);
+        }
+        for (int i = 0; i < 200; i += 2) {
+            Assert.assertTrue("Element not removed.", queue.remove(i)); // Crosses the purge threshold.
+        }
+
+        Assert.assertEquals("Unexpected size post purge.", 100, queue.size());
+        for (int i = 199; i > 0; i -= 2) {
+            Assert.assertEquals("Unexpected poll post purge.", Integer.valueOf(i), queue.poll());
+        }
+        Assert.assertNull("Poll on empty queue returned an element.", queue.poll());
+    }
+
+    @Test
+    public void testConcurrentOfferPoll() throws Exception {
+        final ConcurrentLifoQueue<Integer> queue = new ConcurrentLifoQueue<Integer>();
+        final int threads = 4;
+        final int perThread = 10000;
+        final AtomicInteger polled = new AtomicInteger();
+        final AtomicInteger removed = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        queue.offer(i);
+                        if (null != queue.poll()) {
+                            polled.incrementAndGet();
+                        }
+                        if (i % 10 == 0) {
+                            queue.offer(i);
+                            if (queue.remove(i)) { // Can fail if another thread polled it.
+                                removed.incrementAndGet();
+                            }
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+
+        while (null != queue.poll()) {
+            polled.incrementAndGet();
+        }
+        Assert.assertEquals("Elements lost or duplicated.", threads * perThread + threads * perThread / 10,
+                            polled.get() + removed.get());
+    }
+}
@@ -16,9 +16,12 @@
 package io.reactivex.netty.client;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoop;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.HashedWheelTimer;
 import io.reactivex.netty.ChannelCloseListener;
 import io.reactivex.netty.RxNetty;
 import io.reactivex.netty.channel.ConnectionHandler;
@@ -36,12 +39,21 @@ import org.junit.rules.TestName;
 import rx.Observable;
 import rx.Subscriber;
 import rx.functions.Action0;
+import rx.functions.Action1;
 
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Nitesh Kant
@@ -146,6 +158,36 @@ public class ConnectionPoolTest {
         assertAllConnectionsReturned();
     }
 
+    @Test
+    public void testReuseFromCallersEventLoop() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        strategy.incrementMaxConnections(1);
+
+        PooledConnection<String, String> connection1 =
+                (PooledConnection<String, String>) pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+        final PooledConnection<String, String> connection2 =
+                (PooledConnection<String, String>) pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+
+        EventLoop eventLoop2 = connection2.getChannelHandlerContext().channel().eventLoop();
+        Assert.assertNotSame("Both connections registered with the same event loop.",
+                             connection1.getChannelHandlerContext().channel().eventLoop(), eventLoop2);
+
+        connection2.close();
+        connection1.close();
+
+        ObservableConnection<String, String> reusedConn = eventLoop2.submit(new Callable<ObservableConnection<String, String>>() {
+            @Override
+            public ObservableConnection<String, String> call() throws Exception {
+                return pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+            }
+        }).get(1, TimeUnit.MINUTES);
+
+        Assert.assertSame("Connection from the caller's event loop not reused.", connection2, reusedConn);
+
+        ObservableConnection<String, String> stolenConn = pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+        Assert.assertSame("Connection from other event loop not stolen.", connection1, stolenConn);
+    }
+
     @Test
     public void testCloseExpiredConnection() throws Exception {
         serverConnHandler.closeNewConnectionsOnReceive(false);
@@ -318,6 +360,70 @@ public class ConnectionPoolTest {
         assertAllConnectionsReturned();
     }
 
+    @Test
+    public void testPendingAcquireGetsReleasedConnection() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        recreatePool(new PoolConfig(MAX_IDLE_TIME_MILLIS, 1, PoolConfig.NO_TIMEOUT), null);
+
+        PooledConnection<String, String> connection = (PooledConnection<String, String>) acquireAndTestStats();
+
+        final CountDownLatch acquireLatch = new CountDownLatch(1);
+        final AtomicReference<ObservableConnection<String, String>> pendingConn =
+                new AtomicReference<ObservableConnection<String, String>>();
+        pool.acquire(pipelineConfigurator).subscribe(new Action1<ObservableConnection<String, String>>() {
+            @Override
+            public void call(ObservableConnection<String, String> conn) {
+                pendingConn.set(conn);
+                acquireLatch.countDown();
+            }
+        });
+
+        Assert.assertEquals("Unexpected pending acquire count.", 1, stats.getPendingAcquireRequestCount());
+        Assert.assertNull("Pending acquire got a connection before release.", pendingConn.get());
+
+        try {
+            pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+            throw new AssertionError("Acquire did not fail when max pending acquires were reached.");
+        } catch (Exception e) {
+            Assert.assertTrue("Unexpected acquire failure.", e.getCause() instanceof PoolExhaustedException); // Blocking observable wraps checked exceptions.
+        }
+
+        connection.close();
+
+        Assert.assertTrue("Pending acquire did not get a connection.", acquireLatch.await(1, TimeUnit.MINUTES));
+        Assert.assertSame("Pending acquire did not get the released connection.", connection, pendingConn.get());
+        Assert.assertEquals("Unexpected pending acquire count post release.", 0, stats.getPendingAcquireRequestCount());
+        Assert.assertEquals("Unexpected pool idle count post release.", 0, stats.getIdleCount());
+        Assert.assertEquals("Unexpected pool in-use count post release.", 1, stats.getInUseCount());
+    }
+
+    @Test
+    public void testPendingAcquireTimeout() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        recreatePool(new PoolConfig(MAX_IDLE_TIME_MILLIS, 1, 100), Executors.newScheduledThreadPool(1));
+
+        acquireAndTestStats();
+
+        final CountDownLatch errorLatch = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        pool.acquire(pipelineConfigurator).subscribe(new Action1<ObservableConnection<String, String>>() {
+            @Override
+            public void call(ObservableConnection<String, String> conn) {
+                // Should not get a connection.
+            }
+        }, new Action1<Throwable>() {
+            @Override
+            public void call(Throwable throwable) {
+                error.set(throwable);
+                errorLatch.countDown();
+            }
+        });
+
+        Assert.assertTrue("Pending acquire did not timeout.", errorLatch.await(1, TimeUnit.MINUTES));
+        Assert.assertTrue("Unexpected pending acquire failure.", error.get() instanceof PoolExhaustedException);
+        Assert.assertEquals("Unexpected pending acquire count post timeout.", 0, stats.getPendingAcquireRequestCount());
+    }
+
     @Test
     public void testIdleCleanupThread() throws Exception {
         pool.shutdown();
@@ -335,6 +441,326 @@ public class ConnectionPoolTest {
         assertAllConnectionsReturned();
     }
 
+    @Test
+    public void testIdleTimerEviction() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        try {
+            pool.shutdown();
+            pool = new ConnectionPoolImpl<String, String>(new PoolConfig(1500), strategy, null, new PoolStatsImpl(), timer);
+            pool.setChannelFactory(new ClientChannelFactoryImpl<String, String>(clientBootstrap, pool, serverInfo));
+            pool.poolStateChangeObservable().subscribe(stateChangeListener);
+            stats = pool.getStats();
+
+            ObservableConnection<String, String> connection = acquireAndTestStats();
+            connection.close();
+            PooledConnection<String, String> reusedConn = (PooledConnection<String, String>) acquireAndTestStats(); // Cancels the eviction.
+            Assert.assertSame("Connection not reused.", connection, reusedConn);
+
+            Thread.sleep(2000);
+            Assert.assertEquals("Connection in use evicted.", 1, stats.getInUseCount());
+            Assert.assertEquals("Unexpected eviction count for connection in use.", 0, stateChangeListener.getEvictionCount());
+
+            reusedConn.setLastReturnToPoolTimeMillis(System.currentTimeMillis()); // Else, it is discarded on release for being in use longer than the idle time.
+            reusedConn.close();
+            Assert.assertEquals("Connection not returned to the pool.", 1, stats.getIdleCount());
+
+            waitForClose();
+            assertAllConnectionsReturned();
+            Assert.assertEquals("Unexpected eviction count post idle timeout.", 1, stateChangeListener.getEvictionCount());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testIdleConnectionDiscardedOnAcquireIsNotEvictedAgainByTimer() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        try {
+            pool.shutdown();
+            pool = new ConnectionPoolImpl<String, String>(new PoolConfig(500), strategy, null, new PoolStatsImpl(), timer);
+            pool.setChannelFactory(new ClientChannelFactoryImpl<String, String>(clientBootstrap, pool, serverInfo));
+            pool.poolStateChangeObservable().subscribe(stateChangeListener);
+            stats = pool.getStats();
+
+            PooledConnection<String, String> connection = (PooledConnection<String, String>) acquireAndTestStats();
+            connection.close();
+            connection.setLastReturnToPoolTimeMillis(0); // Unusable while its idle eviction timeout is pending.
+
+            ObservableConnection<String, String> newConnection = acquireAndTestStats();
+            Assert.assertNotSame("Unusable connection reused.", connection, newConnection);
+            Assert.assertEquals("Unexpected eviction count.", 1, stateChangeListener.getEvictionCount());
+
+            Thread.sleep(1000); // Past the idle eviction timeout of the discarded connection.
+            Assert.assertEquals("Discarded connection evicted again.", 1, stateChangeListener.getEvictionCount());
+            Assert.assertEquals("Eviction released an extra permit.", 0, strategy.getAvailablePermits());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testLifoSelectionShrinksPoolAfterSpike() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        strategy.incrementMaxConnections(3);
+        HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS);
+        try {
+            pool.shutdown();
+            pool = new ConnectionPoolImpl<String, String>(new PoolConfig(1000, 0, PoolConfig.NO_TIMEOUT,
+                                                                         PoolConfig.IdleSelectionPolicy.Lifo),
+                                                          strategy, null, new PoolStatsImpl(), timer);
+            pool.setChannelFactory(new ClientChannelFactoryImpl<String, String>(clientBootstrap, pool, serverInfo));
+            stats = pool.getStats();
+
+            List<ObservableConnection<String, String>> spike = new ArrayList<ObservableConnection<String, String>>();
+            for (int i = 0; i < 4; i++) {
+                spike.add(pool.acquire(pipelineConfigurator).toBlockingObservable().last());
+            }
+            for (ObservableConnection<String, String> connection : spike) {
+                connection.close();
+            }
+            Assert.assertEquals("Unexpected pool idle count post spike.", 4, stats.getIdleCount());
+
+            long steadyStateEnd = System.currentTimeMillis() + 2500;
+            while (System.currentTimeMillis() < steadyStateEnd) {
+                pool.acquire(pipelineConfigurator).toBlockingObservable().last().close();
+                Thread.sleep(20);
+            }
+
+            Assert.assertEquals("Surplus connections did not expire.", 1, stats.getTotalConnectionCount());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testMinIdleWarmUpAndRefill() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        strategy.incrementMaxConnections(2);
+        recreatePool(new PoolConfig(MAX_IDLE_TIME_MILLIS, 0, PoolConfig.NO_TIMEOUT,
+                                    PoolConfig.IdleSelectionPolicy.Fifo, 2), null);
+
+        pool.setBackgroundConnectConfigurator(pipelineConfigurator).toBlockingObservable().lastOrDefault(null);
+        Assert.assertEquals("Min idle connections not opened.", 2, stats.getIdleCount());
+
+        pool.warmUp(5).toBlockingObservable().lastOrDefault(null);
+        Assert.assertEquals("Warm up exceeded the pool limit.", 3, stats.getIdleCount());
+        Assert.assertEquals("Unexpected total connections post warm up.", 3, stats.getTotalConnectionCount());
+
+        while (serverConnHandler.lastReceivedConnection.size() < 3) {
+            Thread.sleep(10); // Server side registration of the connections can lag the client.
+        }
+        serverConnHandler.closeAllClientConnections();
+
+        long refillDeadline = System.currentTimeMillis() + 10000;
+        while (stateChangeListener.getEvictionCount() < 3 || stats.getIdleCount() < 2) {
+            if (System.currentTimeMillis() > refillDeadline) {
+                throw new AssertionError("Min idle connections not refilled post eviction. Idle count: "
+                                         + stats.getIdleCount());
+            }
+            Thread.sleep(10);
+        }
+        Assert.assertEquals("Refill opened more than the min idle connections.", 2, stats.getTotalConnectionCount());
+    }
+
+    @Test
+    public void testMinIdleRefillDoesNotTakeThePermitOfAcquire() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        recreatePool(new PoolConfig(MAX_IDLE_TIME_MILLIS, 0, PoolConfig.NO_TIMEOUT,
+                                    PoolConfig.IdleSelectionPolicy.Fifo, 1), null);
+        pool.setBackgroundConnectConfigurator(pipelineConfigurator).toBlockingObservable().lastOrDefault(null);
+
+        PooledConnection<String, String> connection = (PooledConnection<String, String>) acquireAndTestStats();
+        connection.close();
+        connection.setLastReturnToPoolTimeMillis(0); // Discarded by the next acquire.
+
+        ObservableConnection<String, String> newConnection = acquireAndTestStats();
+        Assert.assertNotSame("Unusable connection reused.", connection, newConnection);
+        Assert.assertEquals("Unexpected eviction count.", 1, stateChangeListener.getEvictionCount());
+        Assert.assertEquals("Unexpected total connections.", 1, stats.getTotalConnectionCount());
+    }
+
+    @Test
+    public void testReleaseDiscardsConnectionOverReducedLimit() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        strategy.incrementMaxConnections(1);
+
+        ObservableConnection<String, String> connection1 = pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+        ObservableConnection<String, String> connection2 = pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+
+        strategy.decrementMaxConnections(1);
+        connection1.close();
+        Assert.assertEquals("Connection over the limit not discarded.", 0, stats.getIdleCount());
+        Assert.assertEquals("Unexpected eviction count.", 1, stateChangeListener.getEvictionCount());
+
+        connection2.close();
+        Assert.assertEquals("Connection within the limit not returned to the pool.", 1, stats.getIdleCount());
+        Assert.assertEquals("Unexpected total connection count.", 1, stats.getTotalConnectionCount());
+    }
+
+    @Test
+    public void testLatencyHistograms() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+
+        ObservableConnection<String, String> connection = pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+        connection.close();
+        connection = pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+
+        PoolLatencyStats.Snapshot snapshot = pool.getLatencySnapshot(true);
+        Assert.assertEquals("Unexpected acquire latency count.", 2, snapshot.getAcquireLatency().getCount());
+        Assert.assertEquals("Unexpected connect latency count.", 1, snapshot.getConnectLatency().getCount());
+        Assert.assertTrue("Connect latency not recorded.", snapshot.getConnectLatency().getMax() > 0);
+        Assert.assertEquals("Unexpected age at reuse count.", 1, snapshot.getConnectionAgeAtReuse().getCount());
+        Assert.assertEquals("Unexpected lifetime count.", 0, snapshot.getConnectionLifetime().getCount());
+
+        ((PooledConnection<String, String>) connection).closeUnderlyingChannel().toBlockingObservable()
+                                                       .lastOrDefault(null);
+        connection.close(); // Discards the connection as it is closed.
+        snapshot = pool.getLatencySnapshot(false);
+        Assert.assertEquals("Histograms not reset.", 0, snapshot.getAcquireLatency().getCount());
+        Assert.assertEquals("Unexpected lifetime count.", 1, snapshot.getConnectionLifetime().getCount());
+    }
+
+    @Test
+    public void testConnectsOverConcurrencyLimitAreQueued() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        strategy.incrementMaxConnections(2);
+        recreatePool(new PoolConfig(MAX_IDLE_TIME_MILLIS, 0, PoolConfig.NO_TIMEOUT, PoolConfig.IdleSelectionPolicy.Fifo,
+                                    0, 1, PoolConfig.NO_CONNECT_BACKOFF, PoolConfig.NO_CONNECT_BACKOFF), null);
+        DeferredConnectChannelFactory channelFactory =
+                new DeferredConnectChannelFactory(new ClientChannelFactoryImpl<String, String>(clientBootstrap, pool,
+                                                                                               serverInfo));
+        pool.setChannelFactory(channelFactory);
+
+        Future<ObservableConnection<String, String>> first = pool.acquire(pipelineConfigurator).toBlockingObservable().toFuture();
+        Future<ObservableConnection<String, String>> second = pool.acquire(pipelineConfigurator).toBlockingObservable().toFuture();
+        Future<ObservableConnection<String, String>> third = pool.acquire(pipelineConfigurator).toBlockingObservable().toFuture();
+        Assert.assertEquals("Unexpected connects in progress.", 1, channelFactory.deferredConnects.size());
+        Assert.assertEquals("Unexpected queued connects.", 2, ((QueuedConnectStats) stats).getQueuedConnectCount());
+
+        channelFactory.connectNext();
+        ObservableConnection<String, String> connection1 = first.get(1, TimeUnit.MINUTES);
+        Assert.assertEquals("Queued connect not started after a connect finished.", 1,
+                            channelFactory.deferredConnects.size());
+        Assert.assertEquals("Unexpected queued connects.", 1, ((QueuedConnectStats) stats).getQueuedConnectCount());
+
+        connection1.close();
+        ObservableConnection<String, String> connection3 = third.get(1, TimeUnit.MINUTES);
+        Assert.assertSame("Queued connect did not get the released connection.",
+                          connection1.getChannelHandlerContext().channel(),
+                          connection3.getChannelHandlerContext().channel());
+        Assert.assertEquals("Unexpected queued connects.", 0, ((QueuedConnectStats) stats).getQueuedConnectCount());
+
+        channelFactory.connectNext();
+        second.get(1, TimeUnit.MINUTES);
+        Assert.assertEquals("Unexpected total connections.", 2, stats.getTotalConnectionCount());
+        Assert.assertTrue("Unexpected connects.", channelFactory.deferredConnects.isEmpty());
+    }
+
+    @Test
+    public void testAdaptiveLimitKeptWhenQueuedConnectsServedByRelease() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        AdaptiveConcurrencyLimitStrategy adaptiveStrategy = new AdaptiveConcurrencyLimitStrategy(10, 1, 100);
+        pool.shutdown();
+        pool = new ConnectionPoolImpl<String, String>(
+                new PoolConfig(MAX_IDLE_TIME_MILLIS, 0, PoolConfig.NO_TIMEOUT, PoolConfig.IdleSelectionPolicy.Fifo, 0, 1,
+                               PoolConfig.NO_CONNECT_BACKOFF, PoolConfig.NO_CONNECT_BACKOFF), adaptiveStrategy, null);
+        DeferredConnectChannelFactory channelFactory =
+                new DeferredConnectChannelFactory(new ClientChannelFactoryImpl<String, String>(clientBootstrap, pool,
+                                                                                               serverInfo));
+        pool.setChannelFactory(channelFactory);
+        stats = pool.getStats();
+
+        Future<ObservableConnection<String, String>> first = pool.acquire(pipelineConfigurator).toBlockingObservable().toFuture();
+        Future<ObservableConnection<String, String>> second = pool.acquire(pipelineConfigurator).toBlockingObservable().toFuture();
+        Future<ObservableConnection<String, String>> third = pool.acquire(pipelineConfigurator).toBlockingObservable().toFuture();
+        pool.acquire(pipelineConfigurator).subscribe(new Subscriber<ObservableConnection<String, String>>() {
+            @Override
+            public void onCompleted() {
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onNext(ObservableConnection<String, String> connection) {
+            }
+        }).unsubscribe(); // Cancelled while queued.
+        Assert.assertEquals("Unexpected queued connects.", 2, ((QueuedConnectStats) stats).getQueuedConnectCount());
+
+        channelFactory.connectNext();
+        first.get(1, TimeUnit.MINUTES).close(); // Serves the third acquire, queued behind the second.
+        third.get(1, TimeUnit.MINUTES);
+        channelFactory.connectNext();
+        second.get(1, TimeUnit.MINUTES);
+
+        Assert.assertEquals("Limit changed by permits returned without a connect.", 10, adaptiveStrategy.getLimit());
+        Assert.assertEquals("Unexpected available permits.", 8, adaptiveStrategy.getAvailablePermits());
+    }
+
+    @Test
+    public void testConnectBackoff() throws Exception {
+        recreatePool(new PoolConfig(MAX_IDLE_TIME_MILLIS, 0, PoolConfig.NO_TIMEOUT, PoolConfig.IdleSelectionPolicy.Fifo,
+                                    0, PoolConfig.NO_CONNECT_LIMIT, 60000, 60000), null);
+        ServerSocket socket = new ServerSocket(0);
+        int unusedPort = socket.getLocalPort();
+        socket.close();
+        pool.setChannelFactory(new ClientChannelFactoryImpl<String, String>(clientBootstrap, pool,
+                                                                            new RxClient.ServerInfo("localhost", unusedPort)));
+
+        try {
+            pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+            throw new AssertionError("Connect to a closed port did not fail.");
+        } catch (RuntimeException e) {
+            Assert.assertEquals("Did not receive a connect failed callback.", 1, stateChangeListener.getFailedCount());
+        }
+
+        try {
+            pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+            throw new AssertionError("Acquire during connect backoff did not fail.");
+        } catch (RuntimeException e) {
+            Assert.assertTrue("Unexpected error: " + e.getCause(), e.getCause() instanceof ConnectException);
+            Assert.assertTrue("Unexpected error: " + e.getCause(), e.getCause().getMessage().contains("backed off"));
+            Assert.assertEquals("Connect attempted during backoff.", 1, stateChangeListener.getFailedCount());
+        }
+    }
+
+    @Test
+    public void testMaxReuseCountRetiresConnectionOnRelease() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        recreatePool(new PoolConfig.Builder().maxIdleTimeMillis(MAX_IDLE_TIME_MILLIS).maxReuseCount(1).build(), null);
+
+        ObservableConnection<String, String> connection = pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+        connection.close();
+        Assert.assertEquals("Connection not returned to the pool.", 1, stats.getIdleCount());
+
+        ObservableConnection<String, String> reused = pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+        Assert.assertSame("Connection not reused.", connection, reused);
+        reused.close();
+        Assert.assertEquals("Connection past the reuse count returned to the pool.", 0, stats.getIdleCount());
+        Assert.assertEquals("Unexpected total connections.", 0, stats.getTotalConnectionCount());
+        Assert.assertEquals("Unexpected eviction count.", 1, stateChangeListener.getEvictionCount());
+    }
+
+    @Test
+    public void testMaxLifetimeRetiresConnectionOnRelease() throws Exception {
+        serverConnHandler.closeNewConnectionsOnReceive(false);
+        recreatePool(new PoolConfig.Builder().maxIdleTimeMillis(MAX_IDLE_TIME_MILLIS).maxLifetime(200, 100).build(),
+                     null);
+
+        PooledConnection<String, String> connection =
+                (PooledConnection<String, String>) pool.acquire(pipelineConfigurator).toBlockingObservable().last();
+        Assert.assertTrue("New connection is unusable.", connection.isUsable());
+        Thread.sleep(250);
+        Assert.assertFalse("Connection usable after its lifetime.", connection.isUsable());
+
+        connection.close();
+        Assert.assertEquals("Connection past its lifetime returned to the pool.", 0, stats.getIdleCount());
+        Assert.assertEquals("Unexpected total connections.", 0, stats.getTotalConnectionCount());
+    }
+
     @Test
     public void testIdleTimeout() throws Exception {
         serverConnHandler.closeNewConnectionsOnReceive(false);
@@ -348,6 +774,14 @@ public class ConnectionPoolTest {
         Assert.assertFalse("Pooled connection should have been unusable after idle timeout", connection.isUsable());
     }
 
+    private void recreatePool(PoolConfig poolConfig, ScheduledExecutorService cleanupScheduler) {
+        pool.shutdown();
+        pool = new ConnectionPoolImpl<String, String>(poolConfig, strategy, cleanupScheduler);
+        pool.setChannelFactory(new ClientChannelFactoryImpl<String, String>(clientBootstrap, pool, serverInfo));
+        pool.poolStateChangeObservable().subscribe(stateChangeListener);
+        stats = pool.getStats();
+    }
+
     private void waitForClose() throws InterruptedException {
         if (!channelCloseListener.waitForClose(3, TimeUnit.MINUTES)) {
             throw new AssertionError("Client channel not closed after sufficient wait.");
@@ -377,6 +811,41 @@ public class ConnectionPoolTest {
         return conn;
     }
 
+    /**
+     * Delays every connect till {@link #connectNext()} is called.
+     */
+    private static class DeferredConnectChannelFactory implements ClientChannelFactory<String, String> {
+
+        private final ClientChannelFactory<String, String> delegate;
+        private final ConcurrentLinkedQueue<Runnable> deferredConnects = new ConcurrentLinkedQueue<Runnable>();
+
+        private DeferredConnectChannelFactory(ClientChannelFactory<String, String> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ChannelFuture connect(final ClientConnectionHandler<String, String> connectionHandler,
+                                     final PipelineConfigurator<String, String> pipelineConfigurator) {
+            deferredConnects.add(new Runnable() {
+                @Override
+                public void run() {
+                    delegate.connect(connectionHandler, pipelineConfigurator);
+                }
+            });
+            return null; // Not used by the pool.
+        }
+
+        @Override
+        public ClientConnectionHandler<String, String> newConnectionHandler(
+                Subscriber<? super ObservableConnection<String, String>> subscriber) {
+            return delegate.newConnectionHandler(subscriber);
+        }
+
+        private void connectNext() {
+            deferredConnects.poll().run();
+        }
+    }
+
     private static class ConnectionHandlerImpl implements ConnectionHandler<String, String> {
 
         private final String testId;
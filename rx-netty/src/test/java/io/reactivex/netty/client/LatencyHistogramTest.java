@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketBoundsCoverAllValues() throws Exception {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            Assert.assertTrue("Bucket index out of range for: " + value,
+                              index >= 0 && index < LatencyHistogram.BUCKET_COUNT);
+            long upperBound = LatencyHistogram.bucketUpperBound(index);
+            Assert.assertTrue("Value: " + value + " above its bucket's upper bound: " + upperBound, value <= upperBound);
+            Assert.assertTrue("Bucket too wide for: " + value, upperBound - value <= value / 16);
+        }
+        Assert.assertEquals("Unexpected last bucket.", LatencyHistogram.BUCKET_COUNT - 1,
+                            LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPercentiles() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assert.assertEquals("Unexpected count.", 1000, snapshot.getCount());
+        Assert.assertEquals("Unexpected max.", 1000, snapshot.getMax());
+        Assert.assertEquals("Unexpected mean.", 500.5, snapshot.getMean(), 0.001);
+        assertWithinBucketError(500, snapshot.getValueAtPercentile(50));
+        assertWithinBucketError(990, snapshot.getValueAtPercentile(99));
+        Assert.assertEquals("Unexpected p100.", 1000, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testSnapshotAndReset() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        histogram.record(-5); // Clock went back.
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshotAndReset();
+        Assert.assertEquals("Unexpected count.", 2, snapshot.getCount());
+        Assert.assertEquals("Unexpected p0.", 0, snapshot.getValueAtPercentile(0));
+
+        LatencyHistogram.Snapshot afterReset = histogram.snapshot();
+        Assert.assertEquals("Histogram not reset.", 0, afterReset.getCount());
+        Assert.assertEquals("Max not reset.", 0, afterReset.getMax());
+
+        histogram.record(100);
+        LatencyHistogram.Snapshot combined = snapshot.plus(histogram.snapshot());
+        Assert.assertEquals("Unexpected combined count.", 3, combined.getCount());
+        Assert.assertEquals("Unexpected combined max.", 100, combined.getMax());
+    }
+
+    private static void assertWithinBucketError(long expected, long actual) {
+        Assert.assertTrue("Expected: " + expected + ", actual: " + actual,
+                          actual >= expected && actual - expected <= expected / 16);
+    }
+}
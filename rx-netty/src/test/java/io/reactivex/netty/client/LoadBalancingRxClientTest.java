@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.ConnectionHandler;
+import io.reactivex.netty.channel.ObservableConnection;
+import io.reactivex.netty.pipeline.PipelineConfigurators;
+import io.reactivex.netty.server.RxServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.subjects.BehaviorSubject;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class LoadBalancingRxClientTest {
+
+    private RxServer<String, String> server1;
+    private RxServer<String, String> server2;
+    private RxClient.ServerInfo host1;
+    private RxClient.ServerInfo host2;
+    private BehaviorSubject<List<RxClient.ServerInfo>> hostsSubject;
+    private LoadBalancingRxClient<String, String> client;
+
+    @Before
+    public void setUp() throws Exception {
+        server1 = newServer();
+        server2 = newServer();
+        host1 = new RxClient.ServerInfo("localhost", server1.getServerPort());
+        host2 = new RxClient.ServerInfo("localhost", server2.getServerPort());
+        hostsSubject = BehaviorSubject.create(Arrays.asList(host1, host2));
+        client = new LoadBalancingRxClient<String, String>(hostsSubject,
+                                                           new Func1<RxClient.ServerInfo, RxClient<String, String>>() {
+            @Override
+            public RxClient<String, String> call(RxClient.ServerInfo host) {
+                return new ClientBuilder<String, String>(host.getHost(), host.getPort())
+                        .pipelineConfigurator(PipelineConfigurators.textOnlyConfigurator())
+                        .withMaxConnections(10).build();
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.shutdown();
+        server1.shutdown();
+        server2.shutdown();
+    }
+
+    @Test
+    public void testPicksHostWithLessConnectionsInFlight() throws Exception {
+        List<ObservableConnection<String, String>> connections = new ArrayList<ObservableConnection<String, String>>();
+        for (int i = 0; i < 4; i++) {
+            connections.add(client.connect().toBlockingObservable().last());
+        }
+
+        int onHost1 = 0;
+        for (ObservableConnection<String, String> connection : connections) {
+            if (host1.getPort() == remotePort(connection)) {
+                onHost1++;
+            }
+        }
+        Assert.assertEquals("Connections not spread across hosts.", 2, onHost1);
+        Assert.assertEquals("Unexpected in use connections.", 4, client.getStats().getInUseCount());
+
+        for (ObservableConnection<String, String> connection : connections) {
+            connection.close();
+        }
+        Assert.assertEquals("Connections not returned to the host pools.", 4, client.getStats().getIdleCount());
+    }
+
+    @Test
+    public void testHostMembershipUpdate() throws Exception {
+        Assert.assertEquals("Unexpected hosts.", Arrays.asList(host1, host2), client.getHosts());
+
+        ObservableConnection<String, String> connection = client.connect().toBlockingObservable().last();
+        connection.close();
+        Assert.assertEquals("Unexpected total connections.", 1, client.getStats().getTotalConnectionCount());
+
+        hostsSubject.onNext(Collections.singletonList(host2));
+        Assert.assertEquals("Host not removed.", Collections.singletonList(host2), client.getHosts());
+
+        for (int i = 0; i < 3; i++) {
+            ObservableConnection<String, String> conn = client.connect().toBlockingObservable().last();
+            Assert.assertEquals("Connection to a removed host.", host2.getPort(), remotePort(conn));
+            conn.close();
+        }
+        Assert.assertEquals("Stats of the removed host not removed.", 1, client.getStats().getTotalConnectionCount());
+    }
+
+    @Test
+    public void testConnectFailsWithNoHosts() throws Exception {
+        hostsSubject.onNext(Collections.<RxClient.ServerInfo>emptyList());
+        try {
+            client.connect().toBlockingObservable().last();
+            Assert.fail("Connect succeeded with no hosts.");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+    }
+
+    private static int remotePort(ObservableConnection<String, String> connection) {
+        return ((InetSocketAddress) connection.getChannelHandlerContext().channel().remoteAddress()).getPort();
+    }
+
+    private static RxServer<String, String> newServer() {
+        return RxNetty.createTcpServer(0, PipelineConfigurators.textOnlyConfigurator(),
+                                       new ConnectionHandler<String, String>() {
+                                           @Override
+                                           public Observable<Void> handle(ObservableConnection<String, String> newConnection) {
+                                               return Observable.never(); // Keeps the connection open.
+                                           }
+                                       }).start();
+    }
+}
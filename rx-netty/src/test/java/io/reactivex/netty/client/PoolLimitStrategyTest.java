@@ -18,6 +18,8 @@ package io.reactivex.netty.client;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author Nitesh Kant
  */
@@ -112,4 +114,101 @@ public class PoolLimitStrategyTest {
         Assert.assertEquals("Unexpected available permits.", 0, strategy.getAvailablePermits());
         Assert.assertFalse("Invalid permit acquire success.", strategy.acquireCreationPermit());
     }
+
+    @Test
+    public void testAdaptiveLimitGrowsWhenUsedWithoutQueuing() throws Exception {
+        AdaptiveConcurrencyLimitStrategy strategy = new AdaptiveConcurrencyLimitStrategy(10, 1, 100);
+        useAllPermits(strategy);
+
+        for (int i = 0; i < 50; i++) {
+            strategy.onResponseLatencySample(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        Assert.assertTrue("Limit did not grow with a stable latency.", strategy.getLimit() > 10);
+        Assert.assertEquals("Unexpected min RTT.", 10000, strategy.getMinRttMicros());
+        Assert.assertTrue("Unexpected available permits.", strategy.getAvailablePermits() > 0);
+    }
+
+    @Test
+    public void testAdaptiveLimitDoesNotGrowWhenUnused() throws Exception {
+        AdaptiveConcurrencyLimitStrategy strategy = new AdaptiveConcurrencyLimitStrategy(10, 1, 100);
+
+        for (int i = 0; i < 50; i++) {
+            strategy.onResponseLatencySample(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        Assert.assertEquals("Limit grew without being used.", 10, strategy.getLimit());
+    }
+
+    @Test
+    public void testAdaptiveLimitShrinksOnLatencyIncrease() throws Exception {
+        AdaptiveConcurrencyLimitStrategy strategy = new AdaptiveConcurrencyLimitStrategy(50, 1, 100);
+        useAllPermits(strategy);
+        strategy.onResponseLatencySample(TimeUnit.MILLISECONDS.toNanos(10));
+
+        for (int i = 0; i < 100; i++) {
+            strategy.onResponseLatencySample(TimeUnit.MILLISECONDS.toNanos(100)); // Backend slowdown.
+        }
+
+        Assert.assertTrue("Limit did not shrink on latency increase. Limit: " + strategy.getLimit(),
+                          strategy.getLimit() < 50);
+        Assert.assertTrue("Permits available over the reduced limit.", strategy.getAvailablePermits() < 0);
+        Assert.assertFalse("Invalid permit acquire success.", strategy.acquireCreationPermit());
+    }
+
+    @Test
+    public void testAdaptiveLimitBacksOffOnConnectFailure() throws Exception {
+        AdaptiveConcurrencyLimitStrategy strategy = new AdaptiveConcurrencyLimitStrategy(10, 5, 100);
+        Assert.assertTrue("Invalid permit acquire failure.", strategy.acquireCreationPermit());
+
+        strategy.onNext(PoolInsightProvider.PoolStateChangeEvent.ConnectFailed);
+
+        Assert.assertEquals("Unexpected limit post connect failure.", 9, strategy.getLimit());
+        Assert.assertEquals("Permit not released on connect failure.", 9, strategy.getAvailablePermits());
+
+        for (int i = 0; i < 20; i++) {
+            strategy.onNext(PoolInsightProvider.PoolStateChangeEvent.ConnectFailed);
+        }
+        Assert.assertEquals("Limit dropped below the minimum.", 5, strategy.getLimit());
+    }
+
+    @Test
+    public void testCompositeForwardsLatencySamples() throws Exception {
+        AdaptiveConcurrencyLimitStrategy adaptive = new AdaptiveConcurrencyLimitStrategy(10, 1, 100);
+        CompositePoolLimitDeterminationStrategy strategy =
+                new CompositePoolLimitDeterminationStrategy(new MaxConnectionsBasedStrategy(5), adaptive);
+
+        Assert.assertTrue("Composite not latency aware.", strategy.isLatencyAware());
+        Assert.assertFalse("Composite of static strategies is latency aware.",
+                           new CompositePoolLimitDeterminationStrategy(new MaxConnectionsBasedStrategy()).isLatencyAware());
+
+        strategy.onResponseLatencySample(TimeUnit.MILLISECONDS.toNanos(5));
+        strategy.onConnectLatencySample(TimeUnit.MILLISECONDS.toNanos(1));
+
+        Assert.assertEquals("RTT sample not forwarded.", 5000, adaptive.getSmoothedRttMicros());
+        Assert.assertEquals("Connect latency sample not forwarded.", 1000, adaptive.getSmoothedConnectLatencyMicros());
+        Assert.assertEquals("Unexpected available composite permits.", 5, strategy.getAvailablePermits());
+    }
+
+    @Test
+    public void testCompositeReleasesPermitsOfStrategiesThatAreNotLatencyAware() throws Exception {
+        MaxConnectionsBasedStrategy max = new MaxConnectionsBasedStrategy(5);
+        AdaptiveConcurrencyLimitStrategy adaptive = new AdaptiveConcurrencyLimitStrategy(1, 1, 100);
+        CompositePoolLimitDeterminationStrategy strategy = new CompositePoolLimitDeterminationStrategy(max, adaptive);
+
+        Assert.assertTrue("Invalid permit acquire failure.", strategy.acquireCreationPermit());
+        Assert.assertFalse("Invalid permit acquire success.", strategy.acquireCreationPermit());
+        Assert.assertEquals("Permit not returned on a partial acquire.", 4, max.getAvailablePermits());
+
+        strategy.releaseCreationPermit();
+        Assert.assertEquals("Permit not returned to the static strategy.", 5, max.getAvailablePermits());
+        Assert.assertEquals("Permit not returned to the adaptive strategy.", 1, adaptive.getAvailablePermits());
+        Assert.assertEquals("Limit backed off for an unused permit.", 1, adaptive.getLimit());
+    }
+
+    private static void useAllPermits(AdaptiveConcurrencyLimitStrategy strategy) {
+        while (strategy.acquireCreationPermit()) {
+            strategy.onNext(PoolInsightProvider.PoolStateChangeEvent.onAcquireSucceeded);
+        }
+    }
 }
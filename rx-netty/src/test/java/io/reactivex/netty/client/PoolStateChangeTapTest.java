@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.client;
+
+import io.reactivex.netty.client.PoolInsightProvider.PoolStateChangeEvent;
+import org.junit.Assert;
+import org.junit.Test;
+import rx.Subscriber;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PoolStateChangeTapTest {
+
+    @Test
+    public void testUnsubscribeDuringDelivery() throws Exception {
+        PoolStateChangeTap tap = new PoolStateChangeTap();
+        EventRecorder unsubscribing = new EventRecorder(true);
+        EventRecorder other = new EventRecorder(false);
+        tap.asObservable().subscribe(unsubscribing);
+        tap.asObservable().subscribe(other);
+
+        tap.onNext(PoolStateChangeEvent.onAcquireAttempted);
+        Assert.assertEquals("Unexpected events for the subscriber unsubscribing on delivery.", 1,
+                            unsubscribing.events.size());
+        Assert.assertEquals("Other subscriber missed the event delivered while unsubscribing.", 1, other.events.size());
+
+        tap.onNext(PoolStateChangeEvent.onAcquireSucceeded);
+        Assert.assertEquals("Event delivered after unsubscribe.", 1, unsubscribing.events.size());
+        Assert.assertEquals("Unexpected events for the other subscriber.", 2, other.events.size());
+
+        tap.onCompleted();
+        Assert.assertFalse("Completion delivered after unsubscribe.", unsubscribing.completed);
+        Assert.assertTrue("Other subscriber not completed.", other.completed);
+    }
+
+    @Test
+    public void testSubscribeAfterCompleted() throws Exception {
+        PoolStateChangeTap tap = new PoolStateChangeTap();
+        tap.onNext(PoolStateChangeEvent.onAcquireAttempted);
+        tap.onCompleted();
+
+        EventRecorder late = new EventRecorder(false);
+        tap.asObservable().subscribe(late);
+        Assert.assertTrue("Subscriber after completion not completed.", late.completed);
+
+        tap.onNext(PoolStateChangeEvent.onAcquireSucceeded);
+        Assert.assertTrue("Event delivered after completion.", late.events.isEmpty());
+    }
+
+    private static class EventRecorder extends Subscriber<PoolStateChangeEvent> {
+
+        private final boolean unsubscribeOnEvent;
+        private final List<PoolStateChangeEvent> events = new ArrayList<PoolStateChangeEvent>();
+        private boolean completed;
+
+        private EventRecorder(boolean unsubscribeOnEvent) {
+            this.unsubscribeOnEvent = unsubscribeOnEvent;
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            Assert.fail("Unexpected error: " + e);
+        }
+
+        @Override
+        public void onNext(PoolStateChangeEvent event) {
+            events.add(event);
+            if (unsubscribeOnEvent) {
+                unsubscribe();
+            }
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.pipeline;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpRequestDecoder;
+import io.reactivex.netty.channel.NewRxConnectionEvent;
+import io.reactivex.netty.protocol.http.server.HttpServerRequest;
+import io.reactivex.netty.protocol.http.server.ServerRequestResponseConverter;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observer;
+import rx.Subscriber;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BoundedInputBufferTest {
+
+    private static final int MAX_BUFFERED_MESSAGES = 4;
+
+    private EmbeddedChannel channel;
+    private BoundedInputBuffer inputBuffer;
+    private PublishSubject<ByteBuf> input;
+
+    @Before
+    public void setUp() throws Exception {
+        channel = new EmbeddedChannel(new ObservableAdapter());
+        inputBuffer = new BoundedInputBuffer(channel, MAX_BUFFERED_MESSAGES);
+        channel.attr(BoundedInputBuffer.BOUNDED_INPUT_BUFFER_ATTR).set(inputBuffer);
+        input = PublishSubject.create();
+        channel.pipeline().fireUserEventTriggered(new NewRxConnectionEvent(input));
+    }
+
+    @Test
+    public void testReadsPausedWhenFullWithoutDemand() throws Exception {
+        RecordingSubscriber<ByteBuf> subscriber = new RecordingSubscriber<ByteBuf>();
+        inputBuffer.demandDriven(input).subscribe(subscriber);
+
+        for (int i = 0; i < MAX_BUFFERED_MESSAGES - 1; i++) {
+            channel.writeInbound(Unpooled.buffer().writeByte(i));
+        }
+        Assert.assertTrue("Reads paused before the buffer is full.", channel.config().isAutoRead());
+        Assert.assertTrue("Messages delivered without demand.", subscriber.items.isEmpty());
+
+        channel.writeInbound(Unpooled.buffer().writeByte(MAX_BUFFERED_MESSAGES - 1));
+        Assert.assertFalse("Reads not paused when the buffer is full.", channel.config().isAutoRead());
+        Assert.assertTrue("Buffer not reporting paused reads.", inputBuffer.isReadPaused());
+        Assert.assertEquals("Unexpected buffered messages.", MAX_BUFFERED_MESSAGES, inputBuffer.getBufferedMessages());
+    }
+
+    @Test
+    public void testReadsResumedWhenHalfDrained() throws Exception {
+        RecordingSubscriber<ByteBuf> subscriber = new RecordingSubscriber<ByteBuf>();
+        inputBuffer.demandDriven(input).subscribe(subscriber);
+        List<ByteBuf> written = new ArrayList<ByteBuf>();
+        for (int i = 0; i < MAX_BUFFERED_MESSAGES; i++) {
+            ByteBuf msg = Unpooled.buffer().writeByte(i);
+            written.add(msg);
+            channel.writeInbound(msg);
+        }
+
+        subscriber.requestMore(1);
+        Assert.assertEquals("Unexpected delivered messages.", written.subList(0, 1), subscriber.items);
+        Assert.assertFalse("Reads resumed before draining half the buffer.", channel.config().isAutoRead());
+
+        subscriber.requestMore(1);
+        Assert.assertEquals("Unexpected delivered messages.", written.subList(0, 2), subscriber.items);
+        Assert.assertTrue("Reads not resumed after draining half the buffer.", channel.config().isAutoRead());
+
+        subscriber.requestMore(10);
+        Assert.assertEquals("Unexpected delivered messages.", written, subscriber.items);
+        Assert.assertEquals("Unexpected buffered messages.", 0, inputBuffer.getBufferedMessages());
+        for (ByteBuf msg : written) {
+            Assert.assertEquals("Delivered message not released.", 0, msg.refCnt());
+        }
+    }
+
+    @Test
+    public void testSlowestSubscriberDrivesDelivery() throws Exception {
+        RecordingSubscriber<ByteBuf> slow = new RecordingSubscriber<ByteBuf>();
+        RecordingSubscriber<ByteBuf> fast = new RecordingSubscriber<ByteBuf>();
+        inputBuffer.demandDriven(input).subscribe(slow);
+        inputBuffer.demandDriven(input).subscribe(fast);
+        fast.requestMore(Long.MAX_VALUE);
+        slow.requestMore(1);
+
+        channel.writeInbound(Unpooled.buffer().writeByte(1));
+        channel.writeInbound(Unpooled.buffer().writeByte(2));
+        Assert.assertEquals("Unexpected messages for the slow subscriber.", 1, slow.items.size());
+        Assert.assertEquals("Message delivered beyond the demand of the slow subscriber.", 1, fast.items.size());
+
+        slow.unsubscribe();
+        Assert.assertEquals("Message not delivered once the slow subscriber unsubscribed.", 2, fast.items.size());
+    }
+
+    @Test
+    public void testMessagesWithoutDemandTrackingDeliveredWhenRead() throws Exception {
+        final List<ByteBuf> received = new ArrayList<ByteBuf>();
+        input.subscribe(new Observer<ByteBuf>() {
+            @Override
+            public void onCompleted() {
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onNext(ByteBuf msg) {
+                received.add(msg);
+            }
+        });
+
+        channel.writeInbound(Unpooled.buffer().writeByte(1));
+        Assert.assertEquals("Message not delivered when read.", 1, received.size());
+        Assert.assertEquals("Unexpected buffered messages.", 0, inputBuffer.getBufferedMessages());
+    }
+
+    @Test
+    public void testUnsubscribeReleasesBufferedMessages() throws Exception {
+        RecordingSubscriber<ByteBuf> subscriber = new RecordingSubscriber<ByteBuf>();
+        inputBuffer.demandDriven(input).subscribe(subscriber);
+        ByteBuf msg = Unpooled.buffer().writeByte(1);
+        channel.writeInbound(msg);
+
+        subscriber.unsubscribe();
+        Assert.assertEquals("Buffered message not released after unsubscribe.", 0, msg.refCnt());
+        Assert.assertEquals("Unexpected buffered messages.", 0, inputBuffer.getBufferedMessages());
+    }
+
+    @Test
+    public void testCompletionDeliveredAfterMessages() throws Exception {
+        RecordingSubscriber<ByteBuf> subscriber = new RecordingSubscriber<ByteBuf>();
+        inputBuffer.demandDriven(input).subscribe(subscriber);
+        channel.writeInbound(Unpooled.buffer().writeByte(1));
+        channel.close();
+        channel.runPendingTasks(); // Runs the channelInactive() notification.
+        Assert.assertFalse("Completion delivered before the buffered messages.", subscriber.completed);
+
+        subscriber.requestMore(1);
+        Assert.assertEquals("Unexpected delivered messages.", 1, subscriber.items.size());
+        Assert.assertTrue("Completion not delivered.", subscriber.completed);
+    }
+
+    @Test
+    public void testReadsPausedForAnAsynchronousConsumer() throws Exception {
+        final CountDownLatch consumerBlocked = new CountDownLatch(1);
+        final CountDownLatch releaseConsumer = new CountDownLatch(1);
+        inputBuffer.demandDriven(input).observeOn(Schedulers.newThread()).subscribe(new Observer<ByteBuf>() {
+            @Override
+            public void onCompleted() {
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onNext(ByteBuf msg) {
+                consumerBlocked.countDown();
+                try {
+                    releaseConsumer.await(1, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        try {
+            for (int i = 0; channel.config().isAutoRead() && i < 10000; i++) {
+                channel.writeInbound(Unpooled.buffer().writeByte(i));
+            }
+            Assert.assertTrue("Consumer did not receive any message.", consumerBlocked.await(1, TimeUnit.MINUTES));
+            Assert.assertFalse("Reads not paused for a consumer that does not keep up.",
+                               channel.config().isAutoRead());
+            Assert.assertEquals("Unexpected buffered messages.", MAX_BUFFERED_MESSAGES,
+                                inputBuffer.getBufferedMessages());
+        } finally {
+            releaseConsumer.countDown();
+        }
+    }
+
+    @Test
+    public void testHttpContentDeliveredOnDemand() throws Exception {
+        EmbeddedChannel httpChannel = new EmbeddedChannel(new HttpRequestDecoder(),
+                                                          new ServerRequestResponseConverter(),
+                                                          new ObservableAdapter());
+        BoundedInputBuffer httpBuffer = new BoundedInputBuffer(httpChannel, 2);
+        httpChannel.attr(BoundedInputBuffer.BOUNDED_INPUT_BUFFER_ATTR).set(httpBuffer);
+        final RecordingSubscriber<ByteBuf> content = new RecordingSubscriber<ByteBuf>();
+        httpChannel.pipeline().fireUserEventTriggered(new NewRxConnectionEvent(new Observer<HttpServerRequest<ByteBuf>>() {
+            @Override
+            public void onCompleted() {
+            }
+
+            @Override
+            public void onError(Throwable e) {
+            }
+
+            @Override
+            public void onNext(HttpServerRequest<ByteBuf> request) {
+                // Subscribes after the whole request, including the body, is read.
+                request.getContent().subscribe(content);
+            }
+        }));
+
+        httpChannel.writeInbound(Unpooled.copiedBuffer("POST / HTTP/1.1\r\nContent-Length: 5\r\n\r\nHello",
+                                                       Charset.forName("UTF-8")));
+
+        Assert.assertTrue("Request body delivered without demand.", content.items.isEmpty());
+        Assert.assertEquals("Request body not buffered.", 1, httpBuffer.getBufferedMessages());
+
+        content.requestMore(1);
+
+        Assert.assertEquals("Unexpected request body.", Collections.singletonList("Hello"), content.contents);
+        Assert.assertTrue("Request body not completed.", content.completed);
+        Assert.assertEquals("Unexpected buffered messages.", 0, httpBuffer.getBufferedMessages());
+        Assert.assertTrue("Reads not enabled.", httpChannel.config().isAutoRead());
+    }
+
+    /**
+     * Records the items it receives and only requests explicitly, via {@link #requestMore(long)}.
+     */
+    private static class RecordingSubscriber<T> extends Subscriber<T> {
+
+        private final List<T> items = new ArrayList<T>();
+        private final List<String> contents = new ArrayList<String>();
+        private boolean completed;
+
+        @Override
+        public void onStart() {
+            request(0);
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+
+        @Override
+        public void onError(Throwable e) {
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+            if (item instanceof ByteBuf) {
+                contents.add(((ByteBuf) item).toString(Charset.forName("UTF-8"))); // Released after delivery.
+            }
+        }
+
+        private void requestMore(long n) {
+            request(n);
+        }
+    }
+}
@@ -22,6 +22,7 @@ import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.timeout.ReadTimeoutException;
 import io.reactivex.netty.ChannelCloseListener;
 import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.client.ConnectionPool;
 import io.reactivex.netty.client.PoolConfig;
 import io.reactivex.netty.client.PoolStats;
 import io.reactivex.netty.client.TrackableStateChangeListener;
@@ -254,6 +255,25 @@ public class HttpClientPoolTest {
         return response;
     }
 
+    @Test
+    public void testPoolOptionsDoNotReplaceThePassedPool() throws Exception {
+        client = newHttpClient(1, PoolConfig.DEFAULT_CONFIG.getMaxIdleTimeMillis(), null);
+        ConnectionPool<HttpClientResponse<ByteBuf>, HttpClientRequest<ByteBuf>> pool = client.getConnectionPool();
+
+        HttpClientImpl<ByteBuf, ByteBuf> poolSharingClient =
+                (HttpClientImpl<ByteBuf, ByteBuf>) new HttpClientBuilder<ByteBuf, ByteBuf>("localhost", port)
+                        .connectionPool(pool).withMaxConnections(2).build();
+        Assert.assertSame("Passed connection pool replaced.", pool, poolSharingClient.getConnectionPool());
+
+        try {
+            new HttpClientBuilder<ByteBuf, ByteBuf>("localhost", port).connectionPool(pool).withMaxPendingAcquires(1)
+                                                                     .build();
+            Assert.fail("Pool options accepted along with a connection pool.");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+    }
+
     private void waitForClose() throws InterruptedException {
         if (!channelCloseListener.waitForClose(1, TimeUnit.MINUTES)) {
             throw new AssertionError("Client channel not closed after sufficient wait.");
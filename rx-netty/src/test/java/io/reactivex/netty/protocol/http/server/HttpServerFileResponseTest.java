@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.protocol.http.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.http.HttpContentCompressor;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.pipeline.PipelineConfigurator;
+import io.reactivex.netty.protocol.http.client.HttpClientRequest;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import io.reactivex.netty.server.RxServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.Func2;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.Charset;
+
+public class HttpServerFileResponseTest {
+
+    private static final String FILE_CONTENT = "Hello from a file.";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private File file;
+    private RxServer<HttpServerRequest<ByteBuf>, HttpServerResponse<ByteBuf>> server;
+    private volatile String contentLength;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("rxnetty-file-response", ".txt");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(FILE_CONTENT.getBytes(UTF_8));
+        } finally {
+            out.close();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (null != server) {
+            server.shutdown();
+        }
+        if (null != file) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testFileRegion() throws Exception {
+        server = RxNetty.newHttpServerBuilder(0, new FileRequestHandler(0, file.length())).build().start();
+
+        String content = sendRequest();
+        Assert.assertEquals("Unexpected content length.", String.valueOf(FILE_CONTENT.length()), contentLength);
+        Assert.assertEquals("Unexpected content.", FILE_CONTENT, content);
+    }
+
+    @Test
+    public void testPartialFile() throws Exception {
+        server = RxNetty.newHttpServerBuilder(0, new FileRequestHandler(6, 4)).build().start();
+
+        String content = sendRequest();
+        Assert.assertEquals("Unexpected content length.", "4", contentLength);
+        Assert.assertEquals("Unexpected content.", FILE_CONTENT.substring(6, 10), content);
+    }
+
+    @Test
+    public void testChunkedFileWhenContentIsEncoded() throws Exception {
+        server = RxNetty.newHttpServerBuilder(0, new FileRequestHandler(0, file.length()))
+                        .appendPipelineConfigurator(
+                                new PipelineConfigurator<HttpServerRequest<ByteBuf>, HttpServerResponse<ByteBuf>>() {
+                                    @Override
+                                    public void configureNewPipeline(ChannelPipeline pipeline) {
+                                        pipeline.addLast(new HttpContentCompressor());
+                                    }
+                                }).build().start();
+
+        String content = sendRequest(); // No accept-encoding, so the compressor is a no-op.
+        Assert.assertEquals("Unexpected content length.", String.valueOf(FILE_CONTENT.length()), contentLength);
+        Assert.assertEquals("Unexpected content.", FILE_CONTENT, content);
+    }
+
+    /**
+     * Sends a request and returns the content, after recording the content length header in {@link #contentLength}.
+     */
+    private String sendRequest() {
+        return RxNetty.createHttpClient("localhost", server.getServerPort())
+                      .submit(HttpClientRequest.createGet("/"))
+                      .flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<String>>() {
+                          @Override
+                          public Observable<String> call(HttpClientResponse<ByteBuf> response) {
+                              contentLength = response.getHeaders().get(HttpHeaders.Names.CONTENT_LENGTH);
+                              return response.getContent().map(new Func1<ByteBuf, String>() {
+                                  @Override
+                                  public String call(ByteBuf content) {
+                                      return content.toString(UTF_8);
+                                  }
+                              });
+                          }
+                      }).reduce("", new Func2<String, String, String>() {
+                          @Override
+                          public String call(String soFar, String next) {
+                              return soFar + next;
+                          }
+                      }).toBlockingObservable().single();
+    }
+
+    private class FileRequestHandler implements RequestHandler<ByteBuf, ByteBuf> {
+
+        private final long offset;
+        private final long length;
+
+        private FileRequestHandler(long offset, long length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public Observable<Void> handle(HttpServerRequest<ByteBuf> request, HttpServerResponse<ByteBuf> response) {
+            try {
+                response.writeFile(file, offset, length);
+            } catch (Exception e) {
+                return Observable.error(e);
+            }
+            return response.close();
+        }
+    }
+}
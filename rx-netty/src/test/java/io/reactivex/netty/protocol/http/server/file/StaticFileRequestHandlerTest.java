@@ -0,0 +1,290 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.protocol.http.server.file;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.protocol.http.client.HttpClientRequest;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import io.reactivex.netty.protocol.http.client.HttpResponseHeaders;
+import io.reactivex.netty.protocol.http.server.HttpServerRequest;
+import io.reactivex.netty.protocol.http.server.HttpServerResponse;
+import io.reactivex.netty.server.RxServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func1;
+import rx.functions.Func2;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Date;
+
+public class StaticFileRequestHandlerTest {
+
+    private static final String SMALL_FILE_CONTENT = "Hello from a small file.";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private File root;
+    private File smallFile;
+    private File largeFile;
+    private String largeFileContent;
+    private StaticFileRequestHandler handler;
+    private RxServer<HttpServerRequest<ByteBuf>, HttpServerResponse<ByteBuf>> server;
+
+    @Before
+    public void setUp() throws Exception {
+        root = File.createTempFile("rxnetty-static-files", "");
+        Assert.assertTrue("Could not delete temp file.", root.delete());
+        Assert.assertTrue("Could not create root directory.", root.mkdir());
+        smallFile = writeFile(new File(root, "small.txt"), SMALL_FILE_CONTENT);
+        StringBuilder large = new StringBuilder();
+        while (large.length() < 1024) {
+            large.append("Large file content. ");
+        }
+        largeFileContent = large.toString();
+        largeFile = writeFile(new File(root, "large.txt"), largeFileContent);
+
+        handler = new StaticFileRequestHandler(root, 16, 512, 4096);
+        server = RxNetty.newHttpServerBuilder(0, handler).build().start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (null != server) {
+            server.shutdown();
+        }
+        if (null != handler) {
+            handler.clearCache();
+        }
+        smallFile.delete();
+        largeFile.delete();
+        root.delete();
+    }
+
+    @Test
+    public void testCachedFile() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            Response response = send(HttpClientRequest.createGet("/small.txt"));
+            Assert.assertEquals("Unexpected status.", HttpResponseStatus.OK, response.status);
+            Assert.assertEquals("Unexpected content.", SMALL_FILE_CONTENT, response.content);
+            Assert.assertEquals("Unexpected content type.", "text/plain",
+                                response.headers.get(HttpHeaders.Names.CONTENT_TYPE));
+            Assert.assertNotNull("No ETag.", response.headers.get(HttpHeaders.Names.ETAG));
+        }
+        Assert.assertEquals("Small file not cached.", 1, handler.getCache().getCachedFileCount());
+    }
+
+    @Test
+    public void testUncachedFile() throws Exception {
+        Response response = send(HttpClientRequest.createGet("/large.txt"));
+        Assert.assertEquals("Unexpected status.", HttpResponseStatus.OK, response.status);
+        Assert.assertEquals("Unexpected content length.", String.valueOf(largeFileContent.length()),
+                            response.headers.get(HttpHeaders.Names.CONTENT_LENGTH));
+        Assert.assertEquals("Unexpected content.", largeFileContent, response.content);
+        Assert.assertEquals("Large file cached.", 0, handler.getCache().getCachedFileCount());
+    }
+
+    @Test
+    public void testNotModifiedByETag() throws Exception {
+        String etag = send(HttpClientRequest.createGet("/small.txt")).headers.get(HttpHeaders.Names.ETAG);
+
+        Response response = send(HttpClientRequest.createGet("/small.txt")
+                                                  .withHeader(HttpHeaders.Names.IF_NONE_MATCH, etag));
+        Assert.assertEquals("Unexpected status.", HttpResponseStatus.NOT_MODIFIED, response.status);
+        Assert.assertEquals("Unexpected content.", "", response.content);
+    }
+
+    @Test
+    public void testNotModifiedSince() throws Exception {
+        HttpClientRequest<ByteBuf> request = HttpClientRequest.createGet("/small.txt");
+        request.getHeaders().addDateHeader(HttpHeaders.Names.IF_MODIFIED_SINCE, new Date(smallFile.lastModified() + 1000));
+
+        Response response = send(request);
+        Assert.assertEquals("Unexpected status.", HttpResponseStatus.NOT_MODIFIED, response.status);
+    }
+
+    @Test
+    public void testModifiedSince() throws Exception {
+        HttpClientRequest<ByteBuf> request = HttpClientRequest.createGet("/small.txt");
+        request.getHeaders().addDateHeader(HttpHeaders.Names.IF_MODIFIED_SINCE, new Date(smallFile.lastModified() - 10000));
+
+        Response response = send(request);
+        Assert.assertEquals("Unexpected status.", HttpResponseStatus.OK, response.status);
+        Assert.assertEquals("Unexpected content.", SMALL_FILE_CONTENT, response.content);
+    }
+
+    @Test
+    public void testRange() throws Exception {
+        Response response = send(HttpClientRequest.createGet("/small.txt").withHeader(HttpHeaders.Names.RANGE,
+                                                                                       "bytes=6-9"));
+        Assert.assertEquals("Unexpected status.", HttpResponseStatus.PARTIAL_CONTENT, response.status);
+        Assert.assertEquals("Unexpected content range.", "bytes 6-9/" + SMALL_FILE_CONTENT.length(),
+                            response.headers.get(HttpHeaders.Names.CONTENT_RANGE));
+        Assert.assertEquals("Unexpected content.", SMALL_FILE_CONTENT.substring(6, 10), response.content);
+
+        response = send(HttpClientRequest.createGet("/large.txt").withHeader(HttpHeaders.Names.RANGE, "bytes=-5"));
+        Assert.assertEquals("Unexpected status.", HttpResponseStatus.PARTIAL_CONTENT, response.status);
+        Assert.assertEquals("Unexpected content.", largeFileContent.substring(largeFileContent.length() - 5),
+                            response.content);
+    }
+
+    @Test
+    public void testRangeNotSatisfiable() throws Exception {
+        Response response = send(HttpClientRequest.createGet("/small.txt").withHeader(HttpHeaders.Names.RANGE,
+                                                                                       "bytes=1000-"));
+        Assert.assertEquals("Unexpected status.", HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE,
+                            response.status);
+        Assert.assertEquals("Unexpected content range.", "bytes */" + SMALL_FILE_CONTENT.length(),
+                            response.headers.get(HttpHeaders.Names.CONTENT_RANGE));
+    }
+
+    @Test
+    public void testRangeValueTooLarge() throws Exception {
+        Response response = send(HttpClientRequest.createGet("/small.txt").withHeader(HttpHeaders.Names.RANGE,
+                                                                                       "bytes=99999999999999999999-"));
+        Assert.assertEquals("Unexpected status.", HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE,
+                            response.status);
+
+        response = send(HttpClientRequest.createGet("/small.txt").withHeader(HttpHeaders.Names.RANGE,
+                                                                              "bytes=6-99999999999999999999"));
+        Assert.assertEquals("Unexpected status.", HttpResponseStatus.PARTIAL_CONTENT, response.status);
+        Assert.assertEquals("Unexpected content.", SMALL_FILE_CONTENT.substring(6), response.content);
+    }
+
+    @Test
+    public void testEncodedFileName() throws Exception {
+        File encoded = writeFile(new File(root, "small file+1.txt"), SMALL_FILE_CONTENT);
+        try {
+            Response response = send(HttpClientRequest.createGet("/small%20file%2B1.txt"));
+            Assert.assertEquals("Unexpected status.", HttpResponseStatus.OK, response.status);
+            Assert.assertEquals("Unexpected content.", SMALL_FILE_CONTENT, response.content);
+
+            response = send(HttpClientRequest.createGet("/small%20file+1.txt"));
+            Assert.assertEquals("Unexpected status for a literal '+'.", HttpResponseStatus.OK, response.status);
+        } finally {
+            encoded.delete();
+        }
+        Assert.assertEquals("Unexpected status for an encoded path outside root.", HttpResponseStatus.NOT_FOUND,
+                            send(HttpClientRequest.createGet("/%2E%2E/" + root.getName() + "/%2E%2E/small.txt")).status);
+        Assert.assertEquals("Unexpected status for a malformed encoding.", HttpResponseStatus.NOT_FOUND,
+                            send(HttpClientRequest.createGet("/small%2.txt")).status);
+    }
+
+    @Test
+    public void testHead() throws Exception {
+        Response response = send(HttpClientRequest.create(HttpMethod.HEAD, "/small.txt"));
+        Assert.assertEquals("Unexpected status.", HttpResponseStatus.OK, response.status);
+        Assert.assertNotNull("No ETag.", response.headers.get(HttpHeaders.Names.ETAG));
+        Assert.assertEquals("Unexpected content.", "", response.content);
+    }
+
+    @Test
+    public void testMethodNotAllowed() throws Exception {
+        Response response = send(HttpClientRequest.create(HttpMethod.DELETE, "/small.txt"));
+        Assert.assertEquals("Unexpected status.", HttpResponseStatus.METHOD_NOT_ALLOWED, response.status);
+        Assert.assertEquals("Unexpected allow header.", "GET, HEAD", response.headers.get(HttpHeaders.Names.ALLOW));
+    }
+
+    @Test
+    public void testNotFound() throws Exception {
+        Assert.assertEquals("Unexpected status for missing file.", HttpResponseStatus.NOT_FOUND,
+                            send(HttpClientRequest.createGet("/missing.txt")).status);
+        Assert.assertEquals("Unexpected status for directory.", HttpResponseStatus.NOT_FOUND,
+                            send(HttpClientRequest.createGet("/")).status);
+        Assert.assertEquals("Unexpected status for path outside root.", HttpResponseStatus.NOT_FOUND,
+                            send(HttpClientRequest.createGet("/../" + root.getName() + "/../small.txt")).status);
+    }
+
+    @Test
+    public void testCacheEviction() throws Exception {
+        File other = writeFile(new File(root, "other.txt"), SMALL_FILE_CONTENT);
+        try {
+            MappedFileCache cache = new MappedFileCache(1, 512, 4096);
+            cache.acquire(smallFile, smallFile.length(), smallFile.lastModified()).release();
+            ByteBuf content = cache.acquire(other, other.length(), other.lastModified());
+            Assert.assertEquals("Eldest file not evicted.", 1, cache.getCachedFileCount());
+            Assert.assertEquals("Unexpected cached bytes.", other.length(), cache.getCachedBytes());
+            cache.clear();
+            Assert.assertEquals("Acquired content released by clear.", 1, content.refCnt());
+            content.release();
+        } finally {
+            other.delete();
+        }
+    }
+
+    @Test
+    public void testStaleCacheEntry() throws Exception {
+        MappedFileCache cache = new MappedFileCache(16, 512, 4096);
+        ByteBuf first = cache.acquire(smallFile, smallFile.length(), smallFile.lastModified());
+        ByteBuf stale = cache.acquire(smallFile, smallFile.length(), smallFile.lastModified() + 1000);
+        Assert.assertNotSame("Changed file not re-mapped.", first, stale);
+        Assert.assertEquals("Stale entry not replaced.", 1, cache.getCachedFileCount());
+        Assert.assertEquals("Previous content released while in use.", 1, first.refCnt());
+        first.release();
+        stale.release();
+        cache.clear();
+    }
+
+    private static File writeFile(File file, String content) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes(UTF_8));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private Response send(HttpClientRequest<ByteBuf> request) {
+        final Response toReturn = new Response();
+        toReturn.content = RxNetty.createHttpClient("localhost", server.getServerPort())
+                                  .submit(request)
+                                  .flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<String>>() {
+                                      @Override
+                                      public Observable<String> call(HttpClientResponse<ByteBuf> response) {
+                                          toReturn.status = response.getStatus();
+                                          toReturn.headers = response.getHeaders();
+                                          return response.getContent().map(new Func1<ByteBuf, String>() {
+                                              @Override
+                                              public String call(ByteBuf content) {
+                                                  return content.toString(UTF_8);
+                                              }
+                                          });
+                                      }
+                                  }).reduce("", new Func2<String, String, String>() {
+                                      @Override
+                                      public String call(String soFar, String next) {
+                                          return soFar + next;
+                                      }
+                                  }).toBlockingObservable().single();
+        return toReturn;
+    }
+
+    private static class Response {
+
+        private volatile HttpResponseStatus status;
+        private volatile HttpResponseHeaders headers;
+        private volatile String content;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.serialization;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+
+public class StringTransformerTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    private static final ByteBufAllocator[] ALLOCATORS = {
+            new UnpooledByteBufAllocator(false), new UnpooledByteBufAllocator(true),
+            new PooledByteBufAllocator(false), new PooledByteBufAllocator(true)
+    };
+
+    @Test
+    public void testAscii() throws Exception {
+        assertEncodedAsGetBytes(new StringTransformer(UTF_8), UTF_8, "Hello, world!");
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertEncodedAsGetBytes(new StringTransformer(UTF_8), UTF_8, "");
+    }
+
+    @Test
+    public void testBufferGrowsForMultiByteCharacters() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append("\u00e9\u4e2d\ud83d\ude00"); // 2, 3 and 4 bytes in UTF-8.
+        }
+        assertEncodedAsGetBytes(new StringTransformer(UTF_8), UTF_8, content.toString());
+    }
+
+    @Test
+    public void testUnmappableCharactersAreReplaced() throws Exception {
+        assertEncodedAsGetBytes(new StringTransformer(US_ASCII), US_ASCII, "caf\u00e9 \u4e2d");
+    }
+
+    private static void assertEncodedAsGetBytes(StringTransformer transformer, Charset charset, String content) {
+        byte[] expected = content.getBytes(charset);
+        for (ByteBufAllocator allocator : ALLOCATORS) {
+            for (int i = 0; i < 2; i++) { // Second time with the updated estimate.
+                ByteBuf encoded = transformer.transform(content, allocator);
+                try {
+                    byte[] actual = new byte[encoded.readableBytes()];
+                    encoded.getBytes(encoded.readerIndex(), actual);
+                    Assert.assertArrayEquals("Unexpected encoding with allocator: " + allocator, expected, actual);
+                } finally {
+                    encoded.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.ConnectionHandler;
+import io.reactivex.netty.channel.ObservableConnection;
+import io.reactivex.netty.protocol.http.client.HttpClientRequest;
+import io.reactivex.netty.protocol.http.client.HttpClientResponse;
+import io.reactivex.netty.protocol.http.server.HttpServerRequest;
+import io.reactivex.netty.protocol.http.server.HttpServerResponse;
+import io.reactivex.netty.protocol.http.server.RequestHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class ExecutionStrategyTest {
+
+    private RxServer<?, ?> server;
+    private ExecutorExecutionStrategy strategy;
+
+    @After
+    public void tearDown() throws Exception {
+        if (null != server) {
+            server.shutdown();
+        }
+        if (null != strategy) {
+            strategy.shutdown();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testHttpHandlerOnBoundedPool() throws Exception {
+        strategy = ExecutionStrategy.boundedPool(2, 10);
+        final String[] handlerThread = new String[1];
+        server = RxNetty.newHttpServerBuilder(0, new RequestHandler<ByteBuf, ByteBuf>() {
+            @Override
+            public Observable<Void> handle(HttpServerRequest<ByteBuf> request,
+                                           final HttpServerResponse<ByteBuf> response) {
+                handlerThread[0] = Thread.currentThread().getName();
+                return request.getContent().flatMap(new Func1<ByteBuf, Observable<Void>>() {
+                    @Override
+                    public Observable<Void> call(ByteBuf content) {
+                        return response.writeStringAndFlush(content.toString(Charset.defaultCharset()));
+                    }
+                });
+            }
+        }).withExecutionStrategy(strategy).build().start();
+
+        String content = RxNetty.createHttpClient("localhost", server.getServerPort())
+                                .submit(HttpClientRequest.createPost("/").withContent("Hello"))
+                                .flatMap(new Func1<HttpClientResponse<ByteBuf>, Observable<String>>() {
+                                    @Override
+                                    public Observable<String> call(HttpClientResponse<ByteBuf> response) {
+                                        return response.getContent().map(new Func1<ByteBuf, String>() {
+                                            @Override
+                                            public String call(ByteBuf byteBuf) {
+                                                return byteBuf.toString(Charset.defaultCharset());
+                                            }
+                                        });
+                                    }
+                                }).toBlockingObservable().single();
+
+        Assert.assertEquals("Request content not received by the offloaded handler.", "Hello", content);
+        Assert.assertTrue("Unexpected handler thread: " + handlerThread[0],
+                          handlerThread[0].startsWith("rx-server-handler"));
+        Assert.assertEquals("Unexpected executed count.", 1, strategy.getExecutedCount());
+        Assert.assertEquals("Unexpected rejected count.", 0, strategy.getRejectedCount());
+        Assert.assertTrue("Unexpected max queue wait.",
+                          strategy.getMaxQueueWaitMicros() >= strategy.getMeanQueueWaitMicros());
+    }
+
+    @Test(timeout = 60000)
+    public void testHttpRejectionWith503() throws Exception {
+        strategy = ExecutionStrategy.boundedPool(1, 0);
+        final CountDownLatch handlerStarted = new CountDownLatch(1);
+        final CountDownLatch unblockHandler = new CountDownLatch(1);
+        server = RxNetty.newHttpServerBuilder(0, new RequestHandler<ByteBuf, ByteBuf>() {
+            @Override
+            public Observable<Void> handle(HttpServerRequest<ByteBuf> request, HttpServerResponse<ByteBuf> response) {
+                handlerStarted.countDown();
+                try {
+                    unblockHandler.await(); // Blocking handler, occupies the only worker thread.
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return response.writeStringAndFlush("Done");
+            }
+        }).withExecutionStrategy(strategy).build().start();
+
+        try {
+            RxNetty.createHttpClient("localhost", server.getServerPort())
+                   .submit(HttpClientRequest.createGet("/")).subscribe();
+            Assert.assertTrue("Handler not invoked.", handlerStarted.await(1, TimeUnit.MINUTES));
+
+            HttpClientResponse<ByteBuf> response =
+                    RxNetty.createHttpClient("localhost", server.getServerPort())
+                           .submit(HttpClientRequest.createGet("/")).toBlockingObservable().last();
+
+            Assert.assertEquals("Unexpected response status.", HttpResponseStatus.SERVICE_UNAVAILABLE.code(),
+                                response.getStatus().code());
+            Assert.assertEquals("Unexpected rejected count.", 1, strategy.getRejectedCount());
+        } finally {
+            unblockHandler.countDown();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testHandlerRejectionIsNotMappedTo503() throws Exception {
+        strategy = ExecutionStrategy.boundedPool(1, 10);
+        server = RxNetty.newHttpServerBuilder(0, new RequestHandler<ByteBuf, ByteBuf>() {
+            @Override
+            public Observable<Void> handle(HttpServerRequest<ByteBuf> request, HttpServerResponse<ByteBuf> response) {
+                return Observable.error(new RejectedExecutionException("Deliberate rejection by the handler."));
+            }
+        }).withExecutionStrategy(strategy).build().start();
+
+        HttpClientResponse<ByteBuf> response =
+                RxNetty.createHttpClient("localhost", server.getServerPort())
+                       .submit(HttpClientRequest.createGet("/")).toBlockingObservable().last();
+
+        Assert.assertEquals("Unexpected response status.", HttpResponseStatus.INTERNAL_SERVER_ERROR.code(),
+                            response.getStatus().code());
+        Assert.assertEquals("Unexpected rejected count.", 0, strategy.getRejectedCount());
+    }
+
+    @Test(timeout = 60000)
+    public void testTcpHandlerOffloadDoesNotLoseInput() throws Exception {
+        strategy = ExecutionStrategy.boundedPool(1, 10);
+        final String[] handlerThread = new String[1];
+        server = RxNetty.newTcpServerBuilder(0, new ConnectionHandler<ByteBuf, ByteBuf>() {
+            @Override
+            public Observable<Void> handle(final ObservableConnection<ByteBuf, ByteBuf> connection) {
+                handlerThread[0] = Thread.currentThread().getName();
+                try {
+                    Thread.sleep(100); // Input arriving before the handler subscribes must not be lost.
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return connection.getInput().take(1).flatMap(new Func1<ByteBuf, Observable<Void>>() {
+                    @Override
+                    public Observable<Void> call(ByteBuf byteBuf) {
+                        return connection.writeStringAndFlush(byteBuf.toString(Charset.defaultCharset()));
+                    }
+                });
+            }
+        }).withExecutionStrategy(strategy).build().start();
+
+        String echo = RxNetty.createTcpClient("localhost", server.getServerPort()).connect()
+                             .flatMap(new Func1<ObservableConnection<ByteBuf, ByteBuf>, Observable<String>>() {
+                                 @Override
+                                 public Observable<String> call(ObservableConnection<ByteBuf, ByteBuf> connection) {
+                                     return Observable.concat(
+                                             connection.writeStringAndFlush("Hello").cast(String.class),
+                                             connection.getInput().take(1).map(new Func1<ByteBuf, String>() {
+                                                 @Override
+                                                 public String call(ByteBuf byteBuf) {
+                                                     return byteBuf.toString(Charset.defaultCharset());
+                                                 }
+                                             }));
+                                 }
+                             }).toBlockingObservable().last();
+
+        Assert.assertEquals("Input not received by the offloaded handler.", "Hello", echo);
+        Assert.assertTrue("Unexpected handler thread: " + handlerThread[0],
+                          handlerThread[0].startsWith("rx-server-handler"));
+        Assert.assertEquals("Unexpected executed count.", 1, strategy.getExecutedCount());
+    }
+
+    @Test(timeout = 60000)
+    public void testVirtualThreads() throws Exception {
+        Assume.assumeTrue(ExecutionStrategy.isVirtualThreadsAvailable());
+        strategy = ExecutionStrategy.virtualThreads();
+        String result = strategy.execute(new Func0<Observable<String>>() {
+            @Override
+            public Observable<String> call() {
+                return Observable.just("Done");
+            }
+        }).toBlockingObservable().single();
+        Assert.assertEquals("Unexpected result.", "Done", result);
+        Assert.assertEquals("Unexpected executed count.", 1, strategy.getExecutedCount());
+    }
+
+    @Test
+    public void testIoThreadStrategy() throws Exception {
+        Assert.assertTrue("I/O thread strategy offloads.", ExecutionStrategy.ioThread().executesOnIoThread());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.netty.server;
+
+import io.netty.buffer.ByteBuf;
+import io.reactivex.netty.RxNetty;
+import io.reactivex.netty.channel.ConnectionHandler;
+import io.reactivex.netty.channel.ObservableConnection;
+import io.reactivex.netty.channel.RxEventLoopProvider;
+import io.reactivex.netty.channel.SingleEpollLoopProvider;
+import io.reactivex.netty.channel.SingleNioLoopProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import rx.Observable;
+
+import java.net.ConnectException;
+import java.net.Socket;
+
+public class ReusePortListenersTest {
+
+    private static final ConnectionHandler<ByteBuf, ByteBuf> NO_OP_HANDLER = new ConnectionHandler<ByteBuf, ByteBuf>() {
+        @Override
+        public Observable<Void> handle(ObservableConnection<ByteBuf, ByteBuf> connection) {
+            return connection.close();
+        }
+    };
+
+    private RxEventLoopProvider previousProvider;
+
+    @After
+    public void tearDown() throws Exception {
+        if (null != previousProvider) {
+            RxNetty.useEventLoopProvider(previousProvider);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMultipleListenersRequireEpoll() throws Exception {
+        previousProvider = RxNetty.useEventLoopProvider(new SingleNioLoopProvider());
+        RxNetty.newTcpServerBuilder(0, NO_OP_HANDLER).withReusePortListeners(2).build();
+    }
+
+    @Test(timeout = 60000)
+    public void testMultipleListeners() throws Exception {
+        Assume.assumeNotNull(SingleEpollLoopProvider.reusePortOption());
+        previousProvider = RxNetty.useEventLoopProvider(new SingleEpollLoopProvider());
+
+        RxServer<ByteBuf, ByteBuf> server = RxNetty.newTcpServerBuilder(0, NO_OP_HANDLER).withReusePortListeners(4)
+                                                   .build().start();
+        int port = server.getServerPort();
+        Assert.assertTrue("Unexpected server port.", port > 0);
+        for (int i = 0; i < 16; i++) {
+            new Socket("localhost", port).close();
+        }
+
+        server.shutdown();
+        server.waitTillShutdown();
+        try {
+            new Socket("localhost", port).close();
+            Assert.fail("Connected to a server that is shutdown.");
+        } catch (ConnectException e) {
+            // Expected as all listeners are closed.
+        }
+    }
+}